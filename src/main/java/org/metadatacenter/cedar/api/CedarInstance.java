@@ -36,6 +36,10 @@ public record CedarInstance(@JsonView(FragmentView.class) @JsonProperty("@contex
         return new CedarInstance(context, id, childrenWithoutIds, schemaName, schemaDescription, schemaIsBasedOn, modificationInfo);
     }
 
+    public CedarInstance withSchemaIsBasedOn(CedarId schemaIsBasedOn) {
+        return new CedarInstance(context, id, children, schemaName, schemaDescription, schemaIsBasedOn, modificationInfo);
+    }
+
     public CedarInstance prune(String retain) {
         var pruned = new HashMap<String, CedarInstanceNode>();
         pruned.put(retain, children.get(retain));
@@ -49,6 +49,9 @@ public record CedarTemplate(@JsonProperty("@id") CedarId id,
                                       .map(n -> n.replaceIds(idReplacementMap))
                                       .toList();
         var replacementId = getReplacementId(idReplacementMap);
+        if(replacementId == id && EmbeddedCedarArtifact.isSameInstances(nodes, replacedChildNodes)) {
+            return this;
+        }
         return new CedarTemplate(replacementId, artifactInfo, versionInfo, modificationInfo, replacedChildNodes);
     }
 
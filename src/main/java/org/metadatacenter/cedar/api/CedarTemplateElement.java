@@ -48,6 +48,10 @@ public record CedarTemplateElement(@Nullable @JsonProperty("@id") CedarId id,
                 .map(n -> n.replaceIds(idReplacementMap))
                 .toList();
         var replacementId = getReplacementId(idReplacementMap);
+        // Unchanged elements are kept, so that they can be recognised by identity, for example when caching
+        if(replacementId == id && EmbeddedCedarArtifact.isSameInstances(nodes, replacedChildNodes)) {
+            return this;
+        }
         return new CedarTemplateElement(replacementId, propertyIri, artifactInfo, versionInfo, modificationInfo, replacedChildNodes, supplementaryInfo);
     }
 
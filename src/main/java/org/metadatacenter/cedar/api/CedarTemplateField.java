@@ -22,7 +22,7 @@ import static com.fasterxml.jackson.annotation.JsonProperty.Access.READ_ONLY;
 public record CedarTemplateField(@JsonProperty("@id") CedarId id,
                                  @JsonUnwrapped @JsonProperty(access = READ_ONLY) ArtifactInfo artifactInfo,
                                  @JsonUnwrapped @JsonProperty(access = READ_ONLY) VersionInfo versionInfo,
-                                 @JsonUnwrapped ModificationInfo modificationInfo,
+                                 @JsonUnwrapped @JsonProperty(access = READ_ONLY) ModificationInfo modificationInfo,
                                  @JsonProperty("_valueConstraints") FieldValueConstraints valueConstraints,
                                  @JsonProperty("_ui") FieldUi ui,
                                  @JsonIgnore @Nonnull SupplementaryInfo supplementaryInfo) implements EmbeddableCedarArtifact, CedarSchemaArtifact {
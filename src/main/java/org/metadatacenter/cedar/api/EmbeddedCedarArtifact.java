@@ -5,6 +5,7 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonUnwrapped;
 
 import javax.annotation.Nullable;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -27,7 +28,30 @@ public record EmbeddedCedarArtifact(@JsonUnwrapped EmbeddableCedarArtifact artif
         return artifact.getSchemaDescription();
     }
 
+    /**
+     * Replaces the ids of the embedded artifact and any artifacts that it contains.  If no ids are replaced then this
+     * embedded artifact itself is returned.
+     */
     public EmbeddedCedarArtifact replaceIds(Map<CedarId, CedarId> idReplacementMap) {
-        return new EmbeddedCedarArtifact(artifact.replaceIds(idReplacementMap), multiplicity, visibility, propertyIri);
+        var replacedArtifact = artifact.replaceIds(idReplacementMap);
+        if(replacedArtifact == artifact) {
+            return this;
+        }
+        return new EmbeddedCedarArtifact(replacedArtifact, multiplicity, visibility, propertyIri);
+    }
+
+    /**
+     * Determines whether the specified lists contain the same embedded artifact instances, in the same order.
+     */
+    static boolean isSameInstances(List<EmbeddedCedarArtifact> nodes, List<EmbeddedCedarArtifact> otherNodes) {
+        if(nodes.size() != otherNodes.size()) {
+            return false;
+        }
+        for(int i = 0; i < nodes.size(); i++) {
+            if(nodes.get(i) != otherNodes.get(i)) {
+                return false;
+            }
+        }
+        return true;
     }
 }
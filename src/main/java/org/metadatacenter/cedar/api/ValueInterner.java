@@ -0,0 +1,53 @@
+package org.metadatacenter.cedar.api;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+import javax.annotation.Nullable;
+
+/**
+ * Matthew Horridge
+ * Stanford Center for Biomedical Informatics Research
+ * 2026-10-17
+ * <p>
+ * Interns immutable values, such as constraint records, field UI records and term lists, so that equal values share
+ * a single instance.  Large templates contain thousands of fields whose constraints and UI objects are identical,
+ * and sharing these reduces the heap footprint of a translated template.  Values are weakly referenced, so values
+ * that are no longer used can be garbage collected.  Only values with value based equality (records, immutable
+ * lists) should be interned.  Each class of value has its own interner, so a value is never replaced by an equal value
+ * of a different class, such as a list from {@link java.util.List#of} by an equal list from
+ * {@link java.util.stream.Stream#toList()}.  This class is thread-safe.
+ */
+public final class ValueInterner {
+
+    private static final ValueInterner shared = new ValueInterner();
+
+    private final ClassValue<Interner<Object>> interners = new ClassValue<>() {
+        @Override
+        protected Interner<Object> computeValue(Class<?> type) {
+            return Interners.newWeakInterner();
+        }
+    };
+
+    /**
+     * Gets the interner that is shared by the parsers and generators in the current process
+     */
+    public static ValueInterner shared() {
+        return shared;
+    }
+
+    /**
+     * Gets the canonical instance of the specified value
+     * @param value The value.  May be null.
+     * @return The canonical instance, which is equal to the specified value, or null if the value is null
+     */
+    @SuppressWarnings("unchecked")
+    @Nullable
+    public <T> T intern(@Nullable T value) {
+        if(value == null) {
+            return null;
+        }
+        // The canonical instance is of the same class as the value, so the cast is safe
+        return (T) interners.get(value.getClass()).intern(value);
+    }
+}
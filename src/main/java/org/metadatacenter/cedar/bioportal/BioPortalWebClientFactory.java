@@ -1,7 +1,7 @@
 package org.metadatacenter.cedar.bioportal;
 
 import org.metadatacenter.cedar.io.CedarApiKey;
-import org.metadatacenter.cedar.io.NonEncodingUriFactory;
+import org.metadatacenter.cedar.io.SharedWebClients;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
@@ -19,24 +19,17 @@ import java.net.URI;
 public class BioPortalWebClientFactory {
 
 
-    private final String baseUrl;
+    private final WebClient webClient;
 
-    public BioPortalWebClientFactory(@Value("${bioportal.api.baseUrl:https://data.bioontology.org}")
-                                         String baseUrl) {
-        this.baseUrl = baseUrl;
+    public BioPortalWebClientFactory(@Value("${bioportal.api.baseUrl:https://data.bioontology.org}") String baseUrl,
+                                     SharedWebClients sharedWebClients) {
+        this.webClient = sharedWebClients.getWebClient(baseUrl);
     }
 
     public WebClient.RequestBodySpec createWebClient(HttpMethod httpMethod,
                                                      String uri,
                                                      BioPortalApiKey bioPortalApiKey) {
-        return WebClient.builder()
-                        .codecs(configurer -> configurer
-                                .defaultCodecs()
-                                .maxInMemorySize(256 * 1024 * 1024))
-                        .baseUrl(baseUrl)
-                        .uriBuilderFactory(new NonEncodingUriFactory(baseUrl))
-                        .build()
-                        .method(httpMethod)
+        return webClient.method(httpMethod)
                         .uri(uri)
                         .header("Authorization", "apikey token=" + bioPortalApiKey.key())
                         .contentType(MediaType.APPLICATION_JSON)
@@ -46,13 +39,7 @@ public class BioPortalWebClientFactory {
     public WebClient.RequestBodySpec createWebClient(HttpMethod httpMethod,
                                                      URI uri,
                                                      BioPortalApiKey bioPortalApiKey) {
-        return WebClient.builder()
-                        .codecs(configurer -> configurer
-                                .defaultCodecs()
-                                .maxInMemorySize(256 * 1024 * 1024))
-                        .uriBuilderFactory(new NonEncodingUriFactory(baseUrl))
-                        .build()
-                        .method(httpMethod)
+        return webClient.method(httpMethod)
                         .uri(uri)
                         .header("Authorization", "apikey token=" + bioPortalApiKey.key())
                         .contentType(MediaType.APPLICATION_JSON)
@@ -0,0 +1,126 @@
+package org.metadatacenter.cedar.cli;
+
+import org.metadatacenter.cedar.api.CedarArtifact;
+import org.metadatacenter.cedar.api.CedarId;
+
+import java.util.AbstractMap;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Matthew Horridge
+ * Stanford Center for Biomedical Informatics Research
+ * 2026-10-17
+ * <p>
+ * Orders artifacts so that each artifact comes after the artifacts that it embeds.  An artifact embeds another
+ * artifact if {@link CedarArtifact#replaceIds(Map)} looks up the id of the other artifact, so the ids of all of the
+ * artifacts that an artifact embeds, at any depth, must be known before it can be posted.  The artifacts are split
+ * into levels.  The first level contains the artifacts that do not embed any of the other artifacts.  Each following
+ * level contains the artifacts that only embed artifacts in earlier levels.  The artifacts in a level do not depend
+ * on each other.
+ */
+final class ArtifactDependencyLevels {
+
+    private ArtifactDependencyLevels() {
+    }
+
+    /**
+     * Splits the specified artifacts into levels
+     * @param artifacts The artifacts.  Embedded artifacts that are not in this list are ignored.
+     * @param aliases Gets the other ids that refer to an artifact with a given id, for example, the ids of duplicates
+     *                that have been collapsed into it
+     * @return The levels.  Within a level, artifacts are in the order that they are in the specified list.
+     */
+    static <A extends CedarArtifact> List<List<A>> get(List<A> artifacts,
+                                                       Function<CedarId, List<CedarId>> aliases) {
+        var indexesById = new HashMap<CedarId, Integer>();
+        for(int i = 0; i < artifacts.size(); i++) {
+            var id = artifacts.get(i).id();
+            if(id != null) {
+                indexesById.put(id, i);
+                for(var alias : aliases.apply(id)) {
+                    indexesById.putIfAbsent(alias, i);
+                }
+            }
+        }
+        var dependents = new ArrayList<List<Integer>>(artifacts.size());
+        var dependencyCounts = new int[artifacts.size()];
+        for(int i = 0; i < artifacts.size(); i++) {
+            dependents.add(new ArrayList<>());
+        }
+        for(int i = 0; i < artifacts.size(); i++) {
+            var dependencies = new HashSet<Integer>();
+            for(var embeddedId : getEmbeddedIds(artifacts.get(i))) {
+                var dependency = indexesById.get(embeddedId);
+                if(dependency != null && dependency != i) {
+                    dependencies.add(dependency);
+                }
+            }
+            for(var dependency : dependencies) {
+                dependents.get(dependency).add(i);
+            }
+            dependencyCounts[i] = dependencies.size();
+        }
+        var levels = new ArrayList<List<A>>();
+        var current = new ArrayDeque<Integer>();
+        for(int i = 0; i < artifacts.size(); i++) {
+            if(dependencyCounts[i] == 0) {
+                current.add(i);
+            }
+        }
+        var levelled = 0;
+        while(!current.isEmpty()) {
+            var level = new ArrayList<A>(current.size());
+            var next = new ArrayList<Integer>();
+            for(var i : current) {
+                level.add(artifacts.get(i));
+                for(var dependent : dependents.get(i)) {
+                    dependencyCounts[dependent]--;
+                    if(dependencyCounts[dependent] == 0) {
+                        next.add(dependent);
+                    }
+                }
+            }
+            levelled += level.size();
+            levels.add(level);
+            next.sort(null);
+            current = new ArrayDeque<>(next);
+        }
+        if(levelled != artifacts.size()) {
+            throw new IllegalStateException("The artifacts contain a cycle of embedded artifacts");
+        }
+        return levels;
+    }
+
+    /**
+     * Gets the ids that {@link CedarArtifact#replaceIds(Map)} looks up for the specified artifact, apart from the id of
+     * the artifact itself
+     */
+    static Set<CedarId> getEmbeddedIds(CedarArtifact artifact) {
+        var ids = new HashSet<CedarId>();
+        artifact.replaceIds(new AbstractMap<>() {
+            @Override
+            public CedarId get(Object key) {
+                if(key instanceof CedarId id) {
+                    ids.add(id);
+                }
+                return null;
+            }
+
+            @Override
+            public Set<Entry<CedarId, CedarId>> entrySet() {
+                return Set.of();
+            }
+        });
+        if(artifact.id() != null) {
+            ids.remove(artifact.id());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,89 @@
+package org.metadatacenter.cedar.cli;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Matthew Horridge
+ * Stanford Center for Biomedical Informatics Research
+ * 2026-10-17
+ * <p>
+ * A record of the artifacts that were generated into an output directory by a previous run of the csv2artifacts
+ * command.  For each artifact the manifest holds a hash of the inputs that the artifact was generated from (the CSV
+ * subtree and the generation options), the file that it was written to, and the id that it was written or posted
+ * with.  An artifact whose input hash matches the hash in the manifest does not need to be regenerated.
+ */
+public record ArtifactManifest(@JsonProperty("optionsHash") String optionsHash,
+                               @JsonProperty("artifacts") Map<String, Entry> artifacts) {
+
+    public static final String FILE_NAME = ".cedar-csv-manifest.json";
+
+    public ArtifactManifest(String optionsHash, Map<String, Entry> artifacts) {
+        this.optionsHash = optionsHash;
+        this.artifacts = new TreeMap<>(artifacts);
+    }
+
+    public static ArtifactManifest empty(String optionsHash) {
+        return new ArtifactManifest(optionsHash, Map.of());
+    }
+
+    /**
+     * Reads the manifest from the specified output directory
+     * @return The manifest or empty if the directory does not contain a manifest
+     */
+    public static Optional<ArtifactManifest> read(Path outputDirectory, ObjectMapper objectMapper) throws IOException {
+        var manifestPath = outputDirectory.resolve(FILE_NAME);
+        if(!Files.exists(manifestPath)) {
+            return Optional.empty();
+        }
+        return Optional.of(objectMapper.readValue(manifestPath.toFile(), ArtifactManifest.class));
+    }
+
+    /**
+     * Writes the manifest to the specified output directory.  The manifest is written to a temporary file that then
+     * replaces the manifest file, so an interrupted write never leaves a truncated manifest behind.
+     */
+    public void write(Path outputDirectory, ObjectMapper objectMapper) throws IOException {
+        var manifestPath = outputDirectory.resolve(FILE_NAME);
+        var tempFile = outputDirectory.resolve(FILE_NAME + "." + UUID.randomUUID() + ".tmp");
+        try {
+            objectMapper.writerWithDefaultPrettyPrinter()
+                        .writeValue(tempFile.toFile(), this);
+            try {
+                Files.move(tempFile, manifestPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, manifestPath, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    public Optional<Entry> getEntry(String key) {
+        return Optional.ofNullable(artifacts.get(key));
+    }
+
+    /**
+     * @param inputHash A hash of the inputs that the artifact was generated from
+     * @param fileName The name of the file, in the output directory, that the artifact was written to
+     * @param id The id that the artifact was written with.  This is the CEDAR minted id if the artifact was posted.
+     * @param posted Whether the artifact was posted to CEDAR
+     */
+    public record Entry(@JsonProperty("inputHash") String inputHash,
+                        @JsonProperty("fileName") String fileName,
+                        @JsonProperty("id") @Nullable String id,
+                        @JsonProperty("posted") boolean posted) {
+
+    }
+}
@@ -0,0 +1,153 @@
+package org.metadatacenter.cedar.cli;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Matthew Horridge
+ * Stanford Center for Biomedical Informatics Research
+ * 2026-10-17
+ * <p>
+ * A content addressed record of the fields and elements that have been posted to CEDAR.  Each entry maps the content
+ * hash of an artifact, as computed by {@link org.metadatacenter.cedar.io.ArtifactContentHasher}, to the id that CEDAR
+ * minted for it, so that an artifact that has already been posted, by this run, an earlier run or another sheet in a
+ * batch, is reused rather than posted again.  Entries are scoped by the CEDAR server and folder that the artifacts were
+ * posted to, so that an artifact is only reused when it is posted to the same place again.  The registry is kept in a
+ * JSON file.  Registries are safe to use from several threads.
+ */
+public class ArtifactRegistry {
+
+    private final Path file;
+
+    private final ObjectMapper objectMapper;
+
+    private final Map<Scope, Map<String, Entry>> entries = new ConcurrentHashMap<>();
+
+    private ArtifactRegistry(Path file, ObjectMapper objectMapper) {
+        this.file = file;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Loads the registry that is kept in the specified file
+     * @return The registry.  This is empty if the file does not exist.
+     */
+    public static ArtifactRegistry load(Path file, ObjectMapper objectMapper) throws IOException {
+        var registry = new ArtifactRegistry(file, objectMapper);
+        registry.putAll(readEntries(file, objectMapper));
+        return registry;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Gets the entry for the artifact with the specified content hash that was posted to the specified scope
+     */
+    public Optional<Entry> get(Scope scope, String contentHash) {
+        return Optional.ofNullable(entries.getOrDefault(scope, Map.of()).get(contentHash));
+    }
+
+    /**
+     * Records the id of the artifact with the specified content hash that was posted to the specified scope, unless an
+     * id is already recorded for it
+     */
+    public void put(Scope scope, String contentHash, Entry entry) {
+        entries.computeIfAbsent(scope, s -> new ConcurrentHashMap<>()).putIfAbsent(contentHash, entry);
+    }
+
+    public int size() {
+        return entries.values().stream().mapToInt(Map::size).sum();
+    }
+
+    /**
+     * Saves the registry to its file.  Entries that have been added to the file by other processes since the
+     * registry was loaded are kept.  The file is replaced atomically.
+     */
+    public synchronized void save() throws IOException {
+        putAll(readEntries(file, objectMapper));
+        var directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        var tempFile = directory.resolve("." + file.getFileName() + "." + UUID.randomUUID() + ".tmp");
+        try {
+            var scopedEntries = entries.entrySet()
+                                       .stream()
+                                       .sorted(Map.Entry.comparingByKey(Comparator.comparing(Scope::baseUrl)
+                                                                                  .thenComparing(Scope::folderId)))
+                                       .map(e -> new ScopedEntries(e.getKey().baseUrl(),
+                                                                   e.getKey().folderId(),
+                                                                   new TreeMap<>(e.getValue())))
+                                       .toList();
+            objectMapper.writerWithDefaultPrettyPrinter()
+                        .writeValue(tempFile.toFile(), new RegistryFile(scopedEntries));
+            try {
+                Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    private void putAll(List<ScopedEntries> scopedEntries) {
+        for(var scoped : scopedEntries) {
+            if(scoped.artifacts() != null) {
+                var scope = new Scope(scoped.baseUrl(), scoped.folderId());
+                scoped.artifacts().forEach((contentHash, entry) -> put(scope, contentHash, entry));
+            }
+        }
+    }
+
+    private static List<ScopedEntries> readEntries(Path file, ObjectMapper objectMapper) throws IOException {
+        if(!Files.exists(file)) {
+            return List.of();
+        }
+        var registryFile = objectMapper.readValue(file.toFile(), RegistryFile.class);
+        return registryFile.scopes() != null ? registryFile.scopes() : List.of();
+    }
+
+    /**
+     * The place that artifacts are posted to
+     * @param baseUrl The base URL of the CEDAR resource server
+     * @param folderId The id of the CEDAR folder
+     */
+    public record Scope(String baseUrl, String folderId) {
+
+    }
+
+    /**
+     * @param id The id that CEDAR minted for the artifact
+     * @param type The type of the artifact, for example, TemplateField
+     * @param name The name of the artifact.  This is for information only.
+     */
+    public record Entry(@JsonProperty("id") String id,
+                        @JsonProperty("type") String type,
+                        @JsonProperty("name") String name) {
+
+    }
+
+    private record ScopedEntries(@JsonProperty("baseUrl") String baseUrl,
+                                 @JsonProperty("folderId") String folderId,
+                                 @JsonProperty("artifacts") Map<String, Entry> artifacts) {
+
+    }
+
+    private record RegistryFile(@JsonProperty("scopes") List<ScopedEntries> scopes) {
+
+    }
+}
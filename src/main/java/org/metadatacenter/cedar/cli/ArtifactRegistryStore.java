@@ -0,0 +1,44 @@
+package org.metadatacenter.cedar.cli;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Matthew Horridge
+ * Stanford Center for Biomedical Informatics Research
+ * 2026-10-17
+ * <p>
+ * Opens artifact registries.  A registry file is only loaded once per process, so the sheets in a batch that use
+ * the same registry file share one registry and reuse the artifacts that each other post.
+ */
+@Component
+public class ArtifactRegistryStore {
+
+    private final ObjectMapper objectMapper;
+
+    private final Map<Path, ArtifactRegistry> registries = new ConcurrentHashMap<>();
+
+    public ArtifactRegistryStore(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public ArtifactRegistry open(Path file) throws IOException {
+        try {
+            return registries.computeIfAbsent(file.toAbsolutePath().normalize(), f -> {
+                try {
+                    return ArtifactRegistry.load(f, objectMapper);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -1,21 +1,40 @@
 package org.metadatacenter.cedar.cli;
 
 import org.metadatacenter.cedar.api.CedarArtifact;
+import org.metadatacenter.cedar.io.ArtifactArchiveWriter;
 import org.metadatacenter.cedar.io.CedarArtifactWriter;
+import org.metadatacenter.cedar.io.OutputFormat;
+import org.metadatacenter.cedar.io.SerializedArtifactCache;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.Nullable;
+import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
 
 /**
  * Matthew Horridge
  * Stanford Center for Biomedical Informatics Research
  * 2022-07-29
+ * <p>
+ * Writes artifacts to files in an output directory.  Each artifact is written to a temporary file in the output
+ * directory, which is then renamed to the artifact file, so that a partially written artifact file is never seen by
+ * readers of the output directory.
  */
 @Component
 public class CliCedarArtifactWriter {
 
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+
     private final CedarArtifactWriter cedarArtifactWriter;
 
     public CliCedarArtifactWriter(CedarArtifactWriter cedarArtifactWriter) {
@@ -25,10 +44,81 @@ public class CliCedarArtifactWriter {
     public void writeCedarArtifact(CedarArtifact cedarArtifact,
                                    Path outputDirectory,
                                    String jsonSchemaDescription) throws IOException {
-        var fileName = cedarArtifact.artifactInfo().schemaIdentifier() + ".json";
+        writeCedarArtifact(cedarArtifact, outputDirectory, jsonSchemaDescription, OutputFormat.PRETTY_JSON);
+    }
+
+    public void writeCedarArtifact(CedarArtifact cedarArtifact,
+                                   Path outputDirectory,
+                                   String jsonSchemaDescription,
+                                   OutputFormat outputFormat) throws IOException {
+        writeCedarArtifact(cedarArtifact, outputDirectory, jsonSchemaDescription, outputFormat, null);
+    }
+
+    /**
+     * Writes the specified artifact to its file in the specified output directory
+     * @return The number of bytes that were written
+     */
+    public long writeCedarArtifact(CedarArtifact cedarArtifact,
+                                   Path outputDirectory,
+                                   String jsonSchemaDescription,
+                                   OutputFormat outputFormat,
+                                   @Nullable SerializedArtifactCache cache) throws IOException {
+        var fileName = getFileName(cedarArtifact, outputFormat);
         var outputFile = outputDirectory.resolve(fileName);
-        var outputStream = Files.newOutputStream(outputFile);
-        cedarArtifactWriter.writeCedarArtifact(cedarArtifact,
-                                               jsonSchemaDescription, outputStream);
+        // Hidden, and unique, so that concurrent writes of the same artifact do not clash
+        var tempFile = outputDirectory.resolve("." + fileName + "." + UUID.randomUUID() + TEMP_FILE_SUFFIX);
+        try {
+            try (var channel = FileChannel.open(tempFile, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+                 var outputStream = new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE)) {
+                cedarArtifactWriter.writeCedarArtifact(cedarArtifact,
+                                                       jsonSchemaDescription, outputStream, outputFormat, cache);
+            }
+            var size = Files.size(tempFile);
+            moveIntoPlace(tempFile, outputFile);
+            return size;
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * Writes the specified artifact to an entry in the specified archive.  The entry has the same name as the file
+     * that the artifact is written to in an output directory.
+     */
+    public void writeCedarArtifact(CedarArtifact cedarArtifact,
+                                   ArtifactArchiveWriter archiveWriter,
+                                   String jsonSchemaDescription,
+                                   OutputFormat outputFormat,
+                                   @Nullable SerializedArtifactCache cache) throws IOException {
+        archiveWriter.writeEntry(getFileName(cedarArtifact, outputFormat),
+                                 outputStream -> cedarArtifactWriter.writeCedarArtifact(cedarArtifact,
+                                                                                        jsonSchemaDescription,
+                                                                                        outputStream,
+                                                                                        outputFormat,
+                                                                                        cache));
+    }
+
+    private static void moveIntoPlace(Path tempFile, Path outputFile) throws IOException {
+        try {
+            Files.move(tempFile, outputFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            // The temporary file is in the same directory, so this only happens on unusual file systems
+            Files.move(tempFile, outputFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Gets the name of the file, within an output directory, that the specified artifact is written to
+     */
+    public static String getFileName(CedarArtifact cedarArtifact) {
+        return getFileName(cedarArtifact, OutputFormat.PRETTY_JSON);
+    }
+
+    /**
+     * Gets the name of the file, within an output directory, that the specified artifact is written to when it is
+     * written in the specified format
+     */
+    public static String getFileName(CedarArtifact cedarArtifact, OutputFormat outputFormat) {
+        return cedarArtifact.artifactInfo().schemaIdentifier() + "." + outputFormat.getFileExtension();
     }
 }
@@ -0,0 +1,236 @@
+package org.metadatacenter.cedar.cli;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.metadatacenter.cedar.io.CedarArtifactPoster;
+import org.metadatacenter.cedar.io.CedarCodecs;
+import org.metadatacenter.cedar.io.SharedWebClients;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import picocli.CommandLine;
+import picocli.CommandLine.ArgGroup;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Parameters;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Matthew Horridge
+ * Stanford Center for Biomedical Informatics Research
+ * 2026-10-17
+ */
+@Component
+@Command(name = "csv2artifacts-batch",
+        description = "Generate CEDAR artifacts from many Comma Separated Values (CSV) files in a single process.  Each CSV file is processed as if by the csv2artifacts command.  Files are processed in parallel and a report of timings and failures is output at the end.")
+public class Csv2ArtifactsBatchCommand implements CedarCliCommand {
+
+    @ArgGroup(multiplicity = "1")
+    BatchInput batchInput;
+
+    @Option(names = "--out", required = true, description = "A path to a local directory.  The artifacts for each CSV file are written to a subdirectory of this directory that is named after the CSV file, unless the manifest specifies otherwise.")
+    Path outputDirectory;
+
+    @Option(names = "--threads", description = "The maximum number of CSV files that are processed at the same time.  Defaults to the number of available processors.  Unless the --write-threads option is passed to csv2artifacts, the available processors are divided between the CSV files that are processed at the same time for writing artifacts.")
+    Integer threads;
+
+    @Parameters(arity = "0..*", paramLabel = "CSV2ARTIFACTS_OPTION",
+            description = "Options that are passed to csv2artifacts for every CSV file, for example, -- --generate-fields --generate-elements.  Use -- to separate these from the batch options.")
+    List<String> commonArgs = new ArrayList<>();
+
+    private final ObjectProvider<Csv2ArtifactsCommand> csv2ArtifactsCommandProvider;
+
+    private final CommandLine.IFactory factory;
+
+    private final CedarCodecs codecs;
+
+    private final CedarArtifactPoster poster;
+
+    private final SharedWebClients sharedWebClients;
+
+    public Csv2ArtifactsBatchCommand(ObjectProvider<Csv2ArtifactsCommand> csv2ArtifactsCommandProvider,
+                                     CommandLine.IFactory factory,
+                                     CedarCodecs codecs,
+                                     CedarArtifactPoster poster,
+                                     SharedWebClients sharedWebClients) {
+        this.csv2ArtifactsCommandProvider = csv2ArtifactsCommandProvider;
+        this.factory = factory;
+        this.codecs = codecs;
+        this.poster = poster;
+        this.sharedWebClients = sharedWebClients;
+    }
+
+    @Override
+    public Integer call() throws Exception {
+        var sheets = batchInput.manifest != null ? readManifest(batchInput.manifest) : listSheets(batchInput.inputDirectory);
+        if(sheets.isEmpty()) {
+            System.err.println("No CSV files to process");
+            return 1;
+        }
+        if(commonArgs.contains("--watch") || sheets.stream().anyMatch(sheet -> sheet.args().contains("--watch"))) {
+            System.err.println("The --watch option cannot be used in batch mode");
+            return 1;
+        }
+        var processorCount = Runtime.getRuntime().availableProcessors();
+        var threadCount = Objects.requireNonNullElse(threads, processorCount);
+        // Each sheet writes its artifacts on its own pool of threads, so the processors are divided between the sheets
+        // that are processed at the same time
+        var writeThreadCount = Math.max(1, processorCount / Math.min(threadCount, sheets.size()));
+        System.err.printf("Processing %d CSV files using %d threads\n", sheets.size(), threadCount);
+        var start = System.nanoTime();
+        var executor = Executors.newFixedThreadPool(threadCount);
+        var results = new ArrayList<Future<SheetResult>>();
+        try {
+            for(var sheet : sheets) {
+                results.add(executor.submit(() -> processSheet(sheet, writeThreadCount)));
+            }
+            var report = new ArrayList<SheetResult>();
+            for(var result : results) {
+                report.add(result.get());
+            }
+            var elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            printReport(report, elapsed);
+            Csv2ArtifactsCommand.printPostingStatistics(poster, sharedWebClients);
+            return report.stream().allMatch(SheetResult::succeeded) ? 0 : 1;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private SheetResult processSheet(BatchSheet sheet, int writeThreadCount) {
+        var start = System.nanoTime();
+        var failureReason = new AtomicReference<String>();
+        try {
+            // Each sheet gets its own command instance.  The parser factory, language codes and mappers are shared.
+            var command = csv2ArtifactsCommandProvider.getObject();
+            command.setReportSharedStatistics(false);
+            var args = new ArrayList<String>();
+            args.add("--in");
+            args.add(sheet.input());
+            args.add("--out");
+            args.add(outputDirectory.resolve(sheet.outputDirectory()).toString());
+            args.add("--template-name");
+            args.add(sheet.templateName());
+            if(!hasOption(commonArgs, "--write-threads") && !hasOption(sheet.args(), "--write-threads")) {
+                args.add("--write-threads");
+                args.add(Integer.toString(writeThreadCount));
+            }
+            args.addAll(commonArgs);
+            args.addAll(sheet.args());
+            var commandLine = new CommandLine(command, factory);
+            // execute() handles exceptions itself, so they are recorded here for the report
+            commandLine.setExecutionExceptionHandler((e, cl, parseResult) -> {
+                failureReason.set(e.toString());
+                return cl.getCommandSpec().exitCodeOnExecutionException();
+            });
+            commandLine.setParameterExceptionHandler((e, arguments) -> {
+                failureReason.set(e.getMessage());
+                return e.getCommandLine().getCommandSpec().exitCodeOnInvalidInput();
+            });
+            var exitCode = commandLine.execute(args.toArray(String[]::new));
+            if(exitCode != 0 && failureReason.get() == null) {
+                failureReason.set(Objects.requireNonNullElse(command.getFailureReason(), "Exited with code " + exitCode));
+            }
+            return new SheetResult(sheet, exitCode, failureReason.get(), System.nanoTime() - start);
+        } catch (RuntimeException e) {
+            return new SheetResult(sheet, 1, e.getMessage(), System.nanoTime() - start);
+        }
+    }
+
+    private static void printReport(List<SheetResult> report, long elapsedMillis) {
+        System.out.println();
+        System.out.printf("%-8s %10s  %s\n", "Status", "Time (ms)", "Input");
+        report.forEach(result -> {
+            System.out.printf("%-8s %10d  %s\n",
+                              result.succeeded() ? "OK" : "FAILED",
+                              TimeUnit.NANOSECONDS.toMillis(result.elapsedNanos()),
+                              result.sheet().input());
+            if(result.errorMessage() != null) {
+                System.out.println("         " + result.errorMessage());
+            }
+        });
+        var failures = report.stream().filter(result -> !result.succeeded()).count();
+        var totalSheetMillis = TimeUnit.NANOSECONDS.toMillis(report.stream().mapToLong(SheetResult::elapsedNanos).sum());
+        System.out.println();
+        System.out.printf("Processed %d CSV files (%d failed) in %d ms.  Total time for all files: %d ms\n",
+                          report.size(), failures, elapsedMillis, totalSheetMillis);
+    }
+
+    private static List<BatchSheet> listSheets(Path inputDirectory) throws IOException {
+        try (var paths = Files.list(inputDirectory)) {
+            return paths.filter(path -> path.getFileName().toString().toLowerCase().endsWith(".csv"))
+                        .sorted()
+                        .map(path -> {
+                            var baseName = getBaseName(path.getFileName().toString());
+                            return new BatchSheet(path.toString(), baseName, baseName, List.of());
+                        })
+                        .toList();
+        }
+    }
+
+    /**
+     * Reads a manifest of CSV files.  The manifest is a YAML (or JSON) file that contains a list of sheets.
+     * Relative input paths are resolved against the directory that contains the manifest.
+     */
+    private List<BatchSheet> readManifest(Path manifest) throws IOException {
+        var manifestDirectory = manifest.toAbsolutePath().getParent();
+        var batchManifest = codecs.yamlReaderFor(BatchManifest.class)
+                                  .<BatchManifest>readValue(manifest.toFile());
+        return batchManifest.sheets()
+                            .stream()
+                            .map(sheet -> {
+                                var input = sheet.input().startsWith("http") ? sheet.input() : manifestDirectory.resolve(sheet.input()).toString();
+                                var baseName = getBaseName(Path.of(sheet.input().replaceAll("[?#].*", "")).getFileName().toString());
+                                return new BatchSheet(input,
+                                                      Objects.requireNonNullElse(sheet.outputDirectory(), baseName),
+                                                      Objects.requireNonNullElse(sheet.templateName(), baseName),
+                                                      Objects.requireNonNullElse(sheet.args(), List.of()));
+                            })
+                            .toList();
+    }
+
+    private static boolean hasOption(List<String> args, String name) {
+        return args.stream().anyMatch(arg -> arg.equals(name) || arg.startsWith(name + "="));
+    }
+
+    private static String getBaseName(String fileName) {
+        var dot = fileName.lastIndexOf('.');
+        return dot > 0 ? fileName.substring(0, dot) : fileName;
+    }
+
+    static class BatchInput {
+
+        @Option(names = "--in-dir", required = true, description = "A path to a local directory.  Every CSV file in the directory is processed.  The template name for each file is the file name without its extension.")
+        Path inputDirectory;
+
+        @Option(names = "--manifest", required = true, description = "A path to a YAML or JSON manifest that lists CSV files.  The manifest has a 'sheets' property whose value is a list of objects with an 'in' property (a path or URL), and optional 'out', 'templateName' and 'args' properties.  The 'args' property is a list of csv2artifacts options for that CSV file.")
+        Path manifest;
+    }
+
+    private record BatchManifest(@JsonProperty("sheets") List<BatchSheet> sheets) {
+
+    }
+
+    private record BatchSheet(@JsonProperty("in") String input,
+                              @JsonProperty("out") @Nullable String outputDirectory,
+                              @JsonProperty("templateName") @Nullable String templateName,
+                              @JsonProperty("args") @Nullable List<String> args) {
+
+    }
+
+    private record SheetResult(BatchSheet sheet, int exitCode, @Nullable String errorMessage, long elapsedNanos) {
+
+        public boolean succeeded() {
+            return exitCode == 0;
+        }
+    }
+}
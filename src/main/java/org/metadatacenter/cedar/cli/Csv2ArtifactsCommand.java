@@ -2,33 +2,49 @@ package org.metadatacenter.cedar.cli;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
-import com.fasterxml.jackson.dataformat.yaml.YAMLGenerator;
 import org.metadatacenter.artifacts.model.core.fields.FieldInputType;
 import org.metadatacenter.cedar.api.*;
 import org.metadatacenter.cedar.codegen.CodeGenerationNode;
 import org.metadatacenter.cedar.codegen.CodeGenerationNodeRecord;
 import org.metadatacenter.cedar.csv.*;
 import org.metadatacenter.cedar.docs.DocsGenerator;
+import org.metadatacenter.cedar.io.ArchiveFormat;
+import org.metadatacenter.cedar.io.ArtifactContentHasher;
+import org.metadatacenter.cedar.io.ArtifactArchiveWriter;
 import org.metadatacenter.cedar.io.PostedArtifactResponse;
 import org.metadatacenter.cedar.io.CedarArtifactPoster;
+import org.metadatacenter.cedar.io.CedarCodecs;
+import org.metadatacenter.cedar.io.HttpInputCache;
+import org.metadatacenter.cedar.io.OutputFormat;
+import org.metadatacenter.cedar.io.SerializedArtifactCache;
+import org.metadatacenter.cedar.io.SharedWebClients;
 import org.metadatacenter.cedar.codegen.JavaGenerator;
 import org.metadatacenter.cedar.ts.TypeScriptGenerator;
 import org.metadatacenter.cedar.util.StripInstance;
 import org.metadatacenter.cedar.util.StrippingOperations;
+import org.springframework.beans.factory.config.ConfigurableBeanFactory;
+import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import picocli.CommandLine;
 import picocli.CommandLine.ArgGroup;
 import picocli.CommandLine.Command;
 import picocli.CommandLine.Mixin;
 import picocli.CommandLine.Option;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
@@ -38,16 +54,27 @@ import java.util.stream.Collectors;
  * 2022-07-29
  */
 @Component
+@Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
 @Command(name = "csv2artifacts",
         description = "Generate CEDAR artifacts from a Comma Separated Values (CSV) file.  Artifacts are generated as CEDAR JSON-LD and are output as a set of JSON files.  Artifacts can also pushed directly into CEDAR.")
 public class Csv2ArtifactsCommand implements CedarCliCommand {
 
-    @Option(names = "--in", required = true, description = "A path to a CSV file that conforms to the CEDAR CSV format.")
+    @Option(names = "--in", required = true, description = "A path to a CSV file that conforms to the CEDAR CSV format.  This may also be a template snapshot, or an archive written with the --out-archive and --write-snapshot options.")
     String input;
 
-    @Option(names = "--out", required = true, description = "A path to a local directory where JSON-LD CEDAR representations of CEDAR artifacts will be written to.")
+    @Option(names = "--out", description = "A path to a local directory where JSON-LD CEDAR representations of CEDAR artifacts will be written to.  Either this option or the --out-archive option must be specified.")
     Path outputDirectory;
 
+    @Option(names = "--out-archive",
+            description = "A path to a zip (.zip) or gzipped tar (.tar.gz or .tgz) archive that generated artifacts, examples, docs, code and the template snapshot are written to, instead of an output directory.  Artifacts are streamed into the archive as they are generated.  The archive is replaced when generation has finished.")
+    Path outputArchive;
+
+    @Option(names = "--out-archive-compression-level",
+            description = "The compression level, from 0 (no compression) to 9 (best compression), for the archive that is written if the --out-archive option is specified.",
+            defaultValue = "" + ArtifactArchiveWriter.DEFAULT_COMPRESSION_LEVEL,
+            showDefaultValue = CommandLine.Help.Visibility.ALWAYS)
+    int outputArchiveCompressionLevel;
+
     @Option(names = "--overwrite", defaultValue = "false",
             description = "Force generated artifacts to be locally overwritten if the local output directory is not empty")
     boolean overwrite;
@@ -127,6 +154,56 @@ public class Csv2ArtifactsCommand implements CedarCliCommand {
     @Option(names = "--root-class-name", description = "The name of the Java class that other generated classes that represent CEDAR artifacts will be inner classes of", defaultValue = "Cedar", showDefaultValue = CommandLine.Help.Visibility.ALWAYS)
     private String rootClassName;
 
+    @Option(names = "--parallel-translation", defaultValue = "false",
+            description = "Specifies that large element subtrees should be translated into CEDAR artifacts in parallel.")
+    boolean parallelTranslation;
+
+    @Option(names = "--incremental", defaultValue = "false",
+            description = "Specifies that only artifacts whose CSV rows, or whose generation options, have changed since the previous run should be regenerated, written and posted.  A manifest of generated artifacts is kept in the output directory for this purpose.  This option allows the output directory to be non-empty.")
+    boolean incremental;
+
+    @Option(names = "--watch", defaultValue = "false",
+            description = "Specifies that the input file should be watched for changes after artifacts have been generated.  Artifacts are regenerated each time the input file is saved.  Generated files are overwritten.  This option may be combined with the --incremental option so that only changed artifacts are regenerated.  The --incremental option must be specified if artifacts are posted to CEDAR.")
+    boolean watch;
+
+    @Option(names = "--watch-debounce", defaultValue = "200",
+            description = "The time, in milliseconds, to wait for writes to the input file to stop before regenerating artifacts.  This only has an effect if the --watch option is specified.",
+            showDefaultValue = CommandLine.Help.Visibility.ALWAYS)
+    long watchDebounceMillis;
+
+    @Option(names = "--write-snapshot", defaultValue = "false",
+            description = "Specifies that a binary snapshot of the parsed template should be written to the output directory.  The snapshot is named after the template identifier and has a " + CedarTemplateSnapshot.FILE_EXTENSION + " extension.  It can be used in place of the CSV file as the input to this command and to template2java, and is much faster to load.")
+    boolean writeSnapshot;
+
+    @Option(names = "--output-format", defaultValue = "PRETTY_JSON",
+            description = "The format that generated artifacts are written in.  One of ${COMPLETION-CANDIDATES}.  COMPACT_JSON is smaller and faster to write than PRETTY_JSON.  SMILE and CBOR are binary formats that are intended for intermediate pipeline stages where the output is not read by people.  Artifact files are named with a .json, .smile or .cbor extension accordingly.",
+            showDefaultValue = CommandLine.Help.Visibility.ALWAYS)
+    OutputFormat outputFormat;
+
+    @Option(names = "--collapse-duplicates", defaultValue = "false",
+            description = "Specifies that fields and elements that are identical, apart from their ids, should only be generated, written and posted once.  Templates and elements that contain duplicates refer to the first occurrence.")
+    boolean collapseDuplicates;
+
+    @Option(names = "--artifact-registry",
+            description = "A path to a file that records the content hashes and CEDAR ids of fields and elements that have been posted to CEDAR.  A field or element whose content matches one in the registry is not posted again.  Its existing CEDAR id is used instead.  The file is updated with newly posted fields and elements, so it can be shared across runs and by the sheets in a batch.  This option can only be used when artifacts are posted to CEDAR.")
+    Path artifactRegistryFile;
+
+    @Option(names = "--write-threads",
+            description = "The number of threads that generated artifacts are written to the output directory on.  By default this is the number of available processors.")
+    Integer writeThreads;
+
+    @Option(names = "--input-cache-dir",
+            description = "A path to a local directory where copies of inputs that are read over HTTP are cached.  Cached copies are only downloaded again if they have changed.  By default this is a directory called .cedar-cli/input-cache in the user's home directory.")
+    Path inputCacheDirectory;
+
+    @Option(names = "--offline", defaultValue = "false",
+            description = "Specifies that the cached copy of an input that is read over HTTP should be used without contacting the server.  The input must have been read at least once before.")
+    boolean offline;
+
+    @Option(names = "--resume", defaultValue = "false",
+            description = "Resumes a run that posted artifacts to CEDAR and was interrupted.  Each artifact that is posted is recorded in a journal, called " + PostJournal.FILE_NAME + ", in the output directory, or next to the output archive.  Artifacts that the journal records as posted are not posted again.  Their recorded CEDAR ids are used instead.  The same input, options and CEDAR folder must be used.  This option can only be used when artifacts are posted to CEDAR and allows the output directory to be non-empty.")
+    boolean resume;
+
     @ArgGroup(exclusive = false)
     public PostToCedarOptions pushToCedar;
 
@@ -138,6 +215,85 @@ public class Csv2ArtifactsCommand implements CedarCliCommand {
 
     private final Map<CedarId, CedarId> artifact2GeneratedIdMap = new HashMap<>();
 
+    /**
+     * Fields and elements are written on their own and then again inside each enclosing element and the template.
+     * This holds their serialized forms so that they are only encoded once per run.
+     */
+    private final SerializedArtifactCache serializedArtifactCache = new SerializedArtifactCache();
+
+    /**
+     * The directory that files are written to during a run.  This is the output directory or, if an archive is being
+     * written, a temporary directory whose files are added to the archive at the end of the run.
+     */
+    private Path runOutputDirectory;
+
+    /**
+     * Writes the artifacts that are generated in a run to the output directory.  This is only present while a run is
+     * in progress and an archive is not being written.
+     */
+    private ParallelArtifactFileWriter artifactFileWriter;
+
+    /**
+     * Writes the artifacts that are generated in a run to the output archive.  This is only present while a run is
+     * in progress and an archive is being written.
+     */
+    private ArtifactArchiveWriter artifactArchiveWriter;
+
+    private ArtifactManifest previousManifest = ArtifactManifest.empty("");
+
+    private final Map<String, ArtifactManifest.Entry> manifestEntries = new LinkedHashMap<>();
+
+    private Map<CedarCsvParser.Node, String> subtreeHashes = Map.of();
+
+    private String optionsHash = "";
+
+    private String rootNodeHash = "";
+
+    private int skippedArtifactsCount = 0;
+
+    /**
+     * The ids of fields and elements that are duplicates of an earlier field or element, keyed by the id of the
+     * earlier one.  The ids of duplicates are mapped to whatever the earlier one is written or posted with.
+     */
+    private final Map<CedarId, List<CedarId>> duplicateIds = new HashMap<>();
+
+    private final Set<CedarId> collapsedIds = new HashSet<>();
+
+    private ArtifactRegistry artifactRegistry;
+
+    /**
+     * The CEDAR server and folder that entries in the artifact registry are looked up and recorded for
+     */
+    private ArtifactRegistry.Scope artifactRegistryScope;
+
+    private int reusedArtifactsCount = 0;
+
+    /**
+     * Records the artifacts that are posted in a run.  This is only present while a run that posts artifacts is in
+     * progress.
+     */
+    private PostJournal postJournal;
+
+    private int resumedArtifactsCount = 0;
+
+    private int postedArtifactsCount = 0;
+
+    private int postedLevelsCount = 0;
+
+    /**
+     * The time spent waiting for posts to CEDAR to complete
+     */
+    private long postingNanos = 0;
+
+    /**
+     * Whether the statistics of the poster and the HTTP connection pool are reported at the end of a run.  These are
+     * shared by every run in the process, so a batch reports them once for all of its sheets instead.
+     */
+    private boolean reportSharedStatistics = true;
+
+    @Nullable
+    private String failureReason;
+
     private final DocsGenerator docsGenerator;
 
     private final TemplateInstanceGenerator templateInstanceGenerator;
@@ -146,12 +302,27 @@ public class Csv2ArtifactsCommand implements CedarCliCommand {
 
     private final ObjectMapper objectMapper;
 
+    private final CedarCodecs codecs;
+
+    private final HttpInputCache httpInputCache;
+
+    private final ArtifactContentHasher artifactContentHasher;
+
+    private final ArtifactRegistryStore artifactRegistryStore;
+
+    private final SharedWebClients sharedWebClients;
+
     public Csv2ArtifactsCommand(CedarArtifactPoster importer,
                                 CedarCsvParserFactory cedarCsvParserFactory,
                                 CliCedarArtifactWriter writer,
                                 DocsGenerator docsGenerator,
                                 TemplateInstanceGenerator templateInstanceGenerator,
-                                StripInstance stripInstance, ObjectMapper objectMapper) {
+                                StripInstance stripInstance, ObjectMapper objectMapper,
+                                CedarCodecs codecs,
+                                HttpInputCache httpInputCache,
+                                ArtifactContentHasher artifactContentHasher,
+                                ArtifactRegistryStore artifactRegistryStore,
+                                SharedWebClients sharedWebClients) {
         this.importer = importer;
         this.cedarCsvParserFactory = cedarCsvParserFactory;
         this.writer = writer;
@@ -159,25 +330,51 @@ public class Csv2ArtifactsCommand implements CedarCliCommand {
         this.templateInstanceGenerator = templateInstanceGenerator;
         this.stripInstance = stripInstance;
         this.objectMapper = objectMapper;
+        this.codecs = codecs;
+        this.httpInputCache = httpInputCache;
+        this.artifactContentHasher = artifactContentHasher;
+        this.artifactRegistryStore = artifactRegistryStore;
+        this.sharedWebClients = sharedWebClients;
+    }
+
+    void setReportSharedStatistics(boolean reportSharedStatistics) {
+        this.reportSharedStatistics = reportSharedStatistics;
+    }
+
+    /**
+     * Gets the reason that the last run failed
+     * @return The reason, or null if the command has not been run or the last run did not fail with a reported reason
+     */
+    @Nullable
+    String getFailureReason() {
+        return failureReason;
+    }
+
+    private int fail(String message) {
+        failureReason = message;
+        System.err.println(message);
+        return 1;
     }
 
     @Override
     public Integer call() throws Exception {
+        failureReason = null;
         if(input == null) {
-            System.err.println("Input (file or URL) not specified");
-            return 1;
+            return fail("Input (file or URL) not specified");
         }
         final URI inputUri;
         final String inputShortName;
         if(input.startsWith("http")) {
+           if(watch) {
+               return fail("The --watch option can only be used with a local input file");
+           }
            inputUri = new URI(input);
            inputShortName = input;
         }
         else {
             var inputPath = Path.of(input);
             if(!Files.exists(inputPath)) {
-                System.err.println("Input file " + inputPath + " does not exist");
-                System.exit(1);
+                return fail("Input file " + inputPath + " does not exist");
             }
             inputUri = inputPath.toUri();
             inputShortName = inputPath.getFileName().toString();
@@ -191,39 +388,165 @@ public class Csv2ArtifactsCommand implements CedarCliCommand {
             version = VersionInfo.initialDraft().pavVersion();
         }
 
-        if(!Files.exists(outputDirectory)) {
+        if((outputDirectory == null) == (outputArchive == null)) {
+            return fail("Specify either an output directory, using --out, or an output archive, using --out-archive");
+        }
+
+        if(artifactRegistryFile != null && !shouldPushToCedar()) {
+            return fail("The --artifact-registry option can only be used when artifacts are posted to CEDAR");
+        }
+
+        if(resume && !shouldPushToCedar()) {
+            return fail("The --resume option can only be used when artifacts are posted to CEDAR");
+        }
+
+        if(watch && shouldPushToCedar() && !incremental) {
+            // Otherwise every save would post the whole template again, which mints new artifacts each time
+            return fail("The --watch option can only be used with the --post-to-cedar option if the --incremental option is also specified");
+        }
+
+        if(shouldPushToCedar() && pushToCedar.postConcurrency < 1) {
+            return fail("The --post-concurrency option must be at least 1");
+        }
+
+        if(outputArchive != null) {
+            if(!ArchiveFormat.isArchiveFile(outputArchive.getFileName().toString())) {
+                return fail("The output archive must be a .zip, .tar.gz or .tgz file");
+            }
+            if(outputArchiveCompressionLevel < 0 || outputArchiveCompressionLevel > 9) {
+                return fail("The archive compression level must be between 0 and 9");
+            }
+            if(incremental) {
+                return fail("The --incremental option cannot be used with the --out-archive option");
+            }
+            var archiveDirectory = outputArchive.toAbsolutePath().getParent();
+            if(!Files.exists(archiveDirectory)) {
+                Files.createDirectories(archiveDirectory);
+            }
+        }
+        else if(!Files.exists(outputDirectory)) {
             Files.createDirectories(outputDirectory);
         }
         else {
             var nonEmpty = Files.list(outputDirectory).findFirst().isPresent();
-            if(nonEmpty && !overwrite) {
-                System.err.println("Output directory is not empty.  To overwrite existing files use the --overwrite option.");
-                return 1;
+            if(nonEmpty && !overwrite && !incremental && !resume) {
+                return fail("Output directory is not empty.  To overwrite existing files use the --overwrite option.");
             }
         }
 
+        var exitCode = generateArtifacts(inputUri);
+        if(watch) {
+            return watchInput(Path.of(inputUri));
+        }
+        return exitCode;
+    }
+
+    private int generateArtifacts(URI inputUri) throws Exception {
+        resetRunState();
         System.err.println("Loading template sheet from " + inputUri);
-        var inputStream = inputUri.toURL().openStream();
         var cedarCsvParser = cedarCsvParserFactory.createParser(artifactStatus,
                                                                 version, previousVersion);
+        var start = System.nanoTime();
+        if(outputArchive != null) {
+            runOutputDirectory = Files.createTempDirectory("csv2artifacts");
+            artifactArchiveWriter = new ArtifactArchiveWriter(outputArchive, outputArchiveCompressionLevel);
+        }
+        else {
+            runOutputDirectory = outputDirectory;
+            artifactFileWriter = new ParallelArtifactFileWriter(writer,
+                                                                outputDirectory,
+                                                                jsonSchemaDescription,
+                                                                outputFormat,
+                                                                serializedArtifactCache,
+                                                                Objects.requireNonNullElse(writeThreads, Runtime.getRuntime().availableProcessors()),
+                                                                System.err);
+        }
+        var succeeded = false;
+        Throwable runFailure = null;
         try {
-            var rootNode = cedarCsvParser.parseNodes(inputStream);
+            var rootNode = loadRootNode(cedarCsvParser, inputUri);
 
+            if(templateIdentifier == null) {
+                templateIdentifier = templateName.trim().toLowerCase().replace(" ", "-");
+            }
+
+            if(writeSnapshot) {
+                var snapshotPath = runOutputDirectory.resolve(templateIdentifier + CedarTemplateSnapshot.FILE_EXTENSION);
+                CedarTemplateSnapshot.write(rootNode, templateIdentifier, templateName, snapshotPath);
+                System.err.println("Wrote template snapshot to " + snapshotPath);
+            }
+
+            // All enabled outputs are generated from a single traversal of the tree
+            var visitors = new ArrayList<CedarCsvNodeVisitor>();
+
+            var typeScriptGenerator = new TypeScriptGenerator();
+            var typeScriptVisitor = typeScriptGenerator.createVisitor();
             if (generateTypeScript) {
-                new TypeScriptGenerator().generateTypeScript(Path.of("."), rootNode);
+                visitors.add(typeScriptVisitor);
             }
 
+            var codeGenerationVisitor = createCodeGenerationVisitor();
             if(generateJava) {
-                var codeGenerationNode = toCodeGenerationNode(rootNode);
-                var codeOutputDirectory = outputDirectory.resolve("code");
+                visitors.add(codeGenerationVisitor);
+            }
+
+            var templateVisitor = cedarCsvParser.createTemplateVisitor(templateIdentifier, templateName);
+            if(!parallelTranslation) {
+                visitors.add(templateVisitor);
+            }
+
+            // The instances are based on the template, whose id is only known after it has been posted
+            var exampleInstanceVisitor = templateInstanceGenerator.createCedarInstanceVisitor(TemplateInstanceGenerationMode.WITH_EXAMPLES_AND_DEFAULTS,
+                                                                                              "Example Metadata Instance",
+                                                                                              "Generated by CEDARCSV",
+                                                                                              null);
+            var blankInstanceVisitor = templateInstanceGenerator.createCedarInstanceVisitor(TemplateInstanceGenerationMode.WITH_DEFAULTS,
+                                                                                            "Example Blank Metadata Instance",
+                                                                                            "Generated by CEDARCSV",
+                                                                                            null);
+            var contextVisitor = new JsonLdContextGenerator().createVisitor();
+            if(generateExampleTemplateInstance) {
+                visitors.add(exampleInstanceVisitor);
+                visitors.add(blankInstanceVisitor);
+                visitors.add(contextVisitor);
+            }
+
+            var subtreeHasher = new CedarCsvSubtreeHasher();
+            if(incremental) {
+                visitors.add(subtreeHasher);
+            }
+
+            rootNode.accept(visitors);
+
+            if(incremental) {
+                loadManifest(rootNode, subtreeHasher.getResult());
+            }
+
+            if (generateTypeScript) {
+                typeScriptGenerator.writeTypeScript(Path.of("."), typeScriptVisitor.getResult());
+            }
+
+            if(generateJava) {
+                var codeGenerationNode = codeGenerationVisitor.getResult();
+                var codeOutputDirectory = runOutputDirectory.resolve("code");
                 JavaGenerator.get(javaPackageName, rootClassName, true)
                                         .writeJavaFile(codeGenerationNode, codeOutputDirectory);
             }
 
-            if(templateIdentifier == null) {
-                templateIdentifier = templateName.trim().toLowerCase().replace(" ", "-");
+            var template = parallelTranslation ? translateToTemplateInParallel(cedarCsvParser, rootNode) : templateVisitor.getResult();
+
+            if(collapseDuplicates) {
+                collapseDuplicateArtifacts(template);
+            }
+
+            if(artifactRegistryFile != null) {
+                artifactRegistry = artifactRegistryStore.open(artifactRegistryFile);
+                artifactRegistryScope = new ArtifactRegistry.Scope(importer.getCedarBaseUrl(), getFolderId().value());
+            }
+
+            if(shouldPushToCedar()) {
+                openPostJournal();
             }
-            var template = cedarCsvParser.translateToTemplate(rootNode, templateIdentifier, templateName);
 
             // Write artifacts in a depth first manner
 
@@ -252,6 +575,10 @@ public class Csv2ArtifactsCommand implements CedarCliCommand {
 
             }
 
+            // The serialized artifacts are not needed once the schema artifacts have been written
+            awaitPendingWrites();
+            serializedArtifactCache.clear();
+
             if(generateExampleTemplateInstance) {
                 var exampleInstancePath = getExampleTemplateInstanceFileName();
                 if(!Files.exists(exampleInstancePath.getParent())) {
@@ -259,22 +586,14 @@ public class Csv2ArtifactsCommand implements CedarCliCommand {
                 }
                 var templateId = getTemplateId(template);
                 System.err.println("Generating example template instance in " + exampleInstancePath);
-                var exampleInstance = templateInstanceGenerator.generateCedarInstance(rootNode,
-                                                                                      TemplateInstanceGenerationMode.WITH_EXAMPLES_AND_DEFAULTS,
-                                                                                      "Example Metadata Instance",
-                                                                                      "Generated by CEDARCSV",
-                                                                                      templateId);
+                var exampleInstance = exampleInstanceVisitor.getResult().withSchemaIsBasedOn(templateId);
                 writeArtifacts(List.of(exampleInstance));
 
 
 
-                var blankInstance = templateInstanceGenerator.generateCedarInstance(rootNode,
-                                                                                          TemplateInstanceGenerationMode.WITH_DEFAULTS,
-                                                                                          "Example Blank Metadata Instance",
-                                                                                          "Generated by CEDARCSV",
-                                                                                          templateId);
-                var examplesDirectory = outputDirectory.resolve("examples");
-                var blankJson = objectMapper.writerWithDefaultPrettyPrinter()
+                var blankInstance = blankInstanceVisitor.getResult().withSchemaIsBasedOn(templateId);
+                var examplesDirectory = runOutputDirectory.resolve("examples");
+                var blankJson = codecs.writer(OutputFormat.PRETTY_JSON)
                         .writeValueAsString(blankInstance);
                 Files.writeString(examplesDirectory.resolve("blank.json"), blankJson);
 
@@ -284,7 +603,7 @@ public class Csv2ArtifactsCommand implements CedarCliCommand {
                                             Set.of(StrippingOperations.STRIP_CONTEXT,
                                                    StrippingOperations.STRIP_TYPES
                                             ));
-                var strippedJson = objectMapper.writerWithDefaultPrettyPrinter()
+                var strippedJson = codecs.writer(OutputFormat.PRETTY_JSON)
                         .writeValueAsString(strippedJsonNode);
                 Files.writeString(examplesDirectory.resolve("blank-stripped.json"), strippedJson);
 
@@ -295,18 +614,17 @@ public class Csv2ArtifactsCommand implements CedarCliCommand {
                                                                           StrippingOperations.COLLAPSE_VALUES,
                                                                           StrippingOperations.STRIP_IDS
                                                                    ));
-                var strippedCollapsedJson = objectMapper.writerWithDefaultPrettyPrinter()
+                var strippedCollapsedJson = codecs.writer(OutputFormat.PRETTY_JSON)
                                                .writeValueAsString(strippedCollapsedJsonNode);
                 Files.writeString(examplesDirectory.resolve("blank-stripped-collapsed.json"), strippedCollapsedJson);
 
 
-                new ObjectMapper(new YAMLFactory().disable(YAMLGenerator.Feature.WRITE_DOC_START_MARKER)
-                                                  .enable(YAMLGenerator.Feature.MINIMIZE_QUOTES))
-                        .writeValue(examplesDirectory.resolve("blank-stripped-collapsed.yml").toFile(), strippedCollapsedJsonNode);
+                codecs.yamlWriter()
+                      .writeValue(examplesDirectory.resolve("blank-stripped-collapsed.yml").toFile(), strippedCollapsedJsonNode);
 
 
-                var ctx = new JsonLdContextGenerator().generateContext(rootNode);
-                var ctxJson = objectMapper.writerWithDefaultPrettyPrinter()
+                var ctx = contextVisitor.getResult();
+                var ctxJson = codecs.writer(OutputFormat.PRETTY_JSON)
                         .writeValueAsString(ctx);
                 Files.writeString(examplesDirectory.resolve("context.json"), ctxJson);
 
@@ -319,18 +637,191 @@ public class Csv2ArtifactsCommand implements CedarCliCommand {
                     Files.createDirectories(docsPath.getParent());
                 }
                 System.err.println("Generating documentation in " + docsPath);
+                var markdownRenderer = docsGenerator.getMarkdownRenderer();
+                var hitCount = markdownRenderer.getHitCount();
+                var missCount = markdownRenderer.getMissCount();
                 docsGenerator.writeDocs(template,  docsPath, bioportalApiKey.getApiKey());
+                var renderedHitCount = markdownRenderer.getHitCount() - hitCount;
+                var renderedMissCount = markdownRenderer.getMissCount() - missCount;
+                System.err.printf("Rendered %d Markdown examples (%d from cache)\n", renderedHitCount + renderedMissCount, renderedHitCount);
             }
+
+            if(collapseDuplicates) {
+                System.err.printf("Collapsed %d duplicate fields and elements\n", collapsedIds.size());
+            }
+
+            if(artifactRegistry != null) {
+                artifactRegistry.save();
+                System.err.printf("Reused %d previously posted fields and elements from %s\n", reusedArtifactsCount, artifactRegistry.getFile());
+            }
+
+            if(shouldPushToCedar()) {
+                var postingMillis = TimeUnit.NANOSECONDS.toMillis(postingNanos);
+                System.err.printf("Posted %d artifacts in %d levels in %d ms (%.1f artifacts/s)\n",
+                                  postedArtifactsCount,
+                                  postedLevelsCount,
+                                  postingMillis,
+                                  postedArtifactsCount * 1000.0 / Math.max(postingMillis, 1));
+                if(resume) {
+                    System.err.printf("Resumed %d previously posted artifacts from %s\n", resumedArtifactsCount, postJournal.getFile());
+                }
+                if(reportSharedStatistics) {
+                    printPostingStatistics(importer, sharedWebClients);
+                }
+            }
+
+            if(incremental) {
+                // The manifest must only list artifacts whose files are complete
+                awaitPendingWrites();
+                new ArtifactManifest(optionsHash, manifestEntries).write(runOutputDirectory, objectMapper);
+                System.err.printf("Skipped %d unchanged artifacts\n", skippedArtifactsCount);
+            }
+            succeeded = true;
         } catch (CedarCsvParseException e) {
             System.err.println("\033[31;1mERROR: " + e.getMessage() + "\033[0m");
-            System.err.println("   \033[31;1mAt: " + e.getNode().getPath().stream()
-                                                          .map(CedarCsvParser.Node::getName)
-                                                      .collect(Collectors.joining(" > "))+ "\033[0m");
+            var path = e.getNode().getPath().stream()
+                        .map(CedarCsvParser.Node::getName)
+                        .collect(Collectors.joining(" > "));
+            System.err.println("   \033[31;1mAt: " + path + "\033[0m");
+            failureReason = e.getMessage() + " (at " + path + ")";
+            return 1;
+        } catch (Throwable e) {
+            runFailure = e;
+            throw e;
+        } finally {
+            finishRun(start, succeeded, runFailure);
         }
         return 0;
     }
 
+    private void awaitPendingWrites() {
+        if(artifactFileWriter != null) {
+            artifactFileWriter.awaitPendingWrites();
+        }
+    }
+
+    /**
+     * Waits for the artifacts that were generated in a run to be written.  If an archive is being written then, if the
+     * run succeeded, the other files that were generated are added to it and the archive is moved into place.  If the
+     * run failed then the archive is discarded and any existing archive is left as it is.  Each resource is released
+     * even if releasing an earlier one fails.
+     * @param runFailure The exception that the run failed with, if any.  Failures to release resources are added to
+     *                   it as suppressed exceptions, rather than replacing it.
+     */
+    private void finishRun(long start, boolean succeeded, @Nullable Throwable runFailure) throws IOException {
+        Exception failure = null;
+        try {
+            if(postJournal != null) {
+                postJournal.close();
+            }
+        } catch (IOException | RuntimeException e) {
+            failure = e;
+        } finally {
+            postJournal = null;
+        }
+        try {
+            if(artifactFileWriter != null) {
+                artifactFileWriter.close();
+            }
+        } catch (RuntimeException e) {
+            failure = addFailure(failure, e);
+        } finally {
+            artifactFileWriter = null;
+        }
+        if(artifactArchiveWriter != null) {
+            try {
+                if(succeeded && failure == null) {
+                    artifactArchiveWriter.writeDirectory(runOutputDirectory);
+                    artifactArchiveWriter.close();
+                    var elapsedNanos = System.nanoTime() - start;
+                    var megabytes = artifactArchiveWriter.getUncompressedBytes() / (1024.0 * 1024.0);
+                    System.err.printf("Wrote %d files (%.1f MB, %.1f MB compressed) to %s in %d ms (%.1f MB/s)\n",
+                                      artifactArchiveWriter.getEntryCount(),
+                                      megabytes,
+                                      Files.size(outputArchive) / (1024.0 * 1024.0),
+                                      outputArchive,
+                                      TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                                      megabytes / (Math.max(elapsedNanos, 1) / 1_000_000_000.0));
+                }
+                else {
+                    System.err.println("The archive " + outputArchive + " was not written because generation failed");
+                }
+            } catch (IOException | RuntimeException e) {
+                failure = addFailure(failure, e);
+            }
+            try {
+                // This does nothing if the archive was moved into place
+                artifactArchiveWriter.abort();
+            } catch (IOException | RuntimeException e) {
+                failure = addFailure(failure, e);
+            } finally {
+                artifactArchiveWriter = null;
+            }
+            try {
+                deleteRecursively(runOutputDirectory);
+            } catch (IOException | RuntimeException e) {
+                failure = addFailure(failure, e);
+            }
+        }
+        runOutputDirectory = null;
+        if(failure == null) {
+            return;
+        }
+        if(runFailure != null) {
+            runFailure.addSuppressed(failure);
+        }
+        else if(failure instanceof IOException ioException) {
+            throw ioException;
+        }
+        else {
+            throw (RuntimeException) failure;
+        }
+    }
+
+    private static Exception addFailure(@Nullable Exception failure, Exception e) {
+        if(failure == null) {
+            return e;
+        }
+        failure.addSuppressed(e);
+        return failure;
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        try (var paths = Files.walk(directory)) {
+            for(var path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    private CedarTemplate translateToTemplateInParallel(CedarCsvParser cedarCsvParser, CedarCsvParser.Node rootNode) {
+        return cedarCsvParser.translateToTemplate(rootNode, templateIdentifier, templateName,
+                                                  ForkJoinPool.commonPool(),
+                                                  CedarCsvParser.DEFAULT_SEQUENTIAL_THRESHOLD);
+    }
+
     public static CodeGenerationNode toCodeGenerationNode(CedarCsvParser.Node node) {
+        var visitor = createCodeGenerationVisitor();
+        node.accept(visitor);
+        return visitor.getResult();
+    }
+
+    public static CedarCsvNodeFolder<CodeGenerationNode, CodeGenerationNode> createCodeGenerationVisitor() {
+        return new CedarCsvNodeFolder<>() {
+            @Override
+            protected CodeGenerationNode visitNode(CedarCsvParser.Node node, List<CodeGenerationNode> childResults) {
+                return toCodeGenerationNode(node, childResults);
+            }
+
+            @Override
+            protected CodeGenerationNode visitTopNode(CedarCsvParser.Node node, List<CodeGenerationNode> childResults) {
+                return toCodeGenerationNode(node, childResults);
+            }
+        };
+    }
+
+    private static CodeGenerationNode toCodeGenerationNode(CedarCsvParser.Node node,
+                                                           List<CodeGenerationNode> childCodeGenerationNodes) {
         var row = node.getRow();
         FieldInputType inputType;
         if(row == null) {
@@ -343,7 +834,7 @@ public class Csv2ArtifactsCommand implements CedarCliCommand {
                 null,
                 node.isRoot(),
                 node.getName(),
-                node.getChildNodes().stream().map(Csv2ArtifactsCommand::toCodeGenerationNode).toList(),
+                List.copyOf(childCodeGenerationNodes),
                 getArtifactType(node), node.getDescription(),
                 node.getXsdDatatype().orElse(null),
                 node.isRequired() ? CodeGenerationNode.Required.REQUIRED : CodeGenerationNode.Required.OPTIONAL,
@@ -382,7 +873,7 @@ public class Csv2ArtifactsCommand implements CedarCliCommand {
 
     private Path getDocumentationFileName() {
         if(docsOutputFileName == null) {
-            var docsDirectory = outputDirectory.resolve("docs");
+            var docsDirectory = runOutputDirectory.resolve("docs");
             return docsDirectory.resolve("docs.md");
         }
         var outputFile = Path.of(docsOutputFileName);
@@ -390,13 +881,13 @@ public class Csv2ArtifactsCommand implements CedarCliCommand {
             return outputFile;
         }
         else {
-            return outputDirectory.resolve(outputFile);
+            return runOutputDirectory.resolve(outputFile);
         }
     }
 
     private Path getExampleTemplateInstanceFileName() {
         if(exampleTemplateInstanceOutputFileName == null) {
-            var docsDirectory = outputDirectory.resolve("examples");
+            var docsDirectory = runOutputDirectory.resolve("examples");
             return docsDirectory.resolve("example-template-instance.json");
         }
         var outputFile = Path.of(exampleTemplateInstanceOutputFileName);
@@ -404,45 +895,487 @@ public class Csv2ArtifactsCommand implements CedarCliCommand {
             return outputFile;
         }
         else {
-            return outputDirectory.resolve(outputFile);
+            return runOutputDirectory.resolve(outputFile);
         }
     }
 
     private void writeArtifacts(List<? extends CedarArtifact> artifacts) {
-        var counter = new AtomicInteger();
         if(shouldPushToCedar()) {
+            postArtifacts(artifacts);
+        }
+        else if(incremental) {
             artifacts.forEach(artifact -> {
-                try {
-                    var initialId = artifact.id();
+                if(!isCollapsedDuplicate(artifact) && !skipUnchangedArtifact(artifact)) {
+                    // Embedded artifacts that were skipped keep the ids that they were previously written with
                     var artifactWithReplacedIds = artifact.replaceIds(artifact2GeneratedIdMap);
-                    var artifactWithNullId = artifactWithReplacedIds.withId(null);
-                    var posted = postArtifactToCedar(artifactWithNullId);
-                    counter.incrementAndGet();
-                    posted.ifPresent(r -> {
-                        System.err.printf("\033[32;1mPosted\033[30;0m %s %d of %d to CEDAR\n", artifact.getSimpleTypeName().getName(), counter.get(), artifacts.size());
-                        System.err.printf("    %s (id=%s)\n", r.schemaName(), r.cedarId().value());
-                        if (initialId != null) {
-                            artifact2GeneratedIdMap.put(initialId, r.cedarId());
-                            var postedArtifact = artifactWithReplacedIds.withId(r.cedarId());
-                            writeCedarArtifact(postedArtifact);
-                        }
-                    });
-                } catch (IOException | InterruptedException e) {
-                    System.err.println(e.getMessage());
+                    writeCedarArtifact(artifactWithReplacedIds);
+                    recordArtifact(artifact, artifactWithReplacedIds.id(), false);
                 }
             });
         }
         else {
-            artifacts.forEach(this::writeCedarArtifact);
+            // Artifacts that embed collapsed duplicates refer to the first occurrence
+            artifacts.stream()
+                     .filter(artifact -> !isCollapsedDuplicate(artifact))
+                     .map(artifact -> artifact.replaceIds(artifact2GeneratedIdMap))
+                     .forEach(this::writeCedarArtifact);
+        }
+    }
+
+    /**
+     * Posts the specified artifacts to CEDAR.  CEDAR mints the ids of posted artifacts, so an artifact can only be
+     * posted after the artifacts that it embeds have been posted.  The artifacts are posted level by level, in
+     * dependency order, and the artifacts in a level are posted concurrently.  The ids of the artifacts in a level are
+     * replaced, and the responses are handled, on the calling thread.
+     */
+    private void postArtifacts(List<? extends CedarArtifact> artifacts) {
+        var counter = new AtomicInteger();
+        var unskipped = new ArrayList<CedarArtifact>();
+        for(var artifact : artifacts) {
+            if(isCollapsedDuplicate(artifact) || skipUnchangedArtifact(artifact)) {
+                counter.incrementAndGet();
+            }
+            else {
+                unskipped.add(artifact);
+            }
+        }
+        var levels = ArtifactDependencyLevels.get(unskipped,
+                                                  id -> duplicateIds.getOrDefault(id, List.of()));
+        // Artifacts whose content matches an artifact that is being posted in the same level are deferred to a pass of
+        // their own, so that they reuse the posted artifact from the registry.  If that post failed then they are posted
+        // in that pass.  The pass comes before the next level, so that their ids are mapped before the artifacts that
+        // embed them are posted.
+        var remainingLevels = new ArrayDeque<>(levels);
+        var deferred = new ArrayList<CedarArtifact>();
+        while(!remainingLevels.isEmpty() || !deferred.isEmpty()) {
+            final List<? extends CedarArtifact> levelArtifacts;
+            if(!deferred.isEmpty()) {
+                levelArtifacts = new ArrayList<>(deferred);
+                deferred.clear();
+            }
+            else {
+                levelArtifacts = remainingLevels.removeFirst();
+            }
+            var pending = new ArrayList<PendingPost>();
+            var pendingContentHashes = new HashSet<String>();
+            for(var artifact : levelArtifacts) {
+                var initialId = artifact.id();
+                var artifactWithReplacedIds = artifact.replaceIds(artifact2GeneratedIdMap);
+                var contentHash = getRegistryContentHash(artifactWithReplacedIds);
+                var journalKey = getJournalKey(artifactWithReplacedIds, contentHash);
+                var journalEntry = postJournal.takeReplayedEntry(journalKey);
+                if(journalEntry.isPresent()) {
+                    var journalId = CedarId.valueOf(journalEntry.get().id());
+                    counter.incrementAndGet();
+                    resumedArtifactsCount++;
+                    System.err.printf("\033[32;1mResumed\033[30;0m %s %d of %d\n", artifact.getSimpleTypeName().getName(), counter.get(), artifacts.size());
+                    System.err.printf("    %s (id=%s)\n", journalEntry.get().name(), journalId.value());
+                    var registryEntry = new ArtifactRegistry.Entry(journalId.value(),
+                                                                   artifact.getSimpleTypeName().getName(),
+                                                                   journalEntry.get().name());
+                    contentHash.ifPresent(hash -> artifactRegistry.put(artifactRegistryScope, hash, registryEntry));
+                    if(initialId != null) {
+                        putGeneratedId(initialId, journalId);
+                    }
+                    writeCedarArtifact(artifactWithReplacedIds.withId(journalId));
+                    recordArtifact(artifact, journalId, true);
+                    continue;
+                }
+                // A lambda rather than a method reference, because the registry is null if no registry file was given
+                var registeredId = contentHash.flatMap(hash -> artifactRegistry.get(artifactRegistryScope, hash)).map(entry -> CedarId.valueOf(entry.id()));
+                if(registeredId.isPresent()) {
+                    counter.incrementAndGet();
+                    reusedArtifactsCount++;
+                    System.err.printf("\033[32;1mReused\033[30;0m %s %d of %d\n", artifact.getSimpleTypeName().getName(), counter.get(), artifacts.size());
+                    System.err.printf("    %s (id=%s)\n", artifact.artifactInfo().schemaName(), registeredId.get().value());
+                    if(initialId != null) {
+                        putGeneratedId(initialId, registeredId.get());
+                    }
+                    writeCedarArtifact(artifactWithReplacedIds.withId(registeredId.get()));
+                    recordArtifact(artifact, registeredId.get(), true);
+                }
+                else if(contentHash.isPresent() && !pendingContentHashes.add(contentHash.get())) {
+                    deferred.add(artifact);
+                }
+                else {
+                    pending.add(new PendingPost(artifact, artifactWithReplacedIds, contentHash, journalKey));
+                }
+            }
+            var levelStart = System.nanoTime();
+            var posts = Flux.fromIterable(pending)
+                            .flatMap(this::postArtifactToCedar, pushToCedar.postConcurrency)
+                            .toIterable();
+            for(var post : posts) {
+                counter.incrementAndGet();
+                post.response().ifPresent(r -> handlePostedArtifact(post.pendingPost(), r, counter.get(), artifacts.size()));
+            }
+            postingNanos += System.nanoTime() - levelStart;
+            postedLevelsCount++;
         }
     }
 
-    private Optional<PostedArtifactResponse> postArtifactToCedar(CedarArtifact artifact) throws IOException, InterruptedException {
-        var cedarFolderId = getFolderId();
+    private void handlePostedArtifact(PendingPost pendingPost, PostedArtifactResponse r, int count, int total) {
+        var artifact = pendingPost.artifact();
+        postedArtifactsCount++;
+        System.err.printf("\033[32;1mPosted\033[30;0m %s %d of %d to CEDAR\n", artifact.getSimpleTypeName().getName(), count, total);
+        System.err.printf("    %s (id=%s)\n", r.schemaName(), r.cedarId().value());
+        try {
+            postJournal.append(new PostJournal.Entry(pendingPost.journalKey(),
+                                                     r.cedarId().value(),
+                                                     artifact.getSimpleTypeName().getName(),
+                                                     r.schemaName()));
+        } catch (IOException e) {
+            System.err.println("\033[31;1mCould not record the posted artifact in the post journal:\033[30;0m " + e.getMessage());
+        }
+        var registryEntry = new ArtifactRegistry.Entry(r.cedarId().value(),
+                                                       artifact.getSimpleTypeName().getName(),
+                                                       r.schemaName());
+        pendingPost.contentHash().ifPresent(hash -> artifactRegistry.put(artifactRegistryScope, hash, registryEntry));
+        if (artifact.id() != null) {
+            putGeneratedId(artifact.id(), r.cedarId());
+            var postedArtifact = pendingPost.artifactWithReplacedIds().withId(r.cedarId());
+            writeCedarArtifact(postedArtifact);
+            recordArtifact(artifact, r.cedarId(), true);
+        }
+    }
+
+    /**
+     * An artifact that is waiting to be posted
+     * @param artifact The artifact, with the ids that it was generated with
+     * @param artifactWithReplacedIds The artifact with the ids of the artifacts that it embeds replaced with the ids
+     *                                that they were posted with
+     * @param contentHash The hash that the artifact is recorded with in the artifact registry
+     * @param journalKey The key that the artifact is recorded with in the post journal
+     */
+    private record PendingPost(CedarArtifact artifact,
+                               CedarArtifact artifactWithReplacedIds,
+                               Optional<String> contentHash,
+                               String journalKey) {
+
+    }
+
+    private record CompletedPost(PendingPost pendingPost, Optional<PostedArtifactResponse> response) {
+
+    }
+
+    /**
+     * Maps the ids of fields and elements that have the same content as an earlier field or element to the id of the
+     * earlier one, so that each distinct field and element is only written and posted once.  Fields are visited
+     * before elements, and child elements before their parents, so the content of an element is compared after the
+     * ids of duplicates that it contains have been replaced.
+     */
+    private void collapseDuplicateArtifacts(CedarTemplate template) {
+        var firstIdsByContentHash = new HashMap<String, CedarId>();
+        var artifacts = new ArrayList<CedarSchemaArtifact>(template.getAllFields());
+        artifacts.addAll(template.getAllElements());
+        for(var artifact : artifacts) {
+            var id = artifact.id();
+            if(id == null || artifact2GeneratedIdMap.containsKey(id)) {
+                continue;
+            }
+            var contentHash = artifactContentHasher.hash((CedarSchemaArtifact) artifact.replaceIds(artifact2GeneratedIdMap));
+            var firstId = firstIdsByContentHash.putIfAbsent(contentHash, id);
+            if(firstId != null && !firstId.equals(id)) {
+                artifact2GeneratedIdMap.put(id, firstId);
+                duplicateIds.computeIfAbsent(firstId, k -> new ArrayList<>()).add(id);
+                collapsedIds.add(id);
+            }
+        }
+    }
+
+    private boolean isCollapsedDuplicate(CedarArtifact artifact) {
+        return artifact.id() != null && collapsedIds.contains(artifact.id());
+    }
+
+    /**
+     * Records the id that an artifact was written or posted with.  The ids of its duplicates are mapped to the same
+     * id.
+     */
+    private void putGeneratedId(CedarId initialId, CedarId generatedId) {
+        artifact2GeneratedIdMap.put(initialId, generatedId);
+        duplicateIds.getOrDefault(initialId, List.of())
+                    .forEach(duplicateId -> artifact2GeneratedIdMap.put(duplicateId, generatedId));
+    }
+
+    /**
+     * Opens the post journal for the run.  A new journal is started unless the run is being resumed.
+     */
+    private void openPostJournal() throws IOException {
+        var journalFile = getPostJournalFile();
+        if(resume) {
+            postJournal = PostJournal.resume(journalFile, getFolderId(), objectMapper);
+            System.err.printf("Replayed %d posted artifacts from %s\n", postJournal.getReplayedCount(), journalFile);
+        }
+        else {
+            postJournal = PostJournal.create(journalFile, getFolderId(), objectMapper);
+        }
+    }
+
+    private Path getPostJournalFile() {
+        if(outputArchive != null) {
+            return outputArchive.resolveSibling(outputArchive.getFileName() + PostJournal.FILE_NAME);
+        }
+        return outputDirectory.resolve(PostJournal.FILE_NAME);
+    }
+
+    /**
+     * Gets the key that the specified artifact is recorded with in the post journal.  Schema artifacts are keyed by
+     * their content, which, once the ids of the artifacts that they embed have been replaced, is the same from one
+     * run to the next.  Instances are keyed by their name and the template that they are based on.
+     * @param artifact The artifact, with the ids of the artifacts that it embeds replaced
+     * @param contentHash The registry content hash of the artifact, if it has already been computed
+     */
+    private String getJournalKey(CedarArtifact artifact, Optional<String> contentHash) {
+        var typeName = artifact.getSimpleTypeName().getName();
+        if(artifact instanceof CedarSchemaArtifact schemaArtifact) {
+            return typeName + ":" + contentHash.orElseGet(() -> artifactContentHasher.hash(schemaArtifact));
+        }
+        if(artifact instanceof CedarInstance instance) {
+            var basedOn = instance.schemaIsBasedOn() != null ? instance.schemaIsBasedOn().value() : "";
+            return typeName + ":" + basedOn + ":" + instance.schemaName();
+        }
+        return typeName + ":" + artifact.artifactInfo().schemaName();
+    }
+
+    /**
+     * Gets the content hash that the specified artifact is recorded with in the artifact registry
+     * @return The hash, or empty if there is no registry or the artifact is not a field or element
+     */
+    private Optional<String> getRegistryContentHash(CedarArtifact artifact) {
+        if(artifactRegistry == null) {
+            return Optional.empty();
+        }
+        if(!(artifact instanceof CedarTemplateField) && !(artifact instanceof CedarTemplateElement)) {
+            return Optional.empty();
+        }
+        return Optional.of(artifactContentHasher.hash((CedarSchemaArtifact) artifact));
+    }
+
+    /**
+     * Loads the node tree from the input, which is either a CSV file, a template snapshot or an archive that contains a
+     * template snapshot
+     */
+    private CedarCsvParser.Node loadRootNode(CedarCsvParser cedarCsvParser, URI inputUri) throws IOException {
+        if(CedarTemplateSnapshot.isSnapshotFile(input) && !input.startsWith("http")) {
+            var snapshot = CedarTemplateSnapshot.read(Path.of(inputUri));
+            System.err.println("Loaded snapshot of " + snapshot.getTemplateName() + " (" + snapshot.getNodeCount() + " nodes) created at " + snapshot.getCreatedAt());
+            return snapshot.getRootNode();
+        }
+        if(ArchiveFormat.isArchiveFile(input) && !input.startsWith("http")) {
+            var snapshot = CedarTemplateSnapshot.readFromArchive(Path.of(inputUri));
+            System.err.println("Loaded snapshot of " + snapshot.getTemplateName() + " (" + snapshot.getNodeCount() + " nodes) created at " + snapshot.getCreatedAt() + " from " + input);
+            return snapshot.getRootNode();
+        }
+        try (var inputStream = openInput(inputUri)) {
+            return cedarCsvParser.parseNodes(inputStream);
+        }
+    }
+
+    private InputStream openInput(URI inputUri) throws IOException {
+        if(!input.startsWith("http")) {
+            return inputUri.toURL().openStream();
+        }
+        var cacheDirectory = Objects.requireNonNullElse(inputCacheDirectory, httpInputCache.getDefaultCacheDirectory());
+        var localCopy = httpInputCache.getLocalCopy(inputUri, cacheDirectory, offline);
+        return Files.newInputStream(localCopy);
+    }
+
+    private void resetRunState() {
+        artifact2GeneratedIdMap.clear();
+        duplicateIds.clear();
+        collapsedIds.clear();
+        artifactRegistry = null;
+        artifactRegistryScope = null;
+        reusedArtifactsCount = 0;
+        resumedArtifactsCount = 0;
+        postedArtifactsCount = 0;
+        postedLevelsCount = 0;
+        postingNanos = 0;
+        serializedArtifactCache.clear();
+        manifestEntries.clear();
+        previousManifest = ArtifactManifest.empty("");
+        subtreeHashes = Map.of();
+        optionsHash = "";
+        rootNodeHash = "";
+        skippedArtifactsCount = 0;
+    }
+
+    /**
+     * Watches the input file and regenerates artifacts each time that it changes.  The parser factory, language codes
+     * and object mappers are reused between runs.  Editors often save a file using several writes, so artifacts are
+     * only regenerated once there have been no further changes for the debounce period.
+     * @return The exit code, if watching stops
+     */
+    private int watchInput(Path inputPath) throws IOException, InterruptedException {
+        var inputDirectory = inputPath.toAbsolutePath().getParent();
+        var inputFileName = inputPath.getFileName();
+        try (var watchService = inputDirectory.getFileSystem().newWatchService()) {
+            var watchKey = inputDirectory.register(watchService,
+                                                   StandardWatchEventKinds.ENTRY_CREATE,
+                                                   StandardWatchEventKinds.ENTRY_MODIFY);
+            System.err.println("Watching " + inputPath + " for changes.  Press Ctrl+C to stop.");
+            while (true) {
+                var changed = pollInputChanged(watchService.take(), inputFileName);
+                WatchKey nextKey;
+                while ((nextKey = watchService.poll(watchDebounceMillis, TimeUnit.MILLISECONDS)) != null) {
+                    changed |= pollInputChanged(nextKey, inputFileName);
+                }
+                if(!watchKey.isValid()) {
+                    return fail("Stopped watching " + inputDirectory + " because it is no longer accessible");
+                }
+                if(changed) {
+                    var start = System.nanoTime();
+                    try {
+                        generateArtifacts(inputPath.toUri());
+                        System.err.printf("Regenerated artifacts in %d ms\n",
+                                          TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                    } catch (Exception e) {
+                        // Keep watching so that the error can be fixed in the spreadsheet
+                        System.err.println("\033[31;1mERROR: " + e.getMessage() + "\033[0m");
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Prints the retries and connection usage of posts to CEDAR.  These are counted since the process started.
+     */
+    static void printPostingStatistics(CedarArtifactPoster importer, SharedWebClients sharedWebClients) {
+        if(importer.getRetryCount() > 0 || importer.getPauseCount() > 0) {
+            System.err.printf("Retried posts %d times, found %d artifacts created by posts that appeared to fail, and paused posting %d times\n",
+                              importer.getRetryCount(),
+                              importer.getRecoveredCount(),
+                              importer.getPauseCount());
+        }
+        sharedWebClients.printStatistics(System.err);
+    }
+
+    private static boolean pollInputChanged(WatchKey watchKey, Path inputFileName) {
+        var changed = false;
+        for(var event : watchKey.pollEvents()) {
+            if(event.kind().equals(StandardWatchEventKinds.OVERFLOW) || inputFileName.equals(event.context())) {
+                changed = true;
+            }
+        }
+        watchKey.reset();
+        return changed;
+    }
+
+    private void loadManifest(CedarCsvParser.Node rootNode,
+                              Map<CedarCsvParser.Node, String> subtreeHashes) throws IOException {
+        this.subtreeHashes = subtreeHashes;
+        this.rootNodeHash = subtreeHashes.get(rootNode);
+        this.optionsHash = CedarCsvSubtreeHasher.hashValues(version,
+                                                            artifactStatus,
+                                                            previousVersion,
+                                                            jsonSchemaDescription,
+                                                            templateIdentifier,
+                                                            templateName,
+                                                            outputFormat,
+                                                            collapseDuplicates,
+                                                            shouldPushToCedar() ? getFolderId() : null);
+        // A manifest that was written with different generation options is of no use
+        this.previousManifest = ArtifactManifest.read(runOutputDirectory, objectMapper)
+                                                .filter(manifest -> manifest.optionsHash().equals(optionsHash))
+                                                .orElse(ArtifactManifest.empty(optionsHash));
+    }
+
+    /**
+     * Gets a hash of the inputs that the specified artifact is generated from.
+     * @return The hash, or empty if the artifact is not tracked by the manifest
+     */
+    private Optional<String> getInputHash(CedarArtifact artifact) {
+        if(artifact instanceof CedarTemplate) {
+            return Optional.of(CedarCsvSubtreeHasher.hashValues(optionsHash, rootNodeHash));
+        }
+        else if(artifact instanceof CedarTemplateField field) {
+            return field.supplementaryInfo()
+                        .getParsedNode()
+                        .map(subtreeHashes::get)
+                        .map(subtreeHash -> CedarCsvSubtreeHasher.hashValues(optionsHash, subtreeHash));
+        }
+        else if(artifact instanceof CedarTemplateElement element) {
+            var node = element.supplementaryInfo().getParsedNode();
+            if(node.isPresent()) {
+                return node.map(subtreeHashes::get)
+                           .map(subtreeHash -> CedarCsvSubtreeHasher.hashValues(optionsHash, subtreeHash));
+            }
+            else {
+                // The umbrella element, which is not parsed from a row, contains the whole template
+                return Optional.of(CedarCsvSubtreeHasher.hashValues(optionsHash, rootNodeHash,
+                                                                    umbrellaElementName, umbrellaElementDescription));
+            }
+        }
+        else {
+            return Optional.empty();
+        }
+    }
+
+    private static String getManifestKey(CedarArtifact artifact) {
+        return artifact.getSimpleTypeName().getName() + ":" + artifact.artifactInfo().schemaIdentifier();
+    }
+
+    /**
+     * Determines whether the specified artifact is unchanged since the previous run, in which case it is not
+     * regenerated.  The id of the artifact is mapped to the id that the artifact was previously written or posted
+     * with so that artifacts that embed it refer to the existing artifact.
+     */
+    private boolean skipUnchangedArtifact(CedarArtifact artifact) {
+        if(!incremental) {
+            return false;
+        }
+        var inputHash = getInputHash(artifact);
+        if(inputHash.isEmpty()) {
+            return false;
+        }
+        var key = getManifestKey(artifact);
+        var previousEntry = previousManifest.getEntry(key)
+                                            .filter(entry -> entry.inputHash().equals(inputHash.get()))
+                                            .filter(entry -> entry.id() != null)
+                                            .filter(entry -> entry.posted() == shouldPushToCedar())
+                                            .filter(entry -> Files.exists(runOutputDirectory.resolve(entry.fileName())));
+        if(previousEntry.isEmpty()) {
+            return false;
+        }
+        if(artifact.id() != null) {
+            putGeneratedId(artifact.id(), CedarId.valueOf(previousEntry.get().id()));
+        }
+        manifestEntries.put(key, previousEntry.get());
+        skippedArtifactsCount++;
+        return true;
+    }
+
+    private void recordArtifact(CedarArtifact artifact, CedarId id, boolean posted) {
+        if(!incremental || id == null) {
+            return;
+        }
+        getInputHash(artifact).ifPresent(inputHash -> {
+            manifestEntries.put(getManifestKey(artifact),
+                                new ArtifactManifest.Entry(inputHash,
+                                                           CliCedarArtifactWriter.getFileName(artifact, outputFormat),
+                                                           id.value(),
+                                                           posted));
+        });
+    }
+
+    private Mono<CompletedPost> postArtifactToCedar(PendingPost pendingPost) {
         // The ID must be null.  This is because CEDAR mints it
-        return importer.postToCedar(artifact, cedarFolderId,
-                                    pushToCedar.getCedarApiKey(),
-                                    artifact.toCompactString(), jsonSchemaDescription);
+        var artifact = pendingPost.artifactWithReplacedIds().withId(null);
+        return Mono.defer(() -> {
+                       try {
+                           return importer.postToCedarAsync(artifact, getFolderId(),
+                                                            pushToCedar.getCedarApiKey(),
+                                                            artifact.toCompactString(), jsonSchemaDescription);
+                       } catch (IOException e) {
+                           return Mono.error(e);
+                       }
+                   })
+                   .onErrorResume(e -> {
+                       System.err.println(e.getMessage());
+                       return Mono.just(Optional.empty());
+                   })
+                   .map(response -> new CompletedPost(pendingPost, response));
     }
 
     private CedarId getFolderId() {
@@ -454,10 +1387,15 @@ public class Csv2ArtifactsCommand implements CedarCliCommand {
     }
 
     private void writeCedarArtifact(CedarArtifact f) {
-        try {
-            writer.writeCedarArtifact(f, outputDirectory, jsonSchemaDescription);
-        } catch (IOException e) {
-            System.err.println("Could not write " + f.getSimpleTypeName().getName() + ": " + e.getMessage());
+        if(artifactArchiveWriter != null) {
+            try {
+                writer.writeCedarArtifact(f, artifactArchiveWriter, jsonSchemaDescription, outputFormat, serializedArtifactCache);
+            } catch (IOException e) {
+                System.err.println("Could not write " + f.getSimpleTypeName().getName() + ": " + e.getMessage());
+            }
+        }
+        else {
+            artifactFileWriter.write(f);
         }
     }
 }
@@ -5,8 +5,10 @@ import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.JsonNodeType;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.metadatacenter.cedar.io.OutputFormat;
 import org.metadatacenter.cedar.util.ExpandInstance;
 import org.springframework.stereotype.Component;
+import picocli.CommandLine;
 import picocli.CommandLine.Command;
 import picocli.CommandLine.Option;
 
@@ -40,6 +42,12 @@ public class ExpandInstanceCommand implements CedarCliCommand {
             description = "A file path that specifies where the expanded CEDAR metadata template instance will be written to.")
     Path outputPath;
 
+    @Option(names = "--output-format",
+            defaultValue = "PRETTY_JSON",
+            showDefaultValue = CommandLine.Help.Visibility.ALWAYS,
+            description = "The format that the output is written in.  One of ${COMPLETION-CANDIDATES}.  SMILE and CBOR are binary formats that are intended for intermediate pipeline stages where the output is not read by people.")
+    OutputFormat outputFormat;
+
     private final ObjectMapper objectMapper;
 
     private final ExpandInstance expandInstance;
@@ -73,8 +81,7 @@ public class ExpandInstanceCommand implements CedarCliCommand {
         var expandedInstance = expandInstance.expandInstance((ObjectNode) partialInstance,
                                                              (ObjectNode) blankInstance);
 
-        objectMapper.writerWithDefaultPrettyPrinter()
-                .writeValue(outputPath.toFile(), expandedInstance);
+        outputFormat.writeValue(objectMapper, expandedInstance, Files.newOutputStream(outputPath));
 
 
         System.err.printf("Expansion completed.  Expanded partialInstance output to %s\n", outputPath);
@@ -0,0 +1,153 @@
+package org.metadatacenter.cedar.cli;
+
+import org.metadatacenter.cedar.api.CedarArtifact;
+import org.metadatacenter.cedar.io.OutputFormat;
+import org.metadatacenter.cedar.io.SerializedArtifactCache;
+
+import javax.annotation.Nullable;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Matthew Horridge
+ * Stanford Center for Biomedical Informatics Research
+ * 2026-10-17
+ * <p>
+ * Writes artifacts to an output directory on a fixed number of threads.  At most a few writes per thread are queued.
+ * When the queue is full the thread that submits a write performs it, so artifacts are never generated much faster
+ * than they can be written.  Writes of artifacts to the same file are performed in the order that they were
+ * submitted.  Writes must be submitted from a single thread.  Closing the writer waits for pending writes and reports
+ * the write throughput.
+ */
+public class ParallelArtifactFileWriter implements AutoCloseable {
+
+    private static final int QUEUED_WRITES_PER_THREAD = 4;
+
+    private final CliCedarArtifactWriter writer;
+
+    private final Path outputDirectory;
+
+    private final String jsonSchemaDescription;
+
+    private final OutputFormat outputFormat;
+
+    @Nullable
+    private final SerializedArtifactCache cache;
+
+    private final PrintStream log;
+
+    private final ThreadPoolExecutor executor;
+
+    private final Map<Path, CompletableFuture<Void>> pendingWrites = new HashMap<>();
+
+    private final AtomicInteger writtenFiles = new AtomicInteger();
+
+    private final AtomicInteger failedFiles = new AtomicInteger();
+
+    private final AtomicLong writtenBytes = new AtomicLong();
+
+    private final long startTime = System.nanoTime();
+
+    public ParallelArtifactFileWriter(CliCedarArtifactWriter writer,
+                                      Path outputDirectory,
+                                      String jsonSchemaDescription,
+                                      OutputFormat outputFormat,
+                                      @Nullable SerializedArtifactCache cache,
+                                      int threads,
+                                      PrintStream log) {
+        if(threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1");
+        }
+        this.writer = writer;
+        this.outputDirectory = outputDirectory;
+        this.jsonSchemaDescription = jsonSchemaDescription;
+        this.outputFormat = outputFormat;
+        this.cache = cache;
+        this.log = log;
+        var threadCounter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads,
+                                               0, TimeUnit.MILLISECONDS,
+                                               new ArrayBlockingQueue<>(threads * QUEUED_WRITES_PER_THREAD),
+                                               runnable -> {
+                                                   var thread = new Thread(runnable, "artifact-writer-" + threadCounter.incrementAndGet());
+                                                   thread.setDaemon(true);
+                                                   return thread;
+                                               },
+                                               new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Submits the specified artifact to be written.  Failures are reported to the log.
+     */
+    public void write(CedarArtifact artifact) {
+        var outputFile = outputDirectory.resolve(CliCedarArtifactWriter.getFileName(artifact, outputFormat));
+        var previousWrite = pendingWrites.get(outputFile);
+        var nextWrite = previousWrite == null
+                ? CompletableFuture.runAsync(() -> writeNow(artifact), executor)
+                : previousWrite.thenRunAsync(() -> writeNow(artifact), executor);
+        pendingWrites.put(outputFile, nextWrite);
+    }
+
+    private void writeNow(CedarArtifact artifact) {
+        try {
+            var size = writer.writeCedarArtifact(artifact, outputDirectory, jsonSchemaDescription, outputFormat, cache);
+            writtenBytes.addAndGet(size);
+            writtenFiles.incrementAndGet();
+        } catch (Exception e) {
+            // Writes are chained, so a failure must not stop later writes to the same file or fail close()
+            failedFiles.incrementAndGet();
+            log.println("Could not write " + artifact.getSimpleTypeName().getName() + ": " + e);
+        }
+    }
+
+    /**
+     * Waits for all writes that have been submitted to finish
+     */
+    public void awaitPendingWrites() {
+        CompletableFuture.allOf(pendingWrites.values().toArray(CompletableFuture[]::new)).join();
+        pendingWrites.clear();
+    }
+
+    public int getWrittenFilesCount() {
+        return writtenFiles.get();
+    }
+
+    public int getFailedFilesCount() {
+        return failedFiles.get();
+    }
+
+    public long getWrittenBytesCount() {
+        return writtenBytes.get();
+    }
+
+    /**
+     * Waits for pending writes, stops the writer threads and reports the write throughput
+     */
+    @Override
+    public void close() {
+        try {
+            awaitPendingWrites();
+        } finally {
+            executor.shutdown();
+        }
+        var elapsedNanos = System.nanoTime() - startTime;
+        var megabytes = writtenBytes.get() / (1024.0 * 1024.0);
+        var seconds = Math.max(elapsedNanos, 1) / 1_000_000_000.0;
+        log.printf("Wrote %d artifact files (%.1f MB) in %d ms (%.1f MB/s)\n",
+                   writtenFiles.get(),
+                   megabytes,
+                   TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                   megabytes / seconds);
+        if(failedFiles.get() > 0) {
+            log.printf("\033[31;1mCould not write %d artifact files\033[0m\n", failedFiles.get());
+        }
+    }
+}
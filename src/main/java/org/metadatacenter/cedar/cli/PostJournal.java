@@ -0,0 +1,193 @@
+package org.metadatacenter.cedar.cli;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.metadatacenter.cedar.api.CedarId;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Matthew Horridge
+ * Stanford Center for Biomedical Informatics Research
+ * 2026-10-17
+ * <p>
+ * An append-only record of the artifacts that a run of the csv2artifacts command has posted to CEDAR, so that a run
+ * that is interrupted can be resumed without posting the same artifacts again.  The journal is a JSON Lines file.  The
+ * first line records the folder that the artifacts are posted to and each following line records one posted artifact.
+ * Each line is forced to disk as soon as it is written, so an entry is never lost once it has been appended.
+ * <p>
+ * Entries are keyed by the content of the artifact, after the ids of the artifacts that it embeds have been replaced
+ * with their CEDAR ids, rather than by the id that the artifact was generated with, because generated ids are not the
+ * same from one run to the next.  Artifacts with the same content can be posted more than once, so each key maps to
+ * the CEDAR ids that were minted for it, in the order that they were minted.
+ */
+public class PostJournal implements Closeable {
+
+    public static final String FILE_NAME = ".cedar-post-journal.jsonl";
+
+    private final Path file;
+
+    private final ObjectMapper objectMapper;
+
+    private final FileChannel channel;
+
+    private final Map<String, Deque<Entry>> replayedEntries;
+
+    private final int replayedCount;
+
+    private PostJournal(Path file, ObjectMapper objectMapper, FileChannel channel, Map<String, Deque<Entry>> replayedEntries) {
+        this.file = file;
+        this.objectMapper = objectMapper;
+        this.channel = channel;
+        this.replayedEntries = replayedEntries;
+        this.replayedCount = replayedEntries.values().stream().mapToInt(Deque::size).sum();
+    }
+
+    /**
+     * Starts a new journal in the specified file.  Any existing journal in the file is discarded.
+     * @param folderId The folder that artifacts are posted to
+     */
+    public static PostJournal create(Path file, CedarId folderId, ObjectMapper objectMapper) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        var channel = FileChannel.open(file,
+                                       StandardOpenOption.CREATE,
+                                       StandardOpenOption.WRITE,
+                                       StandardOpenOption.TRUNCATE_EXISTING);
+        var journal = new PostJournal(file, objectMapper, channel, new HashMap<>());
+        journal.appendLine(new Header(folderId.value()));
+        return journal;
+    }
+
+    /**
+     * Opens the journal in the specified file so that a run can be resumed.  The entries in the journal are replayed
+     * and new entries are appended to it.  If the previous run was interrupted while an entry was being written then
+     * the incomplete entry is discarded.  If there is no journal in the file then a new one is started.
+     * @param folderId The folder that artifacts are posted to.  This must be the folder that the journal was started
+     *                 for.
+     * @throws IOException if the journal cannot be read or was started for a different folder
+     */
+    public static PostJournal resume(Path file, CedarId folderId, ObjectMapper objectMapper) throws IOException {
+        if(!Files.exists(file)) {
+            return create(file, folderId, objectMapper);
+        }
+        var channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            var content = Files.readAllBytes(file);
+            // Everything after the last line break is an entry that was not completely written
+            var completeLength = 0;
+            for(int i = content.length - 1; i >= 0; i--) {
+                if(content[i] == '\n') {
+                    completeLength = i + 1;
+                    break;
+                }
+            }
+            var lines = new String(content, 0, completeLength, StandardCharsets.UTF_8).lines().toList();
+            if(lines.isEmpty()) {
+                channel.close();
+                return create(file, folderId, objectMapper);
+            }
+            var header = objectMapper.readValue(lines.get(0), Header.class);
+            if(!folderId.value().equals(header.folderId())) {
+                throw new IOException("The post journal " + file + " is for the folder " + header.folderId()
+                                              + ", not " + folderId.value());
+            }
+            var entries = new HashMap<String, Deque<Entry>>();
+            for(var line : lines.subList(1, lines.size())) {
+                var entry = objectMapper.readValue(line, Entry.class);
+                entries.computeIfAbsent(entry.key(), k -> new ArrayDeque<>()).add(entry);
+            }
+            channel.truncate(completeLength);
+            channel.position(completeLength);
+            return new PostJournal(file, objectMapper, channel, entries);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Takes the next replayed entry for the specified key.  Each replayed entry is only taken once.
+     * @return The entry, or empty if all of the artifacts with the key that were posted by the previous run have been
+     * taken
+     */
+    public Optional<Entry> takeReplayedEntry(String key) {
+        var entries = replayedEntries.get(key);
+        if(entries == null || entries.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(entries.removeFirst());
+    }
+
+    /**
+     * Gets the number of entries that were replayed when the journal was opened
+     */
+    public int getReplayedCount() {
+        return replayedCount;
+    }
+
+    /**
+     * Appends an entry to the journal and forces it to disk
+     */
+    public synchronized void append(Entry entry) throws IOException {
+        appendLine(entry);
+    }
+
+    private void appendLine(Object value) throws IOException {
+        var line = toLine(value);
+        var buffer = ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8));
+        while(buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        channel.force(false);
+    }
+
+    private String toLine(Object value) throws JsonProcessingException {
+        // Each value must be written on one line
+        return objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT).writeValueAsString(value) + "\n";
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * @param folderId The folder that the artifacts in the journal were posted to
+     */
+    private record Header(@JsonProperty("folderId") String folderId) {
+
+    }
+
+    /**
+     * @param key The key of the artifact
+     * @param id The id that CEDAR minted for the artifact
+     * @param type The type of the artifact, for example, TemplateField
+     * @param name The name of the artifact.  This is for information only.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Entry(@JsonProperty("key") String key,
+                        @JsonProperty("id") String id,
+                        @JsonProperty("type") String type,
+                        @JsonProperty("name") String name) {
+
+    }
+}
@@ -35,6 +35,12 @@ public class PostToCedarOptions {
             description = "The UUID of the CEDAR Folder ID in which to create the CEDAR artifacts")
     public String cedarFolderId;
 
+    @Option(names = "--post-concurrency",
+            defaultValue = "8",
+            showDefaultValue = CommandLine.Help.Visibility.ALWAYS,
+            description = "The maximum number of artifacts that are posted to CEDAR at the same time.  Artifacts are posted after the artifacts that they embed have been posted.")
+    public int postConcurrency;
+
     public CedarId getCedarFolderId() {
         return CedarId.resolveFolderId(cedarFolderId);
     }
@@ -1,8 +1,8 @@
 package org.metadatacenter.cedar.cli;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
-import com.fasterxml.jackson.dataformat.yaml.YAMLGenerator;
+import org.metadatacenter.cedar.io.CedarCodecs;
+import org.metadatacenter.cedar.io.OutputFormat;
 import org.metadatacenter.cedar.util.StripInstance;
 import org.metadatacenter.cedar.util.StrippingOperation;
 import org.metadatacenter.cedar.util.StrippingOperations;
@@ -33,12 +33,19 @@ public class StripInstanceCommand implements CedarCliCommand {
     @Option(names = "--operations", split = ",", defaultValue = "STRIP_CONTEXT,COLLAPSE_VALUES,COLLAPSE_ENTITIES,STRIP_IDS", showDefaultValue = CommandLine.Help.Visibility.ALWAYS)
     Set<StrippingOperations> operations;
 
+    @Option(names = "--output-format", defaultValue = "PRETTY_JSON", showDefaultValue = CommandLine.Help.Visibility.ALWAYS,
+            description = "The format that the output is written in.  One of ${COMPLETION-CANDIDATES}.  SMILE and CBOR are binary formats that are intended for intermediate pipeline stages where the output is not read by people.")
+    OutputFormat outputFormat;
+
     private final ObjectMapper objectMapper;
 
+    private final CedarCodecs codecs;
+
     private final StripInstance stripInstance;
 
-    public StripInstanceCommand(ObjectMapper objectMapper, StripInstance stripInstance) {
+    public StripInstanceCommand(ObjectMapper objectMapper, CedarCodecs codecs, StripInstance stripInstance) {
         this.objectMapper = objectMapper;
+        this.codecs = codecs;
         this.stripInstance = stripInstance;
     }
 
@@ -49,12 +56,10 @@ public class StripInstanceCommand implements CedarCliCommand {
         if(!Files.exists(outputFile.getParent())) {
             Files.createDirectories(outputFile.getParent());
         }
-        objectMapper.writerWithDefaultPrettyPrinter()
-                .writeValue(outputFile.toFile(), strippedNode);
+        outputFormat.writeValue(objectMapper, strippedNode, Files.newOutputStream(outputFile));
 
-        new ObjectMapper(new YAMLFactory().disable(YAMLGenerator.Feature.WRITE_DOC_START_MARKER)
-                                 .enable(YAMLGenerator.Feature.MINIMIZE_QUOTES))
-                .writeValue(outputFile.getParent().resolve("out.yml").toFile(), strippedNode);
+        codecs.yamlWriter()
+              .writeValue(outputFile.getParent().resolve("out.yml").toFile(), strippedNode);
         return 0;
     }
 }
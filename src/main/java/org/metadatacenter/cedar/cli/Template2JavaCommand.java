@@ -6,6 +6,10 @@ import org.metadatacenter.artifacts.model.reader.ArtifactReader;
 import org.metadatacenter.artifacts.model.reader.JsonSchemaArtifactReader;
 import org.metadatacenter.cedar.codegen.TemplateTranslator;
 import org.metadatacenter.cedar.codegen.JavaGenerator;
+import org.metadatacenter.cedar.csv.CedarTemplateSnapshot;
+import org.metadatacenter.cedar.io.ArchiveFormat;
+import org.metadatacenter.cedar.io.ArtifactArchiveReader;
+import org.metadatacenter.cedar.io.CedarArtifactReader;
 import org.springframework.stereotype.Component;
 import picocli.CommandLine.Command;
 import picocli.CommandLine.Option;
@@ -23,7 +27,9 @@ public class Template2JavaCommand implements CedarCliCommand {
 
     private final ObjectMapper objectMapper;
 
-    @Option(names = "--in", description = "The path to the CEDAR template")
+    private final CedarArtifactReader cedarArtifactReader;
+
+    @Option(names = "--in", description = "The path to the CEDAR template.  This may also be a template snapshot (" + CedarTemplateSnapshot.FILE_EXTENSION + ") that was written by csv2artifacts, or a zip or tar.gz archive that was written by csv2artifacts with the --out-archive option.  The snapshot in the archive is used if there is one, otherwise the template is used.")
     protected Path templatePath;
 
     @Option(names = "--package", description = "The Java package for the generated code", required = true)
@@ -42,14 +48,38 @@ public class Template2JavaCommand implements CedarCliCommand {
     @Option(names = "--root-class-name", description = "The name of the Java root class that contains inner classes", defaultValue = "Cedar")
     protected String rootClassName;
 
-    public Template2JavaCommand(ObjectMapper objectMapper) {
+    public Template2JavaCommand(ObjectMapper objectMapper, CedarArtifactReader cedarArtifactReader) {
         this.objectMapper = objectMapper;
+        this.cedarArtifactReader = cedarArtifactReader;
     }
 
     @Override
     public Integer call() throws Exception {
-        var objectNode = (ObjectNode) objectMapper.createParser(templatePath.toFile())
-                                                 .readValueAsTree();
+        var archive = ArchiveFormat.isArchiveFile(templatePath.toString());
+        var snapshotInArchive = archive && ArtifactArchiveReader.getEntryNames(templatePath)
+                                                                .stream()
+                                                                .anyMatch(CedarTemplateSnapshot::isSnapshotFile);
+        if(CedarTemplateSnapshot.isSnapshotFile(templatePath.toString()) || snapshotInArchive) {
+            var snapshot = snapshotInArchive ? CedarTemplateSnapshot.readFromArchive(templatePath) : CedarTemplateSnapshot.read(templatePath);
+            var rootNode = Csv2ArtifactsCommand.toCodeGenerationNode(snapshot.getRootNode());
+            System.err.println("Read template snapshot from " + templatePath);
+            var javaGenerator = JavaGenerator.get(pkg, rootClassName, suffixJavaTypes);
+            javaGenerator.writeJavaFile(rootNode, out);
+            return 0;
+        }
+        final ObjectNode objectNode;
+        if(archive) {
+            var templateSchema = cedarArtifactReader.readTemplateJsonSchema(templatePath);
+            if(templateSchema.isEmpty()) {
+                System.err.println(templatePath + " does not contain a template");
+                return 1;
+            }
+            objectNode = templateSchema.get();
+        }
+        else {
+            objectNode = (ObjectNode) objectMapper.createParser(templatePath.toFile())
+                                                  .readValueAsTree();
+        }
         var reader = new JsonSchemaArtifactReader();
         var template = reader.readTemplateSchemaArtifact(objectNode);
         var translator = new TemplateTranslator(rootClassName);
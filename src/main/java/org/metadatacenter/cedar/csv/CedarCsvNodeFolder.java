@@ -0,0 +1,75 @@
+package org.metadatacenter.cedar.csv;
+
+import org.metadatacenter.cedar.csv.CedarCsvParser.Node;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Matthew Horridge
+ * Stanford Center for Biomedical Informatics Research
+ * 2026-10-17
+ * <p>
+ * A {@link CedarCsvNodeVisitor} that computes a result for each node from the results for its child nodes.
+ * The node that the traversal starts at (the top node) produces the overall result, which may be of a different
+ * type to the results for the nodes below it.
+ *
+ * @param <R> The type of result for nodes below the top node
+ * @param <T> The type of result for the top node
+ */
+public abstract class CedarCsvNodeFolder<R, T> implements CedarCsvNodeVisitor {
+
+    private final Deque<List<R>> childResultsStack = new ArrayDeque<>();
+
+    private T result = null;
+
+    private boolean complete = false;
+
+    @Override
+    public final void enterNode(Node node) {
+        if(childResultsStack.isEmpty()) {
+            result = null;
+            complete = false;
+        }
+        childResultsStack.push(new ArrayList<>(node.getChildNodes().size()));
+    }
+
+    @Override
+    public final void exitNode(Node node) {
+        var childResults = childResultsStack.pop();
+        if(childResultsStack.isEmpty()) {
+            result = visitTopNode(node, childResults);
+            complete = true;
+        }
+        else {
+            childResultsStack.peek().add(visitNode(node, childResults));
+        }
+    }
+
+    /**
+     * Computes the result for a node below the top node.
+     * @param node The node
+     * @param childResults The results for the child nodes of the node, in child node order
+     */
+    protected abstract R visitNode(Node node, List<R> childResults);
+
+    /**
+     * Computes the result for the top node
+     * @param node The top node
+     * @param childResults The results for the child nodes of the top node, in child node order
+     */
+    protected abstract T visitTopNode(Node node, List<R> childResults);
+
+    /**
+     * Gets the result of the traversal.
+     * @throws IllegalStateException if a traversal has not been completed
+     */
+    public T getResult() {
+        if(!complete) {
+            throw new IllegalStateException("The traversal has not completed");
+        }
+        return result;
+    }
+}
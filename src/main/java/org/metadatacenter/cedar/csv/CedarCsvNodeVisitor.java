@@ -0,0 +1,29 @@
+package org.metadatacenter.cedar.csv;
+
+import org.metadatacenter.cedar.csv.CedarCsvParser.Node;
+
+/**
+ * Matthew Horridge
+ * Stanford Center for Biomedical Informatics Research
+ * 2026-10-17
+ * <p>
+ * A visitor that is notified as a depth first traversal of a {@link Node} tree enters and exits each node.
+ * Several visitors can subscribe to the same traversal using {@link Node#accept(java.util.List)}, so that
+ * all outputs can be generated from a single walk of the tree.
+ */
+public interface CedarCsvNodeVisitor {
+
+    /**
+     * Called when the traversal enters a node, before any of its child nodes are visited.
+     */
+    default void enterNode(Node node) {
+
+    }
+
+    /**
+     * Called when the traversal exits a node, after all of its child nodes have been visited.
+     */
+    default void exitNode(Node node) {
+
+    }
+}
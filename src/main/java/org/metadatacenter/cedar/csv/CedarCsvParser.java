@@ -3,12 +3,11 @@ package org.metadatacenter.cedar.csv;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.dataformat.csv.CsvMapper;
 import com.fasterxml.jackson.dataformat.csv.CsvParser;
 import com.fasterxml.jackson.dataformat.csv.CsvSchema;
 import com.google.common.base.Strings;
-import org.commonmark.parser.Parser;
-import org.commonmark.renderer.text.TextContentRenderer;
 import org.metadatacenter.cedar.api.*;
 import org.metadatacenter.cedar.api.constraints.*;
 
@@ -17,6 +16,9 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.PrintStream;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 import static java.util.stream.Collectors.toMap;
 
@@ -27,6 +29,13 @@ import static java.util.stream.Collectors.toMap;
  */
 public class CedarCsvParser {
 
+    /**
+     * The default subtree size below which parallel translation falls back to sequential translation
+     */
+    public static final int DEFAULT_SEQUENTIAL_THRESHOLD = 64;
+
+    private static final EmptyValueConstraints EMPTY_VALUE_CONSTRAINTS = new EmptyValueConstraints();
+
     private final ArtifactStatus defaultArtifactStatus;
 
     private final String version;
@@ -35,6 +44,14 @@ public class CedarCsvParser {
 
     private final List<LanguageCode> languageCodes;
 
+    private final ValueInterner interner = ValueInterner.shared();
+
+    /**
+     * Language tag literal constraints, keyed by the default language code.  There is one literal constraint per
+     * language code, so these lists are large and are only built once for each default language code.
+     */
+    private final Map<String, List<LiteralValueConstraint>> languageTagLiteralConstraints = new ConcurrentHashMap<>();
+
     public CedarCsvParser(ArtifactStatus defaultArtifactStatus,
                           String version,
                           String previousVersion,
@@ -57,7 +74,20 @@ public class CedarCsvParser {
     }
 
     public Node parseNodes(InputStream inputStream) throws IOException {
+        return parseNodes(inputStream, CedarCsvRowListener.NONE);
+    }
+
+    /**
+     * Parse the data dictionary from the specified input stream into a tree of nodes.  Rows are read and
+     * added to the tree one at a time, so the rows of the sheet are never held in an intermediate list.
+     * @param inputStream The input stream
+     * @param rowListener A listener that is notified of each row, and of any row that cannot be read,
+     *                    as the sheet is read.
+     */
+    public Node parseNodes(InputStream inputStream,
+                           CedarCsvRowListener rowListener) throws IOException {
         Objects.requireNonNull(inputStream);
+        Objects.requireNonNull(rowListener);
         var mapper = CsvMapper.csvBuilder()
                 .configure(MapperFeature.ACCEPT_CASE_INSENSITIVE_ENUMS, true)
                 .configure(CsvParser.Feature.IGNORE_TRAILING_UNMAPPABLE, true)
@@ -70,22 +100,39 @@ public class CedarCsvParser {
         var reader = mapper.readerFor(CedarCsvRow.class)
                            .with(schema);
 
-        var iterator = reader.readValues(inputStream);
-        var values = iterator.readAll();
-        var rows = values.stream()
-              .map(v -> (CedarCsvRow) v)
-              .toList();
-        var rootNode = processRows(rows);
+        var treeBuilder = new NodeTreeBuilder();
+        try (MappingIterator<CedarCsvRow> iterator = reader.readValues(inputStream)) {
+            var rowIndex = 0L;
+            while (iterator.hasNextValue()) {
+                final CedarCsvRow row;
+                try {
+                    row = iterator.nextValue();
+                } catch (IOException e) {
+                    rowListener.handleRowError(rowIndex, e);
+                    throw e;
+                }
+                rowListener.handleRow(rowIndex, row);
+                treeBuilder.addRow(row);
+                rowIndex++;
+            }
+        }
+        var rootNode = treeBuilder.getRootNode();
         rootNode.printBranch(System.out);
         rootNode.validate();
+        rootNode.index();
         return rootNode;
     }
 
-    private Node processRows(List<CedarCsvRow> rows) {
-        var rootNode = new Node(null);
+    /**
+     * Builds the node tree incrementally, one row at a time, in sheet order.
+     */
+    private static class NodeTreeBuilder {
 
-        var currentParentNode = rootNode;
-        for (var row : rows) {
+        private final Node rootNode = new Node(null);
+
+        private Node currentParentNode = rootNode;
+
+        public void addRow(CedarCsvRow row) {
             var rowNode = new Node(row);
             if(row.isField()) {
                 // Always append to the current parent
@@ -98,8 +145,6 @@ public class CedarCsvParser {
 //                currentParentNode.addChild(rowNode);
             }
             else if(row.isElement()) {
-                var elementDepth = row.getElementLevel();
-                var parentDepth = currentParentNode.getElementLevel();
                 // The element is EITHER a child of the current parent (element) OR
                 // it is a sibling of the current parent (element).  This depends on
                 // its level
@@ -126,17 +171,61 @@ public class CedarCsvParser {
                 }
             }
         }
-        return rootNode;
+
+        public Node getRootNode() {
+            return rootNode;
+        }
     }
 
     public CedarTemplate translateToTemplate(Node rootNode,
                                              String schemaIdentifier,
                                              String schemaName) {
-        var childNodes = rootNode.childNodes.stream().map(node -> {
-            var artifact = translateToEmbeddableArtifact(node);
-                                     return getEmbeddedCedarArtifact(node, artifact);
-                                 })
-                .toList();
+        var visitor = createTemplateVisitor(schemaIdentifier, schemaName);
+        rootNode.accept(visitor);
+        return visitor.getResult();
+    }
+
+    /**
+     * Creates a visitor that translates a node tree into a template.  The traversal must start at the root node.
+     */
+    public CedarCsvNodeFolder<EmbeddedCedarArtifact, CedarTemplate> createTemplateVisitor(String schemaIdentifier,
+                                                                                         String schemaName) {
+        return new CedarCsvNodeFolder<>() {
+            @Override
+            protected EmbeddedCedarArtifact visitNode(Node node, List<EmbeddedCedarArtifact> childResults) {
+                return translateToEmbeddedArtifact(node, childResults);
+            }
+
+            @Override
+            protected CedarTemplate visitTopNode(Node node, List<EmbeddedCedarArtifact> childResults) {
+                if(!node.isRoot()) {
+                    throw new IllegalArgumentException("Expected root node");
+                }
+                return createTemplate(schemaIdentifier, schemaName, childResults);
+            }
+        };
+    }
+
+    /**
+     * Translates the specified node tree to a template, translating independent element subtrees in parallel
+     * using the specified pool.  The order of embedded artifacts is the same as for a sequential translation.
+     * @param rootNode The root node
+     * @param pool The pool that subtrees are translated on
+     * @param sequentialThreshold Subtrees that contain fewer than this number of nodes are translated
+     *                            sequentially, without forking further tasks.
+     */
+    public CedarTemplate translateToTemplate(Node rootNode,
+                                             String schemaIdentifier,
+                                             String schemaName,
+                                             ForkJoinPool pool,
+                                             int sequentialThreshold) {
+        var childNodes = pool.invoke(new TranslateChildNodesTask(rootNode, sequentialThreshold));
+        return createTemplate(schemaIdentifier, schemaName, childNodes);
+    }
+
+    private CedarTemplate createTemplate(String schemaIdentifier,
+                                         String schemaName,
+                                         List<EmbeddedCedarArtifact> childNodes) {
         return new CedarTemplate(CedarId.generateUrn(),
                                  new ArtifactInfo(schemaIdentifier,
                                                   schemaName,
@@ -152,6 +241,67 @@ public class CedarCsvParser {
                                  childNodes);
     }
 
+    private List<EmbeddedCedarArtifact> translateChildNodes(Node node) {
+        return node.childNodes.stream()
+                              .map(childNode -> translateToEmbeddedArtifact(childNode, translateChildNodes(childNode)))
+                              .toList();
+    }
+
+    private EmbeddedCedarArtifact translateToEmbeddedArtifact(Node node,
+                                                              List<EmbeddedCedarArtifact> childArtifacts) {
+        var artifact = translateToEmbeddableArtifact(node, childArtifacts);
+        return getEmbeddedCedarArtifact(node, artifact);
+    }
+
+    /**
+     * Translates the child nodes of a node.  If the subtree rooted at the node is smaller than the threshold then
+     * the child nodes are translated in place.  Otherwise, each child element is forked as a separate task and
+     * fields are translated in place.  Results are joined in child order.
+     */
+    private class TranslateChildNodesTask extends RecursiveTask<List<EmbeddedCedarArtifact>> {
+
+        private final Node parentNode;
+
+        private final int sequentialThreshold;
+
+        public TranslateChildNodesTask(Node parentNode, int sequentialThreshold) {
+            this.parentNode = parentNode;
+            this.sequentialThreshold = sequentialThreshold;
+        }
+
+        @Override
+        protected List<EmbeddedCedarArtifact> compute() {
+            if(parentNode.getSubtreeSize() < sequentialThreshold) {
+                return translateChildNodes(parentNode);
+            }
+            var childNodes = parentNode.childNodes;
+            var forked = new ArrayList<TranslateChildNodesTask>(childNodes.size());
+            for(var childNode : childNodes) {
+                if(childNode.isElement()) {
+                    var task = new TranslateChildNodesTask(childNode, sequentialThreshold);
+                    task.fork();
+                    forked.add(task);
+                }
+                else {
+                    forked.add(null);
+                }
+            }
+            var result = new ArrayList<EmbeddedCedarArtifact>(childNodes.size());
+            for(int i = 0; i < childNodes.size(); i++) {
+                var childNode = childNodes.get(i);
+                var task = forked.get(i);
+                if(task != null) {
+                    var element = translateToElement(childNode, task.join());
+                    result.add(getEmbeddedCedarArtifact(childNode, element));
+                }
+                else {
+                    result.add(translateToEmbeddedArtifact(childNode, List.of()));
+                }
+            }
+            return result;
+        }
+    }
+
     private static EmbeddedCedarArtifact getEmbeddedCedarArtifact(Node node,
                                                                   EmbeddableCedarArtifact artifact) {
         // Attribute values are ALWAYS MULTIPLE
@@ -170,9 +320,10 @@ public class CedarCsvParser {
         return new EmbeddedCedarArtifact(artifact, multiplicity, visibility, node.row.getPropertyIri().orElse(null));
     }
 
-    private EmbeddableCedarArtifact translateToEmbeddableArtifact(Node node) {
+    private EmbeddableCedarArtifact translateToEmbeddableArtifact(Node node,
+                                                                  List<EmbeddedCedarArtifact> childArtifacts) {
         if(node.isElement()) {
-            return translateToElement(node);
+            return translateToElement(node, childArtifacts);
         }
         else if(node.isField()) {
             // NO child nodes
@@ -188,12 +339,12 @@ public class CedarCsvParser {
                                                            List.of()),
                                           VersionInfo.initialDraft(),
                                           ModificationInfo.empty(),
-                                          FieldValueConstraints.blank(),
-                                          new BasicFieldUi(
+                                          interner.intern(FieldValueConstraints.blank()),
+                                          interner.intern(new BasicFieldUi(
                                                   InputType.SECTION_BREAK,
                                                   false,
                                                   false
-                                          ),
+                                          )),
                                           new SupplementaryInfo(node,
                                                                 node.example(),
                                                                 node.row.optionality(),
@@ -208,11 +359,8 @@ public class CedarCsvParser {
         }
     }
 
-    private CedarTemplateElement translateToElement(Node node) {
-        var embeddedArtifacts = node.childNodes.stream().map(childNode -> {
-            var artifact = translateToEmbeddableArtifact(childNode);
-            return getEmbeddedCedarArtifact(childNode, artifact);
-        }).toList();
+    private CedarTemplateElement translateToElement(Node node,
+                                                    List<EmbeddedCedarArtifact> embeddedArtifacts) {
         return new CedarTemplateElement(new CedarId("http://example.org/" + UUID.randomUUID()),
                                         node.row.getPropertyIri().orElse(null),
                                         new ArtifactInfo(node.row.getStrippedElementNameAsId(),
@@ -236,14 +384,7 @@ public class CedarCsvParser {
                                         ));
     }
 
-    private static String toPlainText(String markdown) {
-        var parser = Parser.builder().build();
-        var document = parser.parse(markdown);
-        var renderer = TextContentRenderer.builder().build();
-        return renderer.render(document);
-    }
-
-    private static FieldUi getFieldUi(CedarCsvRow row) {
+    private static FieldUi getFieldUi(ResolvedCedarCsvRow row) {
         var visibility = row.visibility();
         if(row.getInputType().flatMap(CedarCsvInputType::getCedarTemporalType).isPresent()) {
             return row.getInputType()
@@ -271,8 +412,8 @@ public class CedarCsvParser {
                                                        Collections.emptyList()),
                                       new VersionInfo(version, defaultArtifactStatus, previousVersion),
                                       ModificationInfo.empty(),
-                                      getValueConstraints(fieldRow),
-                                      getFieldUi(fieldRow),
+                                      interner.intern(getValueConstraints(fieldRow)),
+                                      interner.intern(getFieldUi(fieldRow)),
                                       new SupplementaryInfo(node,
                                                             node.example(),
                                                             node.row.optionality(),
@@ -284,10 +425,10 @@ public class CedarCsvParser {
         );
     }
 
-    private FieldValueConstraints getValueConstraints(CedarCsvRow fieldRow) {
+    private FieldValueConstraints getValueConstraints(ResolvedCedarCsvRow fieldRow) {
         var inputType = fieldRow.getInputType().get();
         if(inputType.equals(CedarCsvInputType.ATTRIBUTE_VALUE)) {
-            return new EmptyValueConstraints();
+            return EMPTY_VALUE_CONSTRAINTS;
         }
         var constraintsType = inputType.getConstraintsType();
         return switch (constraintsType) {
@@ -296,14 +437,18 @@ public class CedarCsvParser {
             case TEMPORAL -> getCedarTemporalConstraints(fieldRow, inputType);
             case ONTOLOGY_TERMS ->  getOntologyTermsConstaints(fieldRow);
             case STRING -> getCedarStringConstraints(fieldRow);
-            case LANGUAGE_TAG -> getCedarLanguageTagConstraints(fieldRow, languageCodes);
+            case LANGUAGE_TAG -> getCedarLanguageTagConstraints(fieldRow);
         };
     }
 
-    private static FieldValueConstraints getCedarLanguageTagConstraints(CedarCsvRow fieldRow, List<LanguageCode> languageCodes) {
-        var literalConstraints = languageCodes.stream()
-                .map(lc -> LiteralValueConstraint.of(lc.code(), lc.code().equals(fieldRow.defaultValue().trim())))
-                .toList();
+    private FieldValueConstraints getCedarLanguageTagConstraints(ResolvedCedarCsvRow fieldRow) {
+        var defaultLanguageCode = fieldRow.defaultValue().trim();
+        var literalConstraints = languageTagLiteralConstraints.computeIfAbsent(defaultLanguageCode, code -> {
+            var constraints = languageCodes.stream()
+                                           .map(lc -> LiteralValueConstraint.of(lc.code(), lc.code().equals(code)))
+                                           .toList();
+            return interner.intern(constraints);
+        });
         return new EnumerationValueConstraints(
                 fieldRow.getRequired(),
                 Cardinality.SINGLE,
@@ -315,14 +460,14 @@ public class CedarCsvParser {
         );
     }
 
-    private static StringValueConstraints getCedarStringConstraints(CedarCsvRow fieldRow) {
+    private static StringValueConstraints getCedarStringConstraints(ResolvedCedarCsvRow fieldRow) {
         return new StringValueConstraints(null, null,
                                           fieldRow.getDefaultValue().value(),
                                           fieldRow.getRequired(),
                                           fieldRow.getCardinality());
     }
 
-    private static TemporalValueConstraints getCedarTemporalConstraints(CedarCsvRow fieldRow,
+    private static TemporalValueConstraints getCedarTemporalConstraints(ResolvedCedarCsvRow fieldRow,
                                                                         CedarCsvInputType inputType) {
         return new TemporalValueConstraints(inputType.getCedarTemporalType().orElse(CedarTemporalType.DATE.getDefaultType()),
                                             TemporalGranularity.DECIMAL_SECOND,
@@ -332,7 +477,7 @@ public class CedarCsvParser {
                                             fieldRow.getCardinality());
     }
 
-    private static NumericValueConstraints getCedarNumericConstraints(CedarCsvRow fieldRow,
+    private static NumericValueConstraints getCedarNumericConstraints(ResolvedCedarCsvRow fieldRow,
                                                                       CedarCsvInputType inputType) {
         return new NumericValueConstraints(inputType.getCedarNumberType().orElse(NumberType.getDefaultType()),
                                            "",
@@ -343,12 +488,12 @@ public class CedarCsvParser {
                                            fieldRow.getCardinality());
     }
 
-    private static EnumerationValueConstraints getOntologyTermsConstaints(CedarCsvRow row) {
+    private EnumerationValueConstraints getOntologyTermsConstaints(ResolvedCedarCsvRow row) {
         var lookupSpec = row.getLookupSpec();
-        var defaultValueSpec = new DefaultValueSpec(row.defaultValue());
+        var defaultValueSpec = row.getDefaultValue();
 
         if(lookupSpec.isPresent()) {
-            var ontologyTermSelectors = getOntologyTermsSelectors(lookupSpec.get());
+            var ontologyTermSelectors = interner.intern(getOntologyTermsSelectors(lookupSpec.get()));
             return EnumerationValueConstraints.of(ontologyTermSelectors, defaultValueSpec.getDefaultValue().orElse(null),
                                                   row.getRequired(), row.getCardinality());
         }
@@ -385,20 +530,35 @@ public class CedarCsvParser {
         }
     }
 
-    private static String getFieldIdentifier(CedarCsvRow fieldRow) {
+    private static String getFieldIdentifier(ResolvedCedarCsvRow fieldRow) {
         return fieldRow.fieldTitle().toLowerCase().replace(' ', '_');
     }
 
     public static class Node {
 
-        private final CedarCsvRow row;
+        @Nullable
+        private final ResolvedCedarCsvRow row;
+
+        private final String schemaName;
 
         private Node parentNode = null;
 
         private final List<Node> childNodes = new ArrayList<>();
 
-        public Node(CedarCsvRow row) {
-            this.row = row;
+        private final List<Node> childNodesView = Collections.unmodifiableList(childNodes);
+
+        /**
+         * Set when the tree containing this node is indexed.  After this the tree cannot be modified.
+         */
+        private boolean indexed = false;
+
+        private List<Node> path;
+
+        private int subtreeSize;
+
+        public Node(@Nullable CedarCsvRow row) {
+            this.row = row != null ? new ResolvedCedarCsvRow(row) : null;
+            this.schemaName = computeSchemaName();
         }
 
         public boolean isRoot() {
@@ -410,14 +570,47 @@ public class CedarCsvParser {
         }
 
         public void addChild(Node child) {
+            if(indexed) {
+                throw new IllegalStateException("Cannot add a child to a node in a tree that has been indexed");
+            }
             childNodes.add(child);
             child.parentNode = this;
         }
 
+        /**
+         * Indexes the tree rooted at this node.  Each node records its path from the root and the size of its
+         * subtree so that these can be looked up in constant time.  After indexing the tree is immutable.  This must
+         * be called on the root node.
+         */
+        public void index() {
+            if(!isRoot()) {
+                throw new IllegalStateException("Only the root node can be indexed");
+            }
+            index(List.of());
+        }
+
+        private void index(List<Node> parentPath) {
+            var path = new ArrayList<Node>(parentPath.size() + 1);
+            path.addAll(parentPath);
+            path.add(this);
+            this.path = Collections.unmodifiableList(path);
+            var subtreeSize = 1;
+            for(var child : childNodes) {
+                child.index(this.path);
+                subtreeSize += child.subtreeSize;
+            }
+            this.subtreeSize = subtreeSize;
+            this.indexed = true;
+        }
+
         /**
          * Gets the schema:name for the field.  This is the JSON attribute name for the field.
          */
         public String getSchemaName() {
+            return schemaName;
+        }
+
+        private String computeSchemaName() {
             if(row == null) {
                 return "";
             }
@@ -489,7 +682,13 @@ public class CedarCsvParser {
             }
         }
 
+        /**
+         * Gets the path from the root node to this node, inclusive.
+         */
         public List<Node> getPath() {
+            if(indexed) {
+                return path;
+            }
             if(parentNode == null) {
                 return List.of(this);
             }
@@ -500,10 +699,35 @@ public class CedarCsvParser {
             }
         }
 
-        public CedarCsvRow getRow() {
+        /**
+         * Gets the row for this node, with its derived values resolved.  This is null for the root node.
+         */
+        @Nullable
+        public ResolvedCedarCsvRow getRow() {
             return row;
         }
 
+        /**
+         * Traverses the tree rooted at this node depth first, notifying each of the specified visitors as
+         * nodes are entered and exited.  Child nodes are visited in order.  This allows several visitors to share
+         * a single traversal of the tree.
+         */
+        public void accept(List<? extends CedarCsvNodeVisitor> visitors) {
+            for(var visitor : visitors) {
+                visitor.enterNode(this);
+            }
+            for(var child : childNodes) {
+                child.accept(visitors);
+            }
+            for(var visitor : visitors) {
+                visitor.exitNode(this);
+            }
+        }
+
+        public void accept(CedarCsvNodeVisitor visitor) {
+            accept(List.of(visitor));
+        }
+
         public void printBranch(PrintStream out) {
             printNodes(0, out);
         }
@@ -560,8 +784,25 @@ public class CedarCsvParser {
             }
         }
 
+        /**
+         * Gets the number of nodes in the subtree rooted at this node, including this node.
+         */
+        public int getSubtreeSize() {
+            if(indexed) {
+                return subtreeSize;
+            }
+            var size = 1;
+            for(var child : childNodes) {
+                size += child.getSubtreeSize();
+            }
+            return size;
+        }
+
+        /**
+         * Gets an unmodifiable view of the child nodes of this node.
+         */
         public List<Node> getChildNodes() {
-            return new ArrayList<>(childNodes);
+            return childNodesView;
         }
 
         public boolean isLiteralValueType() {
@@ -0,0 +1,36 @@
+package org.metadatacenter.cedar.csv;
+
+import java.io.IOException;
+
+/**
+ * Matthew Horridge
+ * Stanford Center for Biomedical Informatics Research
+ * 2026-10-17
+ * <p>
+ * Receives rows from a {@link CedarCsvParser} as they are read from the input.  Rows are delivered one at a
+ * time, in sheet order, before they are added to the parsed {@link CedarCsvParser.Node} tree.  Callers can use
+ * this to observe progress or collect diagnostics without holding on to the full list of rows.
+ */
+public interface CedarCsvRowListener {
+
+    /**
+     * A listener that ignores all rows and errors.
+     */
+    CedarCsvRowListener NONE = (rowIndex, row) -> {};
+
+    /**
+     * Called when a row has been read.
+     * @param rowIndex The zero based index of the row, not counting the header row.
+     * @param row The row.
+     */
+    void handleRow(long rowIndex, CedarCsvRow row);
+
+    /**
+     * Called when a row could not be read.  After this method returns the parser rethrows the error.
+     * @param rowIndex The zero based index of the row, not counting the header row.
+     * @param error The error.
+     */
+    default void handleRowError(long rowIndex, IOException error) {
+
+    }
+}
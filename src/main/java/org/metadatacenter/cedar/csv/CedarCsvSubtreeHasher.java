@@ -0,0 +1,94 @@
+package org.metadatacenter.cedar.csv;
+
+import org.metadatacenter.cedar.csv.CedarCsvParser.Node;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Matthew Horridge
+ * Stanford Center for Biomedical Informatics Research
+ * 2026-10-17
+ * <p>
+ * Computes a SHA-256 content hash for each node in a tree.  The hash of a node covers the values in its row and the
+ * hashes of its child nodes, in order, so the hash of a node changes if and only if something in the CSV subtree
+ * rooted at the node changes.  The result of the traversal is a map from each node to its hash.
+ */
+public class CedarCsvSubtreeHasher extends CedarCsvNodeFolder<String, Map<Node, String>> {
+
+    private final Map<Node, String> hashes = new IdentityHashMap<>();
+
+    @Override
+    protected String visitNode(Node node, List<String> childResults) {
+        var hash = computeHash(node, childResults);
+        hashes.put(node, hash);
+        return hash;
+    }
+
+    @Override
+    protected Map<Node, String> visitTopNode(Node node, List<String> childResults) {
+        visitNode(node, childResults);
+        return Collections.unmodifiableMap(new IdentityHashMap<>(hashes));
+    }
+
+    /**
+     * Computes a SHA-256 hash of the specified values, in order.  Null values are treated as empty strings.
+     */
+    public static String hashValues(Object... values) {
+        var digest = createDigest();
+        for(var value : values) {
+            update(digest, value);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static String computeHash(Node node, List<String> childHashes) {
+        var digest = createDigest();
+        var row = node.getRow();
+        if(row != null) {
+            var raw = row.row();
+            update(digest, raw.section());
+            update(digest, raw.element());
+            update(digest, raw.cardinality());
+            update(digest, raw.optionality());
+            update(digest, raw.visibility());
+            update(digest, raw.fieldTitle());
+            update(digest, raw.description());
+            update(digest, raw.derived());
+            update(digest, raw.defaultValue());
+            update(digest, raw.example());
+            update(digest, raw.propertyIri());
+            update(digest, raw.inputType());
+            update(digest, raw.controlledTerms());
+            update(digest, raw.lookup());
+        }
+        for(var childHash : childHashes) {
+            update(digest, childHash);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static void update(MessageDigest digest, Object value) {
+        // Length prefix each value so that adjacent values cannot run into each other
+        var bytes = Objects.toString(value, "").getBytes(StandardCharsets.UTF_8);
+        digest.update(Integer.toString(bytes.length).getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) ':');
+        digest.update(bytes);
+    }
+
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 is required to be supported by every Java platform
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,326 @@
+package org.metadatacenter.cedar.csv;
+
+import org.metadatacenter.cedar.api.Visibility;
+import org.metadatacenter.cedar.csv.CedarCsvParser.Node;
+import org.metadatacenter.cedar.io.ArtifactArchiveReader;
+
+import javax.annotation.Nullable;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Matthew Horridge
+ * Stanford Center for Biomedical Informatics Research
+ * 2026-10-17
+ * <p>
+ * A compact binary snapshot of a parsed template.  The snapshot holds the {@link Node} tree, which is what the
+ * template, instances, docs and code are generated from, so loading a snapshot avoids reading and parsing the CSV
+ * (or a CEDAR JSON schema) again.  The template itself is obtained by translating the loaded tree.
+ * <p>
+ * The format is versioned and the payload is protected by a CRC32 checksum, which is verified when the snapshot is
+ * read.  The header (template name, identifier etc.) is decoded when the snapshot is read, but the node tree is
+ * only decoded the first time it is requested.
+ * <p>
+ * Layout (big-endian):
+ * <pre>
+ *     magic            8 bytes  "CEDRSNAP"
+ *     format version   u16
+ *     payload length   u32
+ *     payload CRC32    u32
+ *     payload:
+ *         header       template identifier, template name, creation time, node count
+ *         string table count, then each string as a length prefixed UTF-8 byte sequence
+ *         nodes        pre-order; each node is a child count followed, for non-root nodes, by a string table
+ *                      index (-1 for null) for each CSV column
+ * </pre>
+ */
+public final class CedarTemplateSnapshot {
+
+    public static final String FILE_EXTENSION = ".cedarsnap";
+
+    public static final int FORMAT_VERSION = 1;
+
+    private static final byte[] MAGIC = "CEDRSNAP".getBytes(StandardCharsets.US_ASCII);
+
+    private static final int COLUMN_COUNT = 14;
+
+    private final String templateIdentifier;
+
+    private final String templateName;
+
+    private final Instant createdAt;
+
+    private final int nodeCount;
+
+    private final ByteBuffer body;
+
+    @Nullable
+    private Node rootNode = null;
+
+    private CedarTemplateSnapshot(String templateIdentifier,
+                                  String templateName,
+                                  Instant createdAt,
+                                  int nodeCount,
+                                  ByteBuffer body) {
+        this.templateIdentifier = templateIdentifier;
+        this.templateName = templateName;
+        this.createdAt = createdAt;
+        this.nodeCount = nodeCount;
+        this.body = body;
+    }
+
+    public static boolean isSnapshotFile(String path) {
+        return path.endsWith(FILE_EXTENSION);
+    }
+
+    public String getTemplateIdentifier() {
+        return templateIdentifier;
+    }
+
+    public String getTemplateName() {
+        return templateName;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * Gets the number of nodes, including the root node, in the snapshot
+     */
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Gets the root node of the node tree.  The tree is decoded the first time that this method is called.
+     * @throws IllegalStateException if the tree cannot be decoded.  Since the checksum of the snapshot has been
+     * verified this indicates that the snapshot was written by a faulty writer.
+     */
+    public synchronized Node getRootNode() {
+        if(rootNode == null) {
+            try {
+                rootNode = decodeTree(body.duplicate());
+            } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+                throw new IllegalStateException("Malformed snapshot: " + e.getMessage(), e);
+            }
+        }
+        return rootNode;
+    }
+
+    /**
+     * Writes a snapshot of the specified tree to the specified file.  The file is written atomically.
+     */
+    public static void write(Node rootNode,
+                             String templateIdentifier,
+                             String templateName,
+                             Path file) throws IOException {
+        if(!rootNode.isRoot()) {
+            throw new IllegalArgumentException("Expected root node");
+        }
+        var strings = new LinkedHashMap<String, Integer>();
+        var nodesBuffer = new ByteArrayOutputStream();
+        var nodesOutput = new DataOutputStream(nodesBuffer);
+        var nodeCount = encodeNode(rootNode, strings, nodesOutput);
+        nodesOutput.flush();
+
+        var payloadBuffer = new ByteArrayOutputStream(nodesBuffer.size() + 1024);
+        var payload = new DataOutputStream(payloadBuffer);
+        writeString(payload, templateIdentifier);
+        writeString(payload, templateName);
+        payload.writeLong(Instant.now().toEpochMilli());
+        payload.writeInt(nodeCount);
+        payload.writeInt(strings.size());
+        for(var string : strings.keySet()) {
+            writeString(payload, string);
+        }
+        nodesBuffer.writeTo(payload);
+        payload.flush();
+        var payloadBytes = payloadBuffer.toByteArray();
+
+        var crc = new CRC32();
+        crc.update(payloadBytes);
+
+        var tempFile = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            try (var out = new DataOutputStream(Files.newOutputStream(tempFile))) {
+                out.write(MAGIC);
+                out.writeShort(FORMAT_VERSION);
+                out.writeInt(payloadBytes.length);
+                out.writeInt((int) crc.getValue());
+                out.write(payloadBytes);
+            }
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * Reads a snapshot from the specified file.  The format version and checksum are verified and the header is
+     * decoded.  The node tree is decoded on demand.
+     * @throws IOException if the file cannot be read, is not a snapshot, has an unsupported format version or
+     * fails its checksum
+     */
+    public static CedarTemplateSnapshot read(Path file) throws IOException {
+        return read(Files.readAllBytes(file), file.toString());
+    }
+
+    /**
+     * Reads the snapshot that is in the specified archive, for example, an archive written by csv2artifacts with the
+     * --out-archive and --write-snapshot options
+     * @throws IOException if the archive cannot be read, or does not contain a snapshot
+     */
+    public static CedarTemplateSnapshot readFromArchive(Path archiveFile) throws IOException {
+        var bytes = ArtifactArchiveReader.readEntry(archiveFile, CedarTemplateSnapshot::isSnapshotFile)
+                                         .orElseThrow(() -> new IOException(archiveFile + " does not contain a template snapshot"));
+        return read(bytes, archiveFile.toString());
+    }
+
+    /**
+     * Reads a snapshot from the specified bytes, for example, the content of an archive entry
+     * @param source A description of where the bytes were read from, which is used in error messages
+     * @see #read(Path)
+     */
+    public static CedarTemplateSnapshot read(byte[] bytes, String source) throws IOException {
+        var buffer = ByteBuffer.wrap(bytes);
+        try {
+            var magic = new byte[MAGIC.length];
+            buffer.get(magic);
+            if(!Arrays.equals(magic, MAGIC)) {
+                throw new IOException(source + " is not a template snapshot");
+            }
+            var formatVersion = Short.toUnsignedInt(buffer.getShort());
+            if(formatVersion != FORMAT_VERSION) {
+                throw new IOException("Unsupported template snapshot format version " + formatVersion + " in " + source + ".  Expected version " + FORMAT_VERSION + ".");
+            }
+            var payloadLength = buffer.getInt();
+            var expectedCrc = Integer.toUnsignedLong(buffer.getInt());
+            if(payloadLength < 0 || payloadLength != buffer.remaining()) {
+                throw new IOException("Template snapshot " + source + " is truncated");
+            }
+            var crc = new CRC32();
+            crc.update(buffer.duplicate());
+            if(crc.getValue() != expectedCrc) {
+                throw new IOException("Template snapshot " + source + " is corrupt (checksum mismatch)");
+            }
+            var templateIdentifier = readString(buffer);
+            var templateName = readString(buffer);
+            var createdAt = Instant.ofEpochMilli(buffer.getLong());
+            var nodeCount = buffer.getInt();
+            return new CedarTemplateSnapshot(templateIdentifier, templateName, createdAt, nodeCount, buffer.slice());
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Template snapshot " + source + " is truncated", e);
+        }
+    }
+
+    private static int encodeNode(Node node,
+                                  Map<String, Integer> strings,
+                                  DataOutputStream out) throws IOException {
+        var childNodes = node.getChildNodes();
+        out.writeInt(childNodes.size());
+        var row = node.getRow();
+        if(row != null) {
+            var raw = row.row();
+            writeStringIndex(raw.section(), strings, out);
+            writeStringIndex(raw.element(), strings, out);
+            writeStringIndex(raw.cardinality(), strings, out);
+            writeStringIndex(raw.optionality() != null ? raw.optionality().name() : null, strings, out);
+            writeStringIndex(raw.visibility().name(), strings, out);
+            writeStringIndex(raw.fieldTitle(), strings, out);
+            writeStringIndex(raw.description(), strings, out);
+            writeStringIndex(raw.derived(), strings, out);
+            writeStringIndex(raw.defaultValue(), strings, out);
+            writeStringIndex(raw.example(), strings, out);
+            writeStringIndex(raw.propertyIri(), strings, out);
+            writeStringIndex(raw.inputType() != null ? raw.inputType().name() : null, strings, out);
+            writeStringIndex(raw.controlledTerms(), strings, out);
+            writeStringIndex(raw.lookup(), strings, out);
+        }
+        var count = 1;
+        for(var childNode : childNodes) {
+            count += encodeNode(childNode, strings, out);
+        }
+        return count;
+    }
+
+    private static void writeStringIndex(@Nullable String value,
+                                         Map<String, Integer> strings,
+                                         DataOutputStream out) throws IOException {
+        if(value == null) {
+            out.writeInt(-1);
+        }
+        else {
+            out.writeInt(strings.computeIfAbsent(value, v -> strings.size()));
+        }
+    }
+
+    private static Node decodeTree(ByteBuffer buffer) {
+        var stringCount = buffer.getInt();
+        var strings = new String[stringCount];
+        for(int i = 0; i < stringCount; i++) {
+            strings[i] = readString(buffer);
+        }
+        var rootChildCount = buffer.getInt();
+        var rootNode = new Node(null);
+        decodeChildNodes(rootNode, rootChildCount, buffer, strings);
+        rootNode.index();
+        return rootNode;
+    }
+
+    private static void decodeChildNodes(Node parentNode, int childCount, ByteBuffer buffer, String[] strings) {
+        for(int i = 0; i < childCount; i++) {
+            var grandChildCount = buffer.getInt();
+            var columns = new String[COLUMN_COUNT];
+            for(int c = 0; c < COLUMN_COUNT; c++) {
+                var index = buffer.getInt();
+                columns[c] = index == -1 ? null : strings[index];
+            }
+            var row = new CedarCsvRow(columns[0],
+                                      columns[1],
+                                      columns[2],
+                                      columns[3] != null ? Optionality.valueOf(columns[3]) : null,
+                                      Visibility.valueOf(columns[4]),
+                                      columns[5],
+                                      columns[6],
+                                      columns[7],
+                                      columns[8],
+                                      columns[9],
+                                      columns[10],
+                                      columns[11] != null ? CedarCsvInputType.valueOf(columns[11]) : null,
+                                      columns[12],
+                                      columns[13]);
+            var childNode = new Node(row);
+            parentNode.addChild(childNode);
+            decodeChildNodes(childNode, grandChildCount, buffer, strings);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        var bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        var length = buffer.getInt();
+        if(length < 0 || length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        var bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -8,6 +8,7 @@ import org.metadatacenter.cedar.csv.CedarCsvParser.Node;
 import org.metadatacenter.cedar.io.CedarFieldValueType;
 
 import java.util.LinkedHashMap;
+import java.util.List;
 
 /**
  * Matthew Horridge
@@ -17,6 +18,29 @@ import java.util.LinkedHashMap;
 public class JsonLdContextGenerator {
 
     public JsonNode generateContext(Node node) {
+        var visitor = createVisitor();
+        node.accept(visitor);
+        return visitor.getResult();
+    }
+
+    /**
+     * Creates a visitor that generates the JSON-LD context for the node that the traversal starts at.
+     */
+    public CedarCsvNodeFolder<JsonNode, JsonNode> createVisitor() {
+        return new CedarCsvNodeFolder<>() {
+            @Override
+            protected JsonNode visitNode(Node node, List<JsonNode> childResults) {
+                return generateContext(node, childResults);
+            }
+
+            @Override
+            protected JsonNode visitTopNode(Node node, List<JsonNode> childResults) {
+                return generateContext(node, childResults);
+            }
+        };
+    }
+
+    private static JsonNode generateContext(Node node, List<JsonNode> childContexts) {
         var row = node.getRow();
         if (row != null) {
             if(row.isField()) {
@@ -33,9 +57,9 @@ public class JsonLdContextGenerator {
         }
         var childNodes = node.getChildNodes();
         var contextMap = new LinkedHashMap<String, JsonNode>();
-        childNodes.forEach(childNode -> {
-            contextMap.put(childNode.getSchemaName(), generateContext(childNode));
-        });
+        for (int i = 0; i < childNodes.size(); i++) {
+            contextMap.put(childNodes.get(i).getSchemaName(), childContexts.get(i));
+        }
         if (row != null) {
             contextMap.put("@id", new TextNode(row.propertyIri()));
         }
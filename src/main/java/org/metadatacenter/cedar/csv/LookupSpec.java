@@ -1,77 +1,117 @@
 package org.metadatacenter.cedar.csv;
 
-import java.util.Arrays;
+import org.metadatacenter.cedar.api.ValueInterner;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
  * Matthew Horridge
  * Stanford Center for Biomedical Informatics Research
  * 2022-07-26
+ * <p>
+ * A parsed lookup specification.  The lookup string is matched against the ontology and term list patterns
+ * once, when the spec is constructed, and the results are held so that they can be queried repeatedly.
  */
-public record LookupSpec(String lookup) {
+public final class LookupSpec {
 
     private static final Pattern pattern = Pattern.compile(
             "(https://bioportal.bioontology.org/ontologies/([^/]+))(/\\?p=classes&conceptid=(.+))?");
 
     private static final Pattern termListElement = Pattern.compile("\\[([^]]+)]\\s*\\(([^)]+)\\)");
 
-    public boolean isLookup() {
-        return !lookup.isBlank() && patternsMatch();
-    }
+    private final String lookup;
 
-    private boolean patternsMatch() {
-        if(pattern.matcher(lookup).matches()) {
-            return true;
-        }
-        var termSpecs = lookup.trim().split("\n");
-        return Arrays.stream(termSpecs)
-                .map(termListElement::matcher)
-                .allMatch(Matcher::matches);
-    }
+    @Nullable
+    private final String ontology;
 
-    public Optional<String> getOntology() {
+    @Nullable
+    private final String ontologyAcronym;
+
+    @Nullable
+    private final String branch;
+
+    private final List<TermSpec> termSpecList;
+
+    private final boolean isLookup;
+
+    public LookupSpec(String lookup) {
+        this.lookup = Objects.requireNonNull(lookup);
         var matcher = pattern.matcher(lookup);
-        if (matcher.matches()) {
-            return Optional.ofNullable(matcher.group(1));
+        var ontologyMatch = matcher.matches();
+        if (ontologyMatch) {
+            this.ontology = matcher.group(1);
+            this.ontologyAcronym = matcher.group(2);
+            this.branch = matcher.group(4);
         }
         else {
-            return Optional.empty();
+            this.ontology = null;
+            this.ontologyAcronym = null;
+            this.branch = null;
+        }
+        var termSpecs = new ArrayList<TermSpec>();
+        var allTermSpecsMatch = true;
+        for (var termSpec : lookup.trim().split("\n")) {
+            var termMatcher = termListElement.matcher(termSpec);
+            if (termMatcher.matches()) {
+                termSpecs.add(new TermSpec(termMatcher.group(1), termMatcher.group(2)));
+            }
+            else {
+                allTermSpecsMatch = false;
+            }
         }
+        // Term lists are frequently repeated across fields
+        this.termSpecList = ValueInterner.shared().intern(List.copyOf(termSpecs));
+        this.isLookup = !lookup.isBlank() && (ontologyMatch || allTermSpecsMatch);
+    }
+
+    public String lookup() {
+        return lookup;
+    }
+
+    public boolean isLookup() {
+        return isLookup;
+    }
+
+    public Optional<String> getOntology() {
+        return Optional.ofNullable(ontology);
     }
 
     public Optional<String> getOntologyAcronym() {
-        var matcher = pattern.matcher(lookup);
-        if (matcher.matches()) {
-            return Optional.ofNullable(matcher.group(2));
-        }
-        else {
-            return Optional.empty();
-        }
+        return Optional.ofNullable(ontologyAcronym);
     }
 
     public Optional<String> getBranch() {
-        var matcher = pattern.matcher(lookup);
-        if (matcher.matches()) {
-            return Optional.ofNullable(matcher.group(4));
-        }
-        else {
-            return Optional.empty();
-        }
+        return Optional.ofNullable(branch);
     }
 
     public List<TermSpec> getTermSpecList() {
-        var termSpecs = lookup.trim().split("\n");
-        if (termSpecs.length == 0) {
-            return List.of();
+        return termSpecList;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof LookupSpec that)) {
+            return false;
         }
-        return Arrays.stream(termSpecs)
-                     .map(termListElement::matcher)
-                     .filter(Matcher::matches)
-                     .map(m -> new TermSpec(m.group(1), m.group(2)))
-                     .toList();
+        return lookup.equals(that.lookup);
+    }
+
+    @Override
+    public int hashCode() {
+        return lookup.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "LookupSpec[lookup=" + lookup + "]";
     }
 
     public static record TermSpec(String label,
@@ -0,0 +1,220 @@
+package org.metadatacenter.cedar.csv;
+
+import org.metadatacenter.cedar.api.Iri;
+import org.metadatacenter.cedar.api.Required;
+import org.metadatacenter.cedar.api.ValueInterner;
+import org.metadatacenter.cedar.api.Visibility;
+import org.metadatacenter.cedar.io.CedarFieldValueType;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Matthew Horridge
+ * Stanford Center for Biomedical Informatics Research
+ * 2026-10-17
+ * <p>
+ * A {@link CedarCsvRow} together with the values that are derived from it.  The derived values (lookup spec,
+ * input type, cardinality, default value etc.) are computed once, when the row is parsed, and are then shared by
+ * the template translation, instance generation and documentation generation.  The raw row values are available
+ * via the same accessors as {@link CedarCsvRow}.
+ */
+public final class ResolvedCedarCsvRow {
+
+    private final CedarCsvRow row;
+
+    private final boolean isSection;
+
+    private final boolean isElement;
+
+    private final boolean isField;
+
+    private final int elementLevel;
+
+    private final String strippedElementName;
+
+    private final String strippedElementNameAsId;
+
+    private final Required required;
+
+    private final Cardinality cardinality;
+
+    private final Derived derivedFlag;
+
+    private final DefaultValueSpec defaultValueSpec;
+
+    @Nullable
+    private final Iri propertyIri;
+
+    @Nullable
+    private final LookupSpec lookupSpec;
+
+    @Nullable
+    private final CedarCsvInputType resolvedInputType;
+
+    @Nullable
+    private final CedarFieldValueType valueType;
+
+    public ResolvedCedarCsvRow(@Nonnull CedarCsvRow row) {
+        this.row = Objects.requireNonNull(row);
+        this.isSection = row.isSection();
+        this.isElement = row.isElement();
+        this.isField = row.isField();
+        this.elementLevel = row.getElementLevel();
+        this.strippedElementName = isElement ? row.getStrippedElementName() : "";
+        this.strippedElementNameAsId = isElement ? row.getStrippedElementNameAsId() : "";
+        this.required = row.getRequired();
+        this.cardinality = row.getCardinality();
+        this.derivedFlag = row.getDerivedFlag();
+        this.defaultValueSpec = row.getDefaultValue();
+        this.propertyIri = row.getPropertyIri().orElse(null);
+        // Identical lookups are common, so equal specs share one instance
+        this.lookupSpec = ValueInterner.shared().intern(row.getLookupSpec().orElse(null));
+        // Type ahead is the default when there is a lookup
+        this.resolvedInputType = lookupSpec != null ? CedarCsvInputType.TYPEAHEAD : row.inputType();
+        this.valueType = resolvedInputType != null ? resolvedInputType.getJsonSchemaValueType().orElse(null) : null;
+    }
+
+    /**
+     * Gets the underlying row that this resolved row was created from.
+     */
+    @Nonnull
+    public CedarCsvRow row() {
+        return row;
+    }
+
+    public String section() {
+        return row.section();
+    }
+
+    public String element() {
+        return row.element();
+    }
+
+    public String cardinality() {
+        return row.cardinality();
+    }
+
+    public Optionality optionality() {
+        return row.optionality();
+    }
+
+    public Visibility visibility() {
+        return row.visibility();
+    }
+
+    public String fieldTitle() {
+        return row.fieldTitle();
+    }
+
+    public String description() {
+        return row.description();
+    }
+
+    public String derived() {
+        return row.derived();
+    }
+
+    public String defaultValue() {
+        return row.defaultValue();
+    }
+
+    public String example() {
+        return row.example();
+    }
+
+    public String propertyIri() {
+        return row.propertyIri();
+    }
+
+    /**
+     * Gets the input type as it is specified in the row, without taking the lookup into account.
+     * See {@link #getInputType()} for the resolved input type.
+     */
+    public CedarCsvInputType inputType() {
+        return row.inputType();
+    }
+
+    public String controlledTerms() {
+        return row.controlledTerms();
+    }
+
+    public String lookup() {
+        return row.lookup();
+    }
+
+    public boolean isSection() {
+        return isSection;
+    }
+
+    public boolean isElement() {
+        return isElement;
+    }
+
+    public boolean isField() {
+        return isField;
+    }
+
+    public int getElementLevel() {
+        return elementLevel;
+    }
+
+    public String getStrippedElementName() {
+        return strippedElementName;
+    }
+
+    public String getStrippedElementNameAsId() {
+        return strippedElementNameAsId;
+    }
+
+    public Required getRequired() {
+        return required;
+    }
+
+    public DefaultValueSpec getDefaultValue() {
+        return defaultValueSpec;
+    }
+
+    public Optional<Iri> getPropertyIri() {
+        return Optional.ofNullable(propertyIri);
+    }
+
+    public Optional<LookupSpec> getLookupSpec() {
+        return Optional.ofNullable(lookupSpec);
+    }
+
+    public Optional<CedarCsvInputType> getInputType() {
+        return Optional.ofNullable(resolvedInputType);
+    }
+
+    public Optional<CedarFieldValueType> getValueType() {
+        return Optional.ofNullable(valueType);
+    }
+
+    public boolean isIriValueType() {
+        return CedarFieldValueType.IRI.equals(valueType);
+    }
+
+    public boolean isLiteralValueType() {
+        return CedarFieldValueType.LITERAL.equals(valueType);
+    }
+
+    public Cardinality getCardinality() {
+        return cardinality;
+    }
+
+    public Derived getDerivedFlag() {
+        return derivedFlag;
+    }
+
+    public String getJsonSchemaTitle(String suffix) {
+        return row.getJsonSchemaTitle(suffix);
+    }
+
+    @Override
+    public String toString() {
+        return row.toString();
+    }
+}
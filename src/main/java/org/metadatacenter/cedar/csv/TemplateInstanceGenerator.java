@@ -44,17 +44,59 @@ public class TemplateInstanceGenerator {
                                                String schemaName,
                                                String schemaDescription,
                                                CedarId schemaIsBasedOn) {
-        if(node.isRoot()) {
-            var context = getContext(node, CedarInstanceContext.getContextBoilerPlateNode());
-            return new CedarInstance(context, CedarId.nullId(), toCedarInstanceJsonObject(node, mode), schemaName, schemaDescription, schemaIsBasedOn,
-                                     ModificationInfo.empty());
-        }
-        else {
-            throw new IllegalArgumentException("Expected root node");
-        }
+        var visitor = createCedarInstanceVisitor(mode, schemaName, schemaDescription, schemaIsBasedOn);
+        node.accept(visitor);
+        return visitor.getResult();
+    }
+
+    /**
+     * Creates a visitor that generates a CEDAR template instance.  The traversal must start at the root node.
+     * The instance can be based on a template whose id is not yet known by specifying a null schemaIsBasedOn
+     * value and then using {@link CedarInstance#withSchemaIsBasedOn(CedarId)} once the id is known.
+     */
+    public CedarCsvNodeFolder<Optional<CedarInstanceNode>, CedarInstance> createCedarInstanceVisitor(TemplateInstanceGenerationMode mode,
+                                                                                                    String schemaName,
+                                                                                                    String schemaDescription,
+                                                                                                    CedarId schemaIsBasedOn) {
+        return new CedarCsvNodeFolder<>() {
+            @Override
+            protected Optional<CedarInstanceNode> visitNode(Node node, List<Optional<CedarInstanceNode>> childResults) {
+                return toCedarInstanceJsonNode(node, mode, childResults);
+            }
+
+            @Override
+            protected CedarInstance visitTopNode(Node node, List<Optional<CedarInstanceNode>> childResults) {
+                if(node.isRoot()) {
+                    var context = getContext(node, CedarInstanceContext.getContextBoilerPlateNode());
+                    return new CedarInstance(context, CedarId.nullId(), toCedarInstanceJsonObject(node, childResults), schemaName, schemaDescription, schemaIsBasedOn,
+                                             ModificationInfo.empty());
+                }
+                else {
+                    throw new IllegalArgumentException("Expected root node");
+                }
+            }
+        };
     }
 
     public Optional<CedarInstanceNode> toCedarInstanceJsonNode(Node node, TemplateInstanceGenerationMode mode) {
+        var visitor = new CedarCsvNodeFolder<Optional<CedarInstanceNode>, Optional<CedarInstanceNode>>() {
+            @Override
+            protected Optional<CedarInstanceNode> visitNode(Node node, List<Optional<CedarInstanceNode>> childResults) {
+                return toCedarInstanceJsonNode(node, mode, childResults);
+            }
+
+            @Override
+            protected Optional<CedarInstanceNode> visitTopNode(Node node, List<Optional<CedarInstanceNode>> childResults) {
+                return toCedarInstanceJsonNode(node, mode, childResults);
+            }
+        };
+        node.accept(visitor);
+        return visitor.getResult();
+    }
+
+    private static Optional<CedarInstanceNode> toCedarInstanceJsonNode(Node node,
+                                                                       TemplateInstanceGenerationMode mode,
+                                                                       List<Optional<CedarInstanceNode>> childResults) {
         if(node.isField()) {
             // No context
             return Optional.of(toFieldNodeValue(node, mode));
@@ -64,11 +106,11 @@ public class TemplateInstanceGenerator {
             var context = getContext(node, Collections.emptyMap());
             // Just insert a blank id here.  CEDAR allows this.
             var id = "";
-            return Optional.of(new CedarInstanceElementNode(id, context, toCedarInstanceJsonObject(node, mode)));
+            return Optional.of(new CedarInstanceElementNode(id, context, toCedarInstanceJsonObject(node, childResults)));
         }
         else if(node.isRoot()) {
             var context = getContext(node, CedarInstanceContext.getContextBoilerPlateNode());
-            return Optional.of(new CedarInstance(context, CedarId.generateUrn(), toCedarInstanceJsonObject(node, mode), "", "", null,
+            return Optional.of(new CedarInstance(context, CedarId.generateUrn(), toCedarInstanceJsonObject(node, childResults), "", "", null,
                                                  ModificationInfo.empty()));
         }
         else {
@@ -77,10 +119,13 @@ public class TemplateInstanceGenerator {
 
     }
 
-    private Map<String, CedarInstanceNode> toCedarInstanceJsonObject(Node node, TemplateInstanceGenerationMode mode) {
+    private static Map<String, CedarInstanceNode> toCedarInstanceJsonObject(Node node,
+                                                                          List<Optional<CedarInstanceNode>> childResults) {
         var contained = new LinkedHashMap<String, CedarInstanceNode>();
-        for(var childNode : node.getChildNodes()) {
-            toCedarInstanceJsonNode(childNode, mode).ifPresent(n -> {
+        var childNodes = node.getChildNodes();
+        for(int i = 0; i < childNodes.size(); i++) {
+            var childNode = childNodes.get(i);
+            childResults.get(i).ifPresent(n -> {
                 if(childNode.getRow().getCardinality().equals(Cardinality.MULTIPLE)) {
                     contained.put(childNode.getSchemaName(), new CedarInstanceListNode(List.of(n)));
                 }
@@ -1,15 +1,13 @@
 package org.metadatacenter.cedar.docs;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.MapperFeature;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.Charsets;
-import org.commonmark.parser.Parser;
-import org.commonmark.renderer.html.HtmlRenderer;
 import org.metadatacenter.cedar.api.*;
 import org.metadatacenter.cedar.bioportal.BioPortalApiKey;
 import org.metadatacenter.cedar.bioportal.GetClassesRequest;
 import org.metadatacenter.cedar.csv.*;
+import org.metadatacenter.cedar.io.CedarCodecs;
+import org.metadatacenter.cedar.io.OutputFormat;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
@@ -35,16 +33,28 @@ public class DocsGenerator {
 
     private final TemplateInstanceGenerator exampleGenerator;
 
-    private final ObjectMapper objectMapper;
+    private final CedarCodecs codecs;
+
+    private final MarkdownRenderer markdownRenderer;
 
     public DocsGenerator(List<LanguageCode> languageCodes,
                          GetClassesRequest getClassesRequest,
                          TemplateInstanceGenerator exampleGenerator,
-                         ObjectMapper objectMapper) {
+                         CedarCodecs codecs,
+                         MarkdownRenderer markdownRenderer) {
         this.languageCodes = languageCodes;
         this.getClassesRequest = getClassesRequest;
         this.exampleGenerator = exampleGenerator;
-        this.objectMapper = objectMapper;
+        this.codecs = codecs;
+        this.markdownRenderer = markdownRenderer;
+    }
+
+    /**
+     * Gets the renderer that descriptions are rendered with.  This is shared, so its counts cover all of the
+     * documentation that has been generated.
+     */
+    public MarkdownRenderer getMarkdownRenderer() {
+        return markdownRenderer;
     }
 
     public void writeDocs(CedarTemplate template, Path outputFile, BioPortalApiKey bioPortalApiKey) throws IOException {
@@ -112,9 +122,7 @@ public class DocsGenerator {
                         try {
                             var pruned = ex.prune(node.getSchemaName())
                                                     .withoutId();
-                            var json = objectMapper.copy()
-                                                   .disable(MapperFeature.DEFAULT_VIEW_INCLUSION).writerWithDefaultPrettyPrinter()
-                                                   .withView(FragmentView.class).writeValueAsString(pruned);
+                            var json = codecs.fragmentWriter().writeValueAsString(pruned);
                             pw.println("<div class=\"example jsonld-example jsonld-example--element\"><div class=\"example-heading\">Example element in RADx Metadata Model JSON-LD</div>\n");
                             pw.println("```json");
                             pw.println(json);
@@ -195,8 +203,7 @@ public class DocsGenerator {
                         try {
                             var pruned = elementNode.prune(node.getSchemaName())
                                     .withoutId();
-                            var json = objectMapper.writerWithDefaultPrettyPrinter()
-                                                   .writeValueAsString(pruned);
+                            var json = codecs.writer(OutputFormat.PRETTY_JSON).writeValueAsString(pruned);
                             pw.println("<div class=\"example jsonld-example jsonld-example--field\"><div class=\"example-heading\">Example in RADx Metadata Model JSON-LD</div>\n");
                             pw.println("```json");
                             pw.println(json);
@@ -213,11 +220,8 @@ public class DocsGenerator {
         }
     }
 
-    private static String toHtml(String markdown) {
-        var parser = Parser.builder().build();
-        var document = parser.parse(markdown);
-        var renderer = HtmlRenderer.builder().build();
-        return renderer.render(document);
+    private String toHtml(String markdown) {
+        return markdownRenderer.toHtml(markdown);
     }
 
     private void printLanguageCodesTable(PrintWriter pw) {
@@ -0,0 +1,88 @@
+package org.metadatacenter.cedar.docs;
+
+import org.commonmark.parser.Parser;
+import org.commonmark.renderer.html.HtmlRenderer;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Matthew Horridge
+ * Stanford Center for Biomedical Informatics Research
+ * 2026-10-17
+ * <p>
+ * Renders Markdown to HTML.  The commonmark parser and renderer are thread-safe, so they are built once and shared.
+ * Descriptions and examples are frequently repeated within a template, so rendered text is held in a bounded
+ * least-recently-used cache that is keyed by the Markdown source.
+ */
+@Component
+public class MarkdownRenderer {
+
+    public static final int DEFAULT_MAXIMUM_CACHE_SIZE = 2000;
+
+    private final Parser parser = Parser.builder().build();
+
+    private final HtmlRenderer htmlRenderer = HtmlRenderer.builder().build();
+
+    private final Map<String, String> htmlCache;
+
+    private final AtomicLong hitCount = new AtomicLong();
+
+    private final AtomicLong missCount = new AtomicLong();
+
+    public MarkdownRenderer() {
+        this(DEFAULT_MAXIMUM_CACHE_SIZE);
+    }
+
+    /**
+     * @param maximumCacheSize The maximum number of rendered strings that are cached
+     */
+    public MarkdownRenderer(int maximumCacheSize) {
+        if(maximumCacheSize < 0) {
+            throw new IllegalArgumentException("Maximum cache size must not be negative");
+        }
+        this.htmlCache = createLruCache(maximumCacheSize);
+    }
+
+    private static Map<String, String> createLruCache(int maximumSize) {
+        return Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > maximumSize;
+            }
+        });
+    }
+
+    /**
+     * Renders the specified Markdown as HTML
+     */
+    public String toHtml(String markdown) {
+        var cached = htmlCache.get(markdown);
+        if(cached != null) {
+            hitCount.incrementAndGet();
+            return cached;
+        }
+        missCount.incrementAndGet();
+        // Rendering is done outside of the cache lock.  Two threads may render the same text, which is harmless.
+        var rendered = htmlRenderer.render(parser.parse(markdown));
+        htmlCache.put(markdown, rendered);
+        return rendered;
+    }
+
+    /**
+     * Gets the number of times that rendered text was found in the cache
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * Gets the number of times that text had to be rendered
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+}
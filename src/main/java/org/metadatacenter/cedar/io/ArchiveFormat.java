@@ -0,0 +1,44 @@
+package org.metadatacenter.cedar.io;
+
+import java.util.Optional;
+
+/**
+ * Matthew Horridge
+ * Stanford Center for Biomedical Informatics Research
+ * 2026-10-17
+ * <p>
+ * The formats of archives that generated artifacts can be written to.  The format of an archive is determined by its
+ * file name.
+ */
+public enum ArchiveFormat {
+
+    ZIP(".zip"),
+
+    TAR_GZ(".tar.gz", ".tgz");
+
+    private final String[] fileExtensions;
+
+    ArchiveFormat(String... fileExtensions) {
+        this.fileExtensions = fileExtensions;
+    }
+
+    /**
+     * Gets the format of an archive with the specified file name
+     * @return The format, or empty if the file name does not have the extension of a supported archive format
+     */
+    public static Optional<ArchiveFormat> fromFileName(String fileName) {
+        var lowerCaseFileName = fileName.toLowerCase();
+        for(var format : values()) {
+            for(var fileExtension : format.fileExtensions) {
+                if(lowerCaseFileName.endsWith(fileExtension)) {
+                    return Optional.of(format);
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    public static boolean isArchiveFile(String fileName) {
+        return fromFileName(fileName).isPresent();
+    }
+}
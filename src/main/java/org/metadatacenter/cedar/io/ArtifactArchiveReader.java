@@ -0,0 +1,207 @@
+package org.metadatacenter.cedar.io;
+
+import javax.annotation.Nullable;
+import java.io.BufferedInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Matthew Horridge
+ * Stanford Center for Biomedical Informatics Research
+ * 2026-10-17
+ * <p>
+ * Reads the entries of zip and tar.gz archives, such as those written by {@link ArtifactArchiveWriter}.  Entries are
+ * streamed, one after another, without extracting the archive.  Only regular files are read.
+ */
+public final class ArtifactArchiveReader {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private ArtifactArchiveReader() {
+    }
+
+    /**
+     * Reads each entry in the specified archive, in the order in which the entries occur in the archive
+     * @param archiveFile The archive.  Its format is determined by its file name.
+     * @param consumer A consumer that is given the name and the content of each entry.  The content stream is only
+     *                 valid during the call to the consumer.  Closing it has no effect.
+     * @throws IllegalArgumentException if the archive file name does not have the extension of a supported
+     * {@link ArchiveFormat}
+     */
+    public static void forEachEntry(Path archiveFile, EntryConsumer consumer) throws IOException {
+        var format = ArchiveFormat.fromFileName(archiveFile.getFileName().toString())
+                                  .orElseThrow(() -> new IllegalArgumentException("Unsupported archive type: " + archiveFile));
+        try (var inputStream = new BufferedInputStream(Files.newInputStream(archiveFile), BUFFER_SIZE)) {
+            if(format == ArchiveFormat.ZIP) {
+                forEachZipEntry(new ZipInputStream(inputStream), consumer);
+            }
+            else {
+                forEachTarEntry(new GZIPInputStream(inputStream, BUFFER_SIZE), consumer);
+            }
+        }
+    }
+
+    /**
+     * Gets the names of the entries in the specified archive
+     */
+    public static List<String> getEntryNames(Path archiveFile) throws IOException {
+        var names = new ArrayList<String>();
+        forEachEntry(archiveFile, (name, inputStream) -> names.add(name));
+        return names;
+    }
+
+    /**
+     * Reads the content of the first entry whose name matches the specified predicate
+     * @return The content, or empty if there is no such entry
+     */
+    public static Optional<byte[]> readEntry(Path archiveFile, Predicate<String> namePredicate) throws IOException {
+        var content = new byte[1][];
+        forEachEntry(archiveFile, (name, inputStream) -> {
+            if(content[0] == null && namePredicate.test(name)) {
+                content[0] = inputStream.readAllBytes();
+            }
+        });
+        return Optional.ofNullable(content[0]);
+    }
+
+    private static void forEachZipEntry(ZipInputStream zipInputStream, EntryConsumer consumer) throws IOException {
+        var entryInputStream = new UnclosableInputStream(zipInputStream);
+        for(var entry = zipInputStream.getNextEntry(); entry != null; entry = zipInputStream.getNextEntry()) {
+            if(!entry.isDirectory()) {
+                consumer.accept(entry.getName(), entryInputStream);
+            }
+        }
+    }
+
+    private static void forEachTarEntry(InputStream tarInputStream, EntryConsumer consumer) throws IOException {
+        @Nullable String longName = null;
+        for(var header = TarHeaders.readHeader(tarInputStream); header != null; header = TarHeaders.readHeader(tarInputStream)) {
+            var size = header.size();
+            if(header.typeFlag() == TarHeaders.TYPE_PAX_HEADER) {
+                var paxPath = TarHeaders.parsePaxPath(readContent(tarInputStream, size));
+                if(paxPath != null) {
+                    longName = paxPath;
+                }
+            }
+            else if(header.typeFlag() == TarHeaders.TYPE_GNU_LONG_NAME) {
+                longName = TarHeaders.parseLongName(readContent(tarInputStream, size));
+            }
+            else {
+                if(header.isRegularFile()) {
+                    var name = longName != null ? longName : header.name();
+                    var entryInputStream = new BoundedInputStream(tarInputStream, size);
+                    consumer.accept(name, entryInputStream);
+                    // Skip whatever the consumer did not read
+                    entryInputStream.skipNBytes(entryInputStream.remaining);
+                }
+                else {
+                    tarInputStream.skipNBytes(size);
+                }
+                longName = null;
+            }
+            TarHeaders.skipPadding(tarInputStream, size);
+        }
+    }
+
+    private static byte[] readContent(InputStream inputStream, long size) throws IOException {
+        if(size > Integer.MAX_VALUE) {
+            throw new IOException("Tar header too large");
+        }
+        var content = inputStream.readNBytes((int) size);
+        if(content.length < size) {
+            throw new IOException("Truncated tar archive");
+        }
+        return content;
+    }
+
+    /**
+     * Consumes the entries in an archive
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+
+        void accept(String name, InputStream inputStream) throws IOException;
+    }
+
+    /**
+     * Prevents consumers, such as Jackson parsers, from closing the archive stream
+     */
+    private static class UnclosableInputStream extends FilterInputStream {
+
+        private UnclosableInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    /**
+     * The content of a tar entry
+     */
+    private static class BoundedInputStream extends UnclosableInputStream {
+
+        private long remaining;
+
+        private BoundedInputStream(InputStream in, long size) {
+            super(in);
+            this.remaining = size;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if(remaining == 0) {
+                return -1;
+            }
+            var b = super.read();
+            if(b == -1) {
+                throw new IOException("Truncated tar archive");
+            }
+            remaining--;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if(len == 0) {
+                return 0;
+            }
+            if(remaining == 0) {
+                return -1;
+            }
+            var read = super.read(b, off, (int) Math.min(len, remaining));
+            if(read == -1) {
+                throw new IOException("Truncated tar archive");
+            }
+            remaining -= read;
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            var skipped = super.skip(Math.min(n, remaining));
+            remaining -= skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(super.available(), remaining);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package org.metadatacenter.cedar.io;
+
+import javax.annotation.Nullable;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Matthew Horridge
+ * Stanford Center for Biomedical Informatics Research
+ * 2026-10-17
+ * <p>
+ * Writes generated files, one after another, into a single zip or tar.gz archive.  The content of each entry is
+ * buffered before it is added to the archive, so an entry whose content cannot be written is left out rather than
+ * being truncated.  The archive is written to a temporary file that replaces the archive file when the writer is
+ * closed, so a partially written archive is never seen by readers.  A writer that is aborted, rather than closed,
+ * leaves any existing archive file as it is.  Entries are read back with
+ * {@link ArtifactArchiveReader}.
+ */
+public class ArtifactArchiveWriter implements AutoCloseable {
+
+    public static final int DEFAULT_COMPRESSION_LEVEL = 6;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path archiveFile;
+
+    private final Path tempFile;
+
+    private final ArchiveFormat format;
+
+    private final OutputStream archiveOutputStream;
+
+    @Nullable
+    private final ZipOutputStream zipOutputStream;
+
+    private final ByteArrayOutputStream entryBuffer = new ByteArrayOutputStream(BUFFER_SIZE);
+
+    private final Set<String> entryNames = new HashSet<>();
+
+    private final long modifiedTime = System.currentTimeMillis();
+
+    private long uncompressedBytes = 0;
+
+    private boolean closed = false;
+
+    /**
+     * Creates a writer for the specified archive file
+     * @param archiveFile The archive file.  Its format is determined by its file name.
+     * @param compressionLevel The deflate compression level, from 0 (no compression) to 9 (best compression)
+     * @throws IllegalArgumentException if the archive file name does not have the extension of a supported
+     * {@link ArchiveFormat}, or the compression level is out of range
+     */
+    public ArtifactArchiveWriter(Path archiveFile, int compressionLevel) throws IOException {
+        if(compressionLevel < Deflater.NO_COMPRESSION || compressionLevel > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("Compression level must be between 0 and 9");
+        }
+        this.archiveFile = archiveFile;
+        this.format = ArchiveFormat.fromFileName(archiveFile.getFileName().toString())
+                                   .orElseThrow(() -> new IllegalArgumentException("Unsupported archive type: " + archiveFile + ".  Archive file names must end with .zip, .tar.gz or .tgz."));
+        var directory = archiveFile.toAbsolutePath().getParent();
+        this.tempFile = directory.resolve("." + archiveFile.getFileName() + "." + UUID.randomUUID() + ".tmp");
+        var fileOutputStream = new BufferedOutputStream(Files.newOutputStream(tempFile, StandardOpenOption.CREATE_NEW),
+                                                        BUFFER_SIZE);
+        if(format == ArchiveFormat.ZIP) {
+            zipOutputStream = new ZipOutputStream(fileOutputStream, StandardCharsets.UTF_8);
+            zipOutputStream.setLevel(compressionLevel);
+            archiveOutputStream = zipOutputStream;
+        }
+        else {
+            zipOutputStream = null;
+            archiveOutputStream = new LevelledGZIPOutputStream(fileOutputStream, compressionLevel);
+        }
+    }
+
+    public Path getArchiveFile() {
+        return archiveFile;
+    }
+
+    /**
+     * Adds an entry to the archive
+     * @param name The name of the entry.  This is a relative path that uses forward slashes as separators.
+     * @param content Writes the content of the entry.  The output stream may be closed by the content writer.
+     * @throws IOException if the archive already contains an entry with the specified name, or the content could
+     * not be written.  If the content could not be written then the entry is not added.
+     */
+    public synchronized void writeEntry(String name, EntryContentWriter content) throws IOException {
+        if(closed) {
+            throw new IllegalStateException("Archive writer is closed");
+        }
+        checkEntryName(name);
+        if(entryNames.contains(name)) {
+            throw new IOException("The archive already contains an entry named " + name);
+        }
+        entryBuffer.reset();
+        content.write(entryBuffer);
+        entryNames.add(name);
+        if(zipOutputStream != null) {
+            var entry = new ZipEntry(name);
+            entry.setTime(modifiedTime);
+            zipOutputStream.putNextEntry(entry);
+            entryBuffer.writeTo(zipOutputStream);
+            zipOutputStream.closeEntry();
+        }
+        else {
+            TarHeaders.writeFileHeader(archiveOutputStream, name, entryBuffer.size(), modifiedTime);
+            entryBuffer.writeTo(archiveOutputStream);
+            TarHeaders.writePadding(archiveOutputStream, entryBuffer.size());
+        }
+        uncompressedBytes += entryBuffer.size();
+    }
+
+    public void writeEntry(String name, byte[] content) throws IOException {
+        writeEntry(name, outputStream -> outputStream.write(content));
+    }
+
+    /**
+     * Adds the files in the specified directory, and its subdirectories, to the archive.  The names of the entries
+     * are their paths relative to the directory.
+     */
+    public void writeDirectory(Path directory) throws IOException {
+        try (var files = Files.walk(directory)) {
+            var regularFiles = files.filter(Files::isRegularFile).sorted().toList();
+            for(var file : regularFiles) {
+                var relativePath = directory.relativize(file);
+                var name = relativePath.toString().replace(relativePath.getFileSystem().getSeparator(), "/");
+                writeEntry(name, outputStream -> Files.copy(file, outputStream));
+            }
+        }
+    }
+
+    private static void checkEntryName(String name) {
+        if(name.isEmpty() || name.startsWith("/") || name.contains("\\") || name.endsWith("/")) {
+            throw new IllegalArgumentException("Invalid archive entry name: " + name);
+        }
+        for(var element : name.split("/")) {
+            if(element.isEmpty() || element.equals(".") || element.equals("..")) {
+                throw new IllegalArgumentException("Invalid archive entry name: " + name);
+            }
+        }
+    }
+
+    /**
+     * Gets the number of entries that have been written to the archive
+     */
+    public synchronized int getEntryCount() {
+        return entryNames.size();
+    }
+
+    /**
+     * Gets the total size, before compression, of the entries that have been written to the archive
+     */
+    public synchronized long getUncompressedBytes() {
+        return uncompressedBytes;
+    }
+
+    /**
+     * Finishes the archive and moves it into place
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if(closed) {
+            return;
+        }
+        closed = true;
+        try {
+            try (archiveOutputStream) {
+                if(format == ArchiveFormat.TAR_GZ) {
+                    TarHeaders.writeEndOfArchive(archiveOutputStream);
+                }
+            }
+            try {
+                Files.move(tempFile, archiveFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, archiveFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * Discards the archive.  The temporary file is deleted and the archive file, if it exists, is left as it is.  This
+     * does nothing if the writer has already been closed.
+     */
+    public synchronized void abort() throws IOException {
+        if(closed) {
+            return;
+        }
+        closed = true;
+        try {
+            archiveOutputStream.close();
+        } catch (IOException e) {
+            // The content is discarded, so it does not matter whether it could be finished
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * Writes the content of an archive entry
+     */
+    @FunctionalInterface
+    public interface EntryContentWriter {
+
+        void write(OutputStream outputStream) throws IOException;
+    }
+
+    private static class LevelledGZIPOutputStream extends GZIPOutputStream {
+
+        private LevelledGZIPOutputStream(OutputStream out, int compressionLevel) throws IOException {
+            super(out, BUFFER_SIZE);
+            def.setLevel(compressionLevel);
+        }
+    }
+}
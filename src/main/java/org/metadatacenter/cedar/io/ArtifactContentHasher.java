@@ -0,0 +1,119 @@
+package org.metadatacenter.cedar.io;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.metadatacenter.cedar.api.CedarSchemaArtifact;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.regex.Pattern;
+
+/**
+ * Matthew Horridge
+ * Stanford Center for Biomedical Informatics Research
+ * 2026-10-17
+ * <p>
+ * Computes a content hash of a schema artifact.  The hash is a SHA-256 hash of the JSON schema form of the artifact,
+ * without its id and without the JSON schema description.  Object members are hashed in name order, so the hash does
+ * not depend on the order in which properties are written, which can differ between JVMs.  Embedded artifacts are
+ * hashed with their ids, so two elements only have the same hash if they embed the same artifacts.  Artifacts that are
+ * embedded without a property IRI are given a random fallback property IRI each time they are written.  Fallback
+ * property IRIs are hashed without their random part, so the hash is the same from one run to the next.
+ */
+public class ArtifactContentHasher {
+
+    private static final Pattern FALLBACK_PROPERTY_IRI = Pattern.compile(
+            Pattern.quote(TemplateElementJsonSchemaPropertiesValue.FALLBACK_PROPERTY_IRI_PREFIX)
+                    + "[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}");
+
+    private final CedarArtifactWriter writer;
+
+    private final JsonMapper jsonMapper;
+
+    public ArtifactContentHasher(CedarArtifactWriter writer, JsonMapper jsonMapper) {
+        this.writer = writer;
+        this.jsonMapper = jsonMapper;
+    }
+
+    /**
+     * Computes the content hash of the specified artifact
+     * @return The hash as a lower case hex string
+     */
+    public String hash(CedarSchemaArtifact artifact) {
+        try {
+            var outputStream = new ByteArrayOutputStream();
+            writer.writeCedarArtifact(artifact.withId(null), "", outputStream, OutputFormat.COMPACT_JSON);
+            var node = jsonMapper.readTree(outputStream.toByteArray());
+            var digest = createDigest();
+            update(digest, node);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void update(MessageDigest digest, JsonNode node) {
+        switch (node.getNodeType()) {
+            case OBJECT -> {
+                digest.update((byte) '{');
+                var names = new ArrayList<String>();
+                node.fieldNames().forEachRemaining(names::add);
+                Collections.sort(names);
+                for(var name : names) {
+                    update(digest, name);
+                    update(digest, node.get(name));
+                }
+                digest.update((byte) '}');
+            }
+            case ARRAY -> {
+                digest.update((byte) '[');
+                for(var element : node) {
+                    update(digest, element);
+                }
+                digest.update((byte) ']');
+            }
+            case STRING -> {
+                digest.update((byte) 's');
+                update(digest, normaliseFallbackPropertyIri(node.textValue()));
+            }
+            case NUMBER -> {
+                digest.update((byte) 'n');
+                update(digest, node.numberValue().toString());
+            }
+            case BOOLEAN -> digest.update((byte) (node.booleanValue() ? 't' : 'f'));
+            default -> digest.update((byte) 'z');
+        }
+    }
+
+    private static String normaliseFallbackPropertyIri(String value) {
+        if(FALLBACK_PROPERTY_IRI.matcher(value).matches()) {
+            return TemplateElementJsonSchemaPropertiesValue.FALLBACK_PROPERTY_IRI_PREFIX;
+        }
+        return value;
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        // Length prefix each string so that adjacent strings cannot run into each other
+        var bytes = value.getBytes(StandardCharsets.UTF_8);
+        digest.update((byte) (bytes.length >>> 24));
+        digest.update((byte) (bytes.length >>> 16));
+        digest.update((byte) (bytes.length >>> 8));
+        digest.update((byte) bytes.length);
+        digest.update(bytes);
+    }
+
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
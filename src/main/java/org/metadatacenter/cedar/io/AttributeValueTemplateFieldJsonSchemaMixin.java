@@ -75,4 +75,11 @@ public record AttributeValueTemplateFieldJsonSchemaMixin(String title, String de
     public Optional<Object> getContainingObjectAdditionalPropertiesOverride() {
         return Optional.of(additionalPropertiesObject);
     }
+
+    /**
+     * Gets the JSON Schema "additionalProperties" value that attribute-value fields impose on their containing element
+     */
+    static Map<String, Object> getContainingObjectAdditionalProperties() {
+        return additionalPropertiesObject;
+    }
 }
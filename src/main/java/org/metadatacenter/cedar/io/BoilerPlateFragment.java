@@ -0,0 +1,62 @@
+package org.metadatacenter.cedar.io;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Matthew Horridge
+ * Stanford Center for Biomedical Informatics Research
+ * 2026-10-17
+ * <p>
+ * A constant boilerplate value that is serialized once, to UTF-8, and is then spliced into JSON output as a raw
+ * value.  Generators that the fragment cannot be spliced into (binary formats and custom pretty printers) are given
+ * the value itself.
+ */
+final class BoilerPlateFragment {
+
+    private final Object value;
+
+    private final ObjectWriter valueWriter;
+
+    private final RawJsonFragment compactJson;
+
+    private final RawJsonFragment prettyJson;
+
+    /**
+     * Creates a fragment for the specified value
+     * @param objectMapper The mapper that the output is written with
+     * @param value The value.  This must not be modified after the fragment has been created.
+     */
+    BoilerPlateFragment(ObjectMapper objectMapper, Object value) {
+        this.value = value;
+        this.valueWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try {
+            this.compactJson = new RawJsonFragment(valueWriter.writeValueAsBytes(value), false);
+            this.prettyJson = new RawJsonFragment(objectMapper.writerWithDefaultPrettyPrinter()
+                                                              .writeValueAsBytes(value), true);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes this fragment as the next value of the specified generator
+     */
+    void write(JsonGenerator generator) throws IOException {
+        if(!RawJsonFragment.canWrite(generator)) {
+            valueWriter.writeValue(generator, value);
+        }
+        else if(RawJsonFragment.isPretty(generator)) {
+            prettyJson.write(generator);
+        }
+        else {
+            compactJson.write(generator);
+        }
+    }
+}
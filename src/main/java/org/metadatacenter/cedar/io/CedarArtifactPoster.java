@@ -1,24 +1,44 @@
 package org.metadatacenter.cedar.io;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.metadatacenter.cedar.api.*;
 import org.metadatacenter.cedar.webapi.CedarWebClientFactory;
 import org.metadatacenter.cedar.webapi.FailedValidationErrorResponse;
 import org.metadatacenter.cedar.webapi.ValidationError;
+import org.metadatacenter.cedar.webapi.model.ResourceType;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpRequest;
 import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Mono;
 
+import javax.annotation.Nullable;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.net.ConnectException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Matthew Horridge
@@ -27,18 +47,52 @@ import java.util.Optional;
  */
 public class CedarArtifactPoster {
 
+    /**
+     * How much earlier than the local time that CEDAR's clock may be
+     */
+    private static final Duration CLOCK_SKEW_ALLOWANCE = Duration.ofMinutes(5);
+
+    private static final int FOLDER_CONTENTS_PAGE_SIZE = 100;
+
     private final CedarArtifactWriter artifactWriter;
 
     private final ObjectMapper objectMapper;
 
     private final CedarWebClientFactory factory;
 
+    private final PostRetryPolicy retryPolicy;
+
+    private final PostCircuitBreaker circuitBreaker;
+
+    private final Clock clock;
+
+    /**
+     * The ids of the artifacts that have been created by posts
+     */
+    private final Set<CedarId> mintedIds = ConcurrentHashMap.newKeySet();
+
+    /**
+     * The number of posts that are in progress for each artifact type and name
+     */
+    private final Map<String, Integer> inFlightPosts = new ConcurrentHashMap<>();
+
+    private final AtomicInteger retryCount = new AtomicInteger();
+
+    private final AtomicInteger recoveredCount = new AtomicInteger();
+
     public CedarArtifactPoster(CedarArtifactWriter artifactWriter,
                                ObjectMapper objectMapper,
-                               CedarWebClientFactory factory) {
+                               CedarWebClientFactory factory,
+                               PostRetryPolicy retryPolicy,
+                               Clock clock) {
         this.artifactWriter = artifactWriter;
         this.objectMapper = objectMapper;
         this.factory = factory;
+        this.retryPolicy = retryPolicy;
+        this.clock = clock;
+        this.circuitBreaker = new PostCircuitBreaker(retryPolicy.circuitBreakerThreshold(),
+                                                     retryPolicy.circuitBreakerPause(),
+                                                     clock);
     }
 
 
@@ -48,45 +102,396 @@ public class CedarArtifactPoster {
                                                         CedarApiKey cedarApiKey,
                                                         String jsonSchemaTitle,
                                                         String jsonSchemaDescription) throws IOException {
+        try {
+            return postToCedarAsync(artifact, parentFolderId, cedarApiKey, jsonSchemaTitle, jsonSchemaDescription).block();
+        } catch (RuntimeException e) {
+            // Checked exceptions are wrapped when they are rethrown by block()
+            if(Exceptions.unwrap(e) instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw e;
+        }
+    }
 
+    /**
+     * Posts an artifact to CEDAR without blocking.  The artifact is serialized before this method returns, so the
+     * artifact is not used by the returned publisher.  The post is made when the publisher is subscribed to.
+     * <p>
+     * Posts that fail with a transient error are retried according to the retry policy.  POST is not idempotent, so a
+     * post whose outcome is unknown, because the connection failed after the request was sent or a gateway gave up
+     * waiting for CEDAR, is only retried after checking that CEDAR did not create the artifact.
+     * @return A publisher of the response.  The response is empty if CEDAR rejected the artifact, in which case the
+     * reason has been printed.  The publisher signals an error if CEDAR could not be contacted.
+     */
+    public Mono<Optional<PostedArtifactResponse>> postToCedarAsync(CedarArtifact artifact,
+                                                                   CedarId parentFolderId,
+                                                                   CedarApiKey cedarApiKey,
+                                                                   String jsonSchemaTitle,
+                                                                   String jsonSchemaDescription) throws IOException {
         var outputStream = new ByteArrayOutputStream();
         artifactWriter.writeCedarArtifact(artifact,
                                           jsonSchemaDescription, outputStream);
-        String artifactTypePathElement = getArtifactTypePathElement(artifact) + "?folder_id=" + parentFolderId.value();
-        try {
-            var postedArtifactResponse = factory.createWebClient(HttpMethod.POST,
-                                    artifactTypePathElement,
-                                    cedarApiKey)
-                    .bodyValue(outputStream.toString(StandardCharsets.UTF_8))
-                    .retrieve()
-                    .bodyToMono(PostedArtifactResponse.class)
-                    .block();
-            return Optional.ofNullable(postedArtifactResponse);
-        } catch (WebClientResponseException.BadRequest e) {
-            System.err.println("-------------------------------------------------------------------------");
-            System.err.printf("\033[31;1mError when posting %s to CEDAR:\033[30;0m\n", artifact.toCompactString());
-            System.err.println("-------------------------------------------------------------------------");
-            System.err.println(e.getResponseBodyAsString());
-            var validation = objectMapper.readValue(e.getResponseBodyAsString(), FailedValidationErrorResponse.class);
-            var errors = validation.getErrors();
-            errors.forEach(ValidationError::printToStdError);
-            if(errors.isEmpty()) {
-                System.err.println(validation.message());
+        var post = new Post(artifact,
+                            parentFolderId,
+                            cedarApiKey,
+                            getArtifactTypePathElement(artifact) + "?folder_id=" + parentFolderId.value(),
+                            outputStream.toString(StandardCharsets.UTF_8));
+        var inFlightKey = getInFlightKey(artifact);
+        return attempt(post, 0, null)
+                .doFirst(() -> inFlightPosts.merge(inFlightKey, 1, Integer::sum))
+                .doFinally(signal -> inFlightPosts.computeIfPresent(inFlightKey, (k, count) -> count == 1 ? null : count - 1));
+    }
+
+    /**
+     * Makes an attempt to post an artifact
+     * @param retry The number of earlier attempts
+     * @param unknownOutcomeSince The time that the first attempt whose outcome is unknown was sent, or null if the
+     *                            outcomes of all earlier attempts are known
+     */
+    private Mono<Optional<PostedArtifactResponse>> attempt(Post post, int retry, @Nullable Instant unknownOutcomeSince) {
+        return waitForCircuitBreaker().then(Mono.defer(() -> {
+            var sentAt = clock.instant();
+            return factory.createWebClient(HttpMethod.POST,
+                                           post.path(),
+                                           post.apiKey())
+                          .bodyValue(post.body())
+                          .retrieve()
+                          .bodyToMono(PostedArtifactResponse.class)
+                          .doOnNext(response -> {
+                              circuitBreaker.recordSuccess();
+                              mintedIds.add(response.cedarId());
+                          })
+                          .map(Optional::of)
+                          .defaultIfEmpty(Optional.empty())
+                          .onErrorResume(e -> handleFailure(post, retry, unknownOutcomeSince, sentAt, e));
+        }));
+    }
+
+    /**
+     * Waits until the circuit breaker closes.  Other posts may fail while this one waits, so the breaker is checked
+     * again after each pause.
+     */
+    private Mono<Void> waitForCircuitBreaker() {
+        return Mono.defer(() -> {
+            var pause = circuitBreaker.getRemainingPause();
+            if(pause.isZero()) {
+                return Mono.empty();
             }
+            return Mono.delay(pause).then(waitForCircuitBreaker());
+        });
+    }
+
+    private Mono<Optional<PostedArtifactResponse>> handleFailure(Post post,
+                                                                 int retry,
+                                                                 @Nullable Instant unknownOutcomeSince,
+                                                                 Instant sentAt,
+                                                                 Throwable e) {
+        var failure = PostFailure.get(e);
+        if(failure == PostFailure.PERMANENT) {
+            return giveUp(post, e);
+        }
+        var retryAfter = getRetryAfter(e);
+        if(circuitBreaker.recordFailure(retryAfter)) {
+            var pause = circuitBreaker.getRemainingPause();
+            System.err.printf("\033[33;1mPausing\033[30;0m posts to CEDAR for %d ms because the server appears to be overloaded\n",
+                              pause.toMillis());
+        }
+        if(retry >= retryPolicy.maxRetries()) {
+            if(retryPolicy.maxRetries() > 0) {
+                System.err.printf("Giving up on posting %s to CEDAR after %d retries\n", post.artifact().toCompactString(), retry);
+            }
+            return giveUp(post, e);
+        }
+        var delay = getRetryDelay(retry + 1, retryAfter);
+        retryCount.incrementAndGet();
+        System.err.printf("\033[33;1mRetrying\033[30;0m post of %s to CEDAR in %d ms after %s\n",
+                          post.artifact().toCompactString(),
+                          delay.toMillis(),
+                          getFailureDescription(e));
+        if(failure == PostFailure.TRANSIENT_NOT_PROCESSED) {
+            return Mono.delay(delay).then(Mono.defer(() -> attempt(post, retry + 1, unknownOutcomeSince)));
+        }
+        var createdAfter = unknownOutcomeSince != null ? unknownOutcomeSince : sentAt;
+        return Mono.delay(delay).then(Mono.defer(() -> retryIfNotCreated(post, retry + 1, createdAfter)));
+    }
+
+    /**
+     * Retries a post whose outcome is unknown.  The contents of the folder that the artifact was posted to are
+     * searched for an artifact of the same type and name that was created after the earlier attempt was sent and that
+     * is not the result of another post.  If there is one then the earlier attempt succeeded and the artifact is not
+     * posted again.
+     * @param sentAt The time that the first attempt whose outcome is unknown was sent
+     */
+    private Mono<Optional<PostedArtifactResponse>> retryIfNotCreated(Post post, int retry, Instant sentAt) {
+        return waitForCircuitBreaker().then(Mono.defer(() -> findCreatedArtifacts(post, sentAt)))
+                                      .flatMap(candidates -> {
+                                          var otherPostsInFlight = inFlightPosts.getOrDefault(getInFlightKey(post.artifact()), 1) > 1;
+                                          if(candidates.isEmpty()) {
+                                              return attempt(post, retry, sentAt);
+                                          }
+                                          if(candidates.size() == 1 && !otherPostsInFlight) {
+                                              return adoptCreatedArtifact(post, candidates.get(0));
+                                          }
+                                          if(otherPostsInFlight) {
+                                              // Wait for the other posts to complete so that the artifacts that they
+                                              // created can be told apart from the one that this post created
+                                              return checkAgain(post, retry, sentAt, "other posts of the same name are in progress");
+                                          }
+                                          synchronized (System.err) {
+                                              System.err.printf("\033[31;1mCould not tell whether %s was created in CEDAR.\033[30;0m  Found %d artifacts with the same name that were created after it was posted.  It has not been posted again, to avoid creating a duplicate.\n",
+                                                                post.artifact().toCompactString(),
+                                                                candidates.size());
+                                          }
+                                          return Mono.just(Optional.<PostedArtifactResponse>empty());
+                                      })
+                                      .onErrorResume(e -> {
+                                          if(PostFailure.get(e) == PostFailure.PERMANENT) {
+                                              return giveUp(post, e);
+                                          }
+                                          circuitBreaker.recordFailure(getRetryAfter(e));
+                                          return checkAgain(post, retry, sentAt, getFailureDescription(e));
+                                      });
+    }
+
+    private Mono<Optional<PostedArtifactResponse>> checkAgain(Post post, int retry, Instant sentAt, String reason) {
+        if(retry >= retryPolicy.maxRetries()) {
+            synchronized (System.err) {
+                System.err.printf("\033[31;1mCould not tell whether %s was created in CEDAR\033[30;0m (%s).  It has not been posted again, to avoid creating a duplicate.\n",
+                                  post.artifact().toCompactString(),
+                                  reason);
+            }
+            return Mono.just(Optional.empty());
+        }
+        var delay = retryPolicy.getBackoff(retry + 1);
+        retryCount.incrementAndGet();
+        return Mono.delay(delay).then(Mono.defer(() -> retryIfNotCreated(post, retry + 1, sentAt)));
+    }
+
+    private Mono<Optional<PostedArtifactResponse>> adoptCreatedArtifact(Post post, JsonNode resource) {
+        return Mono.fromCallable(() -> {
+            var response = objectMapper.treeToValue(resource, PostedArtifactResponse.class);
+            if(!mintedIds.add(response.cedarId())) {
+                // Another post adopted it first
+                return Optional.<PostedArtifactResponse>empty();
+            }
+            circuitBreaker.recordSuccess();
+            recoveredCount.incrementAndGet();
+            System.err.printf("Found %s in CEDAR, created by an earlier attempt to post it (id=%s)\n",
+                              post.artifact().toCompactString(),
+                              response.cedarId().value());
+            return Optional.of(response);
+        });
+    }
+
+    /**
+     * Finds the artifacts in the folder that the post was made to that have the same type and name as the posted
+     * artifact, that were created after the specified time, less an allowance for clock skew, and that were not
+     * created by other posts.  The folder contents are listed newest first, so listing stops at the first artifact
+     * that is older.
+     */
+    private Mono<List<JsonNode>> findCreatedArtifacts(Post post, Instant sentAt) {
+        var cutoff = sentAt.minus(CLOCK_SKEW_ALLOWANCE);
+        var name = post.artifact().artifactInfo().schemaName();
+        var firstPage = "/folders/" + post.folderId().getEscapedId() + "/contents?resource_types="
+                + getResourceType(post.artifact()).getName() + "&sort=-createdOnTS&limit=" + FOLDER_CONTENTS_PAGE_SIZE;
+        return getFolderContentsPage(factory.createWebClient(HttpMethod.GET, firstPage, post.apiKey()))
+                .expand(page -> {
+                    var next = page.path("paging").path("next").asText("");
+                    if(next.isBlank()) {
+                        return Mono.empty();
+                    }
+                    return getFolderContentsPage(factory.createWebClient(HttpMethod.GET, URI.create(next), post.apiKey()));
+                })
+                .flatMapIterable(page -> page.path("resources"))
+                .takeWhile(resource -> getCreatedOn(resource).map(createdOn -> !createdOn.isBefore(cutoff)).orElse(true))
+                .filter(resource -> name.equals(resource.path("schema:name").asText()))
+                .filter(resource -> !mintedIds.contains(CedarId.valueOf(resource.path("@id").asText())))
+                .collectList();
+    }
+
+    private static Mono<JsonNode> getFolderContentsPage(WebClient.RequestBodySpec request) {
+        return request.retrieve().bodyToMono(JsonNode.class);
+    }
+
+    private static Optional<Instant> getCreatedOn(JsonNode resource) {
+        try {
+            return Optional.of(OffsetDateTime.parse(resource.path("pav:createdOn").asText()).toInstant());
+        } catch (DateTimeParseException e) {
             return Optional.empty();
-        } catch (WebClientResponseException e) {
-                System.err.printf("Posted %s to CEDAR Server and received an error response of %s (%s) %s\n",
-                                  artifact.toCompactString(),
-                                  e.getStatusCode().value(),
-                                  e.getStatusCode().getReasonPhrase(),
-                                  Optional.ofNullable(e.getRequest()).map(HttpRequest::getURI).map(Objects::toString).orElse(""));
-                if(e.getCause() != null) {
-                    System.err.printf("    Cause: %s\n", e.getCause().getMessage());
+        }
+    }
+
+    private Mono<Optional<PostedArtifactResponse>> giveUp(Post post, Throwable e) {
+        if(e instanceof WebClientResponseException responseException) {
+            return Mono.fromCallable(() -> printErrorResponse(post.artifact(), responseException));
+        }
+        return Mono.error(e);
+    }
+
+    private Duration getRetryDelay(int retry, Duration retryAfter) {
+        var backoff = retryPolicy.getBackoff(retry);
+        return retryAfter.compareTo(backoff) > 0 ? retryAfter : backoff;
+    }
+
+    /**
+     * Gets how long the server asked for requests to be held back for, in the Retry-After header of an error response.
+     * The header contains either a number of seconds or a date, which is measured against the clock of this poster.
+     * @return The duration, or zero if the server did not ask
+     */
+    Duration getRetryAfter(Throwable e) {
+        if(!(e instanceof WebClientResponseException responseException)) {
+            return Duration.ZERO;
+        }
+        var retryAfter = responseException.getHeaders().getFirst(HttpHeaders.RETRY_AFTER);
+        if(retryAfter == null || retryAfter.isBlank()) {
+            return Duration.ZERO;
+        }
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(retryAfter.trim())));
+        } catch (NumberFormatException numberFormatException) {
+            try {
+                var date = ZonedDateTime.parse(retryAfter.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+                var untilDate = Duration.between(clock.instant(), date);
+                return untilDate.isNegative() ? Duration.ZERO : untilDate;
+            } catch (DateTimeParseException dateTimeParseException) {
+                return Duration.ZERO;
+            }
+        }
+    }
+
+    private static String getFailureDescription(Throwable e) {
+        if(e instanceof WebClientResponseException responseException) {
+            return "an error response of " + responseException.getRawStatusCode() + " (" + responseException.getStatusText() + ")";
+        }
+        var cause = e.getCause() != null ? e.getCause() : e;
+        return Objects.requireNonNullElse(cause.getMessage(), cause.getClass().getSimpleName());
+    }
+
+    private static String getInFlightKey(CedarArtifact artifact) {
+        return getResourceType(artifact).getName() + " " + artifact.artifactInfo().schemaName();
+    }
+
+    /**
+     * Gets the base URL of the CEDAR resource server that artifacts are posted to
+     */
+    public String getCedarBaseUrl() {
+        return factory.getBaseUrl();
+    }
+
+    /**
+     * Gets the number of times that posts have been retried or checked again
+     */
+    public int getRetryCount() {
+        return retryCount.get();
+    }
+
+    /**
+     * Gets the number of posts whose outcome was unknown and that turned out to have created their artifact
+     */
+    public int getRecoveredCount() {
+        return recoveredCount.get();
+    }
+
+    /**
+     * Gets the number of times that posts have been paused because the server appeared to be overloaded
+     */
+    public int getPauseCount() {
+        return circuitBreaker.getOpenCount();
+    }
+
+    /**
+     * An artifact that is being posted
+     * @param artifact The artifact
+     * @param folderId The folder that the artifact is posted to
+     * @param apiKey The key that the artifact is posted with
+     * @param path The path that the artifact is posted to
+     * @param body The serialized artifact
+     */
+    private record Post(CedarArtifact artifact, CedarId folderId, CedarApiKey apiKey, String path, String body) {
+
+    }
+
+    /**
+     * The kinds of failed post
+     */
+    enum PostFailure {
+
+        /**
+         * The post failed in a way that retrying will not fix, such as the artifact being invalid
+         */
+        PERMANENT,
+
+        /**
+         * The post failed because the server was overloaded or could not be reached, and the artifact was not created
+         */
+        TRANSIENT_NOT_PROCESSED,
+
+        /**
+         * The post failed in a way that may be transient, but the artifact may have been created.  For example, the
+         * connection was closed after the request was sent, or a gateway timed out waiting for CEDAR.
+         */
+        TRANSIENT_OUTCOME_UNKNOWN;
+
+        static PostFailure get(Throwable e) {
+            if(e instanceof WebClientResponseException responseException) {
+                return switch (responseException.getRawStatusCode()) {
+                    case 429, 503 -> TRANSIENT_NOT_PROCESSED;
+                    case 502, 504 -> TRANSIENT_OUTCOME_UNKNOWN;
+                    default -> PERMANENT;
+                };
+            }
+            if(e instanceof WebClientRequestException) {
+                // A connection failure means that the request was never sent
+                return e.getCause() instanceof ConnectException ? TRANSIENT_NOT_PROCESSED : TRANSIENT_OUTCOME_UNKNOWN;
+            }
+            return PERMANENT;
+        }
+    }
+
+    private Optional<PostedArtifactResponse> printErrorResponse(CedarArtifact artifact,
+                                                                WebClientResponseException e) throws IOException {
+        // Posts can be made concurrently, so the lines of an error are kept together
+        synchronized (System.err) {
+            if(e instanceof WebClientResponseException.BadRequest) {
+                System.err.println("-------------------------------------------------------------------------");
+                System.err.printf("\033[31;1mError when posting %s to CEDAR:\033[30;0m\n", artifact.toCompactString());
+                System.err.println("-------------------------------------------------------------------------");
+                System.err.println(e.getResponseBodyAsString());
+                var validation = objectMapper.readValue(e.getResponseBodyAsString(), FailedValidationErrorResponse.class);
+                var errors = validation.getErrors();
+                errors.forEach(ValidationError::printToStdError);
+                if(errors.isEmpty()) {
+                    System.err.println(validation.message());
                 }
+                return Optional.empty();
+            }
+            System.err.printf("Posted %s to CEDAR Server and received an error response of %s (%s) %s\n",
+                              artifact.toCompactString(),
+                              e.getStatusCode().value(),
+                              e.getStatusCode().getReasonPhrase(),
+                              Optional.ofNullable(e.getRequest()).map(HttpRequest::getURI).map(Objects::toString).orElse(""));
+            if(e.getCause() != null) {
+                System.err.printf("    Cause: %s\n", e.getCause().getMessage());
+            }
             return Optional.empty();
         }
     }
 
+    private static ResourceType getResourceType(CedarArtifact artifact) {
+        if(artifact instanceof CedarTemplateField) {
+            return ResourceType.FIELD;
+        }
+        else if(artifact instanceof CedarTemplateElement) {
+            return ResourceType.ELEMENT;
+        }
+        else if(artifact instanceof CedarTemplate) {
+            return ResourceType.TEMPLATE;
+        }
+        else {
+            return ResourceType.INSTANCE;
+        }
+    }
+
     private String getArtifactTypePathElement(CedarArtifact artifact) {
         if(artifact instanceof CedarTemplateField) {
             return "/template-fields";
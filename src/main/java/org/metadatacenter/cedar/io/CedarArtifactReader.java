@@ -1,12 +1,32 @@
 package org.metadatacenter.cedar.io;
 
-import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
 import org.metadatacenter.cedar.api.CedarTemplateField;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 /**
  * Matthew Horridge
@@ -15,26 +35,261 @@ import java.nio.file.Path;
  */
 public class CedarArtifactReader {
 
+    /**
+     * Files of at least this size are memory mapped when they are loaded, rather than read into memory
+     */
+    private static final long MAPPED_READ_THRESHOLD = 1024 * 1024;
+
+    private static final int QUEUED_LOADS_PER_THREAD = 4;
+
+    private final ObjectMapper objectMapper;
+
+    private final ObjectReader treeReader;
+
+    private final ObjectReader templateFieldReader;
+
+    public CedarArtifactReader(CedarCodecs codecs) {
+        this.objectMapper = codecs.getObjectMapper();
+        this.treeReader = codecs.treeReader();
+        this.templateFieldReader = codecs.readerFor(CedarTemplateField.class);
+    }
+
     public CedarTemplateField readTemplateField(InputStream inputStream) throws IOException {
-        var jsonMapper = JsonMapper.builder()
-                .build();
-        return jsonMapper.reader().readValue(inputStream, CedarTemplateField.class);
+        return templateFieldReader.readValue(inputStream);
     }
 
-    public static void main(String[] args) throws IOException {
-        var folder = Path.of("/tmp/cedar-fields");
-        Files.newDirectoryStream(folder)
-                .forEach(f -> {
-                    try {
-                        var inputStream = Files.newInputStream(f);
-                        CedarArtifactReader r = new CedarArtifactReader();
-                        var tf = r.readTemplateField(inputStream);
-                        System.out.println(tf);
-
-                    } catch (IOException e) {
-                        e.printStackTrace();
+    /**
+     * Reads the template fields that are in an archive of generated artifacts.  JSON entries that are not template
+     * fields are skipped.
+     * @param archiveFile A zip or tar.gz archive, such as one written by csv2artifacts with the --out-archive option
+     */
+    public List<CedarTemplateField> readTemplateFields(Path archiveFile) throws IOException {
+        var fields = new ArrayList<CedarTemplateField>();
+        ArtifactArchiveReader.forEachEntry(archiveFile, (name, inputStream) -> {
+            if(!name.endsWith(".json")) {
+                return;
+            }
+            var node = treeReader.readTree(inputStream);
+            if(node.path("@type").asText().equals(SerializableTemplateField.TYPE)) {
+                fields.add(templateFieldReader.readValue(node));
+            }
+        });
+        return fields;
+    }
+
+    /**
+     * Reads the JSON schema of the template that is in an archive of generated artifacts
+     * @return The template schema, or empty if the archive does not contain a template
+     */
+    public Optional<ObjectNode> readTemplateJsonSchema(Path archiveFile) throws IOException {
+        var template = new ObjectNode[1];
+        ArtifactArchiveReader.forEachEntry(archiveFile, (name, inputStream) -> {
+            if(template[0] != null || !name.endsWith(".json")) {
+                return;
+            }
+            var node = treeReader.readTree(inputStream);
+            if(node instanceof ObjectNode objectNode && node.path("@type").asText().equals(SerializableTemplate.TYPE)) {
+                template[0] = objectNode;
+            }
+        });
+        return Optional.ofNullable(template[0]);
+    }
+
+    /**
+     * Loads the fields, elements, templates and instances that are in a directory, including its subdirectories, or in
+     * a zip or tar.gz archive.  Artifacts are identified by their <code>@type</code>.  Files are read as JSON, SMILE or
+     * CBOR according to their .json, .smile or .cbor extension, so artifacts that csv2artifacts has written in any
+     * output format can be loaded.  Files that are not artifacts, files with other extensions and hidden files are
+     * skipped.  Files are parsed on the specified
+     * number of threads.  Files of at least 1 MB are memory mapped rather than read into memory.  Archive entries are
+     * read one at a time, because archives can only be read sequentially, but they are parsed in parallel.
+     * @param path The directory or archive
+     * @param threads The number of threads to parse files on
+     * @param consumer A consumer for the loaded artifacts.  It is called for one artifact at a time, but from
+     *                 different threads and in no particular order.
+     * @return The number of artifacts that were loaded
+     * @throws IOException if a file cannot be read or parsed.  Loading stops at the first such file.
+     */
+    public int loadArtifacts(Path path, int threads, Consumer<LoadedArtifact> consumer) throws IOException {
+        if(threads < 1) {
+            throw new IllegalArgumentException("The number of threads must be at least 1");
+        }
+        var load = new BulkLoad(threads, consumer);
+        try {
+            if(Files.isDirectory(path)) {
+                try (var files = Files.walk(path)) {
+                    var iterator = files.filter(file -> getLoadableFormat(file.getFileName().toString()).isPresent())
+                                        .filter(Files::isRegularFile)
+                                        .iterator();
+                    while(iterator.hasNext() && !load.isFailed()) {
+                        var file = iterator.next();
+                        var source = path.relativize(file).toString();
+                        var format = getLoadableFormat(file.getFileName().toString()).orElseThrow();
+                        load.submit(source, () -> toLoadedArtifact(source, readTree(file, format)));
+                    }
+                }
+            }
+            else if(ArchiveFormat.isArchiveFile(path.toString())) {
+                ArtifactArchiveReader.forEachEntry(path, (name, inputStream) -> {
+                    var format = getLoadableFormat(name.substring(name.lastIndexOf('/') + 1));
+                    if(format.isPresent() && !load.isFailed()) {
+                        var content = inputStream.readAllBytes();
+                        load.submit(name, () -> toLoadedArtifact(name, readTree(new ByteArrayInputStream(content),
+                                                                                format.get())));
                     }
                 });
+            }
+            else {
+                throw new IOException("Cannot load artifacts from " + path + ".  It is not a directory or an archive.");
+            }
+        } finally {
+            load.awaitCompletion();
+        }
+        load.rethrowFailure();
+        return load.getLoadedCount();
+    }
+
+    private static Optional<OutputFormat> getLoadableFormat(String fileName) {
+        // Hidden files include the temporary files of artifacts that are being written
+        if(fileName.startsWith(".")) {
+            return Optional.empty();
+        }
+        return OutputFormat.forFileName(fileName);
+    }
+
+    private JsonNode readTree(Path file, OutputFormat format) throws IOException {
+        if(Files.size(file) < MAPPED_READ_THRESHOLD) {
+            return readTree(new ByteArrayInputStream(Files.readAllBytes(file)), format);
+        }
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            var buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return readTree(new ByteBufferBackedInputStream(buffer), format);
+        }
+    }
+
+    private JsonNode readTree(InputStream inputStream, OutputFormat format) throws IOException {
+        try (var parser = format.createParser(objectMapper, inputStream)) {
+            JsonNode tree = treeReader.readTree(parser);
+            // An empty file has no tree, and is skipped like other files that are not artifacts
+            return tree != null ? tree : MissingNode.getInstance();
+        }
+    }
+
+    private Optional<LoadedArtifact> toLoadedArtifact(String source, JsonNode json) throws IOException {
+        var type = LoadedArtifactType.get(json);
+        if(type.isEmpty()) {
+            return Optional.empty();
+        }
+        var templateField = type.get() == LoadedArtifactType.TEMPLATE_FIELD ? templateFieldReader.<CedarTemplateField>readValue(json) : null;
+        return Optional.of(new LoadedArtifact(source, type.get(), (ObjectNode) json, templateField));
+    }
+
+    private interface ArtifactLoader {
+
+        Optional<LoadedArtifact> load() throws IOException;
+    }
+
+    /**
+     * The state of a call to {@link #loadArtifacts(Path, int, Consumer)}
+     */
+    private static class BulkLoad {
+
+        private final Consumer<LoadedArtifact> consumer;
+
+        private final ThreadPoolExecutor executor;
+
+        private final AtomicInteger loadedCount = new AtomicInteger();
+
+        private final AtomicReference<Failure> failure = new AtomicReference<>();
+
+        private BulkLoad(int threads, Consumer<LoadedArtifact> consumer) {
+            this.consumer = consumer;
+            var threadCounter = new AtomicInteger();
+            // When the queue is full the thread that reads files parses them too, so files are not read much faster
+            // than they can be parsed
+            this.executor = new ThreadPoolExecutor(threads, threads,
+                                                   0, TimeUnit.MILLISECONDS,
+                                                   new ArrayBlockingQueue<>(threads * QUEUED_LOADS_PER_THREAD),
+                                                   runnable -> {
+                                                       var thread = new Thread(runnable, "artifact-loader-" + threadCounter.incrementAndGet());
+                                                       thread.setDaemon(true);
+                                                       return thread;
+                                                   },
+                                                   new ThreadPoolExecutor.CallerRunsPolicy());
+        }
+
+        private boolean isFailed() {
+            return failure.get() != null;
+        }
 
+        private void submit(String source, ArtifactLoader loader) {
+            executor.execute(() -> {
+                if(isFailed()) {
+                    return;
+                }
+                try {
+                    var loadedArtifact = loader.load();
+                    if(loadedArtifact.isPresent()) {
+                        synchronized (consumer) {
+                            consumer.accept(loadedArtifact.get());
+                        }
+                        loadedCount.incrementAndGet();
+                    }
+                } catch (IOException | RuntimeException e) {
+                    failure.compareAndSet(null, new Failure(source, e));
+                }
+            });
+        }
+
+        private void awaitCompletion() throws IOException {
+            executor.shutdown();
+            try {
+                while(!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                    // Keep waiting
+                }
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while loading artifacts");
+            }
+        }
+
+        private void rethrowFailure() throws IOException {
+            var f = failure.get();
+            if(f == null) {
+                return;
+            }
+            if(f.exception() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IOException("Could not load " + f.source() + ": " + f.exception().getMessage(), f.exception());
+        }
+
+        private int getLoadedCount() {
+            return loadedCount.get();
+        }
+    }
+
+    private record Failure(String source, Exception exception) {
+
+    }
+
+    /**
+     * Loads the artifacts in the directory or archive that is specified by the first argument and prints the number of
+     * artifacts of each type
+     */
+    public static void main(String[] args) throws IOException {
+        if(args.length != 1) {
+            System.err.println("Usage: CedarArtifactReader <directory or archive>");
+            System.exit(1);
+        }
+        var objectMapper = new ObjectMapper().disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        var reader = new CedarArtifactReader(new CedarCodecs(objectMapper, false));
+        var counts = new EnumMap<LoadedArtifactType, Integer>(LoadedArtifactType.class);
+        var count = reader.loadArtifacts(Path.of(args[0]),
+                                         Runtime.getRuntime().availableProcessors(),
+                                         artifact -> counts.merge(artifact.type(), 1, Integer::sum));
+        counts.forEach((type, typeCount) -> System.out.println(type + ": " + typeCount));
+        System.out.println("Loaded " + count + " artifacts");
     }
 }
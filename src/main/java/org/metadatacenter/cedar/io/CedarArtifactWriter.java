@@ -3,6 +3,7 @@ package org.metadatacenter.cedar.io;
 import com.fasterxml.jackson.databind.json.JsonMapper;
 import org.metadatacenter.cedar.api.*;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.List;
@@ -16,22 +17,47 @@ public class CedarArtifactWriter {
 
     private final JsonMapper jsonMapper;
 
+    private final StreamingCedarArtifactSerializer streamingSerializer;
+
     public CedarArtifactWriter(JsonMapper jsonMapper) {
         this.jsonMapper = jsonMapper;
+        this.streamingSerializer = new StreamingCedarArtifactSerializer(jsonMapper);
     }
 
     public void writeCedarArtifact(CedarArtifact cedarArtifact,
                                    String jsonSchemaDescription,
                                    OutputStream outputStream) throws IOException {
-        if (cedarArtifact instanceof CedarSchemaArtifact) {
-            var visitor = new ArtifactToSerializableArtifactVisitor(jsonSchemaDescription);
-            var serializableArtifact = ((CedarSchemaArtifact) cedarArtifact).accept(visitor);
-            jsonMapper.writerWithDefaultPrettyPrinter()
-                    .writeValue(outputStream, serializableArtifact);
+        writeCedarArtifact(cedarArtifact, jsonSchemaDescription, outputStream, OutputFormat.PRETTY_JSON);
+    }
+
+    /**
+     * Writes the specified artifact to the specified output stream in the specified format.  The output stream is
+     * closed after the artifact has been written.
+     */
+    public void writeCedarArtifact(CedarArtifact cedarArtifact,
+                                   String jsonSchemaDescription,
+                                   OutputStream outputStream,
+                                   OutputFormat outputFormat) throws IOException {
+        writeCedarArtifact(cedarArtifact, jsonSchemaDescription, outputStream, outputFormat, null);
+    }
+
+    /**
+     * Writes the specified artifact to the specified output stream in the specified format.  The output stream is
+     * closed after the artifact has been written.  Embedded artifacts are taken from, and added to, the specified
+     * cache, if there is one.
+     */
+    public void writeCedarArtifact(CedarArtifact cedarArtifact,
+                                   String jsonSchemaDescription,
+                                   OutputStream outputStream,
+                                   OutputFormat outputFormat,
+                                   @Nullable SerializedArtifactCache cache) throws IOException {
+        if (cedarArtifact instanceof CedarSchemaArtifact schemaArtifact) {
+            try (var generator = outputFormat.createGenerator(jsonMapper, outputStream)) {
+                streamingSerializer.writeArtifact(schemaArtifact, jsonSchemaDescription, cache, generator);
+            }
         }
         else {
-            jsonMapper.writerWithDefaultPrettyPrinter()
-                    .writeValue(outputStream, cedarArtifact);
+            outputFormat.writeValue(jsonMapper, cedarArtifact, outputStream);
         }
     }
 }
@@ -0,0 +1,170 @@
+package org.metadatacenter.cedar.io;
+
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.yaml.YAMLGenerator;
+import com.fasterxml.jackson.dataformat.yaml.YAMLMapper;
+import org.metadatacenter.cedar.api.FragmentView;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Matthew Horridge
+ * Stanford Center for Biomedical Informatics Research
+ * 2026-10-17
+ * <p>
+ * A registry of pre-built readers and writers.  Readers and writers are immutable and are safe to share between
+ * threads.  A reader or writer for a type resolves its root (de)serializer once, when it is first requested, rather
+ * than on every call, so callers should get their readers and writers from here instead of copying or creating
+ * mappers.
+ * <p>
+ * The registry works on its own copy of the specified mapper, so changes that are made to the mapper after the
+ * registry has been created are not seen by the registry.  If the Jackson Blackbird module is on the class path then
+ * it can be registered with the copy, which replaces reflective access to record accessors, constructors and
+ * properties with generated lambdas.
+ */
+public class CedarCodecs {
+
+    static final String BLACKBIRD_MODULE_CLASS_NAME = "com.fasterxml.jackson.module.blackbird.BlackbirdModule";
+
+    private final ObjectMapper objectMapper;
+
+    private final boolean blackbirdRegistered;
+
+    private final ObjectReader treeReader;
+
+    private final ObjectWriter prettyWriter;
+
+    private final ObjectWriter compactWriter;
+
+    private final ObjectWriter fragmentWriter;
+
+    private final YAMLMapper yamlMapper;
+
+    private final ObjectWriter yamlWriter;
+
+    private final Map<Class<?>, ObjectReader> readers = new ConcurrentHashMap<>();
+
+    private final Map<WriterKey, ObjectWriter> writers = new ConcurrentHashMap<>();
+
+    private final Map<Class<?>, ObjectReader> yamlReaders = new ConcurrentHashMap<>();
+
+    /**
+     * @param objectMapper The mapper whose configuration the readers and writers use.  The mapper is copied.
+     * @param useBlackbird true if the Blackbird module should be registered, if it is available
+     */
+    public CedarCodecs(ObjectMapper objectMapper, boolean useBlackbird) {
+        this.objectMapper = objectMapper.copy();
+        var blackbirdModule = useBlackbird ? createBlackbirdModule() : Optional.<Module>empty();
+        blackbirdModule.ifPresent(this.objectMapper::registerModule);
+        this.blackbirdRegistered = blackbirdModule.isPresent();
+        this.treeReader = this.objectMapper.reader();
+        this.prettyWriter = this.objectMapper.writerWithDefaultPrettyPrinter();
+        this.compactWriter = this.objectMapper.writer();
+        // View inclusion is a mapper feature, so it cannot be switched off per writer
+        this.fragmentWriter = this.objectMapper.copy()
+                                               .disable(MapperFeature.DEFAULT_VIEW_INCLUSION)
+                                               .writerWithView(FragmentView.class)
+                                               .withDefaultPrettyPrinter();
+        this.yamlMapper = YAMLMapper.builder()
+                                    .disable(YAMLGenerator.Feature.WRITE_DOC_START_MARKER)
+                                    .enable(YAMLGenerator.Feature.MINIMIZE_QUOTES)
+                                    .build();
+        this.yamlWriter = yamlMapper.writer();
+    }
+
+    private static Optional<Module> createBlackbirdModule() {
+        try {
+            var moduleClass = Class.forName(BLACKBIRD_MODULE_CLASS_NAME);
+            return Optional.of((Module) moduleClass.getConstructor().newInstance());
+        } catch (ClassNotFoundException e) {
+            return Optional.empty();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            var cause = e instanceof InvocationTargetException ite ? ite.getCause() : e;
+            System.err.println("Could not register the Blackbird module: " + cause);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Determines whether the Blackbird module has been registered with the mapper that the registry uses
+     */
+    public boolean isBlackbirdRegistered() {
+        return blackbirdRegistered;
+    }
+
+    /**
+     * Gets the mapper that the readers and writers are created from.  This is for conversions between values and
+     * trees.  The mapper must not be reconfigured.
+     */
+    public ObjectMapper getObjectMapper() {
+        return objectMapper;
+    }
+
+    /**
+     * Gets a reader that reads JSON into trees
+     */
+    public ObjectReader treeReader() {
+        return treeReader;
+    }
+
+    /**
+     * Gets a reader that reads JSON into values of the specified type
+     */
+    public ObjectReader readerFor(Class<?> type) {
+        return readers.computeIfAbsent(type, objectMapper::readerFor);
+    }
+
+    /**
+     * Gets a writer for values of any type
+     * @param format The format.  Writers for the binary formats are compact JSON writers, which must be given a
+     *               generator that is created by {@link OutputFormat#createGenerator}.
+     */
+    public ObjectWriter writer(OutputFormat format) {
+        return format == OutputFormat.PRETTY_JSON ? prettyWriter : compactWriter;
+    }
+
+    /**
+     * Gets a writer for values of the specified type
+     * @param type The type of the values that are written
+     * @param format The format.  Writers for the binary formats are compact JSON writers, which must be given a
+     *               generator that is created by {@link OutputFormat#createGenerator}.
+     */
+    public ObjectWriter writerFor(Class<?> type, OutputFormat format) {
+        var pretty = format == OutputFormat.PRETTY_JSON;
+        return writers.computeIfAbsent(new WriterKey(type, pretty),
+                                       key -> pretty ? prettyWriter.forType(type) : compactWriter.forType(type));
+    }
+
+    /**
+     * Gets a pretty printing writer that only writes the properties in the {@link FragmentView}.  This is used
+     * for writing fragments of instances.
+     */
+    public ObjectWriter fragmentWriter() {
+        return fragmentWriter;
+    }
+
+    /**
+     * Gets a writer that writes YAML without a document start marker and with minimal quoting
+     */
+    public ObjectWriter yamlWriter() {
+        return yamlWriter;
+    }
+
+    /**
+     * Gets a reader that reads YAML into values of the specified type
+     */
+    public ObjectReader yamlReaderFor(Class<?> type) {
+        return yamlReaders.computeIfAbsent(type, yamlMapper::readerFor);
+    }
+
+    private record WriterKey(Class<?> type, boolean pretty) {
+
+    }
+}
@@ -0,0 +1,164 @@
+package org.metadatacenter.cedar.io;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Matthew Horridge
+ * Stanford Center for Biomedical Informatics Research
+ * 2026-10-17
+ * <p>
+ * An on-disk cache for inputs, such as published spreadsheets, that are read over HTTP.  A cached copy is
+ * revalidated using a conditional GET request that carries the ETag and Last-Modified values of the cached copy.
+ * If the server responds with 304 (Not Modified) then the cached copy is used without downloading it again.
+ */
+@Component
+public class HttpInputCache {
+
+    private static final String CONTENT_SUFFIX = ".content";
+
+    private static final String METADATA_SUFFIX = ".metadata.json";
+
+    private final Path defaultCacheDirectory;
+
+    private final ObjectMapper objectMapper;
+
+    private final WebClient webClient;
+
+    public HttpInputCache(@Value("${cedar.input.cacheDirectory:${user.home}/.cedar-cli/input-cache}") Path defaultCacheDirectory,
+                          ObjectMapper objectMapper,
+                          SharedWebClients sharedWebClients) {
+        this.defaultCacheDirectory = defaultCacheDirectory;
+        this.objectMapper = objectMapper;
+        // Published spreadsheets are usually served via a redirect
+        this.webClient = sharedWebClients.getRedirectFollowingWebClient();
+    }
+
+    public Path getDefaultCacheDirectory() {
+        return defaultCacheDirectory;
+    }
+
+    /**
+     * Gets a local copy of the content at the specified URI, downloading it only if the cached copy is missing or
+     * is out of date.
+     * @param uri The URI of the content
+     * @param cacheDirectory The directory that holds cached copies
+     * @param offline true if the cached copy should be used without contacting the server
+     * @return The path of the local copy
+     * @throws IOException if there is no cached copy and the content cannot be downloaded, or if offline is true and
+     * there is no cached copy
+     */
+    public Path getLocalCopy(URI uri, Path cacheDirectory, boolean offline) throws IOException {
+        var key = getCacheKey(uri);
+        var contentPath = cacheDirectory.resolve(key + CONTENT_SUFFIX);
+        var metadataPath = cacheDirectory.resolve(key + METADATA_SUFFIX);
+        var cached = Files.exists(contentPath) && Files.exists(metadataPath);
+        if(offline) {
+            if(!cached) {
+                throw new IOException("There is no cached copy of " + uri + " to use offline");
+            }
+            System.err.println("Using cached copy of " + uri + " (offline)");
+            return contentPath;
+        }
+        Files.createDirectories(cacheDirectory);
+        var metadata = cached ? objectMapper.readValue(metadataPath.toFile(), CachedInputMetadata.class) : null;
+        try {
+            var downloaded = download(uri, metadata, contentPath, metadataPath);
+            if(!downloaded) {
+                System.err.println("Cached copy of " + uri + " is up to date");
+            }
+            return contentPath;
+        } catch (WebClientRequestException e) {
+            if(!cached) {
+                throw new IOException("Could not download " + uri + ": " + e.getMessage(), e);
+            }
+            System.err.println("Could not contact the server (" + e.getMessage() + ").  Using cached copy of " + uri);
+            return contentPath;
+        } catch (WebClientResponseException e) {
+            throw new IOException("Could not download " + uri + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Conditionally downloads the content
+     * @return true if the content was downloaded, or false if the cached copy is up to date
+     */
+    private boolean download(URI uri,
+                             @Nullable CachedInputMetadata metadata,
+                             Path contentPath,
+                             Path metadataPath) throws IOException {
+        // Download into a temporary file so that a failed download does not clobber the cached copy
+        var tempContentPath = Files.createTempFile(contentPath.getParent(), contentPath.getFileName().toString(), ".tmp");
+        try {
+            var result = webClient.get()
+                                  .uri(uri)
+                                  .headers(headers -> {
+                                      if(metadata != null && metadata.etag() != null) {
+                                          headers.set(HttpHeaders.IF_NONE_MATCH, metadata.etag());
+                                      }
+                                      if(metadata != null && metadata.lastModified() != null) {
+                                          headers.set(HttpHeaders.IF_MODIFIED_SINCE, metadata.lastModified());
+                                      }
+                                  })
+                                  .exchangeToMono(response -> {
+                                      if(metadata != null && response.statusCode().equals(HttpStatus.NOT_MODIFIED)) {
+                                          return response.releaseBody().then(Mono.<CachedInputMetadata>empty());
+                                      }
+                                      if(response.statusCode().is2xxSuccessful()) {
+                                          var headers = response.headers().asHttpHeaders();
+                                          var downloadedMetadata = new CachedInputMetadata(uri.toString(),
+                                                                                           headers.getETag(),
+                                                                                           headers.getFirst(HttpHeaders.LAST_MODIFIED));
+                                          return DataBufferUtils.write(response.bodyToFlux(DataBuffer.class), tempContentPath)
+                                                                .thenReturn(downloadedMetadata);
+                                      }
+                                      return response.createException().flatMap(Mono::error);
+                                  })
+                                  .block();
+            if(result == null) {
+                return false;
+            }
+            Files.move(tempContentPath, contentPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            objectMapper.writeValue(metadataPath.toFile(), result);
+            return true;
+        } finally {
+            Files.deleteIfExists(tempContentPath);
+        }
+    }
+
+    private static String getCacheKey(URI uri) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(uri.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record CachedInputMetadata(@JsonProperty("uri") String uri,
+                                       @JsonProperty("etag") @Nullable String etag,
+                                       @JsonProperty("lastModified") @Nullable String lastModified) {
+
+    }
+}
@@ -0,0 +1,29 @@
+package org.metadatacenter.cedar.io;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.metadatacenter.cedar.api.CedarTemplateField;
+
+import javax.annotation.Nullable;
+import java.util.Optional;
+
+/**
+ * Matthew Horridge
+ * Stanford Center for Biomedical Informatics Research
+ * 2026-10-17
+ * <p>
+ * An artifact that has been loaded by {@link CedarArtifactReader}
+ * @param source The path of the file that the artifact was loaded from, relative to the directory that was loaded,
+ *               or the name of the archive entry that the artifact was loaded from
+ * @param type The type of the artifact
+ * @param json The JSON of the artifact
+ * @param templateField The template field, if the artifact is a template field
+ */
+public record LoadedArtifact(String source,
+                             LoadedArtifactType type,
+                             ObjectNode json,
+                             @Nullable CedarTemplateField templateField) {
+
+    public Optional<CedarTemplateField> getTemplateField() {
+        return Optional.ofNullable(templateField);
+    }
+}
@@ -0,0 +1,42 @@
+package org.metadatacenter.cedar.io;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.Optional;
+
+/**
+ * Matthew Horridge
+ * Stanford Center for Biomedical Informatics Research
+ * 2026-10-17
+ * <p>
+ * The types of artifact that {@link CedarArtifactReader} loads.  Schema artifacts are identified by their
+ * <code>@type</code>.  Instances do not have a fixed <code>@type</code>, so they are identified by their
+ * <code>schema:isBasedOn</code> property.
+ */
+public enum LoadedArtifactType {
+
+    TEMPLATE_FIELD,
+
+    TEMPLATE_ELEMENT,
+
+    TEMPLATE,
+
+    TEMPLATE_INSTANCE;
+
+    /**
+     * Gets the type of the artifact that the specified JSON represents
+     * @return The type, or empty if the JSON does not represent a field, element, template or instance
+     */
+    public static Optional<LoadedArtifactType> get(JsonNode json) {
+        if(!json.isObject()) {
+            return Optional.empty();
+        }
+        var type = json.path("@type").asText();
+        return switch (type) {
+            case SerializableTemplateField.TYPE -> Optional.of(TEMPLATE_FIELD);
+            case SerializableTemplateElement.TYPE -> Optional.of(TEMPLATE_ELEMENT);
+            case SerializableTemplate.TYPE -> Optional.of(TEMPLATE);
+            default -> json.has("schema:isBasedOn") ? Optional.of(TEMPLATE_INSTANCE) : Optional.empty();
+        };
+    }
+}
@@ -0,0 +1,124 @@
+package org.metadatacenter.cedar.io;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Optional;
+
+/**
+ * Matthew Horridge
+ * Stanford Center for Biomedical Informatics Research
+ * 2026-10-17
+ * <p>
+ * The encoding that artifacts and instances are written in.  Pretty printed JSON is intended to be read by people.
+ * Compact JSON is smaller and faster to write.  Smile and CBOR are binary encodings of the same data model as JSON.
+ * They are intended for intermediate files in pipelines, where nobody reads the output, and can be read back with
+ * a Jackson {@link ObjectMapper} that is created with the corresponding factory.
+ */
+public enum OutputFormat {
+
+    PRETTY_JSON("json", null),
+
+    COMPACT_JSON("json", null),
+
+    SMILE("smile", new SmileFactory()),
+
+    CBOR("cbor", new CBORFactory());
+
+    private final String fileExtension;
+
+    @Nullable
+    private final JsonFactory binaryFactory;
+
+    OutputFormat(String fileExtension, @Nullable JsonFactory binaryFactory) {
+        this.fileExtension = fileExtension;
+        this.binaryFactory = binaryFactory;
+    }
+
+    /**
+     * Gets the file extension, without the leading dot, for files written in this format
+     */
+    public String getFileExtension() {
+        return fileExtension;
+    }
+
+    public boolean isBinary() {
+        return binaryFactory != null;
+    }
+
+    /**
+     * Gets the format of a file from its extension.  Pretty printed and compact JSON are read in the same way, so a
+     * .json file is reported as {@link #PRETTY_JSON}.
+     * @param fileName The name of the file
+     * @return The format, or empty if the file name does not have the extension of one of the formats
+     */
+    public static Optional<OutputFormat> forFileName(String fileName) {
+        var extension = fileName.substring(fileName.lastIndexOf('.') + 1);
+        for(var format : values()) {
+            if(format.fileExtension.equals(extension)) {
+                return Optional.of(format);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Creates a parser that reads content in this format from the specified input stream.  Closing the parser closes
+     * the input stream.
+     * @param objectMapper The mapper whose parser configuration is used for JSON
+     * @param inputStream The input stream to read from
+     */
+    public JsonParser createParser(ObjectMapper objectMapper,
+                                   InputStream inputStream) throws IOException {
+        if(binaryFactory == null) {
+            return objectMapper.createParser(inputStream);
+        }
+        return binaryFactory.createParser(inputStream);
+    }
+
+    /**
+     * Creates a generator that writes to the specified output stream in this format.  The generator is configured
+     * in the same way as the generators that {@link #writeValue(ObjectMapper, Object, OutputStream)} uses.  Closing
+     * the generator closes the output stream.
+     * @param objectMapper The mapper whose generator configuration is used
+     * @param outputStream The output stream to write to
+     */
+    public JsonGenerator createGenerator(ObjectMapper objectMapper,
+                                         OutputStream outputStream) throws IOException {
+        return switch (this) {
+            case PRETTY_JSON -> objectMapper.writerWithDefaultPrettyPrinter().createGenerator(outputStream);
+            case COMPACT_JSON -> objectMapper.writer().createGenerator(outputStream);
+            default -> binaryFactory.createGenerator(outputStream);
+        };
+    }
+
+    /**
+     * Writes the specified value to the specified output stream in this format.  The value is serialized using the
+     * configuration (modules, mixins and features) of the specified mapper, whatever the format.  The output stream
+     * is closed after the value has been written.
+     * @param objectMapper The mapper that is used to serialize the value
+     * @param value The value to write
+     * @param outputStream The output stream to write the value to
+     */
+    public void writeValue(ObjectMapper objectMapper,
+                           Object value,
+                           OutputStream outputStream) throws IOException {
+        switch (this) {
+            case PRETTY_JSON -> objectMapper.writerWithDefaultPrettyPrinter().writeValue(outputStream, value);
+            case COMPACT_JSON -> objectMapper.writer().writeValue(outputStream, value);
+            default -> {
+                try (var generator = binaryFactory.createGenerator(outputStream)) {
+                    objectMapper.writer().writeValue(generator, value);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package org.metadatacenter.cedar.io;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Matthew Horridge
+ * Stanford Center for Biomedical Informatics Research
+ * 2026-10-17
+ * <p>
+ * Pauses all posts to CEDAR when CEDAR appears to be overloaded.  The breaker opens after a number of consecutive
+ * failed posts, or when CEDAR asks for requests to be held back with a Retry-After header.  While it is open, posts wait
+ * until it closes instead of adding to the load on the server.  A failure after the breaker closes again opens it
+ * straight away, and a successful post resets it.
+ */
+public class PostCircuitBreaker {
+
+    private final int failureThreshold;
+
+    private final Duration pause;
+
+    private final Clock clock;
+
+    private int consecutiveFailures = 0;
+
+    private Instant closesAt = Instant.MIN;
+
+    private int openCount = 0;
+
+    public PostCircuitBreaker(int failureThreshold, Duration pause, Clock clock) {
+        this.failureThreshold = failureThreshold;
+        this.pause = pause;
+        this.clock = clock;
+    }
+
+    /**
+     * Gets how long a post must wait before it is sent
+     * @return The time until the breaker closes, which is zero if the breaker is closed
+     */
+    public synchronized Duration getRemainingPause() {
+        var now = clock.instant();
+        return now.isBefore(closesAt) ? Duration.between(now, closesAt) : Duration.ZERO;
+    }
+
+    public synchronized void recordSuccess() {
+        consecutiveFailures = 0;
+    }
+
+    /**
+     * Records a failed post
+     * @param retryAfter How long the server asked for requests to be held back for.  This is zero if the server did
+     *                   not ask.
+     * @return true if the breaker opened because of the failure
+     */
+    public synchronized boolean recordFailure(Duration retryAfter) {
+        consecutiveFailures++;
+        var pauseForFailures = consecutiveFailures >= failureThreshold ? pause : Duration.ZERO;
+        var requiredPause = retryAfter.compareTo(pauseForFailures) > 0 ? retryAfter : pauseForFailures;
+        if(requiredPause.isZero() || requiredPause.isNegative()) {
+            return false;
+        }
+        var wasOpen = !getRemainingPause().isZero();
+        var requiredClosesAt = clock.instant().plus(requiredPause);
+        if(requiredClosesAt.isAfter(closesAt)) {
+            closesAt = requiredClosesAt;
+        }
+        if(!wasOpen) {
+            openCount++;
+        }
+        return !wasOpen;
+    }
+
+    /**
+     * Gets the number of times that the breaker has opened
+     */
+    public synchronized int getOpenCount() {
+        return openCount;
+    }
+}
@@ -0,0 +1,56 @@
+package org.metadatacenter.cedar.io;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Matthew Horridge
+ * Stanford Center for Biomedical Informatics Research
+ * 2026-10-17
+ * <p>
+ * How posts to CEDAR are retried after transient failures
+ * @param maxRetries The maximum number of times that a post is retried.  Zero disables retries.
+ * @param initialBackoff The delay before the first retry.  The delay doubles for each following retry.
+ * @param maxBackoff The longest delay between retries, apart from delays that the server asks for with a
+ *                   Retry-After header
+ * @param circuitBreakerThreshold The number of consecutive failed posts after which all posts are paused
+ * @param circuitBreakerPause How long all posts are paused for
+ */
+public record PostRetryPolicy(int maxRetries,
+                              Duration initialBackoff,
+                              Duration maxBackoff,
+                              int circuitBreakerThreshold,
+                              Duration circuitBreakerPause) {
+
+    public PostRetryPolicy {
+        if(maxRetries < 0) {
+            throw new IllegalArgumentException("maxRetries must not be negative");
+        }
+        if(circuitBreakerThreshold < 1) {
+            throw new IllegalArgumentException("circuitBreakerThreshold must be at least 1");
+        }
+    }
+
+    /**
+     * Does not retry posts and does not pause posts after failures
+     */
+    public static PostRetryPolicy none() {
+        return new PostRetryPolicy(0, Duration.ZERO, Duration.ZERO, Integer.MAX_VALUE, Duration.ZERO);
+    }
+
+    /**
+     * Gets the delay before the specified retry.  The delay is the backoff for the retry, capped at the maximum
+     * backoff, with between zero and half of it taken off at random so that posts that failed together are not
+     * retried together.
+     * @param retry The retry, starting at 1 for the first retry
+     */
+    public Duration getBackoff(int retry) {
+        var backoffMillis = initialBackoff.toMillis();
+        for(int i = 1; i < retry && backoffMillis < maxBackoff.toMillis(); i++) {
+            backoffMillis *= 2;
+        }
+        backoffMillis = Math.min(backoffMillis, maxBackoff.toMillis());
+        var jitterMillis = backoffMillis == 0 ? 0 : ThreadLocalRandom.current().nextLong(backoffMillis / 2 + 1);
+        return Duration.ofMillis(backoffMillis - jitterMillis);
+    }
+}
@@ -0,0 +1,217 @@
+package org.metadatacenter.cedar.io;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.core.json.JsonGeneratorImpl;
+import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Matthew Horridge
+ * Stanford Center for Biomedical Informatics Research
+ * 2026-10-17
+ * <p>
+ * A JSON value that has already been serialized to UTF-8, either compactly or with the default pretty printer, and
+ * that is spliced into JSON output as a raw value.  Pretty printed output is indented according to how deeply the
+ * value is nested in objects, so the pretty printed form is re-indented, once, for each nesting level that it is
+ * written at.
+ */
+final class RawJsonFragment {
+
+    private static final byte LF = '\n';
+
+    private static final byte SPACE = ' ';
+
+    /**
+     * The number of spaces that the default pretty printer indents by, per level
+     */
+    private static final int INDENT_SIZE = 2;
+
+    /**
+     * Nesting levels up to this are cached
+     */
+    private static final int MAX_CACHED_NESTING_LEVEL = 32;
+
+    private final byte[] json;
+
+    private final boolean pretty;
+
+    private final AtomicReferenceArray<SerializableString> jsonByNestingLevel = new AtomicReferenceArray<>(
+            MAX_CACHED_NESTING_LEVEL + 1);
+
+    /**
+     * @param json The UTF-8 encoded value, written at the root of its output
+     * @param pretty true if the value was written with the default pretty printer, otherwise false
+     */
+    RawJsonFragment(byte[] json, boolean pretty) {
+        this.json = json;
+        this.pretty = pretty;
+    }
+
+    /**
+     * Determines whether fragments can be written to the specified generator.  Binary generators and generators with
+     * custom pretty printers must be given values.
+     */
+    static boolean canWrite(JsonGenerator generator) {
+        if(!(generator instanceof JsonGeneratorImpl)) {
+            return false;
+        }
+        var prettyPrinter = generator.getPrettyPrinter();
+        return prettyPrinter == null || prettyPrinter.getClass().equals(DefaultPrettyPrinter.class);
+    }
+
+    static boolean isPretty(JsonGenerator generator) {
+        return generator.getPrettyPrinter() != null;
+    }
+
+    /**
+     * Writes this fragment as the next value of the specified generator.  The generator must be one that
+     * {@link #canWrite(JsonGenerator)} accepts, and it must be pretty printing if, and only if, this fragment was.
+     */
+    void write(JsonGenerator generator) throws IOException {
+        var nestingLevel = pretty ? getNestingLevel(generator) : 0;
+        if(nestingLevel > MAX_CACHED_NESTING_LEVEL) {
+            generator.writeRawValue(new Utf8Json(indent(nestingLevel)));
+            return;
+        }
+        var indented = jsonByNestingLevel.get(nestingLevel);
+        if(indented == null) {
+            indented = new Utf8Json(indent(nestingLevel));
+            jsonByNestingLevel.set(nestingLevel, indented);
+        }
+        generator.writeRawValue(indented);
+    }
+
+    /**
+     * Gets the number of objects that enclose the next value.  The default pretty printer writes arrays inline, so
+     * arrays do not add to the indentation.
+     */
+    private static int getNestingLevel(JsonGenerator generator) {
+        var nestingLevel = 0;
+        for(var context = generator.getOutputContext(); context != null; context = context.getParent()) {
+            if(context.inObject()) {
+                nestingLevel++;
+            }
+        }
+        return nestingLevel;
+    }
+
+    /**
+     * Indents each line after the first.  Line feeds only occur between tokens in JSON, because they are escaped in
+     * strings, so this does not change any values.
+     */
+    private byte[] indent(int nestingLevel) {
+        if(nestingLevel == 0) {
+            return json;
+        }
+        var lineFeeds = 0;
+        for(var b : json) {
+            if(b == LF) {
+                lineFeeds++;
+            }
+        }
+        var indent = nestingLevel * INDENT_SIZE;
+        var indented = new byte[json.length + lineFeeds * indent];
+        var pos = 0;
+        var start = 0;
+        for(int i = 0; i < json.length; i++) {
+            if(json[i] == LF) {
+                var length = i + 1 - start;
+                System.arraycopy(json, start, indented, pos, length);
+                pos += length;
+                for(int j = 0; j < indent; j++) {
+                    indented[pos++] = SPACE;
+                }
+                start = i + 1;
+            }
+        }
+        System.arraycopy(json, start, indented, pos, json.length - start);
+        return indented;
+    }
+
+    /**
+     * Raw UTF-8 JSON.  Only the unquoted UTF-8 forms are used for raw values, so the others are computed on demand.
+     */
+    private record Utf8Json(byte[] utf8) implements SerializableString {
+
+        @Override
+        public String getValue() {
+            return new String(utf8, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public int charLength() {
+            return getValue().length();
+        }
+
+        @Override
+        public char[] asQuotedChars() {
+            return new SerializedString(getValue()).asQuotedChars();
+        }
+
+        @Override
+        public byte[] asUnquotedUTF8() {
+            return utf8;
+        }
+
+        @Override
+        public byte[] asQuotedUTF8() {
+            return new SerializedString(getValue()).asQuotedUTF8();
+        }
+
+        @Override
+        public int appendQuotedUTF8(byte[] buffer, int offset) {
+            return new SerializedString(getValue()).appendQuotedUTF8(buffer, offset);
+        }
+
+        @Override
+        public int appendQuoted(char[] buffer, int offset) {
+            return new SerializedString(getValue()).appendQuoted(buffer, offset);
+        }
+
+        @Override
+        public int appendUnquotedUTF8(byte[] buffer, int offset) {
+            if(offset + utf8.length > buffer.length) {
+                return -1;
+            }
+            System.arraycopy(utf8, 0, buffer, offset, utf8.length);
+            return utf8.length;
+        }
+
+        @Override
+        public int appendUnquoted(char[] buffer, int offset) {
+            return new SerializedString(getValue()).appendUnquoted(buffer, offset);
+        }
+
+        @Override
+        public int writeQuotedUTF8(OutputStream outputStream) throws IOException {
+            return new SerializedString(getValue()).writeQuotedUTF8(outputStream);
+        }
+
+        @Override
+        public int writeUnquotedUTF8(OutputStream outputStream) throws IOException {
+            outputStream.write(utf8);
+            return utf8.length;
+        }
+
+        @Override
+        public int putQuotedUTF8(ByteBuffer buffer) {
+            return new SerializedString(getValue()).putQuotedUTF8(buffer);
+        }
+
+        @Override
+        public int putUnquotedUTF8(ByteBuffer buffer) {
+            if(utf8.length > buffer.remaining()) {
+                return -1;
+            }
+            buffer.put(utf8);
+            return utf8.length;
+        }
+    }
+}
@@ -17,7 +17,7 @@ import static com.fasterxml.jackson.annotation.JsonProperty.Access.READ_ONLY;
 @JsonPropertyOrder({"@type", "jsonSchemaMixin", "schema:schemaVersion", "@id", "_valueConstraints", "_ui", "@context"})
 public final class SerializableTemplateElement implements SerializableEmbeddableArtifact {
 
-    private static final String TYPE = "https://schema.metadatacenter.org/core/TemplateElement";
+    static final String TYPE = "https://schema.metadatacenter.org/core/TemplateElement";
 
     @JsonUnwrapped
     private TemplateElementJsonSchemaMixin jsonSchemaMixin;
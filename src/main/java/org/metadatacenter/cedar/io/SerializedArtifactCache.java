@@ -0,0 +1,69 @@
+package org.metadatacenter.cedar.io;
+
+import org.metadatacenter.cedar.api.EmbeddedCedarArtifact;
+
+import javax.annotation.Nullable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Matthew Horridge
+ * Stanford Center for Biomedical Informatics Research
+ * 2026-10-17
+ * <p>
+ * Holds the serialized form of embedded artifacts so that an artifact that is embedded in several artifacts that are
+ * written during a run, for example a field that is written inline in each of its enclosing elements and in the
+ * template, is only encoded once.  Compact and pretty printed JSON are cached separately.  Embedded artifacts are
+ * keyed by identity.
+ * Artifacts are immutable and replacing the ids of an artifact creates a new artifact, so an entry never goes stale,
+ * but a cache should only be used for one run so that the artifacts that it holds can be garbage collected.
+ */
+public class SerializedArtifactCache {
+
+    private final Map<Key, RawJsonFragment> fragments = new ConcurrentHashMap<>();
+
+    @Nullable
+    RawJsonFragment get(EmbeddedCedarArtifact embeddedArtifact, String jsonSchemaDescription, boolean pretty) {
+        return fragments.get(new Key(embeddedArtifact, jsonSchemaDescription, pretty));
+    }
+
+    void put(EmbeddedCedarArtifact embeddedArtifact,
+             String jsonSchemaDescription,
+             boolean pretty,
+             RawJsonFragment fragment) {
+        fragments.put(new Key(embeddedArtifact, jsonSchemaDescription, pretty), fragment);
+    }
+
+    /**
+     * Gets the number of serialized embedded artifacts that are held
+     */
+    public int size() {
+        return fragments.size();
+    }
+
+    public void clear() {
+        fragments.clear();
+    }
+
+    private record Key(EmbeddedCedarArtifact embeddedArtifact, String jsonSchemaDescription, boolean pretty) {
+
+        @Override
+        public boolean equals(Object o) {
+            if(this == o) {
+                return true;
+            }
+            if(!(o instanceof Key other)) {
+                return false;
+            }
+            return embeddedArtifact == other.embeddedArtifact
+                    && jsonSchemaDescription.equals(other.jsonSchemaDescription)
+                    && pretty == other.pretty;
+        }
+
+        @Override
+        public int hashCode() {
+            return (System.identityHashCode(embeddedArtifact) * 31 + jsonSchemaDescription.hashCode()) * 31
+                    + Boolean.hashCode(pretty);
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package org.metadatacenter.cedar.io;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.ConnectionObserver;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionPoolMetrics;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.io.PrintStream;
+import java.net.SocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Matthew Horridge
+ * Stanford Center for Biomedical Informatics Research
+ * 2026-10-17
+ * <p>
+ * Provides one shared {@link WebClient} per base URL.  All clients use one reactor-netty {@link HttpClient}, whose
+ * connection provider keeps a pool of keep-alive connections per remote address, so connections are reused across
+ * requests, commands and the sheets in a batch.  HTTP/2 is negotiated with servers that support it over TLS, and gzip
+ * compressed responses are decompressed.  There is also one shared client, without a base URL, that follows redirects.
+ * <p>
+ * The pools are instrumented so that they can be sized for bulk pushes.  Pool usage is sampled whenever a request is
+ * sent, to record the peak number of connections that were in use and the peak number of requests that were waiting
+ * for a connection.  If requests often wait for a connection then the maximum number of connections should be raised.
+ */
+@Component
+public class SharedWebClients implements DisposableBean {
+
+    private static final int MAX_IN_MEMORY_SIZE = 256 * 1024 * 1024;
+
+    private final int maxConnections;
+
+    private final ConnectionProvider connectionProvider;
+
+    private final HttpClient plainHttpClient;
+
+    private final HttpClient secureHttpClient;
+
+    private final Map<String, WebClient> webClients = new ConcurrentHashMap<>();
+
+    private final WebClient redirectFollowingWebClient;
+
+    private final Map<String, PoolUsage> pools = new ConcurrentHashMap<>();
+
+    private final AtomicLong requestCount = new AtomicLong();
+
+    private final AtomicLong connectionCount = new AtomicLong();
+
+    public SharedWebClients(@Value("${http.client.maxConnections:50}") int maxConnections,
+                            @Value("${http.client.pendingAcquireTimeoutSeconds:120}") int pendingAcquireTimeoutSeconds,
+                            @Value("${http.client.maxIdleTimeSeconds:30}") int maxIdleTimeSeconds,
+                            @Value("${http.client.connectTimeoutMillis:10000}") int connectTimeoutMillis,
+                            @Value("${http.client.readTimeoutSeconds:120}") int readTimeoutSeconds,
+                            @Value("${http.client.http2:true}") boolean http2,
+                            @Value("${http.client.compression:true}") boolean compression) {
+        if(maxConnections < 1) {
+            throw new IllegalArgumentException("http.client.maxConnections must be at least 1");
+        }
+        this.maxConnections = maxConnections;
+        this.connectionProvider = ConnectionProvider.builder("cedar-cli")
+                                                    .maxConnections(maxConnections)
+                                                    .pendingAcquireTimeout(Duration.ofSeconds(pendingAcquireTimeoutSeconds))
+                                                    .maxIdleTime(Duration.ofSeconds(maxIdleTimeSeconds))
+                                                    .metrics(true, () -> this::registerPool)
+                                                    .build();
+        var httpClient = HttpClient.create(connectionProvider)
+                                   .keepAlive(true)
+                                   .compress(compression)
+                                   .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMillis)
+                                   // The response timeout is the longest time that is allowed between reads of a response
+                                   .responseTimeout(Duration.ofSeconds(readTimeoutSeconds))
+                                   .observe((connection, state) -> {
+                                       if(state == ConnectionObserver.State.CONNECTED) {
+                                           connectionCount.incrementAndGet();
+                                       }
+                                   })
+                                   .doOnRequest((request, connection) -> {
+                                       requestCount.incrementAndGet();
+                                       pools.values().forEach(PoolUsage::sample);
+                                   });
+        this.plainHttpClient = httpClient.protocol(HttpProtocol.HTTP11);
+        // HTTP/2 is negotiated with ALPN during the TLS handshake.  Servers that do not support it get HTTP/1.1.
+        this.secureHttpClient = http2 ? httpClient.protocol(HttpProtocol.H2, HttpProtocol.HTTP11).secure() : plainHttpClient;
+        // TLS is used for https URIs, including those that a redirect leads to
+        this.redirectFollowingWebClient = createWebClient(plainHttpClient.followRedirect(true)).build();
+    }
+
+    private void registerPool(String poolName, String id, SocketAddress remoteAddress, ConnectionPoolMetrics metrics) {
+        pools.put(remoteAddress.toString(), new PoolUsage(remoteAddress.toString(), metrics));
+    }
+
+    /**
+     * Gets the shared client for the specified base URL.  Paths are not encoded by the client.  Requests can also be
+     * made to absolute URIs on other hosts that use the same scheme as the base URL.
+     */
+    public WebClient getWebClient(String baseUrl) {
+        var httpClient = baseUrl.startsWith("https:") ? secureHttpClient : plainHttpClient;
+        return webClients.computeIfAbsent(baseUrl, url -> createWebClient(httpClient).baseUrl(url)
+                                                                                 .uriBuilderFactory(new NonEncodingUriFactory(url))
+                                                                                 .build());
+    }
+
+    /**
+     * Gets the shared client that follows redirects.  It has no base URL, so requests are made to absolute URIs.  This
+     * is for downloading inputs, such as published spreadsheets, which are usually served via a redirect.
+     */
+    public WebClient getRedirectFollowingWebClient() {
+        return redirectFollowingWebClient;
+    }
+
+    private static WebClient.Builder createWebClient(HttpClient httpClient) {
+        return WebClient.builder()
+                        .clientConnector(new ReactorClientHttpConnector(httpClient))
+                        .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(MAX_IN_MEMORY_SIZE));
+    }
+
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    /**
+     * Gets the number of connections that have been opened.  The difference between this and the request count is
+     * the number of requests that reused a pooled connection.
+     */
+    public long getConnectionCount() {
+        return connectionCount.get();
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    /**
+     * Gets the usage of the pool for each remote address that a request has been made to
+     */
+    public List<ConnectionPoolStatistics> getPoolStatistics() {
+        return pools.values()
+                    .stream()
+                    .map(PoolUsage::getStatistics)
+                    .sorted((a, b) -> a.remoteAddress().compareTo(b.remoteAddress()))
+                    .toList();
+    }
+
+    /**
+     * Prints the number of requests, connections and the usage of each pool.  Nothing is printed if no requests
+     * have been made.
+     */
+    public void printStatistics(PrintStream out) {
+        if(getRequestCount() == 0) {
+            return;
+        }
+        out.printf("Sent %d HTTP requests on %d connections%n", getRequestCount(), getConnectionCount());
+        getPoolStatistics().forEach(stats -> out.printf(
+                "    %s: peak %d of %d connections in use, peak %d requests waiting for a connection, %d connections open%n",
+                stats.remoteAddress(),
+                stats.peakAcquired(),
+                maxConnections,
+                stats.peakPendingAcquire(),
+                stats.allocated()));
+    }
+
+    @Override
+    public void destroy() {
+        connectionProvider.disposeLater().block(Duration.ofSeconds(10));
+    }
+
+    /**
+     * The usage of the connection pool for a remote address
+     * @param remoteAddress The remote address
+     * @param acquired The number of connections that are currently in use
+     * @param allocated The number of connections that are currently open
+     * @param pendingAcquire The number of requests that are currently waiting for a connection
+     * @param peakAcquired The peak number of connections that have been in use at the same time
+     * @param peakPendingAcquire The peak number of requests that have waited for a connection at the same time
+     */
+    public record ConnectionPoolStatistics(String remoteAddress,
+                                           int acquired,
+                                           int allocated,
+                                           int pendingAcquire,
+                                           int peakAcquired,
+                                           int peakPendingAcquire) {
+
+    }
+
+    private static class PoolUsage {
+
+        private final String remoteAddress;
+
+        private final ConnectionPoolMetrics metrics;
+
+        private final AtomicInteger peakAcquired = new AtomicInteger();
+
+        private final AtomicInteger peakPendingAcquire = new AtomicInteger();
+
+        private PoolUsage(String remoteAddress, ConnectionPoolMetrics metrics) {
+            this.remoteAddress = remoteAddress;
+            this.metrics = metrics;
+        }
+
+        private void sample() {
+            peakAcquired.accumulateAndGet(metrics.acquiredSize(), Math::max);
+            peakPendingAcquire.accumulateAndGet(metrics.pendingAcquireSize(), Math::max);
+        }
+
+        private ConnectionPoolStatistics getStatistics() {
+            sample();
+            return new ConnectionPoolStatistics(remoteAddress,
+                                                metrics.acquiredSize(),
+                                                metrics.allocatedSize(),
+                                                metrics.pendingAcquireSize(),
+                                                peakAcquired.get(),
+                                                peakPendingAcquire.get());
+        }
+    }
+}
@@ -0,0 +1,824 @@
+package org.metadatacenter.cedar.io;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.metadatacenter.cedar.api.*;
+import org.metadatacenter.cedar.api.constraints.EmptyValueConstraints;
+
+import javax.annotation.Nullable;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+
+/**
+ * Matthew Horridge
+ * Stanford Center for Biomedical Informatics Research
+ * 2026-10-17
+ * <p>
+ * Writes CEDAR templates, elements and fields straight to a {@link JsonGenerator}.  The output is byte for byte the
+ * same as the output that is produced by serializing the wrappers that {@link ArtifactToSerializableArtifactVisitor}
+ * creates, but the wrappers, their JSON Schema mixins and their property maps are not created.  Constant boilerplate
+ * is serialized once, when the serializer is created, and is spliced into the output as {@link BoilerPlateFragment}s.
+ * <p>
+ * Jackson orders the properties of the wrappers partly by the order in which reflection returns their methods,
+ * which is not fixed, so the property order of each wrapper is taken from the serializer that the mapper has for it.
+ * Where the wrappers put properties into hash maps the same maps are built here, so that the properties are iterated
+ * over in the same order.  Values that are already immutable records (value constraints, UI and timestamps) are
+ * written by the mapper.
+ */
+public class StreamingCedarArtifactSerializer {
+
+    private static final String JSON_SCHEMA = "http://json-schema.org/draft-04/schema#";
+
+    private static final String TEMPLATE_FALLBACK_PROPERTY_IRI_PREFIX = "https://schema.metadatacenter.org/properties/";
+
+    private final ObjectWriter valueWriter;
+
+    private final ObjectWriter compactWriter;
+
+    private final ObjectWriter prettyWriter;
+
+    private final BoilerPlateFragment elementContextFragment;
+
+    private final BoilerPlateFragment fieldContextFragment;
+
+    private final Map<CedarFieldValueType, BoilerPlateFragment> fieldJsonSchemaPropertiesFragments;
+
+    private final BoilerPlateFragment elementIdPropertyFragment;
+
+    private final BoilerPlateFragment elementTypePropertyFragment;
+
+    private final BoilerPlateFragment attributeValueAdditionalPropertiesFragment;
+
+    private final Map<String, BoilerPlateFragment> templateCorePropertyFragments;
+
+    private final Map<String, BoilerPlateFragment> templateContextPropertyFragments;
+
+    private final List<String> templateContextProperties;
+
+    private final List<String> templateProperties;
+
+    private final List<String> templateJsonSchemaProperties;
+
+    private final List<String> templateUiProperties;
+
+    private final List<String> elementProperties;
+
+    private final List<String> elementJsonSchemaProperties;
+
+    private final List<String> elementJsonSchemaPropertiesValueProperties;
+
+    private final List<String> elementContextProperties;
+
+    private final List<String> elementUiProperties;
+
+    private final List<String> fieldProperties;
+
+    private final List<String> fieldJsonSchemaProperties;
+
+    private final List<String> attributeValueFieldJsonSchemaProperties;
+
+    private final List<String> singleItemProperties;
+
+    private final List<String> multipleItemsProperties;
+
+    private final List<String> artifactInfoProperties;
+
+    private final List<String> versionInfoProperties;
+
+    private final List<String> modificationInfoProperties;
+
+    public StreamingCedarArtifactSerializer(ObjectMapper objectMapper) {
+        // Values are written part way through an artifact so the generator must not be flushed after each one
+        this.valueWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        // The writers that OutputFormat uses for compact and pretty printed JSON, which cached embedded artifacts are
+        // serialized with
+        this.compactWriter = objectMapper.writer();
+        this.prettyWriter = objectMapper.writerWithDefaultPrettyPrinter();
+        this.elementContextFragment = new BoilerPlateFragment(objectMapper,
+                                                              JsonLdInfo.get().getElementContextBoilerPlate());
+        this.fieldContextFragment = new BoilerPlateFragment(objectMapper, JsonLdInfo.get().getFieldContextBoilerPlate());
+        this.fieldJsonSchemaPropertiesFragments = new EnumMap<>(CedarFieldValueType.class);
+        for(var valueType : CedarFieldValueType.values()) {
+            fieldJsonSchemaPropertiesFragments.put(valueType,
+                                                   new BoilerPlateFragment(objectMapper,
+                                                                           TemplateFieldObjectJsonSchemaMixin.getProperties(valueType)));
+        }
+        // These contain maps created by Map.of, whose iteration order varies between JVMs, so we take them from
+        // the wrapper that builds them
+        var propertiesValue = new TemplateElementJsonSchemaPropertiesValue(List.of());
+        this.elementIdPropertyFragment = new BoilerPlateFragment(objectMapper, propertiesValue.getId());
+        this.elementTypePropertyFragment = new BoilerPlateFragment(objectMapper, propertiesValue.getType());
+        this.attributeValueAdditionalPropertiesFragment = new BoilerPlateFragment(objectMapper,
+                                                                                  AttributeValueTemplateFieldJsonSchemaMixin.getContainingObjectAdditionalProperties());
+        this.templateCorePropertyFragments = toFragments(objectMapper, TemplateBoilerPlate.jsonschema_core_properties);
+        this.templateContextPropertyFragments = toFragments(objectMapper,
+                                                            TemplateBoilerPlate.jsonld_context_jsonschema_properties);
+        // The template "@context" schema is created with Map.of, so its properties are written in the order that
+        // this JVM iterates over a map with the same keys
+        this.templateContextProperties = List.copyOf(Map.of("type", "",
+                                                            "properties", "",
+                                                            "additionalProperties", "",
+                                                            "required", "").keySet());
+        this.templateProperties = getPropertyNames(objectMapper, SerializableTemplate.class);
+        this.templateJsonSchemaProperties = getPropertyNames(objectMapper, TemplateJsonSchemaMixin.class);
+        this.templateUiProperties = getPropertyNames(objectMapper, TemplateUiMixin.class);
+        this.elementProperties = getPropertyNames(objectMapper, SerializableTemplateElement.class);
+        this.elementJsonSchemaProperties = getPropertyNames(objectMapper, TemplateElementJsonSchemaMixin.class);
+        this.elementJsonSchemaPropertiesValueProperties = getPropertyNames(objectMapper,
+                                                                           TemplateElementJsonSchemaPropertiesValue.class);
+        this.elementContextProperties = getPropertyNames(objectMapper,
+                                                         TemplateElementJsonSchemaPropertiesValue.ContextProperties.class);
+        this.elementUiProperties = getPropertyNames(objectMapper, ElementUiMixin.class);
+        this.fieldProperties = getPropertyNames(objectMapper, SerializableTemplateField.class);
+        this.fieldJsonSchemaProperties = getPropertyNames(objectMapper, TemplateFieldObjectJsonSchemaMixin.class);
+        this.attributeValueFieldJsonSchemaProperties = getPropertyNames(objectMapper,
+                                                                        AttributeValueTemplateFieldJsonSchemaMixin.class);
+        this.singleItemProperties = getPropertyNames(objectMapper, SerializableEmbeddedArtifact.SingleItemProxy.class);
+        this.multipleItemsProperties = getPropertyNames(objectMapper,
+                                                        SerializableEmbeddedArtifact.MultipleItemsProxy.class);
+        this.artifactInfoProperties = getPropertyNames(objectMapper, ArtifactInfo.class);
+        this.versionInfoProperties = getPropertyNames(objectMapper, VersionInfo.class);
+        this.modificationInfoProperties = getPropertyNames(objectMapper, ModificationInfo.class);
+    }
+
+    /**
+     * Creates fragments for the values of the specified map.  The fragments are held in the same iteration order.
+     */
+    private static Map<String, BoilerPlateFragment> toFragments(ObjectMapper objectMapper, Map<String, Object> map) {
+        var fragments = new LinkedHashMap<String, BoilerPlateFragment>();
+        map.forEach((key, value) -> fragments.put(key, new BoilerPlateFragment(objectMapper, value)));
+        return Collections.unmodifiableMap(fragments);
+    }
+
+    /**
+     * Gets the names of the properties that the mapper writes for the specified type, in the order that it writes
+     * them.  Unwrapped properties are named after the Java property that holds them.
+     */
+    private static List<String> getPropertyNames(ObjectMapper objectMapper, Class<?> type) {
+        try {
+            var serializer = objectMapper.getSerializerProviderInstance().findValueSerializer(type);
+            var propertyNames = new ArrayList<String>();
+            serializer.properties().forEachRemaining(property -> propertyNames.add(property.getName()));
+            return List.copyOf(propertyNames);
+        } catch (JsonMappingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes the specified artifact to the specified generator.  The generator is not closed or flushed.
+     * @param artifact The artifact to write
+     * @param jsonSchemaDescription The JSON Schema description for the artifact and any artifacts that it contains
+     * @param generator The generator to write to
+     */
+    public void writeArtifact(CedarSchemaArtifact artifact,
+                              String jsonSchemaDescription,
+                              JsonGenerator generator) throws IOException {
+        writeArtifact(artifact, jsonSchemaDescription, null, generator);
+    }
+
+    /**
+     * Writes the specified artifact to the specified generator.  The generator is not closed or flushed.
+     * @param artifact The artifact to write
+     * @param jsonSchemaDescription The JSON Schema description for the artifact and any artifacts that it contains
+     * @param cache A cache of the serialized forms of embedded artifacts.  Embedded artifacts that are in the cache
+     *              are copied from it, and those that are not are added to it.  May be null, in which case every
+     *              embedded artifact is serialized.
+     * @param generator The generator to write to
+     */
+    public void writeArtifact(CedarSchemaArtifact artifact,
+                              String jsonSchemaDescription,
+                              @Nullable SerializedArtifactCache cache,
+                              JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        if(artifact instanceof CedarTemplate template) {
+            writeTemplateProperties(template, jsonSchemaDescription, cache, generator);
+        }
+        else if(artifact instanceof CedarTemplateElement element) {
+            writeElementProperties(element, jsonSchemaDescription, cache, generator);
+        }
+        else if(artifact instanceof CedarTemplateField field) {
+            writeFieldProperties(field, field.ui(), jsonSchemaDescription, generator);
+        }
+        else {
+            throw new IllegalArgumentException("Unsupported artifact type: " + artifact.getClass().getName());
+        }
+        generator.writeEndObject();
+    }
+
+    private void writeTemplateProperties(CedarTemplate template,
+                                         String jsonSchemaDescription,
+                                         @Nullable SerializedArtifactCache cache,
+                                         JsonGenerator generator) throws IOException {
+        for(var property : templateProperties) {
+            switch (property) {
+                case "@id" -> {
+                    generator.writeFieldName("@id");
+                    writeId(template.id(), generator);
+                }
+                case "_ui" -> {
+                    generator.writeObjectFieldStart("_ui");
+                    writeTemplateUiProperties(template.nodes(), generator);
+                    generator.writeEndObject();
+                }
+                case "jsonSchemaMixin" -> writeTemplateJsonSchemaProperties(template,
+                                                                            jsonSchemaDescription,
+                                                                            cache,
+                                                                            generator);
+                case "artifactInfo" -> writeArtifactInfo(template.artifactInfo(), generator);
+                case "versionInfo" -> writeVersionInfo(template.versionInfo(), generator);
+                case "modificationInfo" -> writeModificationInfo(template.modificationInfo(), generator);
+                case "@context" -> {
+                    generator.writeFieldName("@context");
+                    elementContextFragment.write(generator);
+                }
+                case "@type" -> generator.writeStringField("@type", SerializableTemplate.TYPE);
+                case "schema:schemaVersion" -> writeModelVersion(generator);
+                default -> throw unexpectedProperty(SerializableTemplate.class, property);
+            }
+        }
+    }
+
+    private void writeTemplateUiProperties(List<EmbeddedCedarArtifact> nodes,
+                                           JsonGenerator generator) throws IOException {
+        for(var property : templateUiProperties) {
+            if(property.equals("pagesMixin")) {
+                generator.writeFieldName("pages");
+                generator.writeStartArray(List.of(), 0);
+                generator.writeEndArray();
+            }
+            else {
+                writePropertyDescriptors(property, nodes, TemplateUiMixin.class, generator);
+            }
+        }
+    }
+
+    private void writeTemplateJsonSchemaProperties(CedarTemplate template,
+                                                   String jsonSchemaDescription,
+                                                   @Nullable SerializedArtifactCache cache,
+                                                   JsonGenerator generator) throws IOException {
+        for(var property : templateJsonSchemaProperties) {
+            switch (property) {
+                case "title" -> generator.writeStringField("title", template.toCompactString());
+                case "description" -> generator.writeStringField("description", jsonSchemaDescription);
+                case "type" -> generator.writeStringField("type", "object");
+                case "properties" -> {
+                    generator.writeObjectFieldStart("properties");
+                    writeTemplateJsonSchemaPropertiesValue(template.nodes(), jsonSchemaDescription, cache, generator);
+                    generator.writeEndObject();
+                }
+                case "required" -> {
+                    var required = new LinkedHashSet<String>();
+                    required.add("@context");
+                    required.add("@id");
+                    required.add("schema:isBasedOn");
+                    required.add("schema:name");
+                    required.add("schema:description");
+                    required.add("pav:createdOn");
+                    required.add("pav:createdBy");
+                    required.add("pav:lastUpdatedOn");
+                    required.add("oslc:modifiedBy");
+                    for(var node : template.nodes()) {
+                        required.add(node.getSchemaName());
+                    }
+                    writeStringArray("required", required, generator);
+                }
+                case "multiValued" -> generator.writeBooleanField("multiValued", false);
+                case "$schema" -> generator.writeStringField("$schema", JSON_SCHEMA);
+                case "additionalProperties" -> generator.writeBooleanField("additionalProperties", false);
+                default -> throw unexpectedProperty(TemplateJsonSchemaMixin.class, property);
+            }
+        }
+    }
+
+    /**
+     * Writes the template JSON Schema properties in the same order as {@link TemplateJsonSchemaMixin#properties()}.
+     * The hash maps that it builds are built here, with the same keys, so that they are iterated over in the same
+     * order, but their values are the fragments, property IRIs and nodes to write.
+     */
+    private void writeTemplateJsonSchemaPropertiesValue(List<EmbeddedCedarArtifact> nodes,
+                                                        String jsonSchemaDescription,
+                                                        @Nullable SerializedArtifactCache cache,
+                                                        JsonGenerator generator) throws IOException {
+        var properties = new HashMap<String, Object>();
+        var contextProperties = new HashMap<String, Object>(templateContextPropertyFragments);
+        var requiredList = new ArrayList<String>();
+        for(var node : nodes) {
+            var propertyIri = node.propertyIri() != null ? node.propertyIri()
+                    .lexicalValue() : TEMPLATE_FALLBACK_PROPERTY_IRI_PREFIX + UUID.randomUUID();
+            contextProperties.put(node.getSchemaName(), propertyIri);
+            requiredList.add(node.getSchemaName());
+        }
+        requiredList.add("oslc:modifiedBy");
+        requiredList.add("pav:createdBy");
+        requiredList.add("pav:createdOn");
+        requiredList.add("pav:derivedFrom");
+        requiredList.add("pav:lastUpdatedOn");
+        requiredList.add("schema:description");
+        requiredList.add("schema:isBasedOn");
+        requiredList.add("schema:name");
+        properties.put("@context", contextProperties);
+        properties.putAll(templateCorePropertyFragments);
+        for(var node : nodes) {
+            properties.put(node.getSchemaName(), node);
+        }
+        for(var property : properties.entrySet()) {
+            generator.writeFieldName(property.getKey());
+            var value = property.getValue();
+            if(value instanceof EmbeddedCedarArtifact node) {
+                writeEmbeddedArtifact(node, jsonSchemaDescription, cache, generator);
+            }
+            else if(value instanceof BoilerPlateFragment fragment) {
+                fragment.write(generator);
+            }
+            else {
+                writeTemplateContextJsonSchema(contextProperties, requiredList, generator);
+            }
+        }
+    }
+
+    private void writeTemplateContextJsonSchema(Map<String, Object> contextProperties,
+                                                List<String> requiredList,
+                                                JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        for(var property : templateContextProperties) {
+            switch (property) {
+                case "type" -> generator.writeStringField("type", "object");
+                case "properties" -> {
+                    generator.writeObjectFieldStart("properties");
+                    for(var contextProperty : contextProperties.entrySet()) {
+                        generator.writeFieldName(contextProperty.getKey());
+                        if(contextProperty.getValue() instanceof BoilerPlateFragment fragment) {
+                            fragment.write(generator);
+                        }
+                        else {
+                            generator.writeStartObject();
+                            writeStringArray("enum", List.of((String) contextProperty.getValue()), generator);
+                            generator.writeEndObject();
+                        }
+                    }
+                    generator.writeEndObject();
+                }
+                case "additionalProperties" -> generator.writeBooleanField("additionalProperties", false);
+                case "required" -> writeStringArray("required", requiredList, generator);
+                default -> throw unexpectedProperty(TemplateJsonSchemaMixin.class, property);
+            }
+        }
+        generator.writeEndObject();
+    }
+
+    private void writeElementProperties(CedarTemplateElement element,
+                                        String jsonSchemaDescription,
+                                        @Nullable SerializedArtifactCache cache,
+                                        JsonGenerator generator) throws IOException {
+        for(var property : elementProperties) {
+            switch (property) {
+                case "@type" -> generator.writeStringField("@type", SerializableTemplateElement.TYPE);
+                case "jsonSchemaMixin" -> writeElementJsonSchemaProperties(element, jsonSchemaDescription, cache, generator);
+                case "schema:schemaVersion" -> writeModelVersion(generator);
+                case "@id" -> {
+                    generator.writeFieldName("@id");
+                    writeId(element.id(), generator);
+                }
+                case "_ui" -> {
+                    generator.writeObjectFieldStart("_ui");
+                    for(var uiProperty : elementUiProperties) {
+                        writePropertyDescriptors(uiProperty, element.nodes(), ElementUiMixin.class, generator);
+                    }
+                    generator.writeEndObject();
+                }
+                case "@context" -> {
+                    generator.writeFieldName("@context");
+                    elementContextFragment.write(generator);
+                }
+                case "artifactInfo" -> writeArtifactInfo(element.artifactInfo(), generator);
+                case "versionInfo" -> writeVersionInfo(element.versionInfo(), generator);
+                case "modificationInfo" -> writeModificationInfo(element.modificationInfo(), generator);
+                default -> throw unexpectedProperty(SerializableTemplateElement.class, property);
+            }
+        }
+    }
+
+    private void writeElementJsonSchemaProperties(CedarTemplateElement element,
+                                                  String jsonSchemaDescription,
+                                                  @Nullable SerializedArtifactCache cache,
+                                                  JsonGenerator generator) throws IOException {
+        for(var property : elementJsonSchemaProperties) {
+            switch (property) {
+                case "$schema" -> generator.writeStringField("$schema", JSON_SCHEMA);
+                case "type" -> generator.writeStringField("type", "object");
+                case "title" -> generator.writeStringField("title", element.toCompactString());
+                case "description" -> generator.writeStringField("description", jsonSchemaDescription);
+                case "properties" -> {
+                    generator.writeObjectFieldStart("properties");
+                    writeElementJsonSchemaPropertiesValue(element.nodes(), jsonSchemaDescription, cache, generator);
+                    generator.writeEndObject();
+                }
+                case "multiValued" -> generator.writeBooleanField("multiValued", false);
+                case "required" -> {
+                    var required = new ArrayList<String>();
+                    required.add("@context");
+                    required.add("@id");
+                    for(var node : element.nodes()) {
+                        required.add(node.getSchemaName());
+                    }
+                    writeStringArray("required", required, generator);
+                }
+                case "additionalProperties" -> {
+                    generator.writeFieldName("additionalProperties");
+                    writeElementAdditionalProperties(element.nodes(), generator);
+                }
+                default -> throw unexpectedProperty(TemplateElementJsonSchemaMixin.class, property);
+            }
+        }
+    }
+
+    /**
+     * Writes the element JSON Schema properties in the same way as {@link TemplateElementJsonSchemaPropertiesValue}
+     */
+    private void writeElementJsonSchemaPropertiesValue(List<EmbeddedCedarArtifact> nodes,
+                                                       String jsonSchemaDescription,
+                                                       @Nullable SerializedArtifactCache cache,
+                                                       JsonGenerator generator) throws IOException {
+        for(var property : elementJsonSchemaPropertiesValueProperties) {
+            switch (property) {
+                case "@context" -> {
+                    generator.writeObjectFieldStart("@context");
+                    writeElementContextProperties(nodes, generator);
+                    generator.writeEndObject();
+                }
+                case "@id" -> {
+                    generator.writeFieldName("@id");
+                    elementIdPropertyFragment.write(generator);
+                }
+                case "@type" -> {
+                    generator.writeFieldName("@type");
+                    elementTypePropertyFragment.write(generator);
+                }
+                default -> throw unexpectedProperty(TemplateElementJsonSchemaPropertiesValue.class, property);
+            }
+        }
+        // The embedded artifacts are written by an any-getter, which follows the other properties
+        var embeddedArtifacts = new HashMap<String, EmbeddedCedarArtifact>();
+        for(var node : nodes) {
+            embeddedArtifacts.put(node.getSchemaName(), node);
+        }
+        for(var embeddedArtifact : embeddedArtifacts.entrySet()) {
+            generator.writeFieldName(embeddedArtifact.getKey());
+            writeEmbeddedArtifact(embeddedArtifact.getValue(), jsonSchemaDescription, cache, generator);
+        }
+    }
+
+    private void writeElementContextProperties(List<EmbeddedCedarArtifact> nodes,
+                                               JsonGenerator generator) throws IOException {
+        for(var property : elementContextProperties) {
+            switch (property) {
+                case "properties" -> {
+                    var propertyIris = new LinkedHashMap<String, String>();
+                    for(var node : nodes) {
+                        var propertyIri = node.propertyIri() != null ? node.propertyIri()
+                                .lexicalValue() : TemplateElementJsonSchemaPropertiesValue.FALLBACK_PROPERTY_IRI_PREFIX + UUID.randomUUID();
+                        propertyIris.put(node.getSchemaName(), propertyIri);
+                    }
+                    generator.writeObjectFieldStart("properties");
+                    for(var propertyIri : propertyIris.entrySet()) {
+                        generator.writeObjectFieldStart(propertyIri.getKey());
+                        writeStringArray("enum", List.of(propertyIri.getValue()), generator);
+                        generator.writeEndObject();
+                    }
+                    generator.writeEndObject();
+                }
+                case "type" -> generator.writeStringField("type", "object");
+                case "additionalProperties" -> generator.writeBooleanField("additionalProperties", false);
+                default -> throw unexpectedProperty(TemplateElementJsonSchemaPropertiesValue.ContextProperties.class,
+                                                    property);
+            }
+        }
+    }
+
+    /**
+     * Attribute-value fields override the "additionalProperties" value of the element that contains them
+     */
+    private void writeElementAdditionalProperties(List<EmbeddedCedarArtifact> nodes,
+                                                  JsonGenerator generator) throws IOException {
+        for(var node : nodes) {
+            if(node.artifact() instanceof CedarTemplateField field && isAttributeValueField(field)) {
+                attributeValueAdditionalPropertiesFragment.write(generator);
+                return;
+            }
+        }
+        generator.writeBoolean(false);
+    }
+
+    private void writeFieldProperties(CedarTemplateField field,
+                                      FieldUi ui,
+                                      String jsonSchemaDescription,
+                                      JsonGenerator generator) throws IOException {
+        for(var property : fieldProperties) {
+            switch (property) {
+                case "@type" -> generator.writeStringField("@type", SerializableTemplateField.TYPE);
+                case "@id" -> {
+                    if(field.id() != null) {
+                        generator.writeStringField("@id", field.id().value());
+                    }
+                }
+                case "artifactInfo" -> writeArtifactInfo(field.artifactInfo(), generator);
+                case "versionInfo" -> writeVersionInfo(field.versionInfo(), generator);
+                case "_valueConstraints" -> {
+                    var valueConstraints = field.valueConstraints();
+                    if(valueConstraints != null && !(valueConstraints instanceof EmptyValueConstraints)) {
+                        generator.writeFieldName("_valueConstraints");
+                        valueWriter.writeValue(generator, valueConstraints);
+                    }
+                }
+                case "_ui" -> {
+                    if(ui != null) {
+                        generator.writeFieldName("_ui");
+                        valueWriter.writeValue(generator, ui);
+                    }
+                }
+                case "modificationInfo" -> writeModificationInfo(field.modificationInfo(), generator);
+                case "jsonSchemaMixin" -> {
+                    if(isAttributeValueField(field)) {
+                        writeAttributeValueFieldJsonSchemaProperties(field, jsonSchemaDescription, generator);
+                    }
+                    else {
+                        writeFieldJsonSchemaProperties(field, jsonSchemaDescription, generator);
+                    }
+                }
+                case "schema:schemaVersion" -> writeModelVersion(generator);
+                case "@context" -> {
+                    generator.writeFieldName("@context");
+                    fieldContextFragment.write(generator);
+                }
+                default -> throw unexpectedProperty(SerializableTemplateField.class, property);
+            }
+        }
+    }
+
+    private void writeFieldJsonSchemaProperties(CedarTemplateField field,
+                                                String jsonSchemaDescription,
+                                                JsonGenerator generator) throws IOException {
+        for(var property : fieldJsonSchemaProperties) {
+            switch (property) {
+                case "$schema" -> generator.writeStringField("$schema", JSON_SCHEMA);
+                case "type" -> generator.writeStringField("type", "object");
+                case "title" -> generator.writeStringField("title", field.toCompactString());
+                case "description" -> generator.writeStringField("description", jsonSchemaDescription);
+                case "properties" -> {
+                    var valueType = field.ui()
+                                         .inputType()
+                                         .getFixedValueType()
+                                         .orElse(field.valueConstraints().getJsonSchemaType());
+                    generator.writeFieldName("properties");
+                    fieldJsonSchemaPropertiesFragments.get(valueType).write(generator);
+                }
+                case "additionalProperties" -> generator.writeBooleanField("additionalProperties", false);
+                default -> throw unexpectedProperty(TemplateFieldObjectJsonSchemaMixin.class, property);
+            }
+        }
+    }
+
+    private void writeAttributeValueFieldJsonSchemaProperties(CedarTemplateField field,
+                                                              String jsonSchemaDescription,
+                                                              JsonGenerator generator) throws IOException {
+        for(var property : attributeValueFieldJsonSchemaProperties) {
+            switch (property) {
+                case "title" -> generator.writeStringField("title", field.toCompactString());
+                case "description" -> generator.writeStringField("description", jsonSchemaDescription);
+                case "type" -> generator.writeStringField("type", "string");
+                case "multiValued" -> generator.writeBooleanField("multiValued", true);
+                case "$schema" -> generator.writeStringField("$schema", JSON_SCHEMA);
+                case "additionalProperties" -> generator.writeBooleanField("additionalProperties", false);
+                default -> throw unexpectedProperty(AttributeValueTemplateFieldJsonSchemaMixin.class, property);
+            }
+        }
+    }
+
+    private static boolean isAttributeValueField(CedarTemplateField field) {
+        return field.ui().inputType().equals(InputType.ATTRIBUTE_VALUE);
+    }
+
+    /**
+     * Writes an artifact that is embedded in a template or element, in the same way as
+     * {@link SerializableEmbeddedArtifact}.  If there is a cache and the output is JSON then the serialized embedded
+     * artifact is taken from, or added to, the cache.  Compact and pretty printed forms are cached separately.  A
+     * pretty printed embedded artifact is cached as it is written at the root of its output, and it is re-indented for
+     * the nesting level that it is written at.
+     */
+    private void writeEmbeddedArtifact(EmbeddedCedarArtifact node,
+                                       String jsonSchemaDescription,
+                                       @Nullable SerializedArtifactCache cache,
+                                       JsonGenerator generator) throws IOException {
+        if(cache == null || !RawJsonFragment.canWrite(generator)) {
+            writeEmbeddedArtifactValue(node, jsonSchemaDescription, cache, generator);
+            return;
+        }
+        var pretty = RawJsonFragment.isPretty(generator);
+        var fragment = cache.get(node, jsonSchemaDescription, pretty);
+        if(fragment == null) {
+            // Nested embedded artifacts are cached as this one is serialized
+            var outputStream = new ByteArrayOutputStream();
+            try (var fragmentGenerator = (pretty ? prettyWriter : compactWriter).createGenerator(outputStream)) {
+                writeEmbeddedArtifactValue(node, jsonSchemaDescription, cache, fragmentGenerator);
+            }
+            fragment = new RawJsonFragment(outputStream.toByteArray(), pretty);
+            cache.put(node, jsonSchemaDescription, pretty, fragment);
+        }
+        fragment.write(generator);
+    }
+
+    private void writeEmbeddedArtifactValue(EmbeddedCedarArtifact node,
+                                            String jsonSchemaDescription,
+                                            @Nullable SerializedArtifactCache cache,
+                                            JsonGenerator generator) throws IOException {
+        var multiplicity = node.multiplicity();
+        generator.writeStartObject();
+        if(multiplicity.isMaxOne()) {
+            for(var property : singleItemProperties) {
+                switch (property) {
+                    case "type" -> generator.writeStringField("type", "object");
+                    case "artifact" -> writeEmbeddableArtifactProperties(node, jsonSchemaDescription, cache, generator);
+                    default -> throw unexpectedProperty(SerializableEmbeddedArtifact.SingleItemProxy.class, property);
+                }
+            }
+        }
+        else {
+            for(var property : multipleItemsProperties) {
+                switch (property) {
+                    case "type" -> generator.writeStringField("type", "array");
+                    case "items" -> {
+                        generator.writeObjectFieldStart("items");
+                        writeEmbeddableArtifactProperties(node, jsonSchemaDescription, cache, generator);
+                        generator.writeEndObject();
+                    }
+                    case "minItems" -> generator.writeNumberField("minItems", multiplicity.getMin());
+                    case "maxItems" -> {
+                        var max = multiplicity.getMax();
+                        if(max.isPresent()) {
+                            generator.writeNumberField("maxItems", max.get());
+                        }
+                    }
+                    default -> throw unexpectedProperty(SerializableEmbeddedArtifact.MultipleItemsProxy.class,
+                                                        property);
+                }
+            }
+        }
+        generator.writeEndObject();
+    }
+
+    private void writeEmbeddableArtifactProperties(EmbeddedCedarArtifact node,
+                                                   String jsonSchemaDescription,
+                                                   @Nullable SerializedArtifactCache cache,
+                                                   JsonGenerator generator) throws IOException {
+        var artifact = node.artifact();
+        if(artifact instanceof CedarTemplateField field) {
+            var ui = node.visibility().isHidden() ? field.ui().withHiddenTrue() : field.ui();
+            writeFieldProperties(field, ui, jsonSchemaDescription, generator);
+        }
+        else if(artifact instanceof CedarTemplateElement element) {
+            writeElementProperties(element, jsonSchemaDescription, cache, generator);
+        }
+        else {
+            throw new IllegalArgumentException("Unsupported embedded artifact type: " + artifact.getClass().getName());
+        }
+    }
+
+    /**
+     * Writes the "order", "propertyLabels" or "propertyDescriptions" UI property for the specified UI mixin property
+     */
+    private static void writePropertyDescriptors(String uiMixinProperty,
+                                                 List<EmbeddedCedarArtifact> nodes,
+                                                 Class<?> uiMixinType,
+                                                 JsonGenerator generator) throws IOException {
+        switch (uiMixinProperty) {
+            case "propertyOrderMixin" -> {
+                generator.writeFieldName("order");
+                generator.writeStartArray(nodes, nodes.size());
+                for(var node : nodes) {
+                    generator.writeString(node.getSchemaName());
+                }
+                generator.writeEndArray();
+            }
+            case "propertyLabelsMixin" -> {
+                var labels = new LinkedHashMap<String, String>();
+                for(var node : nodes) {
+                    labels.put(node.getSchemaName(), node.getSchemaName());
+                }
+                writeStringMap("propertyLabels", labels, generator);
+            }
+            case "propertyDescriptionsMixin" -> {
+                var descriptions = new LinkedHashMap<String, String>();
+                for(var node : nodes) {
+                    descriptions.put(node.getSchemaName(), node.getSchemaDescription());
+                }
+                writeStringMap("propertyDescriptions", descriptions, generator);
+            }
+            default -> throw unexpectedProperty(uiMixinType, uiMixinProperty);
+        }
+    }
+
+    private void writeArtifactInfo(ArtifactInfo artifactInfo, JsonGenerator generator) throws IOException {
+        for(var property : artifactInfoProperties) {
+            switch (property) {
+                case "schema:identifier" -> generator.writeStringField(property, artifactInfo.schemaIdentifier());
+                case "schema:name" -> generator.writeStringField(property, artifactInfo.schemaName());
+                case "schema:description" -> generator.writeStringField(property, artifactInfo.schemaDescription());
+                case "pav:derivedFrom" -> generator.writeStringField(property, artifactInfo.pavDerivedFrom());
+                case "skos:prefLabel" -> generator.writeStringField(property, artifactInfo.skosPrefLabel());
+                case "skos:altLabel" -> writeStringArray(property, artifactInfo.skosAltLabel(), generator);
+                default -> throw unexpectedProperty(ArtifactInfo.class, property);
+            }
+        }
+    }
+
+    /**
+     * Writes the version info.  Empty values are not written, as specified by the NON_DEFAULT inclusion of
+     * {@link VersionInfo}.
+     */
+    private void writeVersionInfo(VersionInfo versionInfo, JsonGenerator generator) throws IOException {
+        for(var property : versionInfoProperties) {
+            switch (property) {
+                case "pav:version" -> {
+                    if(!versionInfo.pavVersion().isEmpty()) {
+                        generator.writeStringField(property, versionInfo.pavVersion());
+                    }
+                }
+                case "bibo:status" -> {
+                    if(versionInfo.biboStatus() != null) {
+                        generator.writeFieldName(property);
+                        valueWriter.writeValue(generator, versionInfo.biboStatus());
+                    }
+                }
+                case "pav:previousVersion" -> {
+                    if(!versionInfo.pavPreviousVersion().isEmpty()) {
+                        generator.writeStringField(property, versionInfo.pavPreviousVersion());
+                    }
+                }
+                default -> throw unexpectedProperty(VersionInfo.class, property);
+            }
+        }
+    }
+
+    private void writeModificationInfo(ModificationInfo modificationInfo, JsonGenerator generator) throws IOException {
+        for(var property : modificationInfoProperties) {
+            switch (property) {
+                case "pav:createdOn" -> {
+                    generator.writeFieldName(property);
+                    valueWriter.writeValue(generator, modificationInfo.pavCreatedOn());
+                }
+                case "pav:createdBy" -> generator.writeStringField(property, modificationInfo.pavCreatedBy());
+                case "pav:lastUpdatedOn" -> {
+                    generator.writeFieldName(property);
+                    valueWriter.writeValue(generator, modificationInfo.pavLastUpdatedOn());
+                }
+                case "oslc:modifiedBy" -> generator.writeStringField(property, modificationInfo.oslcModifiedBy());
+                default -> throw unexpectedProperty(ModificationInfo.class, property);
+            }
+        }
+    }
+
+    private static void writeModelVersion(JsonGenerator generator) throws IOException {
+        generator.writeStringField("schema:schemaVersion", ModelVersion.V1_6_0.getVersionString());
+    }
+
+    private static void writeId(@Nullable CedarId id, JsonGenerator generator) throws IOException {
+        if(id != null) {
+            generator.writeString(id.value());
+        }
+        else {
+            generator.writeNull();
+        }
+    }
+
+    private static void writeStringArray(String fieldName,
+                                         Collection<String> values,
+                                         JsonGenerator generator) throws IOException {
+        // Jackson writes the sizes of collections, which binary formats record
+        generator.writeFieldName(fieldName);
+        generator.writeStartArray(values, values.size());
+        for(var value : values) {
+            generator.writeString(value);
+        }
+        generator.writeEndArray();
+    }
+
+    private static void writeStringMap(String fieldName,
+                                       Map<String, String> map,
+                                       JsonGenerator generator) throws IOException {
+        generator.writeObjectFieldStart(fieldName);
+        for(var entry : map.entrySet()) {
+            generator.writeStringField(entry.getKey(), entry.getValue());
+        }
+        generator.writeEndObject();
+    }
+
+    private static IllegalStateException unexpectedProperty(Class<?> type, String property) {
+        return new IllegalStateException("Unexpected property of " + type.getSimpleName() + ": " + property);
+    }
+}
@@ -0,0 +1,305 @@
+package org.metadatacenter.cedar.io;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Matthew Horridge
+ * Stanford Center for Biomedical Informatics Research
+ * 2026-10-17
+ * <p>
+ * Reads and writes the headers of POSIX (ustar) tar archives.  Entry names that do not fit in a ustar header, or
+ * that are not ASCII, are written as pax extended headers.  Only regular files are written.  When reading, pax and
+ * GNU long names are understood and entries other than regular files are skipped.
+ */
+final class TarHeaders {
+
+    static final int BLOCK_SIZE = 512;
+
+    private static final int NAME_OFFSET = 0;
+
+    private static final int NAME_LENGTH = 100;
+
+    private static final int MODE_OFFSET = 100;
+
+    private static final int UID_OFFSET = 108;
+
+    private static final int GID_OFFSET = 116;
+
+    private static final int SIZE_OFFSET = 124;
+
+    private static final int SIZE_LENGTH = 12;
+
+    private static final int MTIME_OFFSET = 136;
+
+    private static final int CHECKSUM_OFFSET = 148;
+
+    private static final int CHECKSUM_LENGTH = 8;
+
+    private static final int TYPE_FLAG_OFFSET = 156;
+
+    private static final int MAGIC_OFFSET = 257;
+
+    private static final int PREFIX_OFFSET = 345;
+
+    private static final int PREFIX_LENGTH = 155;
+
+    private static final byte[] USTAR_MAGIC = "ustar\00000".getBytes(StandardCharsets.US_ASCII);
+
+    static final byte TYPE_REGULAR_FILE = '0';
+
+    static final byte TYPE_OLD_REGULAR_FILE = 0;
+
+    static final byte TYPE_PAX_HEADER = 'x';
+
+    static final byte TYPE_GNU_LONG_NAME = 'L';
+
+    private static final String PAX_HEADER_NAME = "././@PaxHeader";
+
+    private static final String PAX_PATH_KEYWORD = "path";
+
+    private TarHeaders() {
+    }
+
+    /**
+     * Writes the header, and if necessary a pax extended header, for a regular file with the specified name and size
+     */
+    static void writeFileHeader(OutputStream outputStream, String name, long size, long modifiedTimeMillis) throws IOException {
+        var nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        var ascii = nameBytes.length == name.length();
+        if(nameBytes.length > NAME_LENGTH || !ascii) {
+            var record = toPaxRecord(PAX_PATH_KEYWORD, name);
+            writeHeader(outputStream, PAX_HEADER_NAME.getBytes(StandardCharsets.US_ASCII), record.length,
+                        modifiedTimeMillis, TYPE_PAX_HEADER);
+            outputStream.write(record);
+            writePadding(outputStream, record.length);
+            nameBytes = toAsciiName(name);
+        }
+        writeHeader(outputStream, nameBytes, size, modifiedTimeMillis, TYPE_REGULAR_FILE);
+    }
+
+    /**
+     * Pads the content of an entry with the specified size to a whole number of blocks
+     */
+    static void writePadding(OutputStream outputStream, long size) throws IOException {
+        var remainder = (int) (size % BLOCK_SIZE);
+        if(remainder != 0) {
+            outputStream.write(new byte[BLOCK_SIZE - remainder]);
+        }
+    }
+
+    static void writeEndOfArchive(OutputStream outputStream) throws IOException {
+        outputStream.write(new byte[BLOCK_SIZE * 2]);
+    }
+
+    private static void writeHeader(OutputStream outputStream,
+                                    byte[] nameBytes,
+                                    long size,
+                                    long modifiedTimeMillis,
+                                    byte typeFlag) throws IOException {
+        var header = new byte[BLOCK_SIZE];
+        System.arraycopy(nameBytes, 0, header, NAME_OFFSET, Math.min(nameBytes.length, NAME_LENGTH));
+        writeOctal(header, MODE_OFFSET, 8, 0644);
+        writeOctal(header, UID_OFFSET, 8, 0);
+        writeOctal(header, GID_OFFSET, 8, 0);
+        writeOctal(header, SIZE_OFFSET, SIZE_LENGTH, size);
+        writeOctal(header, MTIME_OFFSET, 12, modifiedTimeMillis / 1000);
+        header[TYPE_FLAG_OFFSET] = typeFlag;
+        System.arraycopy(USTAR_MAGIC, 0, header, MAGIC_OFFSET, USTAR_MAGIC.length);
+        var checksum = computeChecksum(header);
+        // Six octal digits followed by a NUL and a space
+        writeOctal(header, CHECKSUM_OFFSET, CHECKSUM_LENGTH - 1, checksum);
+        header[CHECKSUM_OFFSET + CHECKSUM_LENGTH - 1] = ' ';
+        outputStream.write(header);
+    }
+
+    /**
+     * Writes a zero padded octal number that is terminated by a NUL
+     */
+    private static void writeOctal(byte[] header, int offset, int length, long value) {
+        var digits = Long.toOctalString(value);
+        if(digits.length() > length - 1) {
+            throw new IllegalArgumentException("Value too large for tar header: " + value);
+        }
+        var padded = "0".repeat(length - 1 - digits.length()) + digits;
+        System.arraycopy(padded.getBytes(StandardCharsets.US_ASCII), 0, header, offset, length - 1);
+        header[offset + length - 1] = 0;
+    }
+
+    private static long computeChecksum(byte[] header) {
+        long checksum = 0;
+        for(int i = 0; i < BLOCK_SIZE; i++) {
+            var inChecksumField = i >= CHECKSUM_OFFSET && i < CHECKSUM_OFFSET + CHECKSUM_LENGTH;
+            checksum += inChecksumField ? ' ' : Byte.toUnsignedInt(header[i]);
+        }
+        return checksum;
+    }
+
+    /**
+     * Encodes a pax record.  The length at the start of a record includes the digits of the length itself.
+     */
+    private static byte[] toPaxRecord(String keyword, String value) {
+        var suffix = (" " + keyword + "=" + value + "\n").getBytes(StandardCharsets.UTF_8);
+        var length = suffix.length;
+        while (length != suffix.length + Integer.toString(length).length()) {
+            length = suffix.length + Integer.toString(length).length();
+        }
+        var prefix = Integer.toString(length).getBytes(StandardCharsets.US_ASCII);
+        var record = new byte[length];
+        System.arraycopy(prefix, 0, record, 0, prefix.length);
+        System.arraycopy(suffix, 0, record, prefix.length, suffix.length);
+        return record;
+    }
+
+    /**
+     * Gets a name, for readers that do not understand pax headers, that fits in a ustar header
+     */
+    private static byte[] toAsciiName(String name) {
+        var asciiName = new StringBuilder();
+        for(int i = 0; i < name.length() && asciiName.length() < NAME_LENGTH; i++) {
+            var c = name.charAt(i);
+            asciiName.append(c < 128 ? c : '_');
+        }
+        return asciiName.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * A header that has been read from an archive
+     * @param name The name of the entry
+     * @param size The size of the content of the entry, which follows the header
+     * @param typeFlag The type of the entry
+     */
+    record Header(String name, long size, byte typeFlag) {
+
+        boolean isRegularFile() {
+            return typeFlag == TYPE_REGULAR_FILE || typeFlag == TYPE_OLD_REGULAR_FILE;
+        }
+    }
+
+    /**
+     * Reads the next header from the specified stream
+     * @return The header, or null if the end of the archive has been reached
+     * @throws IOException if the header is truncated or its checksum does not match
+     */
+    @Nullable
+    static Header readHeader(InputStream inputStream) throws IOException {
+        var header = inputStream.readNBytes(BLOCK_SIZE);
+        if(header.length == 0 || isZeroBlock(header)) {
+            return null;
+        }
+        if(header.length < BLOCK_SIZE) {
+            throw new IOException("Truncated tar header");
+        }
+        var expectedChecksum = parseOctal(header, CHECKSUM_OFFSET, CHECKSUM_LENGTH);
+        if(expectedChecksum != computeChecksum(header)) {
+            throw new IOException("Corrupt tar header (checksum mismatch)");
+        }
+        var name = parseString(header, NAME_OFFSET, NAME_LENGTH);
+        if(isUstar(header)) {
+            var prefix = parseString(header, PREFIX_OFFSET, PREFIX_LENGTH);
+            if(!prefix.isEmpty()) {
+                name = prefix + "/" + name;
+            }
+        }
+        var size = parseOctal(header, SIZE_OFFSET, SIZE_LENGTH);
+        return new Header(name, size, header[TYPE_FLAG_OFFSET]);
+    }
+
+    /**
+     * Parses the path from the records of a pax extended header
+     * @return The path, or null if the records do not specify one
+     */
+    @Nullable
+    static String parsePaxPath(byte[] records) throws IOException {
+        var pos = 0;
+        while (pos < records.length) {
+            var space = pos;
+            while (space < records.length && records[space] != ' ') {
+                space++;
+            }
+            int length;
+            try {
+                length = Integer.parseInt(new String(records, pos, space - pos, StandardCharsets.US_ASCII));
+            } catch (NumberFormatException e) {
+                throw new IOException("Malformed pax header");
+            }
+            if(length <= 0 || pos + length > records.length) {
+                throw new IOException("Malformed pax header");
+            }
+            // The record ends with a new line, which is not part of the value
+            var record = new String(records, space + 1, pos + length - space - 2, StandardCharsets.UTF_8);
+            var equals = record.indexOf('=');
+            if(equals != -1 && record.substring(0, equals).equals(PAX_PATH_KEYWORD)) {
+                return record.substring(equals + 1);
+            }
+            pos += length;
+        }
+        return null;
+    }
+
+    /**
+     * Parses a name from the content of a GNU long name entry, which is terminated by a NUL
+     */
+    static String parseLongName(byte[] content) {
+        return parseString(content, 0, content.length);
+    }
+
+    /**
+     * Skips the padding that follows the content of an entry with the specified size
+     */
+    static void skipPadding(InputStream inputStream, long size) throws IOException {
+        var remainder = (int) (size % BLOCK_SIZE);
+        if(remainder != 0) {
+            inputStream.skipNBytes(BLOCK_SIZE - remainder);
+        }
+    }
+
+    private static boolean isZeroBlock(byte[] block) {
+        for(var b : block) {
+            if(b != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isUstar(byte[] header) {
+        for(int i = 0; i < 5; i++) {
+            if(header[MAGIC_OFFSET + i] != USTAR_MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String parseString(byte[] bytes, int offset, int length) {
+        var end = offset;
+        while (end < offset + length && bytes[end] != 0) {
+            end++;
+        }
+        return new String(bytes, offset, end - offset, StandardCharsets.UTF_8);
+    }
+
+    private static long parseOctal(byte[] header, int offset, int length) throws IOException {
+        var value = 0L;
+        var digits = 0;
+        for(int i = offset; i < offset + length; i++) {
+            var b = header[i];
+            if(b == 0 || (b == ' ' && digits > 0)) {
+                break;
+            }
+            if(b == ' ') {
+                continue;
+            }
+            if(b < '0' || b > '7') {
+                throw new IOException("Malformed tar header");
+            }
+            value = value * 8 + (b - '0');
+            digits++;
+        }
+        return value;
+    }
+}
@@ -54,6 +54,13 @@ public record TemplateFieldObjectJsonSchemaMixin(@JsonProperty("title") String t
     @Override
     @JsonProperty(value = "properties", access = READ_ONLY)
     public Map<String, Object> properties() {
+        return getProperties(cedarFieldValueType);
+    }
+
+    /**
+     * Gets the JSON Schema properties for a field that has the specified value type
+     */
+    static Map<String, Object> getProperties(CedarFieldValueType cedarFieldValueType) {
         if(cedarFieldValueType.equals(CedarFieldValueType.LITERAL)) {
             return propertiesForLiterals;
         }
@@ -7,8 +7,12 @@ import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.json.JsonMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.metadatacenter.cedar.csv.NumericBoundParser;
+import org.metadatacenter.cedar.io.ArtifactContentHasher;
+import org.metadatacenter.cedar.io.CedarArtifactReader;
 import org.metadatacenter.cedar.io.CedarArtifactWriter;
+import org.metadatacenter.cedar.io.CedarCodecs;
 import org.metadatacenter.cedar.io.CedarArtifactPoster;
+import org.metadatacenter.cedar.io.PostRetryPolicy;
 import org.metadatacenter.cedar.ont.ChoiceIriStrategy;
 import org.metadatacenter.cedar.ont.OntologyAcronymStrategy;
 import org.metadatacenter.cedar.ont.OntologyIriStrategy;
@@ -21,6 +25,8 @@ import org.springframework.context.annotation.Configuration;
 
 import javax.inject.Named;
 import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
 
 /**
  * Matthew Horridge
@@ -36,6 +42,9 @@ public class CedarImporterConfiguration {
     @Value("${values-type:CLASSES}")
     private ValuesType valuesType;
 
+    @Value("${jackson-blackbird:true}")
+    private boolean useBlackbird;
+
     @Bean
     TemplateFieldWriter templateFieldWriter(TemplateFieldGenerator templateFieldGenerator) {
         String outputDirectory = "";
@@ -69,9 +78,23 @@ public class CedarImporterConfiguration {
     @Bean
     CedarArtifactPoster cedarImporter(CedarArtifactWriter artifactWriter,
                                       ObjectMapper objectMapper,
-                                      CedarWebClientFactory factory) {
+                                      CedarWebClientFactory factory,
+                                      PostRetryPolicy postRetryPolicy) {
         objectMapper.registerModule(new JavaTimeModule());
-        return new CedarArtifactPoster(artifactWriter, objectMapper, factory);
+        return new CedarArtifactPoster(artifactWriter, objectMapper, factory, postRetryPolicy, Clock.systemUTC());
+    }
+
+    @Bean
+    PostRetryPolicy postRetryPolicy(@Value("${cedar.post.maxRetries:5}") int maxRetries,
+                                    @Value("${cedar.post.initialBackoffMillis:500}") long initialBackoffMillis,
+                                    @Value("${cedar.post.maxBackoffMillis:30000}") long maxBackoffMillis,
+                                    @Value("${cedar.post.circuitBreakerThreshold:5}") int circuitBreakerThreshold,
+                                    @Value("${cedar.post.circuitBreakerPauseSeconds:30}") long circuitBreakerPauseSeconds) {
+        return new PostRetryPolicy(maxRetries,
+                                   Duration.ofMillis(initialBackoffMillis),
+                                   Duration.ofMillis(maxBackoffMillis),
+                                   circuitBreakerThreshold,
+                                   Duration.ofSeconds(circuitBreakerPauseSeconds));
     }
 
     @Bean
@@ -89,4 +112,20 @@ public class CedarImporterConfiguration {
     CedarArtifactWriter cedarArtifactWriter(@Named("outputMapper") JsonMapper jsonMapper) {
         return new CedarArtifactWriter(jsonMapper);
     }
+
+    @Bean
+    ArtifactContentHasher artifactContentHasher(CedarArtifactWriter cedarArtifactWriter,
+                                                @Named("outputMapper") JsonMapper jsonMapper) {
+        return new ArtifactContentHasher(cedarArtifactWriter, jsonMapper);
+    }
+
+    @Bean
+    CedarCodecs cedarCodecs(ObjectMapper objectMapper) {
+        return new CedarCodecs(objectMapper, useBlackbird);
+    }
+
+    @Bean
+    CedarArtifactReader cedarArtifactReader(CedarCodecs cedarCodecs) {
+        return new CedarArtifactReader(cedarCodecs);
+    }
 }
@@ -1,11 +1,13 @@
 package org.metadatacenter.cedar.ts;
 
 import org.metadatacenter.cedar.csv.Cardinality;
+import org.metadatacenter.cedar.csv.CedarCsvNodeFolder;
 import org.metadatacenter.cedar.csv.CedarCsvParser;
 import org.metadatacenter.cedar.csv.CedarCsvParser.Node;
 
 import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.List;
 import java.util.stream.Collectors;
 
 /**
@@ -16,15 +18,43 @@ import java.util.stream.Collectors;
 public class TypeScriptGenerator {
 
     public void generateTypeScript(Path outputDirectory, Node rootNode) {
-        var nodeTypeName = toTypeName(rootNode);
+        var visitor = createVisitor();
+        rootNode.accept(visitor);
+        writeTypeScript(outputDirectory, visitor.getResult());
+    }
+
+    /**
+     * Creates a visitor that generates the TypeScript interfaces for the nodes in a tree.  The interfaces are
+     * generated in depth first order, starting with the interface for the node that the traversal starts at.
+     */
+    public CedarCsvNodeFolder<String, String> createVisitor() {
+        return new CedarCsvNodeFolder<>() {
+            @Override
+            protected String visitNode(Node node, List<String> childResults) {
+                return toTypeScript(node, childResults);
+            }
+
+            @Override
+            protected String visitTopNode(Node node, List<String> childResults) {
+                return toTypeScript(node, childResults);
+            }
+        };
+    }
+
+    public void writeTypeScript(Path outputDirectory, String typeScript) {
+        System.out.print(typeScript);
+    }
+
+    private String toTypeScript(Node node, List<String> childResults) {
+        var nodeTypeName = toTypeName(node);
 
 
 
         var ts = "";
 
         ts = "export interface " + nodeTypeName + " {\n";
-        if(rootNode.isField()) {
-            if(rootNode.getRow().isLiteralValueType()) {
+        if(node.isField()) {
+            if(node.getRow().isLiteralValueType()) {
                 ts = ts + "'@value' : string | null;".indent(4);
             }
             else {
@@ -32,21 +62,15 @@ public class TypeScriptGenerator {
             }
         }
         else {
-            var tsFields = rootNode.getChildNodes()
-                                   .stream()
-                                   .map(cn -> getElementTs(cn).indent(4))
-                                   .collect(Collectors.joining());
+            var tsFields = node.getChildNodes()
+                               .stream()
+                               .map(cn -> getElementTs(cn).indent(4))
+                               .collect(Collectors.joining());
             ts = ts + "'@id' : string | undefined;".indent(4) + tsFields;
         }
-        ts = ts + "}";
-        System.out.println(ts);
-        System.out.println();
-        System.out.println();
-
-
-        rootNode.getChildNodes()
-                .forEach(cn -> generateTypeScript(outputDirectory, cn));
+        ts = ts + "}\n\n\n";
 
+        return ts + String.join("", childResults);
     }
 
     private String getElementTs(Node cn) {
@@ -1,7 +1,7 @@
 package org.metadatacenter.cedar.webapi;
 
 import org.metadatacenter.cedar.io.CedarApiKey;
-import org.metadatacenter.cedar.io.NonEncodingUriFactory;
+import org.metadatacenter.cedar.io.SharedWebClients;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
@@ -20,21 +20,25 @@ public class CedarWebClientFactory {
 
     private final String baseUrl;
 
-    public CedarWebClientFactory(@Value("${cedar.api.baseUrl:https://resource.metadatacenter.org}")
-                                 String baseUrl) {
+    private final WebClient webClient;
+
+    public CedarWebClientFactory(@Value("${cedar.api.baseUrl:https://resource.metadatacenter.org}") String baseUrl,
+                                 SharedWebClients sharedWebClients) {
         this.baseUrl = baseUrl;
+        this.webClient = sharedWebClients.getWebClient(baseUrl);
+    }
+
+    /**
+     * Gets the base URL of the CEDAR resource server that requests are made to
+     */
+    public String getBaseUrl() {
+        return baseUrl;
     }
 
     public WebClient.RequestBodySpec createWebClient(HttpMethod httpMethod,
                                      String uri,
                                      CedarApiKey cedarApiKey) {
-        return WebClient.builder().codecs(configurer -> configurer
-                                .defaultCodecs()
-                                .maxInMemorySize(256 * 1024 * 1024))
-                        .baseUrl(baseUrl)
-                        .uriBuilderFactory(new NonEncodingUriFactory(baseUrl))
-                        .build()
-                        .method(httpMethod)
+        return webClient.method(httpMethod)
                         .uri(uri)
                         .header("Authorization", "apiKey " + cedarApiKey.key())
                         .contentType(MediaType.APPLICATION_JSON)
@@ -44,12 +48,7 @@ public class CedarWebClientFactory {
     public WebClient.RequestBodySpec createWebClient(HttpMethod httpMethod,
                                      URI uri,
                                      CedarApiKey cedarApiKey) {
-        return WebClient.builder().codecs(configurer -> configurer
-                                .defaultCodecs()
-                                .maxInMemorySize(256 * 1024 * 1024))
-                        .uriBuilderFactory(new NonEncodingUriFactory(baseUrl))
-                        .build()
-                        .method(httpMethod)
+        return webClient.method(httpMethod)
                         .uri(uri)
                         .header("Authorization", "apiKey " + cedarApiKey.key())
                         .contentType(MediaType.APPLICATION_JSON)
@@ -63,6 +63,30 @@ class LookupSpec_Test {
         assertThat(new LookupSpec(s).getTermSpecList()).contains(new LookupSpec.TermSpec("thesecondlabel", "thesecondiri"));
     }
 
+    @Test
+    void shouldBeLookupForOntology() {
+        var s = "https://bioportal.bioontology.org/ontologies/ABC";
+        assertThat(new LookupSpec(s).isLookup()).isTrue();
+    }
+
+    @Test
+    void shouldBeLookupForTermList() {
+        var s = "[thelabel](theiri)\n[thesecondlabel](thesecondiri)";
+        assertThat(new LookupSpec(s).isLookup()).isTrue();
+    }
+
+    @Test
+    void shouldNotBeLookupForPartialTermList() {
+        var s = "[thelabel](theiri)\nstuff";
+        assertThat(new LookupSpec(s).isLookup()).isFalse();
+        assertThat(new LookupSpec(s).getTermSpecList()).containsExactly(new LookupSpec.TermSpec("thelabel", "theiri"));
+    }
+
+    @Test
+    void shouldNotBeLookupForBlank() {
+        assertThat(new LookupSpec("  ").isLookup()).isFalse();
+    }
+
 
 
 
@@ -0,0 +1,33 @@
+package org.metadatacenter.cedar.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Matthew Horridge
+ * Stanford Center for Biomedical Informatics Research
+ * 2026-10-17
+ */
+class ValueInterner_Test {
+
+    @Test
+    void shouldShareEqualValues() {
+        var interner = new ValueInterner();
+        var first = interner.intern(new BasicFieldUi(InputType.TEXTFIELD, false, false));
+        var second = interner.intern(new BasicFieldUi(InputType.TEXTFIELD, false, false));
+        assertThat(second).isSameAs(first);
+    }
+
+    @Test
+    void shouldNotShareEqualValuesOfDifferentClasses() {
+        var interner = new ValueInterner();
+        var immutableList = interner.intern(List.of("a", "b"));
+        var streamList = interner.intern(Stream.of("a", "b").toList());
+        assertThat(streamList).isEqualTo(immutableList);
+        assertThat(streamList.getClass()).isEqualTo(Stream.of("a", "b").toList().getClass());
+    }
+}
@@ -0,0 +1,109 @@
+package org.metadatacenter.cedar.cli;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.metadatacenter.cedar.api.ArtifactStatus;
+import org.metadatacenter.cedar.api.CedarArtifact;
+import org.metadatacenter.cedar.api.CedarTemplate;
+import org.metadatacenter.cedar.api.CedarTemplateElement;
+import org.metadatacenter.cedar.csv.CedarCsvParser;
+import org.metadatacenter.cedar.csv.LanguageCodesParser;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Matthew Horridge
+ * Stanford Center for Biomedical Informatics Research
+ * 2026-10-17
+ */
+class ArtifactDependencyLevels_Test {
+
+    private static final String CSV = """
+            Section,Element,Cardinality,Required,Visibility,Field Title,Description,Derived,Default Value,Example,Property,Type,Controlled Terms,Lookup
+            ,Study,single,,VISIBLE,,The study,,,,http://example.org/study,,,
+            ,,single,,VISIBLE,Study Name,The name,,,,http://example.org/studyName,textfield,,
+            ,> Site,multiple,,VISIBLE,,A site,,,,http://example.org/site,,,
+            ,,single,,VISIBLE,Site Name,The site name,,,,http://example.org/siteName,textfield,,
+            ,Contact,single,,VISIBLE,,A contact,,,,http://example.org/contact,,,
+            ,,single,,VISIBLE,Email,The email,,,,http://example.org/email,email,,
+            """;
+
+    private CedarTemplate template;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        var languageCodesCsv = new String(getClass().getResourceAsStream("/lang-tags.csv").readAllBytes(),
+                                          StandardCharsets.UTF_8);
+        var parser = new CedarCsvParser(ArtifactStatus.DRAFT, "0.0.1", "",
+                                        new LanguageCodesParser().parse(languageCodesCsv));
+        // The parser prints the tree to stdout
+        var stdout = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            var rootNode = parser.parseNodes(new ByteArrayInputStream(CSV.getBytes(StandardCharsets.UTF_8)));
+            template = parser.translateToTemplate(rootNode, "levels", "Levels");
+        } finally {
+            System.setOut(stdout);
+        }
+    }
+
+    @Test
+    void shouldPutArtifactsAfterTheArtifactsThatTheyEmbed() {
+        var artifacts = new ArrayList<CedarArtifact>(template.getAllFields());
+        artifacts.addAll(template.getAllElements());
+        artifacts.add(template);
+        var levels = ArtifactDependencyLevels.get(artifacts, id -> List.of());
+        assertThat(levels).hasSize(4);
+        assertThat(levels.get(0)).containsExactlyElementsOf(template.getAllFields());
+        assertThat(names(levels.get(1))).containsExactly("Site", "Contact");
+        assertThat(names(levels.get(2))).containsExactly("Study");
+        assertThat(levels.get(3)).containsExactly(template);
+    }
+
+    @Test
+    void shouldIgnoreArtifactsThatAreNotBeingPosted() {
+        var levels = ArtifactDependencyLevels.get(template.getAllElements(), id -> List.of());
+        assertThat(levels).hasSize(2);
+        assertThat(names(levels.get(0))).containsExactly("Site", "Contact");
+        assertThat(names(levels.get(1))).containsExactly("Study");
+    }
+
+    @Test
+    void shouldFollowDuplicateIds() {
+        var elements = template.getAllElements();
+        var site = elements.get(0);
+        var contact = elements.get(2);
+        // If Site has been collapsed into Contact then Study embeds Contact
+        var levels = ArtifactDependencyLevels.get(List.of(elements.get(1), contact),
+                                                  id -> id.equals(contact.id()) ? List.of(site.id()) : List.of());
+        assertThat(levels).hasSize(2);
+        assertThat(names(levels.get(0))).containsExactly("Contact");
+        assertThat(names(levels.get(1))).containsExactly("Study");
+    }
+
+    @Test
+    void shouldGetEmbeddedIds() {
+        var study = template.getAllElements().get(1);
+        var site = template.getAllElements().get(0);
+        assertThat(ArtifactDependencyLevels.getEmbeddedIds(study))
+                .contains(site.id())
+                .doesNotContain(study.id());
+        // The embedded ids are found without changing the artifact
+        assertThat(study.replaceIds(Map.of())).isEqualTo(study);
+    }
+
+    private static List<String> names(List<? extends CedarArtifact> artifacts) {
+        return artifacts.stream()
+                        .map(artifact -> ((CedarTemplateElement) artifact).artifactInfo().schemaName())
+                        .toList();
+    }
+}
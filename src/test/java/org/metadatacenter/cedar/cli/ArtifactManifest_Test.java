@@ -0,0 +1,50 @@
+package org.metadatacenter.cedar.cli;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Matthew Horridge
+ * Stanford Center for Biomedical Informatics Research
+ * 2026-10-17
+ */
+class ArtifactManifest_Test {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void shouldReadBackWrittenManifest() throws IOException {
+        var entry = new ArtifactManifest.Entry("input-hash", "date.json", "urn:uuid:1", false);
+        new ArtifactManifest("options-hash", Map.of("TemplateField:date", entry)).write(directory, objectMapper);
+        var manifest = ArtifactManifest.read(directory, objectMapper).orElseThrow();
+        assertThat(manifest.optionsHash()).isEqualTo("options-hash");
+        assertThat(manifest.getEntry("TemplateField:date")).contains(entry);
+        assertThat(manifest.getEntry("TemplateField:name")).isEmpty();
+    }
+
+    @Test
+    void shouldReplaceManifestWithoutLeavingTemporaryFiles() throws IOException {
+        new ArtifactManifest("first", Map.of()).write(directory, objectMapper);
+        new ArtifactManifest("second", Map.of()).write(directory, objectMapper);
+        assertThat(ArtifactManifest.read(directory, objectMapper)).map(ArtifactManifest::optionsHash).contains("second");
+        try (var files = Files.list(directory)) {
+            assertThat(files).containsExactly(directory.resolve(ArtifactManifest.FILE_NAME));
+        }
+    }
+
+    @Test
+    void shouldBeEmptyIfThereIsNoManifest() throws IOException {
+        assertThat(ArtifactManifest.read(directory, objectMapper)).isEmpty();
+    }
+}
@@ -0,0 +1,57 @@
+package org.metadatacenter.cedar.cli;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Matthew Horridge
+ * Stanford Center for Biomedical Informatics Research
+ * 2026-10-17
+ */
+class ArtifactRegistry_Test {
+
+    private static final ArtifactRegistry.Scope SCOPE = new ArtifactRegistry.Scope("https://resource.metadatacenter.org",
+                                                                                    "https://repo.metadatacenter.org/folders/folder-1");
+
+    private static final ArtifactRegistry.Entry ENTRY = new ArtifactRegistry.Entry("https://repo.metadatacenter.org/template-fields/1",
+                                                                                   "TemplateField",
+                                                                                   "Date");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void shouldOnlyGetEntriesInSameScope() throws IOException {
+        var registry = ArtifactRegistry.load(directory.resolve("registry.json"), objectMapper);
+        registry.put(SCOPE, "hash", ENTRY);
+        assertThat(registry.get(SCOPE, "hash")).contains(ENTRY);
+        var otherFolder = new ArtifactRegistry.Scope(SCOPE.baseUrl(), "https://repo.metadatacenter.org/folders/folder-2");
+        assertThat(registry.get(otherFolder, "hash")).isEmpty();
+        var otherServer = new ArtifactRegistry.Scope("https://resource.staging.metadatacenter.org", SCOPE.folderId());
+        assertThat(registry.get(otherServer, "hash")).isEmpty();
+    }
+
+    @Test
+    void shouldKeepEntriesSavedByOthers() throws IOException {
+        var file = directory.resolve("registry.json");
+        var first = ArtifactRegistry.load(file, objectMapper);
+        var second = ArtifactRegistry.load(file, objectMapper);
+        var otherScope = new ArtifactRegistry.Scope(SCOPE.baseUrl(), "https://repo.metadatacenter.org/folders/folder-2");
+        first.put(SCOPE, "hash", ENTRY);
+        first.save();
+        second.put(otherScope, "hash", ENTRY);
+        second.save();
+        var reloaded = ArtifactRegistry.load(file, objectMapper);
+        assertThat(reloaded.size()).isEqualTo(2);
+        assertThat(reloaded.get(SCOPE, "hash")).contains(ENTRY);
+        assertThat(reloaded.get(otherScope, "hash")).contains(ENTRY);
+    }
+}
@@ -0,0 +1,193 @@
+package org.metadatacenter.cedar.cli;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.metadatacenter.cedar.io.CedarArtifactPoster;
+import org.metadatacenter.cedar.io.CedarCodecs;
+import org.metadatacenter.cedar.io.SharedWebClients;
+import org.springframework.beans.factory.config.ConfigurableBeanFactory;
+import org.springframework.context.support.GenericApplicationContext;
+import picocli.CommandLine;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Matthew Horridge
+ * Stanford Center for Biomedical Informatics Research
+ * 2026-10-17
+ */
+class Csv2ArtifactsBatchCommand_Test {
+
+    private static final String CSV = """
+            Section,Element,Cardinality,Required,Visibility,Field Title,Description,Derived,Default Value,Example,Property,Type,Controlled Terms,Lookup
+            ,Study,single,,VISIBLE,,A study,,,,http://example.org/study,,,
+            ,,single,,VISIBLE,Date,A date,,,,http://example.org/date,date,,
+            ,,single,,VISIBLE,Name,A name,,,,http://example.org/name,textfield,,
+            """;
+
+    @TempDir
+    Path directory;
+
+    private HttpServer server;
+
+    private SharedWebClients sharedWebClients;
+
+    private GenericApplicationContext context;
+
+    private final AtomicInteger mintedIdCounter = new AtomicInteger();
+
+    /**
+     * What the batch printed to stdout, which is the report
+     */
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    /**
+     * What the batch and its sheets printed to stderr
+     */
+    private final ByteArrayOutputStream errors = new ByteArrayOutputStream();
+
+    private PrintStream stdout;
+
+    private PrintStream stderr;
+
+    private Csv2ArtifactsBatchCommand batchCommand;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            var path = exchange.getRequestURI().getRawPath();
+            exchange.getRequestBody().readAllBytes();
+            var body = """
+                    {"@id": "https://repo.metadatacenter.org%s/minted-%d",
+                     "schema:name": "Name",
+                     "pav:createdOn": "%s"}
+                    """.formatted(path, mintedIdCounter.incrementAndGet(), Instant.now().truncatedTo(ChronoUnit.SECONDS));
+            var bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(201, bytes.length);
+            try (var outputStream = exchange.getResponseBody()) {
+                outputStream.write(bytes);
+            }
+        });
+        server.start();
+        var baseUrl = "http://localhost:" + server.getAddress().getPort();
+        sharedWebClients = new SharedWebClients(4, 10, 30, 5000, 10, false, false);
+        var jsonMapper = JsonMapper.builder()
+                                   .configure(JsonGenerator.Feature.IGNORE_UNKNOWN, true)
+                                   .addModule(new JavaTimeModule())
+                                   .configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false)
+                                   .disable(MapperFeature.USE_GETTERS_AS_SETTERS)
+                                   .build();
+        var objectMapper = new ObjectMapper().registerModule(new JavaTimeModule())
+                                             .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        var poster = Csv2ArtifactsCommand_Test.createPoster(baseUrl, sharedWebClients, jsonMapper, objectMapper);
+        // Each sheet gets its own command, as it does in the application
+        context = new GenericApplicationContext();
+        context.registerBean(Csv2ArtifactsCommand.class, () -> {
+            try {
+                return Csv2ArtifactsCommand_Test.createCommand(poster, baseUrl, sharedWebClients, jsonMapper, objectMapper,
+                                                               directory.resolve("input-cache"));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, definition -> definition.setScope(ConfigurableBeanFactory.SCOPE_PROTOTYPE));
+        context.refresh();
+        batchCommand = new Csv2ArtifactsBatchCommand(context.getBeanProvider(Csv2ArtifactsCommand.class),
+                                                     CommandLine.defaultFactory(),
+                                                     new CedarCodecs(jsonMapper, false),
+                                                     poster,
+                                                     sharedWebClients);
+        stdout = System.out;
+        stderr = System.err;
+        System.setOut(new PrintStream(output, true, StandardCharsets.UTF_8));
+        System.setErr(new PrintStream(errors, true, StandardCharsets.UTF_8));
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.setOut(stdout);
+        System.setErr(stderr);
+        context.close();
+        sharedWebClients.destroy();
+        server.stop(0);
+    }
+
+    @Test
+    void shouldReportFailureReasonOfEachSheet() throws IOException {
+        Files.writeString(directory.resolve("study.csv"), CSV);
+        // The Study element contains two fields called Name
+        Files.writeString(directory.resolve("invalid.csv"), CSV + ",,single,,VISIBLE,Name,Another name,,,,http://example.org/name,textfield,,\n");
+        var manifest = directory.resolve("manifest.yaml");
+        Files.writeString(manifest, """
+                sheets:
+                  - in: study.csv
+                  - in: missing.csv
+                  - in: invalid.csv
+                  - in: study.csv
+                    out: invalid-option
+                    args: [--no-such-option]
+                """);
+        var exitCode = run("--manifest", manifest.toString());
+        assertThat(exitCode).isEqualTo(1);
+        var report = output.toString(StandardCharsets.UTF_8);
+        assertThat(report).containsPattern("OK .* " + Pattern.quote(directory.resolve("study.csv").toString()));
+        assertThat(report).containsPattern("FAILED .* " + Pattern.quote(directory.resolve("missing.csv").toString()));
+        assertThat(report).contains("missing.csv does not exist");
+        assertThat(report).contains("Duplicate field name: Name");
+        assertThat(report).contains("Unknown option: '--no-such-option'");
+        assertThat(report).contains("Processed 4 CSV files (3 failed)");
+    }
+
+    @Test
+    void shouldReportPostingStatisticsOnceForBatch() throws IOException {
+        var inputDirectory = Files.createDirectory(directory.resolve("in"));
+        Files.writeString(inputDirectory.resolve("first.csv"), CSV);
+        Files.writeString(inputDirectory.resolve("second.csv"), CSV.replace("A name", "The name"));
+        var exitCode = run("--in-dir", inputDirectory.toString(), "--",
+                           "--generate-fields", "--generate-elements",
+                           "--post-to-cedar", "--cedar-api-key", "key", "--folder-id", "folder-1");
+        assertThat(exitCode).as(errors::toString).isZero();
+        var messages = errors.toString(StandardCharsets.UTF_8);
+        assertThat(Pattern.compile("Posted 4 artifacts").matcher(messages).results()).hasSize(2);
+        // Two fields, an element and a template for each sheet
+        assertThat(Pattern.compile("Sent \\d+ HTTP requests").matcher(messages).results()).hasSize(1);
+        assertThat(messages).contains("Sent 8 HTTP requests");
+    }
+
+    private int run(String... args) {
+        var arguments = new ArrayList<>(List.of("--out", directory.resolve("out").toString()));
+        arguments.addAll(List.of(args));
+        if(!arguments.contains("--")) {
+            arguments.add("--");
+        }
+        arguments.add("--bioportal-api-key");
+        arguments.add("key");
+        return new CommandLine(batchCommand).execute(arguments.toArray(String[]::new));
+    }
+}
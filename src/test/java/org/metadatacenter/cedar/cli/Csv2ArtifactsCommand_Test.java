@@ -0,0 +1,451 @@
+package org.metadatacenter.cedar.cli;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.metadatacenter.cedar.bioportal.BioPortalWebClientFactory;
+import org.metadatacenter.cedar.bioportal.GetClassesRequest;
+import org.metadatacenter.cedar.csv.CedarCsvParserFactory;
+import org.metadatacenter.cedar.csv.LanguageCodesParser;
+import org.metadatacenter.cedar.csv.TemplateInstanceGenerator;
+import org.metadatacenter.cedar.docs.DocsGenerator;
+import org.metadatacenter.cedar.docs.MarkdownRenderer;
+import org.metadatacenter.cedar.io.*;
+import org.metadatacenter.cedar.util.*;
+import org.metadatacenter.cedar.webapi.CedarWebClientFactory;
+import picocli.CommandLine;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.MatchResult;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Matthew Horridge
+ * Stanford Center for Biomedical Informatics Research
+ * 2026-10-17
+ */
+class Csv2ArtifactsCommand_Test {
+
+    private static final String CSV = """
+            Section,Element,Cardinality,Required,Visibility,Field Title,Description,Derived,Default Value,Example,Property,Type,Controlled Terms,Lookup
+            ,Study,single,,VISIBLE,,A study,,,,http://example.org/study,,,
+            ,,single,,VISIBLE,Date,A date,,,,http://example.org/date,date,,
+            ,,single,,VISIBLE,Name,A name,,,,http://example.org/name,textfield,,
+            """;
+
+    /**
+     * A sheet in which both elements contain the same Date field
+     */
+    private static final String DUPLICATES_CSV = """
+            Section,Element,Cardinality,Required,Visibility,Field Title,Description,Derived,Default Value,Example,Property,Type,Controlled Terms,Lookup
+            ,Study,single,,VISIBLE,,A study,,,,http://example.org/study,,,
+            ,,single,,VISIBLE,Date,A date,,,,http://example.org/date,date,,
+            ,,single,,VISIBLE,Name,A name,,,,http://example.org/name,textfield,,
+            ,Sample,single,,VISIBLE,,A sample,,,,http://example.org/sample,,,
+            ,,single,,VISIBLE,Date,A date,,,,http://example.org/date,date,,
+            ,,single,,VISIBLE,Label,A label,,,,http://example.org/label,textfield,,
+            """;
+
+    private static final String FOLDER_ID = "folder-1";
+
+    @TempDir
+    Path directory;
+
+    private HttpServer server;
+
+    private String baseUrl;
+
+    private SharedWebClients sharedWebClients;
+
+    private JsonMapper jsonMapper;
+
+    private ObjectMapper objectMapper;
+
+    /**
+     * The method and path of each request that the server received, in order
+     */
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+
+    /**
+     * The bodies of the posts that the server received, in order
+     */
+    private final List<String> postBodies = new CopyOnWriteArrayList<>();
+
+    private final AtomicInteger mintedIdCounter = new AtomicInteger();
+
+    /**
+     * Text that causes the next post whose body contains it to fail, or null if posts should not fail
+     */
+    private volatile String failNextPostContaining;
+
+    /**
+     * What the command printed to stderr
+     */
+    private final ByteArrayOutputStream errors = new ByteArrayOutputStream();
+
+    private PrintStream stdout;
+
+    private PrintStream stderr;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            var path = exchange.getRequestURI().getRawPath();
+            requests.add(exchange.getRequestMethod() + " " + path);
+            var requestBody = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            String body;
+            var failText = failNextPostContaining;
+            if(exchange.getRequestMethod().equals("POST") && failText != null && requestBody.contains(failText)) {
+                failNextPostContaining = null;
+                exchange.sendResponseHeaders(400, -1);
+                exchange.close();
+                return;
+            }
+            if(exchange.getRequestMethod().equals("POST")) {
+                postBodies.add(requestBody);
+                body = """
+                        {"@id": "https://repo.metadatacenter.org%s/minted-%d",
+                         "schema:name": "Name",
+                         "pav:createdOn": "%s"}
+                        """.formatted(path, mintedIdCounter.incrementAndGet(), Instant.now().truncatedTo(ChronoUnit.SECONDS));
+            }
+            else {
+                body = "{\"totalCount\": 0, \"paging\": {}, \"resources\": []}";
+            }
+            var bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(201, bytes.length);
+            try (var outputStream = exchange.getResponseBody()) {
+                outputStream.write(bytes);
+            }
+        });
+        server.start();
+        baseUrl = "http://localhost:" + server.getAddress().getPort();
+        sharedWebClients = new SharedWebClients(4, 10, 30, 5000, 10, false, false);
+        jsonMapper = JsonMapper.builder()
+                               .configure(JsonGenerator.Feature.IGNORE_UNKNOWN, true)
+                               .addModule(new JavaTimeModule())
+                               .configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false)
+                               .disable(MapperFeature.USE_GETTERS_AS_SETTERS)
+                               .build();
+        objectMapper = new ObjectMapper().registerModule(new JavaTimeModule())
+                                         .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        // The parser prints the tree to stdout and the command prints its progress to stderr
+        stdout = System.out;
+        stderr = System.err;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        System.setErr(new PrintStream(errors, true, StandardCharsets.UTF_8));
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.setOut(stdout);
+        System.setErr(stderr);
+        sharedWebClients.destroy();
+        server.stop(0);
+    }
+
+    @Test
+    void shouldPostWithoutArtifactRegistry() throws IOException {
+        var out = directory.resolve("out");
+        var exitCode = run(CSV, "--out", out.toString(), "--generate-fields", "--generate-elements",
+                           "--post-to-cedar", "--cedar-api-key", "key", "--folder-id", FOLDER_ID);
+        assertThat(exitCode).isZero();
+        // Two fields, the element and the template
+        assertThat(postRequests()).hasSize(4);
+        assertThat(artifactFileNames(out)).hasSize(4);
+    }
+
+    @Test
+    void shouldReuseDuplicateFieldFromRegistry() throws IOException {
+        var out = directory.resolve("out");
+        var exitCode = run(DUPLICATES_CSV, "--out", out.toString(), "--generate-fields", "--generate-elements",
+                           "--artifact-registry", directory.resolve("registry.json").toString(),
+                           "--post-to-cedar", "--cedar-api-key", "key", "--folder-id", FOLDER_ID);
+        assertThat(exitCode).isZero();
+        // The second Date field is deferred and then reused, rather than posted
+        assertThat(postRequests()).filteredOn(request -> request.startsWith("POST /template-fields")).hasSize(3);
+        assertThat(postRequests()).filteredOn(request -> request.startsWith("POST /template-elements")).hasSize(2);
+        // Both elements refer to the posted Date field
+        assertThat(postBodies).noneMatch(body -> body.contains("urn:uuid:"));
+    }
+
+    @Test
+    void shouldPostDeferredDuplicateBeforeArtifactsThatEmbedIt() throws IOException {
+        // Both elements contain the same Site element
+        var csv = """
+                Section,Element,Cardinality,Required,Visibility,Field Title,Description,Derived,Default Value,Example,Property,Type,Controlled Terms,Lookup
+                ,Study,single,,VISIBLE,,A study,,,,http://example.org/study,,,
+                ,> Site,single,,VISIBLE,,A site,,,,http://example.org/site,,,
+                ,,single,,VISIBLE,Code,A code,,,,http://example.org/code,textfield,,
+                ,Sample,single,,VISIBLE,,A sample,,,,http://example.org/sample,,,
+                ,> Site,single,,VISIBLE,,A site,,,,http://example.org/site,,,
+                ,,single,,VISIBLE,Code,A code,,,,http://example.org/code,textfield,,
+                """;
+        // The first Site element is not posted, so its duplicate cannot be reused from the registry
+        failNextPostContaining = "A site";
+        run(csv, "--out", directory.resolve("out").toString(), "--generate-fields", "--generate-elements",
+            "--artifact-registry", directory.resolve("registry.json").toString(),
+            "--post-to-cedar", "--cedar-api-key", "key", "--folder-id", FOLDER_ID);
+        // Both Site elements, including the one that failed, and the Study and Sample elements
+        assertThat(postRequests()).filteredOn(request -> request.startsWith("POST /template-elements")).hasSize(4);
+        // The Sample element refers to the posted duplicate, rather than to its generated id
+        assertThat(postBodies).filteredOn(body -> body.contains("A sample") && !body.contains("Study Template"))
+                              .singleElement()
+                              .satisfies(body -> assertThat(body).contains("https://repo.metadatacenter.org/template-elements/minted-"));
+    }
+
+    @Test
+    void shouldOnlyReuseRegisteredArtifactsInSameFolder() throws IOException {
+        var registry = directory.resolve("registry.json").toString();
+        assertThat(run(CSV, "--out", directory.resolve("first").toString(), "--generate-fields", "--artifact-registry", registry,
+                       "--post-to-cedar", "--cedar-api-key", "key", "--folder-id", FOLDER_ID)).as(errors::toString).isZero();
+        assertThat(postRequests()).filteredOn(request -> request.startsWith("POST /template-fields")).hasSize(2);
+        assertThat(run(CSV, "--out", directory.resolve("second").toString(), "--generate-fields", "--artifact-registry", registry,
+                       "--post-to-cedar", "--cedar-api-key", "key", "--folder-id", FOLDER_ID)).as(errors::toString).isZero();
+        assertThat(postRequests()).as(errors::toString).filteredOn(request -> request.startsWith("POST /template-fields")).hasSize(2);
+        assertThat(run(CSV, "--out", directory.resolve("third").toString(), "--generate-fields", "--artifact-registry", registry,
+                       "--post-to-cedar", "--cedar-api-key", "key", "--folder-id", "folder-2")).as(errors::toString).isZero();
+        assertThat(postRequests()).filteredOn(request -> request.startsWith("POST /template-fields")).hasSize(4);
+    }
+
+    @Test
+    void shouldResumeSheetWithMissingPropertyIri() throws IOException {
+        // The Date field has no property IRI, so it is given a random fallback property IRI in the Study element
+        var csv = CSV.replace("http://example.org/date", "");
+        var out = directory.resolve("out").toString();
+        var exitCode = run(csv, "--out", out, "--generate-fields", "--generate-elements",
+                           "--post-to-cedar", "--cedar-api-key", "key", "--folder-id", FOLDER_ID);
+        assertThat(exitCode).isZero();
+        assertThat(postRequests()).hasSize(4);
+        var resumedExitCode = run(csv, "--out", out, "--generate-fields", "--generate-elements", "--resume",
+                                  "--post-to-cedar", "--cedar-api-key", "key", "--folder-id", FOLDER_ID);
+        assertThat(resumedExitCode).isZero();
+        // Everything was recorded in the journal by the first run
+        assertThat(postRequests()).hasSize(4);
+    }
+
+    @Test
+    void shouldOnlyRegenerateChangedArtifacts() throws IOException {
+        var out = directory.resolve("out").toString();
+        run(CSV, "--out", out, "--generate-fields", "--generate-elements", "--incremental");
+        assertThat(errors.toString(StandardCharsets.UTF_8)).contains("Skipped 0 unchanged artifacts");
+        errors.reset();
+        run(CSV, "--out", out, "--generate-fields", "--generate-elements", "--incremental");
+        assertThat(errors.toString(StandardCharsets.UTF_8)).contains("Skipped 4 unchanged artifacts");
+        errors.reset();
+        // The Name field, and the Study element and the template that contain it, are regenerated
+        run(CSV.replace("A name", "The name"), "--out", out, "--generate-fields", "--generate-elements", "--incremental");
+        assertThat(errors.toString(StandardCharsets.UTF_8)).contains("Skipped 1 unchanged artifacts");
+        assertThat(Files.readString(directory.resolve("out").resolve("name.json"))).contains("The name");
+    }
+
+    @Test
+    void shouldReportMarkdownRenderedForDocs() throws IOException {
+        // Both fields have the same example, so it is only rendered once
+        var csv = CSV.replace("A date,,,,", "A date,,,*Some* text,").replace("A name,,,,", "A name,,,*Some* text,");
+        var out = directory.resolve("out").toString();
+        assertThat(run(csv, "--out", out, "--generate-docs")).as(errors::toString).isZero();
+        assertThat(errors.toString(StandardCharsets.UTF_8)).contains("Rendered 2 Markdown examples (1 from cache)");
+    }
+
+    @Test
+    void shouldReferToFirstOccurrenceOfCollapsedDuplicates() throws IOException {
+        var out = directory.resolve("out");
+        var exitCode = run(DUPLICATES_CSV, "--out", out.toString(), "--generate-fields", "--generate-elements",
+                           "--collapse-duplicates");
+        assertThat(exitCode).isZero();
+        var writtenIds = new HashSet<String>();
+        for(var fileName : artifactFileNames(out)) {
+            writtenIds.add(objectMapper.readTree(out.resolve(fileName).toFile()).get("@id").asText());
+        }
+        // Three fields, two elements and the template
+        assertThat(writtenIds).hasSize(6);
+        var template = Files.readString(out.resolve("study-template.json"));
+        var embeddedIds = Pattern.compile("urn:uuid:[0-9a-f-]+").matcher(template)
+                                 .results()
+                                 .map(MatchResult::group)
+                                 .toList();
+        assertThat(embeddedIds).isNotEmpty();
+        assertThat(writtenIds).containsAll(embeddedIds);
+    }
+
+    @Test
+    void shouldLeaveExistingArchiveWhenRunFails() throws IOException {
+        var archive = directory.resolve("out.zip");
+        Files.writeString(archive, "previous");
+        // The Study element contains two fields called Name
+        var invalidCsv = CSV + ",,single,,VISIBLE,Name,Another name,,,,http://example.org/name,textfield,,\n";
+        var exitCode = run(invalidCsv, "--out-archive", archive.toString());
+        assertThat(exitCode).isEqualTo(1);
+        assertThat(Files.readString(archive)).isEqualTo("previous");
+        try (var files = Files.list(directory)) {
+            assertThat(files).noneMatch(file -> file.getFileName().toString().endsWith(".tmp"));
+        }
+    }
+
+    @Test
+    void shouldRegenerateArtifactsWhenInputChanges() throws Exception {
+        var input = directory.resolve("input.csv");
+        Files.writeString(input, CSV);
+        var out = directory.resolve("out");
+        var commandLine = new CommandLine(createCommand());
+        var watcher = new Thread(() -> commandLine.execute("--in", input.toString(),
+                                                           "--template-name", "Study Template",
+                                                           "--bioportal-api-key", "key",
+                                                           "--out", out.toString(), "--generate-fields",
+                                                           "--watch", "--watch-debounce", "50"));
+        watcher.start();
+        try {
+            await(() -> errors.toString(StandardCharsets.UTF_8).contains("Watching "));
+            var nameField = out.resolve("name.json");
+            assertThat(Files.readString(nameField)).contains("A name");
+
+            Files.writeString(input, CSV.replace("A name", "The name"));
+            await(() -> Files.readString(nameField).contains("The name"));
+
+            // An invalid sheet is reported and watching continues, so that the sheet can be fixed
+            Files.writeString(input, CSV + ",,single,,VISIBLE,Name,Another name,,,,http://example.org/name,textfield,,\n");
+            await(() -> errors.toString(StandardCharsets.UTF_8).contains("ERROR:"));
+            Files.writeString(input, CSV.replace("A name", "A fixed name"));
+            await(() -> Files.readString(nameField).contains("A fixed name"));
+        } finally {
+            watcher.interrupt();
+            watcher.join(10_000);
+        }
+        assertThat(watcher.isAlive()).isFalse();
+    }
+
+    @Test
+    void shouldNotWatchAndPostWithoutIncremental() throws IOException {
+        var out = directory.resolve("out").toString();
+        var exitCode = run(CSV, "--out", out, "--generate-fields", "--watch",
+                           "--post-to-cedar", "--cedar-api-key", "key", "--folder-id", FOLDER_ID);
+        assertThat(exitCode).isEqualTo(1);
+        assertThat(errors.toString(StandardCharsets.UTF_8)).contains("--incremental");
+        assertThat(postRequests()).isEmpty();
+    }
+
+    private int run(String csv, String... args) throws IOException {
+        var input = directory.resolve("input.csv");
+        Files.writeString(input, csv);
+        var arguments = new ArrayList<>(List.of("--in", input.toString(),
+                                                "--template-name", "Study Template",
+                                                "--bioportal-api-key", "key"));
+        arguments.addAll(List.of(args));
+        return new CommandLine(createCommand()).execute(arguments.toArray(String[]::new));
+    }
+
+    private Csv2ArtifactsCommand createCommand() throws IOException {
+        return createCommand(createPoster(baseUrl, sharedWebClients, jsonMapper, objectMapper),
+                             baseUrl, sharedWebClients, jsonMapper, objectMapper, directory.resolve("input-cache"));
+    }
+
+    static CedarArtifactPoster createPoster(String baseUrl,
+                                            SharedWebClients sharedWebClients,
+                                            JsonMapper jsonMapper,
+                                            ObjectMapper objectMapper) {
+        var retryPolicy = new PostRetryPolicy(2, Duration.ofMillis(10), Duration.ofMillis(50), 10, Duration.ofMillis(50));
+        return new CedarArtifactPoster(new CedarArtifactWriter(jsonMapper),
+                                       objectMapper,
+                                       new CedarWebClientFactory(baseUrl, sharedWebClients),
+                                       retryPolicy,
+                                       Clock.systemUTC());
+    }
+
+    /**
+     * Creates a command in the same way as the application context does
+     * @param baseUrl The base URL of CEDAR and BioPortal
+     */
+    static Csv2ArtifactsCommand createCommand(CedarArtifactPoster poster,
+                                              String baseUrl,
+                                              SharedWebClients sharedWebClients,
+                                              JsonMapper jsonMapper,
+                                              ObjectMapper objectMapper,
+                                              Path inputCacheDirectory) throws IOException {
+        var languageCodesCsv = new String(Csv2ArtifactsCommand_Test.class.getResourceAsStream("/lang-tags.csv").readAllBytes(),
+                                          StandardCharsets.UTF_8);
+        var languageCodes = new LanguageCodesParser().parse(languageCodesCsv);
+        var markdownRenderer = new MarkdownRenderer();
+        var codecs = new CedarCodecs(jsonMapper, false);
+        var cedarArtifactWriter = new CedarArtifactWriter(jsonMapper);
+        var templateInstanceGenerator = new TemplateInstanceGenerator();
+        var docsGenerator = new DocsGenerator(languageCodes,
+                                              new GetClassesRequest(new BioPortalWebClientFactory(baseUrl, sharedWebClients)),
+                                              templateInstanceGenerator,
+                                              codecs,
+                                              markdownRenderer);
+        var fieldRemover = new FieldRemover();
+        var stripInstance = new StripInstance(new ContextRemover(fieldRemover),
+                                              new ValueNodeCollapser(),
+                                              new TypeRemover(fieldRemover),
+                                              new OntologyEntityCollapser(),
+                                              new IdRemover(fieldRemover),
+                                              new EmptyNodeRemover());
+        return new Csv2ArtifactsCommand(poster,
+                                        new CedarCsvParserFactory(languageCodes),
+                                        new CliCedarArtifactWriter(cedarArtifactWriter),
+                                        docsGenerator,
+                                        templateInstanceGenerator,
+                                        stripInstance,
+                                        objectMapper,
+                                        codecs,
+                                        new HttpInputCache(inputCacheDirectory, objectMapper, sharedWebClients),
+                                        new ArtifactContentHasher(cedarArtifactWriter, jsonMapper),
+                                        new ArtifactRegistryStore(objectMapper),
+                                        sharedWebClients);
+    }
+
+    /**
+     * Waits for the specified condition to hold
+     */
+    private void await(Callable<Boolean> condition) throws Exception {
+        var deadline = System.nanoTime() + Duration.ofSeconds(30).toNanos();
+        while(!condition.call()) {
+            assertThat(System.nanoTime()).as(errors::toString).isLessThan(deadline);
+            Thread.sleep(20);
+        }
+    }
+
+    private List<String> postRequests() {
+        return requests.stream().filter(request -> request.startsWith("POST")).toList();
+    }
+
+    private static List<String> artifactFileNames(Path outputDirectory) throws IOException {
+        try (var paths = Files.list(outputDirectory)) {
+            return paths.map(path -> path.getFileName().toString())
+                        .filter(fileName -> fileName.endsWith(".json"))
+                        .sorted()
+                        .toList();
+        }
+    }
+}
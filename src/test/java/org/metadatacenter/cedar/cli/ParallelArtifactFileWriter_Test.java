@@ -0,0 +1,179 @@
+package org.metadatacenter.cedar.cli;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.metadatacenter.cedar.api.ArtifactStatus;
+import org.metadatacenter.cedar.api.CedarArtifact;
+import org.metadatacenter.cedar.api.CedarTemplate;
+import org.metadatacenter.cedar.csv.CedarCsvParser;
+import org.metadatacenter.cedar.csv.LanguageCodesParser;
+import org.metadatacenter.cedar.io.CedarArtifactWriter;
+import org.metadatacenter.cedar.io.OutputFormat;
+import org.metadatacenter.cedar.io.SerializedArtifactCache;
+
+import javax.annotation.Nullable;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Matthew Horridge
+ * Stanford Center for Biomedical Informatics Research
+ * 2026-10-17
+ */
+class ParallelArtifactFileWriter_Test {
+
+    private static final String JSON_SCHEMA_DESCRIPTION = "Generated by CSV2CEDAR.";
+
+    @TempDir
+    Path outputDirectory;
+
+    private CedarArtifactWriter cedarArtifactWriter;
+
+    private CliCedarArtifactWriter writer;
+
+    private CedarTemplate template;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        var jsonMapper = JsonMapper.builder()
+                                   .configure(JsonGenerator.Feature.IGNORE_UNKNOWN, true)
+                                   .addModule(new JavaTimeModule())
+                                   .configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false)
+                                   .disable(MapperFeature.USE_GETTERS_AS_SETTERS)
+                                   .build();
+        cedarArtifactWriter = new CedarArtifactWriter(jsonMapper);
+        writer = new CliCedarArtifactWriter(cedarArtifactWriter);
+        var languageCodesCsv = new String(getClass().getResourceAsStream("/lang-tags.csv").readAllBytes(),
+                                          StandardCharsets.UTF_8);
+        var parser = new CedarCsvParser(ArtifactStatus.DRAFT, "0.0.1", "",
+                                        new LanguageCodesParser().parse(languageCodesCsv));
+        // The parser prints the tree to stdout
+        var stdout = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            var rootNode = parser.parseNodes(getClass().getResourceAsStream("/streaming-golden.csv"));
+            template = parser.translateToTemplate(rootNode, "golden", "Golden");
+        } finally {
+            System.setOut(stdout);
+        }
+    }
+
+    @Test
+    void shouldWriteArtifactFileAndRemoveTemporaryFile() throws IOException {
+        var size = writer.writeCedarArtifact(template, outputDirectory, JSON_SCHEMA_DESCRIPTION,
+                                             OutputFormat.PRETTY_JSON, null);
+        var outputFile = outputDirectory.resolve(CliCedarArtifactWriter.getFileName(template));
+        assertThat(Files.readAllBytes(outputFile)).isEqualTo(writeToBytes(template));
+        assertThat(size).isEqualTo(Files.size(outputFile));
+        try (var files = Files.list(outputDirectory)) {
+            assertThat(files).containsExactly(outputFile);
+        }
+    }
+
+    @Test
+    void shouldReplaceExistingArtifactFile() throws IOException {
+        var outputFile = outputDirectory.resolve(CliCedarArtifactWriter.getFileName(template));
+        Files.writeString(outputFile, "A previous, longer, version of the artifact ".repeat(1000));
+        writer.writeCedarArtifact(template, outputDirectory, JSON_SCHEMA_DESCRIPTION, OutputFormat.PRETTY_JSON, null);
+        assertThat(Files.readAllBytes(outputFile)).isEqualTo(writeToBytes(template));
+    }
+
+    @Test
+    void shouldWriteAllArtifactsOnSeveralThreads() throws IOException {
+        var artifacts = new ArrayList<CedarArtifact>();
+        artifacts.addAll(template.getAllFields());
+        artifacts.addAll(template.getAllElements());
+        artifacts.add(template);
+        var log = new ByteArrayOutputStream();
+        try (var parallelWriter = new ParallelArtifactFileWriter(writer, outputDirectory, JSON_SCHEMA_DESCRIPTION,
+                                                                 OutputFormat.PRETTY_JSON,
+                                                                 new SerializedArtifactCache(), 3,
+                                                                 new PrintStream(log, true, StandardCharsets.UTF_8))) {
+            artifacts.forEach(parallelWriter::write);
+            parallelWriter.awaitPendingWrites();
+            assertThat(parallelWriter.getFailedFilesCount()).isZero();
+            assertThat(parallelWriter.getWrittenFilesCount()).isEqualTo(artifacts.size());
+        }
+        // Fields may share a file name, in which case the last one submitted is written last
+        for(var artifact : lastWithEachFileName(artifacts)) {
+            var outputFile = outputDirectory.resolve(CliCedarArtifactWriter.getFileName(artifact));
+            assertThat(Files.readAllBytes(outputFile)).isEqualTo(writeToBytes(artifact));
+        }
+        try (var files = Files.list(outputDirectory)) {
+            assertThat(files).noneMatch(file -> file.getFileName().toString().endsWith(".tmp"));
+        }
+        assertThat(log.toString(StandardCharsets.UTF_8)).startsWith("Wrote " + artifacts.size() + " artifact files");
+    }
+
+    @Test
+    void shouldCountFailedWritesAndContinueWithLaterWrites() throws IOException {
+        var failures = new AtomicInteger(1);
+        var failingWriter = new CliCedarArtifactWriter(cedarArtifactWriter) {
+            @Override
+            public long writeCedarArtifact(CedarArtifact cedarArtifact,
+                                           Path outputDirectory,
+                                           String jsonSchemaDescription,
+                                           OutputFormat outputFormat,
+                                           @Nullable SerializedArtifactCache cache) throws IOException {
+                if(failures.getAndDecrement() > 0) {
+                    throw new IllegalStateException("Serialization failed");
+                }
+                return super.writeCedarArtifact(cedarArtifact, outputDirectory, jsonSchemaDescription, outputFormat, cache);
+            }
+        };
+        var log = new ByteArrayOutputStream();
+        var parallelWriter = new ParallelArtifactFileWriter(failingWriter, outputDirectory, JSON_SCHEMA_DESCRIPTION,
+                                                            OutputFormat.PRETTY_JSON, null, 2,
+                                                            new PrintStream(log, true, StandardCharsets.UTF_8));
+        // The second write to the file is chained to the first, which fails
+        parallelWriter.write(template);
+        parallelWriter.write(template);
+        parallelWriter.close();
+        assertThat(parallelWriter.getFailedFilesCount()).isEqualTo(1);
+        assertThat(parallelWriter.getWrittenFilesCount()).isEqualTo(1);
+        var outputFile = outputDirectory.resolve(CliCedarArtifactWriter.getFileName(template));
+        assertThat(Files.readAllBytes(outputFile)).isEqualTo(writeToBytes(template));
+        assertThat(log.toString(StandardCharsets.UTF_8)).contains("Serialization failed")
+                                                        .contains("Could not write 1 artifact files");
+    }
+
+    private static List<CedarArtifact> lastWithEachFileName(List<CedarArtifact> artifacts) {
+        var result = new ArrayList<CedarArtifact>();
+        for(int i = 0; i < artifacts.size(); i++) {
+            var fileName = CliCedarArtifactWriter.getFileName(artifacts.get(i));
+            var last = true;
+            for(int j = i + 1; j < artifacts.size(); j++) {
+                if(CliCedarArtifactWriter.getFileName(artifacts.get(j)).equals(fileName)) {
+                    last = false;
+                }
+            }
+            if(last) {
+                result.add(artifacts.get(i));
+            }
+        }
+        return result;
+    }
+
+    private byte[] writeToBytes(CedarArtifact artifact) throws IOException {
+        var outputStream = new ByteArrayOutputStream();
+        cedarArtifactWriter.writeCedarArtifact(artifact, JSON_SCHEMA_DESCRIPTION, outputStream,
+                                               OutputFormat.PRETTY_JSON);
+        return outputStream.toByteArray();
+    }
+}
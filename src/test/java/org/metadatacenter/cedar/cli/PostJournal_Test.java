@@ -0,0 +1,91 @@
+package org.metadatacenter.cedar.cli;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.metadatacenter.cedar.api.CedarId;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Matthew Horridge
+ * Stanford Center for Biomedical Informatics Research
+ * 2026-10-17
+ */
+class PostJournal_Test {
+
+    private static final CedarId FOLDER_ID = CedarId.valueOf("https://repo.metadatacenter.org/folders/folder-1");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void shouldReplayEntriesInOrder() throws IOException {
+        var file = directory.resolve(PostJournal.FILE_NAME);
+        try (var journal = PostJournal.create(file, FOLDER_ID, objectMapper)) {
+            journal.append(new PostJournal.Entry("TemplateField:a", "https://repo.metadatacenter.org/template-fields/1", "TemplateField", "Date"));
+            journal.append(new PostJournal.Entry("TemplateField:a", "https://repo.metadatacenter.org/template-fields/2", "TemplateField", "Date"));
+            journal.append(new PostJournal.Entry("TemplateElement:b", "https://repo.metadatacenter.org/template-elements/3", "TemplateElement", "Study"));
+        }
+        assertThat(Files.readAllLines(file)).hasSize(4);
+        try (var journal = PostJournal.resume(file, FOLDER_ID, objectMapper)) {
+            assertThat(journal.getReplayedCount()).isEqualTo(3);
+            assertThat(journal.takeReplayedEntry("TemplateField:a")).map(PostJournal.Entry::id)
+                                                                    .contains("https://repo.metadatacenter.org/template-fields/1");
+            assertThat(journal.takeReplayedEntry("TemplateField:a")).map(PostJournal.Entry::id)
+                                                                    .contains("https://repo.metadatacenter.org/template-fields/2");
+            assertThat(journal.takeReplayedEntry("TemplateField:a")).isEmpty();
+            assertThat(journal.takeReplayedEntry("TemplateElement:c")).isEmpty();
+        }
+    }
+
+    @Test
+    void shouldDiscardIncompleteEntry() throws IOException {
+        var file = directory.resolve(PostJournal.FILE_NAME);
+        try (var journal = PostJournal.create(file, FOLDER_ID, objectMapper)) {
+            journal.append(new PostJournal.Entry("TemplateField:a", "https://repo.metadatacenter.org/template-fields/1", "TemplateField", "Date"));
+        }
+        // An entry that was being written when the run was interrupted
+        Files.writeString(file, "{\"key\": \"TemplateField:b\", \"id\": \"ht", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        try (var journal = PostJournal.resume(file, FOLDER_ID, objectMapper)) {
+            assertThat(journal.getReplayedCount()).isEqualTo(1);
+            journal.append(new PostJournal.Entry("TemplateField:b", "https://repo.metadatacenter.org/template-fields/2", "TemplateField", "Name"));
+        }
+        try (var journal = PostJournal.resume(file, FOLDER_ID, objectMapper)) {
+            assertThat(journal.getReplayedCount()).isEqualTo(2);
+            assertThat(journal.takeReplayedEntry("TemplateField:b")).map(PostJournal.Entry::id)
+                                                                    .contains("https://repo.metadatacenter.org/template-fields/2");
+        }
+    }
+
+    @Test
+    void shouldNotResumeJournalForAnotherFolder() throws IOException {
+        var file = directory.resolve(PostJournal.FILE_NAME);
+        PostJournal.create(file, FOLDER_ID, objectMapper).close();
+        var otherFolderId = CedarId.valueOf("https://repo.metadatacenter.org/folders/folder-2");
+        assertThatThrownBy(() -> PostJournal.resume(file, otherFolderId, objectMapper))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("folder-1");
+    }
+
+    @Test
+    void shouldStartNewJournalWhenNotResuming() throws IOException {
+        var file = directory.resolve(PostJournal.FILE_NAME);
+        try (var journal = PostJournal.create(file, FOLDER_ID, objectMapper)) {
+            journal.append(new PostJournal.Entry("TemplateField:a", "https://repo.metadatacenter.org/template-fields/1", "TemplateField", "Date"));
+        }
+        PostJournal.create(file, FOLDER_ID, objectMapper).close();
+        try (var journal = PostJournal.resume(file, FOLDER_ID, objectMapper)) {
+            assertThat(journal.getReplayedCount()).isZero();
+        }
+    }
+}
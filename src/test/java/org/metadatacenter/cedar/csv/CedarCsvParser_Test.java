@@ -0,0 +1,179 @@
+package org.metadatacenter.cedar.csv;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.metadatacenter.cedar.api.ArtifactStatus;
+import org.metadatacenter.cedar.api.CedarArtifactContainer;
+import org.metadatacenter.cedar.api.EmbeddedCedarArtifact;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CedarCsvParser_Test {
+
+    private static final String HEADER = "Section,Element,Cardinality,Required,Visibility,Field Title,Description,Derived,Default Value,Example,Property,Type,Controlled Terms,Lookup\n";
+
+    private static final String CSV = HEADER
+            + ",Study,single,,VISIBLE,,The study,,,,http://example.org/study,,,\n"
+            + ",,single,REQUIRED,VISIBLE,Study Name,The name,,,My Study,http://example.org/studyName,textfield,,\n"
+            + ",> Site,multiple,,VISIBLE,,A site,,,,http://example.org/site,,,\n"
+            + ",,single,,VISIBLE,Site Name,The site name,,,,http://example.org/siteName,textfield,,\n"
+            + ",Contact,single,,VISIBLE,,A contact,,,,http://example.org/contact,,,\n"
+            + ",,single,,VISIBLE,Email,The email,,,,http://example.org/email,email,,\n";
+
+    private CedarCsvParser parser;
+
+    @BeforeEach
+    void setUp() {
+        parser = new CedarCsvParser(ArtifactStatus.DRAFT, "0.0.1", "", List.of());
+    }
+
+    @Test
+    void shouldBuildNodeTreeFromRows() throws IOException {
+        var rootNode = parser.parseNodes(toInputStream(CSV));
+        var topLevel = rootNode.getChildNodes();
+        assertThat(topLevel).extracting(CedarCsvParser.Node::getSchemaName)
+                            .containsExactly("Study", "Contact");
+        var study = topLevel.get(0);
+        assertThat(study.getChildNodes()).extracting(CedarCsvParser.Node::getSchemaName)
+                                         .containsExactly("Study Name", "Site");
+        var site = study.getChildNodes().get(1);
+        assertThat(site.getChildNodes()).extracting(CedarCsvParser.Node::getSchemaName)
+                                        .containsExactly("Site Name");
+    }
+
+    @Test
+    void shouldNotifyListenerOfEachRowInOrder() throws IOException {
+        var indexes = new ArrayList<Long>();
+        var names = new ArrayList<String>();
+        parser.parseNodes(toInputStream(CSV), (rowIndex, row) -> {
+            indexes.add(rowIndex);
+            names.add(row.isElement() ? row.getStrippedElementName() : row.fieldTitle());
+        });
+        assertThat(indexes).containsExactly(0L, 1L, 2L, 3L, 4L, 5L);
+        assertThat(names).containsExactly("Study", "Study Name", "Site", "Site Name", "Contact", "Email");
+    }
+
+    @Test
+    void shouldIndexPathsAndSubtreeSizes() throws IOException {
+        var rootNode = parser.parseNodes(toInputStream(CSV));
+        var study = rootNode.getChildNodes().get(0);
+        var site = study.getChildNodes().get(1);
+        var siteName = site.getChildNodes().get(0);
+        assertThat(rootNode.getPath()).containsExactly(rootNode);
+        assertThat(siteName.getPath()).containsExactly(rootNode, study, site, siteName);
+        assertThat(siteName.getParentNode()).contains(site);
+        assertThat(rootNode.getSubtreeSize()).isEqualTo(7);
+        assertThat(site.getSubtreeSize()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldNotModifyIndexedTree() throws IOException {
+        var rootNode = parser.parseNodes(toInputStream(CSV));
+        assertThatThrownBy(() -> rootNode.getChildNodes().clear())
+                .isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> rootNode.addChild(new CedarCsvParser.Node(null)))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void shouldShareOneTraversalBetweenVisitors() throws IOException {
+        var rootNode = parser.parseNodes(toInputStream(CSV));
+        var entered = new ArrayList<String>();
+        CedarCsvNodeVisitor recordingVisitor = new CedarCsvNodeVisitor() {
+            @Override
+            public void enterNode(CedarCsvParser.Node node) {
+                entered.add(node.getSchemaName());
+            }
+        };
+        var countingVisitor = new CedarCsvNodeFolder<Integer, Integer>() {
+            @Override
+            protected Integer visitNode(CedarCsvParser.Node node, List<Integer> childResults) {
+                return 1 + childResults.stream().mapToInt(Integer::intValue).sum();
+            }
+
+            @Override
+            protected Integer visitTopNode(CedarCsvParser.Node node, List<Integer> childResults) {
+                return childResults.stream().mapToInt(Integer::intValue).sum();
+            }
+        };
+        rootNode.accept(List.of(recordingVisitor, countingVisitor));
+        assertThat(entered).containsExactly("", "Study", "Study Name", "Site", "Site Name", "Contact", "Email");
+        assertThat(countingVisitor.getResult()).isEqualTo(6);
+    }
+
+    @Test
+    void shouldNotProvideResultBeforeTraversal() {
+        var visitor = parser.createTemplateVisitor("id", "Name");
+        assertThatThrownBy(visitor::getResult).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void shouldShareIdenticalFieldValues() throws IOException {
+        var csv = HEADER
+                + ",,single,,VISIBLE,Study Name,The name,,,,http://example.org/studyName,textfield,,\n"
+                + ",,single,,VISIBLE,Site Name,The site name,,,,http://example.org/siteName,textfield,,\n";
+        var template = parser.translateToTemplate(parser.parseNodes(toInputStream(csv)), "id", "Name");
+        var fields = template.getAllFields();
+        assertThat(fields).hasSize(2);
+        assertThat(fields.get(0).valueConstraints()).isSameAs(fields.get(1).valueConstraints());
+        assertThat(fields.get(0).ui()).isSameAs(fields.get(1).ui());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 8, 1000})
+    void shouldTranslateTheSameInParallel(int sequentialThreshold) throws IOException {
+        var csv = new StringBuilder(HEADER);
+        for(int i = 0; i < 20; i++) {
+            csv.append(",Element ").append(i).append(",single,,VISIBLE,,An element,,,,http://example.org/element,,,\n");
+            for(int j = 0; j < 4; j++) {
+                csv.append(",,single,,VISIBLE,Field ").append(j).append(",A field,,,,http://example.org/field").append(j).append(",textfield,,\n");
+            }
+            csv.append(",> Nested ").append(i).append(",multiple,,VISIBLE,,A nested element,,,,http://example.org/nested,,,\n");
+            for(int j = 0; j < 3; j++) {
+                csv.append(",,single,,VISIBLE,Nested Field ").append(j).append(",A nested field,,,,http://example.org/nestedField").append(j).append(",textfield,,\n");
+            }
+        }
+        var rootNode = parser.parseNodes(toInputStream(csv.toString()));
+        assertThat(rootNode.getSubtreeSize()).isEqualTo(1 + 20 * 9);
+        var sequential = parser.translateToTemplate(rootNode, "id", "Name");
+        var pool = new ForkJoinPool(4);
+        try {
+            var parallel = parser.translateToTemplate(rootNode, "id", "Name", pool, sequentialThreshold);
+            assertThat(describe(parallel.nodes(), "")).isEqualTo(describe(sequential.nodes(), ""))
+                                                      .hasSize(20 * 9);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Describes the embedded artifacts, and the artifacts that they embed, in order.  Generated ids are left out
+     * because they differ from one translation to the next.
+     */
+    private static List<String> describe(List<EmbeddedCedarArtifact> nodes, String parentPath) {
+        var descriptions = new ArrayList<String>();
+        for(var node : nodes) {
+            var path = parentPath + "/" + node.getSchemaName();
+            descriptions.add(path + " " + node.artifact().getClass().getSimpleName() + " " + node.multiplicity()
+                                     + " " + node.propertyIri());
+            if(node.artifact() instanceof CedarArtifactContainer container) {
+                descriptions.addAll(describe(container.nodes(), path));
+            }
+        }
+        return descriptions;
+    }
+
+    private static ByteArrayInputStream toInputStream(String csv) {
+        return new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8));
+    }
+}
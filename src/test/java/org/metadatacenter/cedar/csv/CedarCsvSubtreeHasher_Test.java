@@ -0,0 +1,84 @@
+package org.metadatacenter.cedar.csv;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.metadatacenter.cedar.api.ArtifactStatus;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Matthew Horridge
+ * Stanford Center for Biomedical Informatics Research
+ * 2026-10-17
+ */
+class CedarCsvSubtreeHasher_Test {
+
+    private static final String CSV = """
+            Section,Element,Cardinality,Required,Visibility,Field Title,Description,Derived,Default Value,Example,Property,Type,Controlled Terms,Lookup
+            ,Study,single,,VISIBLE,,The study,,,,http://example.org/study,,,
+            ,,single,,VISIBLE,Study Name,The name,,,,http://example.org/studyName,textfield,,
+            ,> Site,multiple,,VISIBLE,,A site,,,,http://example.org/site,,,
+            ,,single,,VISIBLE,Site Name,The site name,,,,http://example.org/siteName,textfield,,
+            ,Contact,single,,VISIBLE,,A contact,,,,http://example.org/contact,,,
+            ,,single,,VISIBLE,Email,The email,,,,http://example.org/email,email,,
+            """;
+
+    private CedarCsvParser parser;
+
+    @BeforeEach
+    void setUp() {
+        parser = new CedarCsvParser(ArtifactStatus.DRAFT, "0.0.1", "", List.of());
+    }
+
+    @Test
+    void shouldHashTheSameFromOneParseToTheNext() throws IOException {
+        assertThat(hashesByPath(CSV)).isEqualTo(hashesByPath(CSV)).hasSize(7);
+    }
+
+    @Test
+    void shouldOnlyChangeHashesOfSubtreesThatContainChangedRow() throws IOException {
+        var hashes = hashesByPath(CSV);
+        var changedHashes = hashesByPath(CSV.replace("The site name", "The name of the site"));
+        var changedPaths = hashes.keySet()
+                                 .stream()
+                                 .filter(path -> !hashes.get(path).equals(changedHashes.get(path)))
+                                 .collect(Collectors.toSet());
+        assertThat(changedPaths).containsExactlyInAnyOrder("", "/Study", "/Study/Site", "/Study/Site/Site Name");
+    }
+
+    /**
+     * Gets the hash of each node, keyed by the path of schema names from the root node
+     */
+    private Map<String, String> hashesByPath(String csv) throws IOException {
+        // The parser prints the tree to stdout
+        var stdout = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            var rootNode = parser.parseNodes(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+            var hasher = new CedarCsvSubtreeHasher();
+            rootNode.accept(hasher);
+            var hashesByPath = new HashMap<String, String>();
+            hasher.getResult().forEach((node, hash) -> {
+                var path = node.getPath()
+                               .stream()
+                               .skip(1)
+                               .map(pathNode -> "/" + pathNode.getSchemaName())
+                               .collect(Collectors.joining());
+                hashesByPath.put(path, hash);
+            });
+            return hashesByPath;
+        } finally {
+            System.setOut(stdout);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package org.metadatacenter.cedar.csv;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.metadatacenter.cedar.api.ArtifactStatus;
+import org.metadatacenter.cedar.api.CedarArtifactContainer;
+import org.metadatacenter.cedar.api.EmbeddedCedarArtifact;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Matthew Horridge
+ * Stanford Center for Biomedical Informatics Research
+ * 2026-10-17
+ */
+class CedarTemplateSnapshot_Test {
+
+    private static final String CSV = """
+            Section,Element,Cardinality,Required,Visibility,Field Title,Description,Derived,Default Value,Example,Property,Type,Controlled Terms,Lookup
+            ,Study,single,,VISIBLE,,The study,,,,http://example.org/study,,,
+            ,,single,REQUIRED,VISIBLE,Study Name,The name,,,My Study,http://example.org/studyName,textfield,,
+            ,> Site,multiple,,VISIBLE,,A site,,,,http://example.org/site,,,
+            ,,single,,VISIBLE,Site Name,The site name,,,,http://example.org/siteName,textfield,,
+            ,Contact,single,,VISIBLE,,A contact,,,,http://example.org/contact,,,
+            ,,single,,VISIBLE,Email,The email,,,,http://example.org/email,email,,
+            """;
+
+    /**
+     * The offset of the format version, which follows the magic number
+     */
+    private static final int FORMAT_VERSION_OFFSET = 8;
+
+    @TempDir
+    Path directory;
+
+    private CedarCsvParser parser;
+
+    private CedarCsvParser.Node rootNode;
+
+    private Path snapshotFile;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        parser = new CedarCsvParser(ArtifactStatus.DRAFT, "0.0.1", "", List.of());
+        // The parser prints the tree to stdout
+        var stdout = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            rootNode = parser.parseNodes(new ByteArrayInputStream(CSV.getBytes(StandardCharsets.UTF_8)));
+        } finally {
+            System.setOut(stdout);
+        }
+        snapshotFile = directory.resolve("study" + CedarTemplateSnapshot.FILE_EXTENSION);
+        CedarTemplateSnapshot.write(rootNode, "study", "Study Template", snapshotFile);
+    }
+
+    @Test
+    void shouldTranslateReadSnapshotToTheSameTemplate() throws IOException {
+        var snapshot = CedarTemplateSnapshot.read(snapshotFile);
+        assertThat(snapshot.getTemplateIdentifier()).isEqualTo("study");
+        assertThat(snapshot.getTemplateName()).isEqualTo("Study Template");
+        assertThat(snapshot.getNodeCount()).isEqualTo(7);
+        var template = parser.translateToTemplate(rootNode, "study", "Study Template");
+        var snapshotTemplate = parser.translateToTemplate(snapshot.getRootNode(), "study", "Study Template");
+        assertThat(describe(snapshotTemplate.nodes(), "")).isEqualTo(describe(template.nodes(), ""))
+                                                          .hasSize(6);
+    }
+
+    @Test
+    void shouldRejectSnapshotWithCorruptPayload() throws IOException {
+        var bytes = Files.readAllBytes(snapshotFile);
+        bytes[bytes.length - 1] ^= 1;
+        Files.write(snapshotFile, bytes);
+        assertThatThrownBy(() -> CedarTemplateSnapshot.read(snapshotFile))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("checksum mismatch");
+    }
+
+    @Test
+    void shouldRejectSnapshotWithUnknownVersion() throws IOException {
+        var bytes = Files.readAllBytes(snapshotFile);
+        bytes[FORMAT_VERSION_OFFSET] = 0;
+        bytes[FORMAT_VERSION_OFFSET + 1] = (byte) (CedarTemplateSnapshot.FORMAT_VERSION + 1);
+        Files.write(snapshotFile, bytes);
+        assertThatThrownBy(() -> CedarTemplateSnapshot.read(snapshotFile))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("Unsupported template snapshot format version " + (CedarTemplateSnapshot.FORMAT_VERSION + 1));
+    }
+
+    /**
+     * Describes the embedded artifacts, and the artifacts that they embed, in order.  Generated ids are left out
+     * because they differ from one translation to the next.
+     */
+    private static List<String> describe(List<EmbeddedCedarArtifact> nodes, String parentPath) {
+        var descriptions = new ArrayList<String>();
+        for(var node : nodes) {
+            var path = parentPath + "/" + node.getSchemaName();
+            descriptions.add(path + " " + node.artifact().getClass().getSimpleName() + " " + node.multiplicity()
+                                     + " " + node.propertyIri() + " " + node.artifact().artifactInfo().schemaDescription());
+            if(node.artifact() instanceof CedarArtifactContainer container) {
+                descriptions.addAll(describe(container.nodes(), path));
+            }
+        }
+        return descriptions;
+    }
+}
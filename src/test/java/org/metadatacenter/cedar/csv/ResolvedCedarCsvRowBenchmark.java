@@ -0,0 +1,131 @@
+package org.metadatacenter.cedar.csv;
+
+import org.metadatacenter.cedar.api.ArtifactStatus;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Matthew Horridge
+ * Stanford Center for Biomedical Informatics Research
+ * 2026-10-17
+ * <p>
+ * Compares reading the derived values of rows (lookup spec, input type, cardinality etc.) from {@link CedarCsvRow},
+ * which matches the lookup and the other patterns on every call, with reading them from {@link ResolvedCedarCsvRow},
+ * which matches them once.  Each row is read several times, as it is by template translation, instance generation,
+ * context generation and documentation generation.  The cost of resolving the rows is included.  This is not a unit
+ * test.  Run the main method from the IDE, or with java on the test classpath.  The GC profiler reports the bytes
+ * allocated per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResolvedCedarCsvRowBenchmark {
+
+    private static final String HEADER = "Section,Element,Cardinality,Required,Visibility,Field Title,Description,Derived,Default Value,Example,Property,Type,Controlled Terms,Lookup\n";
+
+    private static final String[] FIELD_TYPES = {"textfield", "email", "integer", "date", "language", "textarea", "list"};
+
+    private static final int FIELDS_PER_ELEMENT = 20;
+
+    /**
+     * The number of times that the derived values of each row are read
+     */
+    private static final int READS_PER_ROW = 4;
+
+    @Param({"100", "20000"})
+    private int fieldCount;
+
+    private List<CedarCsvRow> rows;
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ResolvedCedarCsvRowBenchmark.class.getSimpleName())
+                                       .addProfiler(GCProfiler.class)
+                                       .build()).run();
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        var languageCodesCsv = new String(getClass().getResourceAsStream("/lang-tags.csv").readAllBytes(),
+                                          StandardCharsets.UTF_8);
+        var parser = new CedarCsvParser(ArtifactStatus.DRAFT, "0.0.1", "",
+                                        new LanguageCodesParser().parse(languageCodesCsv));
+        var csv = generateCsv(fieldCount).getBytes(StandardCharsets.UTF_8);
+        rows = new ArrayList<>();
+        // The parser prints the tree to stdout
+        var stdout = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            parser.parseNodes(new ByteArrayInputStream(csv), (rowIndex, row) -> rows.add(row));
+        } finally {
+            System.setOut(stdout);
+        }
+    }
+
+    @Benchmark
+    public void readRows(Blackhole blackhole) {
+        for(var row : rows) {
+            for(int i = 0; i < READS_PER_ROW; i++) {
+                blackhole.consume(row.getElementLevel());
+                blackhole.consume(row.isField());
+                blackhole.consume(row.getRequired());
+                blackhole.consume(row.getCardinality());
+                blackhole.consume(row.getDefaultValue());
+                blackhole.consume(row.getPropertyIri());
+                blackhole.consume(row.getLookupSpec());
+                blackhole.consume(row.getInputType());
+                blackhole.consume(row.getValueType());
+            }
+        }
+    }
+
+    @Benchmark
+    public void readResolvedRows(Blackhole blackhole) {
+        for(var row : rows) {
+            var resolvedRow = new ResolvedCedarCsvRow(row);
+            for(int i = 0; i < READS_PER_ROW; i++) {
+                blackhole.consume(resolvedRow.getElementLevel());
+                blackhole.consume(resolvedRow.isField());
+                blackhole.consume(resolvedRow.getRequired());
+                blackhole.consume(resolvedRow.getCardinality());
+                blackhole.consume(resolvedRow.getDefaultValue());
+                blackhole.consume(resolvedRow.getPropertyIri());
+                blackhole.consume(resolvedRow.getLookupSpec());
+                blackhole.consume(resolvedRow.getInputType());
+                blackhole.consume(resolvedRow.getValueType());
+            }
+        }
+    }
+
+    private static String generateCsv(int fieldCount) {
+        var sb = new StringBuilder(HEADER);
+        var field = 0;
+        for(int element = 0; field < fieldCount; element++) {
+            sb.append(",Element ").append(element).append(",multiple,,VISIBLE,,Element ").append(element)
+              .append(",,,,http://example.org/e").append(element).append(",,,\n");
+            for(int i = 0; i < FIELDS_PER_ELEMENT && field < fieldCount; i++, field++) {
+                var type = FIELD_TYPES[i % FIELD_TYPES.length];
+                var lookup = type.equals("list") ? "\"[Yes](http://example.org/yes)\n[No](http://example.org/no)\"" : "";
+                sb.append(",,single,REQUIRED,VISIBLE,Field ").append(field)
+                  .append(",A description,,,Example,http://example.org/f").append(field)
+                  .append(",").append(type).append(",,").append(lookup).append("\n");
+            }
+        }
+        return sb.toString();
+    }
+}
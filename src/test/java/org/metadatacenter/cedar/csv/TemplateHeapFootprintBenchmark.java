@@ -0,0 +1,87 @@
+package org.metadatacenter.cedar.csv;
+
+import org.metadatacenter.cedar.api.ArtifactStatus;
+import org.metadatacenter.cedar.api.CedarTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+
+/**
+ * Matthew Horridge
+ * Stanford Center for Biomedical Informatics Research
+ * 2026-10-17
+ * <p>
+ * Measures the heap footprint of a translated template with thousands of fields.  This is not a unit test.  Run it
+ * from the IDE, or with java on the test classpath, optionally passing the number of fields as the first argument.
+ * The retained heap is measured after a full GC with the parsed tree and the template reachable.
+ */
+public class TemplateHeapFootprintBenchmark {
+
+    private static final String HEADER = "Section,Element,Cardinality,Required,Visibility,Field Title,Description,Derived,Default Value,Example,Property,Type,Controlled Terms,Lookup\n";
+
+    private static final String[] FIELD_TYPES = {"textfield", "email", "integer", "date", "language", "textarea", "list"};
+
+    private static final int FIELDS_PER_ELEMENT = 20;
+
+    public static void main(String[] args) throws IOException {
+        var fieldCount = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        var csv = generateCsv(fieldCount);
+        var languageCodesCsv = new String(TemplateHeapFootprintBenchmark.class.getResourceAsStream("/lang-tags.csv")
+                                                                              .readAllBytes(), StandardCharsets.UTF_8);
+        var languageCodes = new LanguageCodesParser().parse(languageCodesCsv);
+        var parser = new CedarCsvParser(ArtifactStatus.DRAFT, "0.0.1", "", languageCodes);
+
+        // The parser prints the tree to stdout
+        var stdout = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        var retained = new ArrayList<CedarTemplate>();
+        long usedBefore;
+        long usedAfter;
+        try {
+            usedBefore = getUsedHeapAfterGc();
+            var rootNode = parser.parseNodes(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+            var usedAfterParse = getUsedHeapAfterGc();
+            retained.add(parser.translateToTemplate(rootNode, "benchmark", "Benchmark"));
+            usedAfter = getUsedHeapAfterGc();
+            System.setOut(stdout);
+            System.out.printf("Fields:                 %d%n", fieldCount);
+            System.out.printf("Parsed tree:            %,d bytes%n", usedAfterParse - usedBefore);
+            System.out.printf("Translated template:    %,d bytes%n", usedAfter - usedAfterParse);
+            System.out.printf("Total per field:        %,d bytes%n", (usedAfter - usedBefore) / fieldCount);
+        } finally {
+            System.setOut(stdout);
+        }
+        // Keep the template reachable until after the measurement
+        System.out.println("Templates retained:     " + retained.size());
+    }
+
+    private static long getUsedHeapAfterGc() {
+        var memoryBean = ManagementFactory.getMemoryMXBean();
+        for(int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memoryBean.getHeapMemoryUsage().getUsed();
+    }
+
+    private static String generateCsv(int fieldCount) {
+        var sb = new StringBuilder(HEADER);
+        var field = 0;
+        for(int element = 0; field < fieldCount; element++) {
+            sb.append(",Element ").append(element).append(",multiple,,VISIBLE,,Element ").append(element)
+              .append(",,,,http://example.org/e").append(element).append(",,,\n");
+            for(int i = 0; i < FIELDS_PER_ELEMENT && field < fieldCount; i++, field++) {
+                var type = FIELD_TYPES[i % FIELD_TYPES.length];
+                var lookup = type.equals("list") ? "\"[Yes](http://example.org/yes)\n[No](http://example.org/no)\"" : "";
+                sb.append(",,single,REQUIRED,VISIBLE,Field ").append(field)
+                  .append(",A description,,,Example,http://example.org/f").append(field)
+                  .append(",").append(type).append(",,").append(lookup).append("\n");
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,37 @@
+package org.metadatacenter.cedar.docs;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MarkdownRenderer_Test {
+
+    @Test
+    void shouldRenderHtml() {
+        var renderer = new MarkdownRenderer();
+        assertThat(renderer.toHtml("Some *text*")).isEqualTo("<p>Some <em>text</em></p>\n");
+    }
+
+    @Test
+    void shouldCountCacheHitsAndMisses() {
+        var renderer = new MarkdownRenderer();
+        renderer.toHtml("A");
+        renderer.toHtml("A");
+        renderer.toHtml("B");
+        assertThat(renderer.getHitCount()).isEqualTo(1);
+        assertThat(renderer.getMissCount()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedText() {
+        var renderer = new MarkdownRenderer(2);
+        renderer.toHtml("A");
+        renderer.toHtml("B");
+        renderer.toHtml("A");
+        renderer.toHtml("C");
+        renderer.toHtml("A");
+        renderer.toHtml("B");
+        assertThat(renderer.getHitCount()).isEqualTo(2);
+        assertThat(renderer.getMissCount()).isEqualTo(4);
+    }
+}
@@ -0,0 +1,134 @@
+package org.metadatacenter.cedar.io;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Matthew Horridge
+ * Stanford Center for Biomedical Informatics Research
+ * 2026-10-17
+ */
+class ArtifactArchiveWriter_Test {
+
+    @TempDir
+    Path directory;
+
+    @ParameterizedTest
+    @ValueSource(strings = {"out.zip", "out.tar.gz", "out.tgz"})
+    void shouldReadBackEntriesInOrder(String archiveFileName) throws IOException {
+        var archiveFile = directory.resolve(archiveFileName);
+        var longName = "fields/" + "a-very-long-field-name-".repeat(10) + ".json";
+        var largeContent = "{\"x\": 1}\n".repeat(10_000);
+        try (var writer = new ArtifactArchiveWriter(archiveFile, 9)) {
+            writer.writeEntry("field.json", "{}".getBytes(StandardCharsets.UTF_8));
+            writer.writeEntry(longName, largeContent.getBytes(StandardCharsets.UTF_8));
+            writer.writeEntry("examples/blank-élément.json", new byte[0]);
+            assertThat(Files.exists(archiveFile)).isFalse();
+        }
+        var entries = new LinkedHashMap<String, String>();
+        ArtifactArchiveReader.forEachEntry(archiveFile, (name, inputStream) -> {
+            entries.put(name, new String(inputStream.readAllBytes(), StandardCharsets.UTF_8));
+        });
+        assertThat(entries).containsExactly(
+                Map.entry("field.json", "{}"),
+                Map.entry(longName, largeContent),
+                Map.entry("examples/blank-élément.json", ""));
+        try (var files = Files.list(directory)) {
+            assertThat(files).containsExactly(archiveFile);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"out.zip", "out.tar.gz"})
+    void shouldSkipUnreadContent(String archiveFileName) throws IOException {
+        var archiveFile = directory.resolve(archiveFileName);
+        try (var writer = new ArtifactArchiveWriter(archiveFile, ArtifactArchiveWriter.DEFAULT_COMPRESSION_LEVEL)) {
+            writer.writeEntry("a.json", "A".repeat(1000).getBytes(StandardCharsets.UTF_8));
+            writer.writeEntry("b.json", "B".getBytes(StandardCharsets.UTF_8));
+        }
+        assertThat(ArtifactArchiveReader.getEntryNames(archiveFile)).containsExactly("a.json", "b.json");
+        assertThat(ArtifactArchiveReader.readEntry(archiveFile, name -> name.equals("b.json")))
+                .hasValueSatisfying(content -> assertThat(content).isEqualTo("B".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void shouldLeaveOutEntryWhoseContentCannotBeWritten() throws IOException {
+        var archiveFile = directory.resolve("out.tar.gz");
+        try (var writer = new ArtifactArchiveWriter(archiveFile, 1)) {
+            assertThatThrownBy(() -> writer.writeEntry("broken.json", outputStream -> {
+                outputStream.write('{');
+                throw new IOException("Failed");
+            })).isInstanceOf(IOException.class);
+            writer.writeEntry("broken.json", "{}".getBytes(StandardCharsets.UTF_8));
+        }
+        assertThat(ArtifactArchiveReader.getEntryNames(archiveFile)).containsExactly("broken.json");
+        assertThat(ArtifactArchiveReader.readEntry(archiveFile, name -> true)).hasValueSatisfying(
+                content -> assertThat(content).isEqualTo("{}".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void shouldLeaveExistingArchiveWhenAborted() throws IOException {
+        var archiveFile = directory.resolve("out.zip");
+        Files.writeString(archiveFile, "previous");
+        var writer = new ArtifactArchiveWriter(archiveFile, 1);
+        writer.writeEntry("a.json", "A".getBytes(StandardCharsets.UTF_8));
+        writer.abort();
+        writer.close();
+        assertThat(Files.readString(archiveFile)).isEqualTo("previous");
+        try (var files = Files.list(directory)) {
+            assertThat(files).containsExactly(archiveFile);
+        }
+    }
+
+    @Test
+    void shouldRejectDuplicateEntries() throws IOException {
+        try (var writer = new ArtifactArchiveWriter(directory.resolve("out.zip"), 1)) {
+            writer.writeEntry("a.json", new byte[0]);
+            assertThatThrownBy(() -> writer.writeEntry("a.json", new byte[0])).isInstanceOf(IOException.class);
+        }
+    }
+
+    @Test
+    void shouldWriteDirectory() throws IOException {
+        var sourceDirectory = Files.createDirectory(directory.resolve("source"));
+        Files.createDirectories(sourceDirectory.resolve("docs"));
+        Files.writeString(sourceDirectory.resolve("docs").resolve("docs.md"), "# Docs");
+        Files.writeString(sourceDirectory.resolve("template.cedarsnap"), "snapshot");
+        var archiveFile = directory.resolve("out.zip");
+        try (var writer = new ArtifactArchiveWriter(archiveFile, 1)) {
+            writer.writeDirectory(sourceDirectory);
+        }
+        assertThat(ArtifactArchiveReader.getEntryNames(archiveFile)).containsExactly("docs/docs.md",
+                                                                                    "template.cedarsnap");
+    }
+
+    @Test
+    void shouldRejectUnsupportedArchiveType() {
+        assertThatThrownBy(() -> new ArtifactArchiveWriter(directory.resolve("out.rar"), 1))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new ArtifactArchiveWriter(directory.resolve("out.zip"), 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldRejectEntryNamesOutsideArchive() throws IOException {
+        try (var writer = new ArtifactArchiveWriter(directory.resolve("out.zip"), 1)) {
+            assertThatThrownBy(() -> writer.writeEntry("../a.json", new byte[0]))
+                    .isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> writer.writeEntry("/a.json", new byte[0]))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+}
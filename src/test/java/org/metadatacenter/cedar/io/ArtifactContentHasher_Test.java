@@ -0,0 +1,150 @@
+package org.metadatacenter.cedar.io;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.metadatacenter.cedar.api.ArtifactStatus;
+import org.metadatacenter.cedar.api.CedarId;
+import org.metadatacenter.cedar.api.CedarTemplate;
+import org.metadatacenter.cedar.csv.CedarCsvParser;
+import org.metadatacenter.cedar.csv.LanguageCodesParser;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Matthew Horridge
+ * Stanford Center for Biomedical Informatics Research
+ * 2026-10-17
+ */
+class ArtifactContentHasher_Test {
+
+    private static final String CSV = """
+            Section,Element,Cardinality,Required,Visibility,Field Title,Description,Derived,Default Value,Example,Property,Type,Controlled Terms,Lookup
+            ,Study,single,,VISIBLE,,A study,,,,http://example.org/study,,,
+            ,,single,,VISIBLE,Date,A date,,,,http://example.org/date,date,,
+            ,,single,,VISIBLE,Name,A name,,,,http://example.org/name,textfield,,
+            ,Sample,single,,VISIBLE,,A study,,,,http://example.org/study,,,
+            ,,single,,VISIBLE,Date,A date,,,,http://example.org/date,date,,
+            ,,single,,VISIBLE,Name,Another name,,,,http://example.org/name,textfield,,
+            """;
+
+    private ArtifactContentHasher hasher;
+
+    private CedarTemplate template;
+
+    private CedarCsvParser parser;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        var jsonMapper = JsonMapper.builder()
+                                   .configure(JsonGenerator.Feature.IGNORE_UNKNOWN, true)
+                                   .addModule(new JavaTimeModule())
+                                   .configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false)
+                                   .disable(MapperFeature.USE_GETTERS_AS_SETTERS)
+                                   .build();
+        hasher = new ArtifactContentHasher(new CedarArtifactWriter(jsonMapper), jsonMapper);
+        var languageCodesCsv = new String(getClass().getResourceAsStream("/lang-tags.csv").readAllBytes(),
+                                          StandardCharsets.UTF_8);
+        parser = new CedarCsvParser(ArtifactStatus.DRAFT, "0.0.1", "",
+                                    new LanguageCodesParser().parse(languageCodesCsv));
+        template = parseTemplate();
+    }
+
+    private CedarTemplate parseTemplate() throws IOException {
+        return parseTemplate(CSV);
+    }
+
+    private CedarTemplate parseTemplate(String csv) throws IOException {
+        // The parser prints the tree to stdout, and warns about missing property IRIs on stderr
+        var stdout = System.out;
+        var stderr = System.err;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        System.setErr(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            var rootNode = parser.parseNodes(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+            return parser.translateToTemplate(rootNode, "hashing", "Hashing");
+        } finally {
+            System.setOut(stdout);
+            System.setErr(stderr);
+        }
+    }
+
+    @Test
+    void shouldHashIdenticalFieldsWithDifferentIdsTheSame() {
+        var fields = template.getAllFields();
+        var firstDate = fields.get(0);
+        var secondDate = fields.get(2);
+        assertThat(firstDate.id()).isNotEqualTo(secondDate.id());
+        assertThat(hasher.hash(firstDate)).isEqualTo(hasher.hash(secondDate));
+    }
+
+    @Test
+    void shouldHashFieldsWithDifferentContentDifferently() {
+        var fields = template.getAllFields();
+        var firstName = fields.get(1);
+        var secondName = fields.get(3);
+        assertThat(hasher.hash(firstName)).isNotEqualTo(hasher.hash(secondName));
+    }
+
+    @Test
+    void shouldHashElementsByTheIdsOfTheArtifactsThatTheyEmbed() {
+        var elements = template.getAllElements();
+        var study = elements.get(0);
+        var fields = template.getAllFields();
+        var sameContentStudy = study.withId(CedarId.valueOf("http://example.org/other"));
+        assertThat(hasher.hash(sameContentStudy)).isEqualTo(hasher.hash(study));
+
+        var replacedIds = new HashMap<CedarId, CedarId>();
+        replacedIds.put(fields.get(0).id(), CedarId.valueOf("https://repo.metadatacenter.org/template-fields/1"));
+        assertThat(hasher.hash(study.replaceIds(replacedIds))).isNotEqualTo(hasher.hash(study));
+    }
+
+    @Test
+    void shouldHashTheSameFromOneParseToTheNext() throws IOException {
+        // Generated ids differ between parses, so embedded artifacts are given the same CEDAR ids in both
+        var otherTemplate = parseTemplate();
+        var fields = template.getAllFields();
+        var otherFields = otherTemplate.getAllFields();
+        var replacedIds = new HashMap<CedarId, CedarId>();
+        for(int i = 0; i < fields.size(); i++) {
+            assertThat(hasher.hash(otherFields.get(i))).isEqualTo(hasher.hash(fields.get(i)));
+            var cedarId = CedarId.valueOf("https://repo.metadatacenter.org/template-fields/" + i);
+            replacedIds.put(fields.get(i).id(), cedarId);
+            replacedIds.put(otherFields.get(i).id(), cedarId);
+        }
+        var elements = template.getAllElements();
+        var otherElements = otherTemplate.getAllElements();
+        for(int i = 0; i < elements.size(); i++) {
+            var cedarId = CedarId.valueOf("https://repo.metadatacenter.org/template-elements/" + i);
+            replacedIds.put(elements.get(i).id(), cedarId);
+            replacedIds.put(otherElements.get(i).id(), cedarId);
+        }
+        assertThat(hasher.hash(otherTemplate.replaceIds(replacedIds)))
+                .isEqualTo(hasher.hash(template.replaceIds(replacedIds)));
+    }
+
+    @Test
+    void shouldHashTheSameWhenPropertyIriIsMissing() throws IOException {
+        var csv = """
+                Section,Element,Cardinality,Required,Visibility,Field Title,Description,Derived,Default Value,Example,Property,Type,Controlled Terms,Lookup
+                ,Study,single,,VISIBLE,,A study,,,,http://example.org/study,,,
+                ,,single,,VISIBLE,Date,A date,,,,,date,,
+                """;
+        var templateWithoutIri = parseTemplate(csv);
+        // The element is given a random fallback property IRI for the Date field each time it is written
+        var study = templateWithoutIri.getAllElements().get(0);
+        assertThat(hasher.hash(study)).isEqualTo(hasher.hash(study));
+        assertThat(hasher.hash(templateWithoutIri)).isEqualTo(hasher.hash(templateWithoutIri));
+    }
+}
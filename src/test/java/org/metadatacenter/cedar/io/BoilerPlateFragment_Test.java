@@ -0,0 +1,70 @@
+package org.metadatacenter.cedar.io;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Matthew Horridge
+ * Stanford Center for Biomedical Informatics Research
+ * 2026-10-17
+ */
+class BoilerPlateFragment_Test {
+
+    private static final Map<String, Object> VALUE = BoilerPlate.fromJsonObject("""
+                                                                                   {
+                                                                                     "type": "object",
+                                                                                     "properties": {
+                                                                                       "@value": {
+                                                                                         "type": ["string", "null"]
+                                                                                       }
+                                                                                     },
+                                                                                     "required": []
+                                                                                   }
+                                                                                   """);
+
+    private ObjectMapper objectMapper;
+
+    private BoilerPlateFragment fragment;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper();
+        fragment = new BoilerPlateFragment(objectMapper, VALUE);
+    }
+
+    @ParameterizedTest
+    @EnumSource(OutputFormat.class)
+    void shouldWriteSameBytesAsValueAtAnyNestingLevel(OutputFormat outputFormat) throws IOException {
+        var value = new LinkedHashMap<String, Object>();
+        value.put("a", VALUE);
+        value.put("b", List.of(Map.of("c", VALUE)));
+        var expected = new ByteArrayOutputStream();
+        outputFormat.writeValue(objectMapper, value, expected);
+
+        var actual = new ByteArrayOutputStream();
+        try (var generator = outputFormat.createGenerator(objectMapper, actual)) {
+            generator.writeStartObject();
+            generator.writeFieldName("a");
+            fragment.write(generator);
+            generator.writeFieldName("b");
+            generator.writeStartArray(value.get("b"), 1);
+            generator.writeStartObject();
+            generator.writeFieldName("c");
+            fragment.write(generator);
+            generator.writeEndObject();
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+        assertThat(actual.toByteArray()).isEqualTo(expected.toByteArray());
+    }
+}
@@ -0,0 +1,245 @@
+package org.metadatacenter.cedar.io;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.metadatacenter.cedar.api.ArtifactStatus;
+import org.metadatacenter.cedar.api.CedarId;
+import org.metadatacenter.cedar.api.CedarTemplateField;
+import org.metadatacenter.cedar.csv.CedarCsvParser;
+import org.metadatacenter.cedar.csv.LanguageCodesParser;
+import org.metadatacenter.cedar.webapi.CedarWebClientFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Matthew Horridge
+ * Stanford Center for Biomedical Informatics Research
+ * 2026-10-17
+ */
+class CedarArtifactPoster_Test {
+
+    private static final String CSV = """
+            Section,Element,Cardinality,Required,Visibility,Field Title,Description,Derived,Default Value,Example,Property,Type,Controlled Terms,Lookup
+            ,,single,,VISIBLE,Name,A name,,,,http://example.org/name,textfield,,
+            """;
+
+    private static final CedarId FOLDER_ID = CedarId.valueOf("https://repo.metadatacenter.org/folders/folder-1");
+
+    private static final CedarApiKey API_KEY = new CedarApiKey("key");
+
+    private HttpServer server;
+
+    private SharedWebClients sharedWebClients;
+
+    private CedarArtifactPoster poster;
+
+    private JsonMapper jsonMapper;
+
+    private ObjectMapper objectMapper;
+
+    private CedarWebClientFactory webClientFactory;
+
+    private CedarTemplateField field;
+
+    /**
+     * The responses to posts, in order.  Each is a status code and a body.  Posts that are made when this is empty are
+     * answered with a created artifact.
+     */
+    private final Queue<Response> postResponses = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The resources in the folder contents
+     */
+    private final List<String> folderResources = new CopyOnWriteArrayList<>();
+
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+
+    private PrintStream stderr;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            requests.add(exchange.getRequestMethod() + " " + exchange.getRequestURI().getRawPath());
+            exchange.getRequestBody().readAllBytes();
+            Response response;
+            if(exchange.getRequestMethod().equals("POST")) {
+                response = postResponses.poll();
+                if(response == null) {
+                    response = new Response(201, createdArtifact("created"), null);
+                }
+            }
+            else {
+                response = new Response(200, "{\"totalCount\": " + folderResources.size() + ", \"paging\": {}, \"resources\": ["
+                        + String.join(",", folderResources) + "]}", null);
+            }
+            if(response.retryAfter() != null) {
+                exchange.getResponseHeaders().add("Retry-After", response.retryAfter());
+            }
+            var body = response.body().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(response.status(), body.length);
+            try (var outputStream = exchange.getResponseBody()) {
+                outputStream.write(body);
+            }
+        });
+        server.start();
+        var baseUrl = "http://localhost:" + server.getAddress().getPort();
+        sharedWebClients = new SharedWebClients(4, 10, 30, 5000, 10, false, false);
+        jsonMapper = JsonMapper.builder()
+                                   .configure(JsonGenerator.Feature.IGNORE_UNKNOWN, true)
+                                   .addModule(new JavaTimeModule())
+                                   .configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false)
+                                   .disable(MapperFeature.USE_GETTERS_AS_SETTERS)
+                                   .build();
+        objectMapper = new ObjectMapper().registerModule(new JavaTimeModule())
+                                         .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        webClientFactory = new CedarWebClientFactory(baseUrl, sharedWebClients);
+        poster = createPoster(Clock.systemUTC());
+        var languageCodesCsv = new String(getClass().getResourceAsStream("/lang-tags.csv").readAllBytes(),
+                                          StandardCharsets.UTF_8);
+        var parser = new CedarCsvParser(ArtifactStatus.DRAFT, "0.0.1", "",
+                                        new LanguageCodesParser().parse(languageCodesCsv));
+        // The parser prints the tree to stdout, and the poster prints retries to stderr
+        var stdout = System.out;
+        stderr = System.err;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        System.setErr(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            var rootNode = parser.parseNodes(new ByteArrayInputStream(CSV.getBytes(StandardCharsets.UTF_8)));
+            field = parser.translateToTemplate(rootNode, "posting", "Posting").getAllFields().get(0).withId(null);
+        } finally {
+            System.setOut(stdout);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.setErr(stderr);
+        sharedWebClients.destroy();
+        server.stop(0);
+    }
+
+    @Test
+    void shouldRetryWhenServerIsOverloaded() throws IOException {
+        postResponses.add(new Response(429, "{}", "0"));
+        postResponses.add(new Response(503, "{}", null));
+        var response = post();
+        assertThat(response).map(r -> r.cedarId().value()).contains("https://repo.metadatacenter.org/template-fields/created");
+        assertThat(requests).hasSize(3).allMatch(request -> request.startsWith("POST /template-fields"));
+        assertThat(poster.getRetryCount()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldNotPostAgainIfArtifactWasCreated() throws IOException {
+        postResponses.add(new Response(504, "{}", null));
+        folderResources.add(createdArtifact("from-timed-out-post"));
+        var response = post();
+        assertThat(response).map(r -> r.cedarId().value())
+                            .contains("https://repo.metadatacenter.org/template-fields/from-timed-out-post");
+        assertThat(requests).hasSize(2);
+        assertThat(requests.get(1)).startsWith("GET /folders/");
+        assertThat(poster.getRecoveredCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldPostAgainIfArtifactWasNotCreated() throws IOException {
+        postResponses.add(new Response(502, "{}", null));
+        var response = post();
+        assertThat(response).isPresent();
+        assertThat(requests).hasSize(3);
+        assertThat(requests.get(1)).startsWith("GET /folders/");
+        assertThat(requests.get(2)).startsWith("POST /template-fields");
+        assertThat(poster.getRecoveredCount()).isZero();
+    }
+
+    @Test
+    void shouldNotRetryInvalidArtifact() throws IOException {
+        postResponses.add(new Response(400, "{\"errorKey\": \"invalid\", \"objects\": {\"validationReport\": {\"errors\": []}}}", null));
+        var response = post();
+        assertThat(response).isEmpty();
+        assertThat(requests).hasSize(1);
+        assertThat(poster.getRetryCount()).isZero();
+    }
+
+    @Test
+    void shouldGiveUpAfterMaxRetries() throws IOException {
+        for(int i = 0; i < 4; i++) {
+            postResponses.add(new Response(503, "{}", null));
+        }
+        var response = post();
+        assertThat(response).isEmpty();
+        assertThat(requests).hasSize(4);
+    }
+
+    @Test
+    void shouldGetRetryAfter() {
+        var headers = new HttpHeaders();
+        headers.add(HttpHeaders.RETRY_AFTER, "120");
+        var exception = WebClientResponseException.create(429, "Too Many Requests", headers, new byte[0], StandardCharsets.UTF_8);
+        assertThat(poster.getRetryAfter(exception)).isEqualTo(Duration.ofSeconds(120));
+
+        var dateHeaders = new HttpHeaders();
+        dateHeaders.add(HttpHeaders.RETRY_AFTER, "Wed, 21 Oct 2015 07:28:00 GMT");
+        var dateException = WebClientResponseException.create(503, "Service Unavailable", dateHeaders, new byte[0], StandardCharsets.UTF_8);
+        assertThat(poster.getRetryAfter(dateException)).isZero();
+
+        // The date is measured against the poster's clock
+        var fixedPoster = createPoster(Clock.fixed(Instant.parse("2015-10-21T07:26:30Z"), ZoneOffset.UTC));
+        assertThat(fixedPoster.getRetryAfter(dateException)).isEqualTo(Duration.ofSeconds(90));
+    }
+
+    private CedarArtifactPoster createPoster(Clock clock) {
+        var retryPolicy = new PostRetryPolicy(3, Duration.ofMillis(10), Duration.ofMillis(50), 10, Duration.ofMillis(50));
+        return new CedarArtifactPoster(new CedarArtifactWriter(jsonMapper),
+                                       objectMapper,
+                                       webClientFactory,
+                                       retryPolicy,
+                                       clock);
+    }
+
+    private Optional<PostedArtifactResponse> post() throws IOException {
+        return poster.postToCedar(field, FOLDER_ID, API_KEY, "Name", "");
+    }
+
+    private static String createdArtifact(String id) {
+        return """
+                {"resourceType": "field",
+                 "@id": "https://repo.metadatacenter.org/template-fields/%s",
+                 "schema:name": "Name",
+                 "pav:createdOn": "%s"}
+                """.formatted(id, Instant.now().truncatedTo(ChronoUnit.SECONDS));
+    }
+
+    private record Response(int status, String body, String retryAfter) {
+
+    }
+}
@@ -0,0 +1,159 @@
+package org.metadatacenter.cedar.io;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.metadatacenter.cedar.api.ArtifactStatus;
+import org.metadatacenter.cedar.api.CedarSchemaArtifact;
+import org.metadatacenter.cedar.api.CedarTemplate;
+import org.metadatacenter.cedar.api.CedarTemplateField;
+import org.metadatacenter.cedar.csv.CedarCsvParser;
+import org.metadatacenter.cedar.csv.LanguageCodesParser;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Matthew Horridge
+ * Stanford Center for Biomedical Informatics Research
+ * 2026-10-17
+ */
+class CedarArtifactReader_Test {
+
+    private static final String CSV = """
+            Section,Element,Cardinality,Required,Visibility,Field Title,Description,Derived,Default Value,Example,Property,Type,Controlled Terms,Lookup
+            ,Study,single,,VISIBLE,,A study,,,,http://example.org/study,,,
+            ,,single,,VISIBLE,Date,A date,,,,http://example.org/date,date,,
+            ,,single,,VISIBLE,Name,A name,,,,http://example.org/name,textfield,,
+            """;
+
+    @TempDir
+    Path directory;
+
+    private Path artifactsDirectory;
+
+    private CedarTemplate template;
+
+    private CedarArtifactReader reader;
+
+    private CedarArtifactWriter writer;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        var jsonMapper = JsonMapper.builder()
+                                   .configure(JsonGenerator.Feature.IGNORE_UNKNOWN, true)
+                                   .addModule(new JavaTimeModule())
+                                   .configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false)
+                                   .disable(MapperFeature.USE_GETTERS_AS_SETTERS)
+                                   .build();
+        // Configured like the Spring Boot mapper that the reader is given in the application
+        var objectMapper = new ObjectMapper().disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        reader = new CedarArtifactReader(new CedarCodecs(objectMapper, false));
+        var languageCodesCsv = new String(getClass().getResourceAsStream("/lang-tags.csv").readAllBytes(),
+                                          StandardCharsets.UTF_8);
+        var parser = new CedarCsvParser(ArtifactStatus.DRAFT, "0.0.1", "",
+                                        new LanguageCodesParser().parse(languageCodesCsv));
+        // The parser prints the tree to stdout
+        var stdout = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            var rootNode = parser.parseNodes(new ByteArrayInputStream(CSV.getBytes(StandardCharsets.UTF_8)));
+            template = parser.translateToTemplate(rootNode, "loading", "Loading");
+        } finally {
+            System.setOut(stdout);
+        }
+        artifactsDirectory = Files.createDirectory(directory.resolve("artifacts"));
+        writer = new CedarArtifactWriter(jsonMapper);
+        var artifacts = new ArrayList<CedarSchemaArtifact>(template.getAllFields());
+        artifacts.addAll(template.getAllElements());
+        artifacts.add(template);
+        for(int i = 0; i < artifacts.size(); i++) {
+            var subdirectory = Files.createDirectories(artifactsDirectory.resolve(i % 2 == 0 ? "even" : "odd"));
+            try (var outputStream = Files.newOutputStream(subdirectory.resolve("artifact-" + i + ".json"))) {
+                writer.writeCedarArtifact(artifacts.get(i), "", outputStream, OutputFormat.PRETTY_JSON);
+            }
+        }
+        // Large enough to be memory mapped
+        var notes = "x".repeat(2 * 1024 * 1024);
+        Files.writeString(artifactsDirectory.resolve("instance.json"),
+                          "{\"schema:isBasedOn\": \"http://example.org/template\", \"notes\": \"" + notes + "\"}");
+        Files.writeString(artifactsDirectory.resolve("other.json"), "{\"@type\": \"http://example.org/Other\"}");
+        Files.writeString(artifactsDirectory.resolve(".artifact-0.json.tmp.json"), "{");
+        Files.writeString(artifactsDirectory.resolve("README.md"), "# Artifacts");
+    }
+
+    @Test
+    void shouldLoadArtifactsInDirectory() throws IOException {
+        var loaded = new ArrayList<LoadedArtifact>();
+        var count = reader.loadArtifacts(artifactsDirectory, 3, loaded::add);
+        assertLoaded(count, loaded);
+        assertThat(loaded).extracting(LoadedArtifact::source)
+                          .contains(Path.of("even", "artifact-0.json").toString(), "instance.json");
+    }
+
+    @Test
+    void shouldLoadArtifactsInArchive() throws IOException {
+        var archiveFile = directory.resolve("artifacts.tar.gz");
+        try (var archiveWriter = new ArtifactArchiveWriter(archiveFile, 1)) {
+            archiveWriter.writeDirectory(artifactsDirectory);
+        }
+        var loaded = new ArrayList<LoadedArtifact>();
+        var count = reader.loadArtifacts(archiveFile, 2, loaded::add);
+        assertLoaded(count, loaded);
+        assertThat(loaded).extracting(LoadedArtifact::source).contains("even/artifact-0.json");
+    }
+
+    @Test
+    void shouldLoadArtifactsInBinaryFormats() throws IOException {
+        var binaryDirectory = Files.createDirectory(directory.resolve("binary"));
+        var fields = template.getAllFields();
+        for(int i = 0; i < fields.size(); i++) {
+            var format = i % 2 == 0 ? OutputFormat.SMILE : OutputFormat.CBOR;
+            var file = binaryDirectory.resolve("field-" + i + "." + format.getFileExtension());
+            try (var outputStream = Files.newOutputStream(file)) {
+                writer.writeCedarArtifact(fields.get(i), "", outputStream, format);
+            }
+        }
+        var loaded = new ArrayList<LoadedArtifact>();
+        var count = reader.loadArtifacts(binaryDirectory, 2, loaded::add);
+        assertThat(count).isEqualTo(fields.size());
+        assertThat(loaded).map(a -> a.getTemplateField().map(CedarTemplateField::id).orElseThrow())
+                          .containsExactlyInAnyOrderElementsOf(fields.stream().map(CedarTemplateField::id).toList());
+    }
+
+    private void assertLoaded(int count, List<LoadedArtifact> loaded) {
+        var fields = template.getAllFields();
+        assertThat(count).isEqualTo(loaded.size()).isEqualTo(fields.size() + template.getAllElements().size() + 2);
+        assertThat(loaded).filteredOn(a -> a.type() == LoadedArtifactType.TEMPLATE).hasSize(1);
+        assertThat(loaded).filteredOn(a -> a.type() == LoadedArtifactType.TEMPLATE_ELEMENT).hasSize(1);
+        assertThat(loaded).filteredOn(a -> a.type() == LoadedArtifactType.TEMPLATE_INSTANCE).hasSize(1);
+        assertThat(loaded).filteredOn(a -> a.type() == LoadedArtifactType.TEMPLATE_FIELD)
+                          .map(a -> a.getTemplateField().map(CedarTemplateField::id).orElseThrow())
+                          .containsExactlyInAnyOrderElementsOf(fields.stream().map(CedarTemplateField::id).toList());
+    }
+
+    @Test
+    void shouldReportFileThatCannotBeParsed() throws IOException {
+        Files.writeString(artifactsDirectory.resolve("broken.json"), "{\"@type\": ");
+        assertThatThrownBy(() -> reader.loadArtifacts(artifactsDirectory, 2, artifact -> {}))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("broken.json");
+    }
+}
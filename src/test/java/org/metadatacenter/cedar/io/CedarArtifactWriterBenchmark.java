@@ -0,0 +1,139 @@
+package org.metadatacenter.cedar.io;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.metadatacenter.cedar.api.ArtifactStatus;
+import org.metadatacenter.cedar.api.CedarTemplate;
+import org.metadatacenter.cedar.csv.CedarCsvParser;
+import org.metadatacenter.cedar.csv.LanguageCodesParser;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Matthew Horridge
+ * Stanford Center for Biomedical Informatics Research
+ * 2026-10-17
+ * <p>
+ * Compares writing a template by serializing the wrappers produced by {@link ArtifactToSerializableArtifactVisitor}
+ * with streaming it using {@link StreamingCedarArtifactSerializer}.  This is not a unit test.  Run the main method
+ * from the IDE, or with java on the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CedarArtifactWriterBenchmark {
+
+    private static final String HEADER = "Section,Element,Cardinality,Required,Visibility,Field Title,Description,Derived,Default Value,Example,Property,Type,Controlled Terms,Lookup\n";
+
+    private static final String[] FIELD_TYPES = {"textfield", "email", "integer", "date", "textarea", "list"};
+
+    private static final int FIELDS_PER_ELEMENT = 20;
+
+    private static final String JSON_SCHEMA_DESCRIPTION = "Generated by CSV2CEDAR.";
+
+    @Param({"100", "2000"})
+    private int fieldCount;
+
+    @Param({"PRETTY_JSON", "SMILE"})
+    private OutputFormat outputFormat;
+
+    private JsonMapper jsonMapper;
+
+    private CedarArtifactWriter writer;
+
+    private CedarTemplate template;
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(CedarArtifactWriterBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        jsonMapper = JsonMapper.builder()
+                               .configure(JsonGenerator.Feature.IGNORE_UNKNOWN, true)
+                               .addModule(new JavaTimeModule())
+                               .configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false)
+                               .disable(MapperFeature.USE_GETTERS_AS_SETTERS)
+                               .build();
+        writer = new CedarArtifactWriter(jsonMapper);
+        var languageCodesCsv = new String(getClass().getResourceAsStream("/lang-tags.csv").readAllBytes(),
+                                          StandardCharsets.UTF_8);
+        var parser = new CedarCsvParser(ArtifactStatus.DRAFT, "0.0.1", "",
+                                        new LanguageCodesParser().parse(languageCodesCsv));
+        // The parser prints the tree to stdout
+        var stdout = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            var csv = generateCsv(fieldCount).getBytes(StandardCharsets.UTF_8);
+            var rootNode = parser.parseNodes(new ByteArrayInputStream(csv));
+            template = parser.translateToTemplate(rootNode, "benchmark", "Benchmark");
+        } finally {
+            System.setOut(stdout);
+        }
+    }
+
+    @Benchmark
+    public long writeSerializableArtifacts() throws IOException {
+        var outputStream = new CountingOutputStream();
+        var serializableArtifact = template.accept(new ArtifactToSerializableArtifactVisitor(JSON_SCHEMA_DESCRIPTION));
+        outputFormat.writeValue(jsonMapper, serializableArtifact, outputStream);
+        return outputStream.count;
+    }
+
+    @Benchmark
+    public long writeStreamed() throws IOException {
+        var outputStream = new CountingOutputStream();
+        writer.writeCedarArtifact(template, JSON_SCHEMA_DESCRIPTION, outputStream, outputFormat);
+        return outputStream.count;
+    }
+
+    private static String generateCsv(int fieldCount) {
+        var sb = new StringBuilder(HEADER);
+        var field = 0;
+        for(int element = 0; field < fieldCount; element++) {
+            sb.append(",Element ").append(element).append(",multiple,,VISIBLE,,Element ").append(element)
+              .append(",,,,http://example.org/e").append(element).append(",,,\n");
+            for(int i = 0; i < FIELDS_PER_ELEMENT && field < fieldCount; i++, field++) {
+                var type = FIELD_TYPES[i % FIELD_TYPES.length];
+                var lookup = type.equals("list") ? "\"[Yes](http://example.org/yes)\n[No](http://example.org/no)\"" : "";
+                sb.append(",,single,,VISIBLE,Field ").append(field)
+                  .append(",Field ").append(field).append(",,,,http://example.org/f").append(field)
+                  .append(",").append(type).append(",,").append(lookup).append("\n");
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Discards the output, so that the benchmark measures serialization rather than IO
+     */
+    private static class CountingOutputStream extends OutputStream {
+
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package org.metadatacenter.cedar.io;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonView;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.metadatacenter.cedar.api.FragmentView;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Matthew Horridge
+ * Stanford Center for Biomedical Informatics Research
+ * 2026-10-17
+ */
+class CedarCodecs_Test {
+
+    private ObjectMapper objectMapper;
+
+    private CedarCodecs codecs;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper();
+        codecs = new CedarCodecs(objectMapper, true);
+    }
+
+    @Test
+    void shouldReuseReadersAndWriters() {
+        assertThat(codecs.readerFor(Sheet.class)).isSameAs(codecs.readerFor(Sheet.class));
+        assertThat(codecs.writerFor(Sheet.class, OutputFormat.PRETTY_JSON))
+                .isSameAs(codecs.writerFor(Sheet.class, OutputFormat.PRETTY_JSON))
+                .isNotSameAs(codecs.writerFor(Sheet.class, OutputFormat.COMPACT_JSON));
+        assertThat(codecs.writer(OutputFormat.SMILE)).isSameAs(codecs.writer(OutputFormat.COMPACT_JSON));
+    }
+
+    @Test
+    void shouldRoundTripRecords() throws IOException {
+        var sheet = new Sheet("a.csv", "out");
+        var json = codecs.writerFor(Sheet.class, OutputFormat.COMPACT_JSON).writeValueAsString(sheet);
+        assertThat(json).isEqualTo("{\"in\":\"a.csv\",\"out\":\"out\"}");
+        assertThat(codecs.readerFor(Sheet.class).<Sheet>readValue(json)).isEqualTo(sheet);
+    }
+
+    @Test
+    void shouldOnlyWriteFragmentViewProperties() throws IOException {
+        var json = codecs.fragmentWriter().writeValueAsString(new Sheet("a.csv", "out"));
+        var node = codecs.treeReader().readTree(json);
+        assertThat(node.has("in")).isTrue();
+        assertThat(node.has("out")).isFalse();
+        assertThat(objectMapper.writeValueAsString(new Sheet("a.csv", "out"))).contains("\"out\"");
+    }
+
+    @Test
+    void shouldReadAndWriteYaml() throws IOException {
+        var yaml = codecs.yamlWriter().writeValueAsString(List.of(new Sheet("a.csv", "out")));
+        assertThat(yaml).isEqualTo("- in: a.csv\n  out: out\n");
+        assertThat(codecs.yamlReaderFor(Sheet.class).<Sheet>readValue("in: b.csv\nout: x\n"))
+                .isEqualTo(new Sheet("b.csv", "x"));
+    }
+
+    @Test
+    void shouldNotRegisterBlackbirdUnlessRequested() {
+        assertThat(new CedarCodecs(objectMapper, false).isBlackbirdRegistered()).isFalse();
+        assertThat(codecs.isBlackbirdRegistered()).isEqualTo(isBlackbirdAvailable());
+    }
+
+    private static boolean isBlackbirdAvailable() {
+        try {
+            Class.forName(CedarCodecs.BLACKBIRD_MODULE_CLASS_NAME);
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    public record Sheet(@JsonView(FragmentView.class) @JsonProperty("in") String in,
+                        @JsonProperty("out") String out) {
+
+    }
+}
@@ -0,0 +1,147 @@
+package org.metadatacenter.cedar.io;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Matthew Horridge
+ * Stanford Center for Biomedical Informatics Research
+ * 2026-10-17
+ */
+class HttpInputCache_Test {
+
+    @TempDir
+    Path cacheDirectory;
+
+    private HttpServer server;
+
+    private URI uri;
+
+    private SharedWebClients sharedWebClients;
+
+    private HttpInputCache cache;
+
+    private volatile String content = "Section,Element\n";
+
+    private volatile String etag = "\"v1\"";
+
+    /**
+     * The If-None-Match header of each request that the server received, in order.  Requests without the header are
+     * recorded as an empty string.
+     */
+    private final List<String> ifNoneMatchHeaders = new CopyOnWriteArrayList<>();
+
+    private PrintStream stderr;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            var ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+            ifNoneMatchHeaders.add(ifNoneMatch != null ? ifNoneMatch : "");
+            exchange.getResponseHeaders().add("ETag", etag);
+            if(etag.equals(ifNoneMatch)) {
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+            var body = content.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "text/csv");
+            exchange.sendResponseHeaders(200, body.length);
+            try (var outputStream = exchange.getResponseBody()) {
+                outputStream.write(body);
+            }
+        });
+        server.createContext("/published", exchange -> {
+            exchange.getResponseHeaders().add("Location", "/sheet.csv");
+            exchange.sendResponseHeaders(302, -1);
+            exchange.close();
+        });
+        server.start();
+        uri = URI.create("http://localhost:" + server.getAddress().getPort() + "/sheet.csv");
+        sharedWebClients = new SharedWebClients(4, 10, 30, 5000, 10, false, false);
+        cache = new HttpInputCache(cacheDirectory, new ObjectMapper(), sharedWebClients);
+        // The cache reports how it got each copy to stderr
+        stderr = System.err;
+        System.setErr(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.setErr(stderr);
+        sharedWebClients.destroy();
+        server.stop(0);
+    }
+
+    @Test
+    void shouldReuseCachedCopyWhenNotModified() throws IOException {
+        var downloaded = cache.getLocalCopy(uri, cacheDirectory, false);
+        assertThat(Files.readString(downloaded)).isEqualTo(content);
+        var revalidated = cache.getLocalCopy(uri, cacheDirectory, false);
+        assertThat(revalidated).isEqualTo(downloaded);
+        assertThat(Files.readString(revalidated)).isEqualTo(content);
+        assertThat(ifNoneMatchHeaders).containsExactly("", "\"v1\"");
+    }
+
+    @Test
+    void shouldFollowRedirectsUsingSharedClient() throws IOException {
+        var published = URI.create("http://localhost:" + server.getAddress().getPort() + "/published");
+        var downloaded = cache.getLocalCopy(published, cacheDirectory, false);
+        assertThat(Files.readString(downloaded)).isEqualTo(content);
+        // The redirect and the download
+        assertThat(sharedWebClients.getRequestCount()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldDownloadAgainWhenModified() throws IOException {
+        cache.getLocalCopy(uri, cacheDirectory, false);
+        content = "Section,Element,Cardinality\n";
+        etag = "\"v2\"";
+        var downloaded = cache.getLocalCopy(uri, cacheDirectory, false);
+        assertThat(Files.readString(downloaded)).isEqualTo("Section,Element,Cardinality\n");
+        assertThat(ifNoneMatchHeaders).containsExactly("", "\"v1\"");
+    }
+
+    @Test
+    void shouldUseCachedCopyOfflineWithoutContactingServer() throws IOException {
+        cache.getLocalCopy(uri, cacheDirectory, false);
+        server.stop(0);
+        var cached = cache.getLocalCopy(uri, cacheDirectory, true);
+        assertThat(Files.readString(cached)).isEqualTo(content);
+        assertThat(ifNoneMatchHeaders).hasSize(1);
+    }
+
+    @Test
+    void shouldFailOfflineWithoutCachedCopy() {
+        assertThatThrownBy(() -> cache.getLocalCopy(uri, cacheDirectory, true))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("no cached copy");
+        assertThat(ifNoneMatchHeaders).isEmpty();
+    }
+
+    @Test
+    void shouldUseCachedCopyWhenServerCannotBeContacted() throws IOException {
+        cache.getLocalCopy(uri, cacheDirectory, false);
+        server.stop(0);
+        var cached = cache.getLocalCopy(uri, cacheDirectory, false);
+        assertThat(Files.readString(cached)).isEqualTo(content);
+    }
+}
@@ -0,0 +1,80 @@
+package org.metadatacenter.cedar.io;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Matthew Horridge
+ * Stanford Center for Biomedical Informatics Research
+ * 2026-10-17
+ */
+class PostCircuitBreaker_Test {
+
+    private final MutableClock clock = new MutableClock();
+
+    private final PostCircuitBreaker circuitBreaker = new PostCircuitBreaker(3, Duration.ofSeconds(30), clock);
+
+    @Test
+    void shouldOpenAfterConsecutiveFailures() {
+        assertThat(circuitBreaker.recordFailure(Duration.ZERO)).isFalse();
+        assertThat(circuitBreaker.recordFailure(Duration.ZERO)).isFalse();
+        assertThat(circuitBreaker.getRemainingPause()).isZero();
+        assertThat(circuitBreaker.recordFailure(Duration.ZERO)).isTrue();
+        assertThat(circuitBreaker.getRemainingPause()).isEqualTo(Duration.ofSeconds(30));
+
+        clock.advance(Duration.ofSeconds(30));
+        assertThat(circuitBreaker.getRemainingPause()).isZero();
+        // Still failing after the pause
+        assertThat(circuitBreaker.recordFailure(Duration.ZERO)).isTrue();
+        assertThat(circuitBreaker.getOpenCount()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldResetAfterSuccess() {
+        circuitBreaker.recordFailure(Duration.ZERO);
+        circuitBreaker.recordFailure(Duration.ZERO);
+        circuitBreaker.recordSuccess();
+        assertThat(circuitBreaker.recordFailure(Duration.ZERO)).isFalse();
+        assertThat(circuitBreaker.getRemainingPause()).isZero();
+    }
+
+    @Test
+    void shouldOpenForRetryAfter() {
+        assertThat(circuitBreaker.recordFailure(Duration.ofSeconds(90))).isTrue();
+        assertThat(circuitBreaker.getRemainingPause()).isEqualTo(Duration.ofSeconds(90));
+        // A shorter pause does not shorten the current one
+        assertThat(circuitBreaker.recordFailure(Duration.ofSeconds(5))).isFalse();
+        assertThat(circuitBreaker.getRemainingPause()).isEqualTo(Duration.ofSeconds(90));
+    }
+
+    private static class MutableClock extends Clock {
+
+        private Instant instant = Instant.parse("2026-10-17T00:00:00Z");
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
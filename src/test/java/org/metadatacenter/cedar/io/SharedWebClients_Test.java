@@ -0,0 +1,96 @@
+package org.metadatacenter.cedar.io;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Matthew Horridge
+ * Stanford Center for Biomedical Informatics Research
+ * 2026-10-17
+ */
+class SharedWebClients_Test {
+
+    private HttpServer server;
+
+    private String baseUrl;
+
+    private SharedWebClients sharedWebClients;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            var body = ("{\"path\": \"" + exchange.getRequestURI().getRawPath() + "\"}").getBytes(StandardCharsets.UTF_8);
+            var acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+            if(acceptEncoding != null && acceptEncoding.contains("gzip")) {
+                var compressed = new ByteArrayOutputStream();
+                try (var gzipOutputStream = new GZIPOutputStream(compressed)) {
+                    gzipOutputStream.write(body);
+                }
+                body = compressed.toByteArray();
+                exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            }
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (var outputStream = exchange.getResponseBody()) {
+                outputStream.write(body);
+            }
+        });
+        server.start();
+        baseUrl = "http://localhost:" + server.getAddress().getPort();
+        sharedWebClients = new SharedWebClients(4, 10, 30, 5000, 10, true, true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        sharedWebClients.destroy();
+        server.stop(0);
+    }
+
+    @Test
+    void shouldShareOneClientPerBaseUrl() {
+        assertThat(sharedWebClients.getWebClient(baseUrl)).isSameAs(sharedWebClients.getWebClient(baseUrl));
+        assertThat(sharedWebClients.getWebClient(baseUrl)).isNotSameAs(sharedWebClients.getWebClient("http://localhost:1"));
+    }
+
+    @Test
+    void shouldReuseConnectionsAndDecompressResponses() throws InterruptedException {
+        var webClient = sharedWebClients.getWebClient(baseUrl);
+        for(int i = 0; i < 5; i++) {
+            var body = webClient.get()
+                                .uri("/fields/a%2Fb")
+                                .retrieve()
+                                .bodyToMono(String.class)
+                                .block(Duration.ofSeconds(10));
+            assertThat(body).isEqualTo("{\"path\": \"/fields/a%2Fb\"}");
+            // A connection is released just after its response is received, so the next request would otherwise
+            // open another connection if it was sent before the release
+            awaitConnectionsReleased();
+        }
+        assertThat(sharedWebClients.getRequestCount()).isEqualTo(5);
+        assertThat(sharedWebClients.getConnectionCount()).isEqualTo(1L);
+        assertThat(sharedWebClients.getPoolStatistics()).singleElement().satisfies(stats -> {
+            assertThat(stats.peakAcquired()).isEqualTo(1);
+            assertThat(stats.allocated()).isEqualTo(sharedWebClients.getConnectionCount());
+        });
+    }
+
+    private void awaitConnectionsReleased() throws InterruptedException {
+        var deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while(sharedWebClients.getPoolStatistics().stream().anyMatch(stats -> stats.acquired() > 0)
+                && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package org.metadatacenter.cedar.io;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.metadatacenter.cedar.api.*;
+import org.metadatacenter.cedar.csv.CedarCsvParser;
+import org.metadatacenter.cedar.csv.LanguageCodesParser;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Matthew Horridge
+ * Stanford Center for Biomedical Informatics Research
+ * 2026-10-17
+ * <p>
+ * The legacy output depends on the order in which reflection returns methods and on the iteration order of maps
+ * created by Map.of, neither of which is fixed between JVMs.  The streamed output is therefore compared byte for byte
+ * with the legacy output produced in the same JVM, and as a JSON tree with the golden file.
+ */
+class StreamingCedarArtifactSerializer_Test {
+
+    private static final String JSON_SCHEMA_DESCRIPTION = "Generated by CSV2CEDAR.";
+
+    private static final Pattern GENERATED_UUID = Pattern.compile("[0-9a-f]{8}(-[0-9a-f]{4}){3}-[0-9a-f]{12}$");
+
+    private JsonMapper jsonMapper;
+
+    private CedarArtifactWriter writer;
+
+    private CedarTemplate template;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        jsonMapper = JsonMapper.builder()
+                               .configure(JsonGenerator.Feature.IGNORE_UNKNOWN, true)
+                               .addModule(new JavaTimeModule())
+                               .configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false)
+                               .disable(MapperFeature.USE_GETTERS_AS_SETTERS)
+                               .build();
+        writer = new CedarArtifactWriter(jsonMapper);
+        var languageCodesCsv = new String(getClass().getResourceAsStream("/lang-tags.csv").readAllBytes(),
+                                          StandardCharsets.UTF_8);
+        var parser = new CedarCsvParser(ArtifactStatus.DRAFT, "0.0.1", "",
+                                        new LanguageCodesParser().parse(languageCodesCsv));
+        // The parser prints the tree to stdout
+        var stdout = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            var rootNode = parser.parseNodes(getClass().getResourceAsStream("/streaming-golden.csv"));
+            template = parser.translateToTemplate(rootNode, "golden", "Golden");
+        } finally {
+            System.setOut(stdout);
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(OutputFormat.class)
+    void shouldWriteSameBytesAsSerializableArtifacts(OutputFormat outputFormat) throws IOException {
+        for(var artifact : getArtifacts()) {
+            assertThat(writeStreamed(artifact, outputFormat))
+                    .as(artifact.toCompactString())
+                    .isEqualTo(writeSerializable(artifact, outputFormat));
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(OutputFormat.class)
+    void shouldWriteSameBytesWithCachedEmbeddedArtifacts(OutputFormat outputFormat) throws IOException {
+        var cache = new SerializedArtifactCache();
+        // Written in the same order as csv2artifacts writes them, so that elements are cached before the template
+        var artifacts = new ArrayList<CedarSchemaArtifact>();
+        artifacts.addAll(template.getAllFields());
+        artifacts.addAll(template.getAllElements());
+        artifacts.add(template);
+        // Replacing ids that are not used keeps the embedded artifacts, so they are still found in the cache
+        artifacts.add(template.replaceIds(Map.of()));
+        for(var artifact : artifacts) {
+            var outputStream = new ByteArrayOutputStream();
+            writer.writeCedarArtifact(artifact, JSON_SCHEMA_DESCRIPTION, outputStream, outputFormat, cache);
+            assertThat(outputStream.toByteArray())
+                    .as(artifact.toCompactString())
+                    .isEqualTo(writeSerializable(artifact, outputFormat));
+        }
+        if(outputFormat.isBinary()) {
+            assertThat(cache.size()).isZero();
+        }
+        else {
+            assertThat(cache.size()).isPositive();
+        }
+    }
+
+    @Test
+    void shouldWriteSameBytesForVariantsNotProducedByParser() throws IOException {
+        var now = Instant.parse("2022-08-08T10:11:12.123Z");
+        var field = template.getAllFields().get(0);
+        var fieldWithoutId = new CedarTemplateField(null,
+                                                    field.artifactInfo(),
+                                                    new VersionInfo("", ArtifactStatus.PUBLISHED, "0.0.1"),
+                                                    new ModificationInfo(now, "http://example.org/user", now, null),
+                                                    field.valueConstraints(),
+                                                    field.ui(),
+                                                    field.supplementaryInfo());
+        var element = template.getAllElements().get(0);
+        var nodes = new ArrayList<>(element.nodes());
+        nodes.add(new EmbeddedCedarArtifact(fieldWithoutId,
+                                            new Multiplicity(1, 5),
+                                            Visibility.HIDDEN,
+                                            Iri.valueOf("http://example.org/a")));
+        nodes.add(new EmbeddedCedarArtifact(element,
+                                            new Multiplicity(2, 1),
+                                            Visibility.VISIBLE,
+                                            Iri.valueOf("http://example.org/b")));
+        var elementWithoutId = new CedarTemplateElement(null,
+                                                        null,
+                                                        element.artifactInfo(),
+                                                        element.versionInfo(),
+                                                        element.modificationInfo(),
+                                                        nodes,
+                                                        element.supplementaryInfo());
+        var artifacts = List.<CedarSchemaArtifact>of(fieldWithoutId, elementWithoutId);
+        for(var artifact : artifacts) {
+            assertThat(writeStreamed(artifact, OutputFormat.PRETTY_JSON))
+                    .as(artifact.toCompactString())
+                    .isEqualTo(writeSerializable(artifact, OutputFormat.PRETTY_JSON));
+        }
+    }
+
+    @Test
+    void shouldMatchGoldenFile() throws IOException {
+        var golden = jsonMapper.readTree(getClass().getResourceAsStream("/streaming-golden-template.json"));
+        var streamed = jsonMapper.readTree(writeStreamed(template, OutputFormat.PRETTY_JSON));
+        assertThat(withoutGeneratedIds(streamed)).isEqualTo(golden);
+    }
+
+    private List<CedarSchemaArtifact> getArtifacts() {
+        var artifacts = new ArrayList<CedarSchemaArtifact>();
+        artifacts.add(template);
+        artifacts.addAll(template.getAllElements());
+        artifacts.addAll(template.getAllFields());
+        return artifacts;
+    }
+
+    private byte[] writeStreamed(CedarSchemaArtifact artifact, OutputFormat outputFormat) throws IOException {
+        var outputStream = new ByteArrayOutputStream();
+        writer.writeCedarArtifact(artifact, JSON_SCHEMA_DESCRIPTION, outputStream, outputFormat);
+        return outputStream.toByteArray();
+    }
+
+    private byte[] writeSerializable(CedarSchemaArtifact artifact, OutputFormat outputFormat) throws IOException {
+        var outputStream = new ByteArrayOutputStream();
+        var serializableArtifact = artifact.accept(new ArtifactToSerializableArtifactVisitor(JSON_SCHEMA_DESCRIPTION));
+        outputFormat.writeValue(jsonMapper, serializableArtifact, outputStream);
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * Removes the random UUIDs, which differ from run to run, from generated identifiers
+     */
+    private static JsonNode withoutGeneratedIds(JsonNode node) {
+        if(node instanceof ObjectNode objectNode) {
+            var id = objectNode.get("@id");
+            if(id != null && id.isTextual()) {
+                objectNode.put("@id", GENERATED_UUID.matcher(id.asText()).replaceFirst(""));
+            }
+        }
+        node.forEach(StreamingCedarArtifactSerializer_Test::withoutGeneratedIds);
+        return node;
+    }
+}